@@ -0,0 +1,92 @@
+package kfuzzy.bench;
+
+import java.util.Random;
+
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.algo.KMeansPlusPlus;
+import kfuzzy.algo.ParallelEngine;
+import kfuzzy.math.DenseDataset;
+
+
+/**
+ * MiniBatchBenchmark compares mini-batch mode of the KFuzzy
+ * algorithm with full-batch mode: for several batch sizes it prints
+ * time, number of iterations and final value of the objective
+ * function relative to the full-batch result. Both modes start from
+ * the same k-means++ centers.
+ *
+ * Usage: MiniBatchBenchmark [numObjects [numDimensions [numClusters [numIterations [numThreads]]]]]
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0609
+ * @since 1.7
+ */
+public class MiniBatchBenchmark {
+    /**
+     * Seed of the k-means++ seeding
+     */
+    public final static long SEED = 2011;
+    /**
+     * Tolerance of the center shift criterion
+     */
+    public final static double TOLERANCE = 1e-4;
+
+    private static int getArgument(String[] args, int index, int defaultValue) {
+	return index < args.length ? Integer.parseInt(args[index]) : defaultValue;
+    }
+    /**
+     * Generates numClusters gaussian groups of points.
+     */
+    private static DenseDataset createDataset(int numObjects, int numDimensions, int numClusters) {
+	Random random = new Random(2011);
+	double[][] means = new double[numClusters][numDimensions];
+	for (int i = 0; i < numClusters; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		means[i][j] = 10.0 * random.nextDouble();
+
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i) {
+	    double[] mean = means[random.nextInt(numClusters)];
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, mean[j] + random.nextGaussian());
+	}
+	return dataset;
+    }
+
+    public static void main(String[] args) {
+	int numObjects = getArgument(args, 0, 200000);
+	int numDimensions = getArgument(args, 1, 8);
+	int numClusters = getArgument(args, 2, 16);
+	int numIterations = getArgument(args, 3, 300);
+	int numThreads = getArgument(args, 4, Runtime.getRuntime().availableProcessors());
+
+	DenseDataset dataset = createDataset(numObjects, numDimensions, numClusters);
+	System.out.printf("objects: %d, dimensions: %d, clusters: %d, max iterations: %d, threads: %d\n", numObjects, numDimensions,
+			  numClusters, numIterations, numThreads);
+
+	ParallelEngine engine = new ParallelEngine(numThreads);
+	try {
+	    KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm(new KMeansPlusPlus(SEED, numThreads), engine);
+
+	    long start = System.nanoTime();
+	    KFuzzyAlgorithm.Result full = algorithm.clusterizeDetailed(dataset, numClusters, new KFuzzyAlgorithm.Options(2.0, numIterations, TOLERANCE));
+	    double fullTime = (System.nanoTime() - start) / 1e6;
+
+	    System.out.printf("%-10s %10s %12s %16s %10s\n", "batch", "iterations", "time (ms)", "objective", "rel. diff");
+	    System.out.printf("%-10s %10d %12.1f %16.6g %10.2e\n", "full", full.numIterations, fullTime, full.objective, 0.0);
+
+	    for (int batchSize = 256; batchSize < numObjects; batchSize *= 4) {
+		KFuzzyAlgorithm.MiniBatchOptions miniBatch = new KFuzzyAlgorithm.MiniBatchOptions(batchSize, 2, SEED);
+		KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, numIterations, TOLERANCE,
+									      KFuzzyAlgorithm.ConvergenceCriterion.CENTER_SHIFT, miniBatch);
+		start = System.nanoTime();
+		KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(dataset, numClusters, options);
+		double time = (System.nanoTime() - start) / 1e6;
+		System.out.printf("%-10d %10d %12.1f %16.6g %10.2e\n", batchSize, result.numIterations, time, result.objective,
+				  (result.objective - full.objective) / full.objective);
+	    }
+	} finally {
+	    engine.shutdown();
+	}
+    }
+}
@@ -0,0 +1,115 @@
+package kfuzzy.bench;
+
+import java.util.Random;
+
+import kfuzzy.algo.ClusterCentersInterface;
+import kfuzzy.algo.ClusterizationEngineInterface;
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.algo.ParallelEngine;
+import kfuzzy.algo.SerialEngine;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Vector;
+
+
+/**
+ * ParallelScalingBenchmark measures time of a fixed number of
+ * iterations of the KFuzzy algorithm performed by SerialEngine and
+ * by ParallelEngine with 1, 2, 4, ... worker threads, and prints
+ * speedup relative to the serial engine.
+ *
+ * Usage: ParallelScalingBenchmark [numObjects [numDimensions [numClusters [numIterations [maxThreads]]]]]
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0520
+ * @since 1.7
+ */
+public class ParallelScalingBenchmark {
+    /**
+     * Number of runs that are performed before measurements
+     */
+    public final static int NUM_WARMUP_RUNS = 2;
+    /**
+     * Number of measured runs, the best time is reported
+     */
+    public final static int NUM_RUNS = 3;
+
+    /**
+     * Takes first vectors as cluster centers, so seeding doesn't
+     * affect measurements
+     */
+    private final static ClusterCentersInterface FIRST_VECTORS = new ClusterCentersInterface() {
+	    public Vector[] findClusterCenters(Vector[] vectors, int m) {
+		Vector[] result = new Vector[m];
+		System.arraycopy(vectors, 0, result, 0, m);
+		return result;
+	    }
+	};
+
+    private static int getArgument(String[] args, int index, int defaultValue) {
+	return index < args.length ? Integer.parseInt(args[index]) : defaultValue;
+    }
+    /**
+     * Generates numClusters gaussian groups of points.
+     */
+    private static DenseDataset createDataset(int numObjects, int numDimensions, int numClusters) {
+	Random random = new Random(2011);
+	double[][] means = new double[numClusters][numDimensions];
+	for (int i = 0; i < numClusters; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		means[i][j] = 10.0 * random.nextDouble();
+
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i) {
+	    double[] mean = means[random.nextInt(numClusters)];
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, mean[j] + random.nextGaussian());
+	}
+	return dataset;
+    }
+    /**
+     * Returns the best time of several runs in milliseconds.
+     */
+    private static double measure(ClusterizationEngineInterface engine, DenseDataset dataset, int numClusters, int numIterations) {
+	// zero tolerance and exact maximum number of iterations make all runs equal
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, numIterations, 0.0);
+	KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm(FIRST_VECTORS, engine);
+
+	for (int i = 0; i < NUM_WARMUP_RUNS; ++i)
+	    algorithm.clusterizeDetailed(dataset, numClusters, options);
+
+	double best = Double.POSITIVE_INFINITY;
+	for (int i = 0; i < NUM_RUNS; ++i) {
+	    long start = System.nanoTime();
+	    algorithm.clusterizeDetailed(dataset, numClusters, options);
+	    best = Math.min(best, (System.nanoTime() - start) / 1e6);
+	}
+	return best;
+    }
+
+    public static void main(String[] args) {
+	int numObjects = getArgument(args, 0, 200000);
+	int numDimensions = getArgument(args, 1, 8);
+	int numClusters = getArgument(args, 2, 16);
+	int numIterations = getArgument(args, 3, 10);
+	int maxThreads = getArgument(args, 4, Runtime.getRuntime().availableProcessors());
+
+	DenseDataset dataset = createDataset(numObjects, numDimensions, numClusters);
+	System.out.printf("objects: %d, dimensions: %d, clusters: %d, iterations: %d\n", numObjects, numDimensions, numClusters, numIterations);
+
+	double serial = measure(new SerialEngine(), dataset, numClusters, numIterations);
+	System.out.printf("%-10s %8s %12s %8s\n", "engine", "threads", "time (ms)", "speedup");
+	System.out.printf("%-10s %8d %12.1f %8.2f\n", "serial", 1, serial, 1.0);
+
+	for (int numThreads = 1; ; numThreads = Math.min(2 * numThreads, maxThreads)) {
+	    ParallelEngine engine = new ParallelEngine(numThreads);
+	    try {
+		double time = measure(engine, dataset, numClusters, numIterations);
+		System.out.printf("%-10s %8d %12.1f %8.2f\n", "parallel", numThreads, time, serial / time);
+	    } finally {
+		engine.shutdown();
+	    }
+	    if (numThreads == maxThreads)
+		break;
+	}
+    }
+}
@@ -0,0 +1,137 @@
+package kfuzzy.bench;
+
+import java.util.Random;
+
+import kfuzzy.algo.ClusterCentersInterface;
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.algo.KMeansPlusPlus;
+import kfuzzy.algo.ParallelEngine;
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Precision;
+import kfuzzy.math.Vector;
+
+
+/**
+ * PrecisionBenchmark compares storage precisions of datasets: for
+ * each precision it prints memory taken by components, time of the
+ * KFuzzy algorithm, final value of the objective function relative
+ * to the double result and fraction of objects, which are assigned
+ * to other clusters, after clusters are matched by majority. All
+ * runs start from the same k-means++ centers of the double dataset
+ * and perform the same number of iterations. Calls of dataset
+ * kernels become polymorphic once several precisions are used, so
+ * precisions should be compared in separate runs of the benchmark,
+ * the double result is computed for reference in any case.
+ *
+ * Usage: PrecisionBenchmark [numObjects [numDimensions [numClusters [numIterations [numThreads [precision]]]]]]
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class PrecisionBenchmark {
+    /**
+     * Seed of the k-means++ seeding
+     */
+    public final static long SEED = 2011;
+    /**
+     * Blending, with smaller blending clusters are crisper and
+     * assignments are more sensitive to errors of components
+     */
+    public final static double BLENDING = 1.2;
+    /**
+     * Number of runs per precision, the best time is reported
+     */
+    public final static int NUM_RUNS = 3;
+
+    private static int getArgument(String[] args, int index, int defaultValue) {
+	return index < args.length ? Integer.parseInt(args[index]) : defaultValue;
+    }
+    /**
+     * Counts objects, which are assigned to other clusters. Each
+     * cluster of the assignment is matched to the reference cluster,
+     * with which it shares most objects.
+     */
+    private static int countReassigned(int numClusters, int[] reference, int[] assignment) {
+	int[][] counts = new int[numClusters][numClusters];
+	for (int i = 0; i < reference.length; ++i)
+	    ++counts[assignment[i]][reference[i]];
+	int reassigned = reference.length;
+	for (int i = 0; i < numClusters; ++i) {
+	    int shared = 0;
+	    for (int j = 0; j < numClusters; ++j)
+		shared = Math.max(shared, counts[i][j]);
+	    reassigned -= shared;
+	}
+	return reassigned;
+    }
+    /**
+     * Generates numClusters gaussian groups of points.
+     */
+    private static DenseDataset createDataset(int numObjects, int numDimensions, int numClusters) {
+	Random random = new Random(2011);
+	double[][] means = new double[numClusters][numDimensions];
+	for (int i = 0; i < numClusters; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		means[i][j] = 10.0 * random.nextDouble();
+
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i) {
+	    double[] mean = means[random.nextInt(numClusters)];
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, mean[j] + random.nextGaussian());
+	}
+	return dataset;
+    }
+
+    public static void main(String[] args) {
+	int numObjects = getArgument(args, 0, 500000);
+	int numDimensions = getArgument(args, 1, 16);
+	int numClusters = getArgument(args, 2, 16);
+	int numIterations = getArgument(args, 3, 30);
+	int numThreads = getArgument(args, 4, Runtime.getRuntime().availableProcessors());
+	Precision[] precisions = args.length > 5 ? new Precision[] { Precision.valueOf(args[5].toUpperCase()) } : Precision.values();
+
+	DenseDataset dataset = createDataset(numObjects, numDimensions, numClusters);
+	System.out.printf("objects: %d, dimensions: %d, clusters: %d, iterations: %d, threads: %d\n", numObjects, numDimensions,
+			  numClusters, numIterations, numThreads);
+
+	ParallelEngine engine = new ParallelEngine(numThreads);
+	try {
+	    final Vector[] centers = new KMeansPlusPlus(SEED, numThreads).findClusterCenters(
+		dataset.getSeedingRows(KFuzzyAlgorithm.MAX_SEEDING_ROWS), numClusters);
+	    ClusterCentersInterface seeding = new ClusterCentersInterface() {
+		    public Vector[] findClusterCenters(Vector[] vectors, int numClusters) {
+			return centers;
+		    }
+		};
+	    KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm(seeding, engine);
+	    // zero tolerance, so that all precisions perform the same number of iterations
+	    KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(BLENDING, numIterations, 0.0);
+
+	    System.out.printf("%-10s %12s %12s %16s %10s %12s\n", "precision", "memory (Mb)", "time (ms)", "objective", "rel. diff",
+			      "reassigned");
+	    KFuzzyAlgorithm.Result reference = null;
+	    for (Precision precision : precisions) {
+		Dataset converted = precision.convert(dataset);
+		KFuzzyAlgorithm.Result result = null;
+		double time = Double.POSITIVE_INFINITY;
+		for (int run = 0; run < NUM_RUNS; ++run) {
+		    long start = System.nanoTime();
+		    result = algorithm.clusterizeDetailed(converted, numClusters, options);
+		    time = Math.min(time, (System.nanoTime() - start) / 1e6);
+		}
+		if (reference == null)
+		    reference = precision == Precision.FLOAT64 ? result : algorithm.clusterizeDetailed(dataset, numClusters, options);
+
+		int reassigned = countReassigned(numClusters, reference.assignment, result.assignment);
+		double memory = (double) numObjects * numDimensions * precision.size / (1 << 20);
+		System.out.printf("%-10s %12.1f %12.1f %16.6g %10.2e %12.2e\n", precision, memory, time, result.objective,
+				  (result.objective - reference.objective) / reference.objective, (double) reassigned / numObjects);
+	    }
+	} finally {
+	    engine.shutdown();
+	}
+    }
+}
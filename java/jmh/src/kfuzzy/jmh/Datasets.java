@@ -0,0 +1,55 @@
+package kfuzzy.jmh;
+
+import java.util.Random;
+
+import kfuzzy.algo.ClusterCentersInterface;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Vector;
+
+
+/**
+ * Datasets contains helpers shared by benchmarks.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0610
+ * @since 1.7
+ */
+public class Datasets {
+    /**
+     * Takes first vectors as cluster centers, so seeding doesn't
+     * affect measurements
+     */
+    public final static ClusterCentersInterface FIRST_VECTORS = new ClusterCentersInterface() {
+	    public Vector[] findClusterCenters(Vector[] vectors, int m) {
+		Vector[] result = new Vector[m];
+		System.arraycopy(vectors, 0, result, 0, m);
+		return result;
+	    }
+	};
+
+    private Datasets() {
+    }
+    /**
+     * Generates numClusters gaussian groups of points with a fixed seed.
+     *
+     * @param numObjects number of objects
+     * @param numDimensions number of dimensions
+     * @param numClusters number of groups
+     * @return generated dataset
+     */
+    public static DenseDataset createGroups(int numObjects, int numDimensions, int numClusters) {
+	Random random = new Random(2011);
+	double[][] means = new double[numClusters][numDimensions];
+	for (int i = 0; i < numClusters; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		means[i][j] = 10.0 * random.nextDouble();
+
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i) {
+	    double[] mean = means[random.nextInt(numClusters)];
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, mean[j] + random.nextGaussian());
+	}
+	return dataset;
+    }
+}
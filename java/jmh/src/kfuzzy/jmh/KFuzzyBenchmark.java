@@ -0,0 +1,76 @@
+package kfuzzy.jmh;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import kfuzzy.algo.ClusterizationEngineInterface;
+import kfuzzy.algo.IterationStatistics;
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.algo.SerialEngine;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Vector;
+
+
+/**
+ * KFuzzyBenchmark measures a single iteration of the KFuzzy
+ * algorithm (recomputation of centers followed by recomputation of
+ * probabilities) and a full clusterization.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0610
+ * @since 1.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KFuzzyBenchmark {
+    /**
+     * Maximum number of iterations of a full clusterization
+     */
+    public final static int MAX_ITERATIONS = 100;
+
+    @Param({ "10000", "100000" })
+    public int n;
+
+    @Param({ "2", "16" })
+    public int d;
+
+    @Param({ "4", "16" })
+    public int k;
+
+    @Param({ "1.5", "2.0", "2.7" })
+    public double blending;
+
+    private DenseDataset dataset;
+    private Vector[] vectors;
+    private double[] centers, probabilities;
+    private IterationStatistics statistics;
+    private ClusterizationEngineInterface engine;
+    private KFuzzyAlgorithm algorithm;
+
+    @Setup public void setUp() {
+	dataset = Datasets.createGroups(n, d, k);
+	vectors = dataset.getRows();
+	centers = Arrays.copyOf(dataset.getData(), k * d);
+	probabilities = new double[n * k];
+	statistics = new IterationStatistics();
+	engine = new SerialEngine();
+	engine.findProbabilities(dataset, k, centers, blending, probabilities, statistics);
+	algorithm = new KFuzzyAlgorithm(Datasets.FIRST_VECTORS, new SerialEngine());
+    }
+
+    @Benchmark public double iteration() {
+	engine.recomputeCenters(dataset, k, probabilities, blending, centers, statistics);
+	engine.findProbabilities(dataset, k, centers, blending, probabilities, statistics);
+	return statistics.objective;
+    }
+
+    @Benchmark public int[] clusterize() {
+	return algorithm.clusterize(vectors, k, new KFuzzyAlgorithm.Options(blending, MAX_ITERATIONS));
+    }
+}
@@ -0,0 +1,53 @@
+package kfuzzy.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import kfuzzy.algo.MostDistantFast;
+import kfuzzy.algo.MostDistantInterface;
+import kfuzzy.algo.MostDistantSlow;
+import kfuzzy.math.Vector;
+
+
+/**
+ * MostDistantBenchmark measures search of the most distant vectors
+ * by MostDistantSlow and MostDistantFast.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0610
+ * @since 1.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MostDistantBenchmark {
+    @Param({ "500", "2000" })
+    public int n;
+
+    @Param({ "2", "16" })
+    public int d;
+
+    @Param({ "4", "16" })
+    public int k;
+
+    private Vector[] vectors;
+    private MostDistantInterface slow, fast;
+
+    @Setup public void setUp() {
+	vectors = Datasets.createGroups(n, d, k).getRows();
+	slow = new MostDistantSlow();
+	fast = new MostDistantFast(1);
+    }
+
+    @Benchmark public int[] slow() {
+	return slow.findMostDistant(vectors, k);
+    }
+
+    @Benchmark public int[] fast() {
+	return fast.findMostDistant(vectors, k);
+    }
+}
@@ -0,0 +1,109 @@
+package kfuzzy.jmh;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import kfuzzy.io.KFuzzyInput;
+import kfuzzy.io.MappedSimpleReader;
+import kfuzzy.io.ReaderInterface;
+import kfuzzy.io.SimpleReader;
+import kfuzzy.io.TABReader;
+
+
+/**
+ * ReaderBenchmark measures reading of a large file in the simple and
+ * in the TAB formats. Files are generated once per trial in the
+ * temporary directory.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0610
+ * @since 1.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReaderBenchmark {
+    /**
+     * Number of clusters written to headers of files
+     */
+    public final static int NUM_CLUSTERS = 8;
+    /**
+     * Value of unknown components in the TAB format
+     */
+    public final static double UNKNOWN_VALUE = -1e9;
+
+    @Param({ "1000000" })
+    public int n;
+
+    @Param({ "8" })
+    public int d;
+
+    private File simpleFile, tabFile;
+
+    @Setup(Level.Trial) public void setUp() throws IOException {
+	simpleFile = File.createTempFile("kfuzzy-simple", ".txt");
+	tabFile = File.createTempFile("kfuzzy-tab", ".txt");
+	simpleFile.deleteOnExit();
+	tabFile.deleteOnExit();
+
+	Random random = new Random(2011);
+	PrintWriter simple = new PrintWriter(new BufferedWriter(new FileWriter(simpleFile)));
+	PrintWriter tab = new PrintWriter(new BufferedWriter(new FileWriter(tabFile)));
+	try {
+	    simple.printf("%d %d %d\n", n, d, NUM_CLUSTERS);
+	    tab.printf("%d %d %d\n", d, NUM_CLUSTERS, 0);
+	    // TAB format lists sizes of clusters, the last one is the number of objects
+	    for (int i = 0; i < NUM_CLUSTERS; ++i)
+		tab.printf("%d%c", n, i + 1 == NUM_CLUSTERS ? '\n' : '\t');
+	    tab.println(UNKNOWN_VALUE);
+	    for (int i = 0; i < n; ++i) {
+		for (int j = 0; j < d; ++j) {
+		    double value = 100.0 * random.nextDouble();
+		    simple.print(value);
+		    simple.print(j + 1 == d ? '\n' : ' ');
+		    tab.print(value);
+		    tab.print(j + 1 == d ? '\n' : '\t');
+		}
+	    }
+	} finally {
+	    simple.close();
+	    tab.close();
+	}
+    }
+
+    @TearDown(Level.Trial) public void tearDown() {
+	simpleFile.delete();
+	tabFile.delete();
+    }
+
+    private static KFuzzyInput read(ReaderInterface reader, File file) throws IOException {
+	InputStreamReader in = new InputStreamReader(new FileInputStream(file));
+	try {
+	    return reader.read(in);
+	} finally {
+	    in.close();
+	}
+    }
+
+    @Benchmark public KFuzzyInput simpleReader() throws IOException {
+	return read(new SimpleReader(), simpleFile);
+    }
+
+    @Benchmark public KFuzzyInput mappedSimpleReader() throws IOException {
+	return new MappedSimpleReader().read(simpleFile);
+    }
+
+    @Benchmark public KFuzzyInput tabReader() throws IOException {
+	return read(new TABReader(), tabFile);
+    }
+
+    @Benchmark public KFuzzyInput mappedTabReader() throws IOException {
+	return new TABReader().read(tabFile);
+    }
+}
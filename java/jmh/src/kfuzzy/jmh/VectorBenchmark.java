@@ -0,0 +1,64 @@
+package kfuzzy.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import kfuzzy.math.Vector;
+
+
+/**
+ * VectorBenchmark measures arithmetic operations of the Vector class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0610
+ * @since 1.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+    @Param({ "2", "16", "128" })
+    public int d;
+
+    private Vector u, v;
+
+    @Setup public void setUp() {
+	Random random = new Random(2011);
+	double[] a = new double[d], b = new double[d];
+	for (int i = 0; i < d; ++i) {
+	    a[i] = random.nextGaussian();
+	    b[i] = random.nextGaussian();
+	}
+	u = new Vector(a);
+	v = new Vector(b);
+    }
+
+    @Benchmark public Vector add() {
+	return u.add(v);
+    }
+
+    @Benchmark public Vector sub() {
+	return u.sub(v);
+    }
+
+    @Benchmark public Vector mul() {
+	return u.mul(1.5);
+    }
+
+    @Benchmark public double abs() {
+	return u.abs();
+    }
+
+    @Benchmark public double subAbs() {
+	return u.sub(v).abs();
+    }
+
+    @Benchmark public double squaredDistance() {
+	return u.squaredDistance(v);
+    }
+}
@@ -0,0 +1,88 @@
+package kfuzzy.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import kfuzzy.math.KernelInterface;
+
+
+/**
+ * VectorKernel is an implementation of the KernelInterface built on
+ * the jdk.incubator.vector module, loops are executed by SIMD
+ * instructions of the widest available width. Short arrays (shorter
+ * than one SIMD register) are processed by scalar loops.
+ *
+ * Class must be compiled and run with --add-modules jdk.incubator.vector,
+ * it's loaded by {@link kfuzzy.math.Kernels} only when the module is available.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0527
+ * @since 1.7
+ */
+public class VectorKernel implements KernelInterface {
+    /**
+     * Preferred SIMD shape on the current platform
+     */
+    private final static VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    /**
+     * Number of doubles in one SIMD register
+     */
+    private final static int LANES = SPECIES.length();
+
+    public double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+	int i = 0;
+	double result = 0.0;
+	if (length >= LANES) {
+	    DoubleVector sum = DoubleVector.zero(SPECIES);
+	    for (int bound = SPECIES.loopBound(length); i < bound; i += LANES) {
+		DoubleVector t = DoubleVector.fromArray(SPECIES, a, aOffset + i).sub(DoubleVector.fromArray(SPECIES, b, bOffset + i));
+		sum = t.fma(t, sum);
+	    }
+	    result = sum.reduceLanes(VectorOperators.ADD);
+	}
+	for (; i < length; ++i) {
+	    double t = a[aOffset + i] - b[bOffset + i];
+	    result += t * t;
+	}
+	return result;
+    }
+
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+	int i = 0;
+	if (length >= LANES) {
+	    DoubleVector factor = DoubleVector.broadcast(SPECIES, alpha);
+	    for (int bound = SPECIES.loopBound(length); i < bound; i += LANES) {
+		DoubleVector v = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+		v.fma(factor, DoubleVector.fromArray(SPECIES, y, yOffset + i)).intoArray(y, yOffset + i);
+	    }
+	}
+	for (; i < length; ++i)
+	    y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    public double normalize(double[] values, int offset, int length) {
+	int i = 0;
+	double total = 0.0;
+	final int bound = SPECIES.loopBound(length);
+	if (length >= LANES) {
+	    DoubleVector sum = DoubleVector.zero(SPECIES);
+	    for (; i < bound; i += LANES)
+		sum = sum.add(DoubleVector.fromArray(SPECIES, values, offset + i));
+	    total = sum.reduceLanes(VectorOperators.ADD);
+	}
+	for (; i < length; ++i)
+	    total += values[offset + i];
+
+	double scale = 1.0 / total;
+	i = 0;
+	if (length >= LANES) {
+	    DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+	    for (; i < bound; i += LANES)
+		DoubleVector.fromArray(SPECIES, values, offset + i).mul(factor).intoArray(values, offset + i);
+	}
+	for (; i < length; ++i)
+	    values[offset + i] *= scale;
+	return total;
+    }
+}
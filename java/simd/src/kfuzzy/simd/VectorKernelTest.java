@@ -0,0 +1,72 @@
+package kfuzzy.simd;
+
+import java.util.*;
+import junit.framework.TestCase;
+
+import kfuzzy.math.KernelInterface;
+import kfuzzy.math.Kernels;
+import kfuzzy.math.ScalarKernel;
+
+
+/**
+ * Class contains tests, that compare VectorKernel with ScalarKernel.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0527
+ * @since 1.7
+ */
+public class VectorKernelTest extends TestCase {
+    private final static double EPSILON = 1e-9;
+
+    private KernelInterface vector, scalar;
+    private Random random;
+
+    public void setUp() {
+	vector = new VectorKernel();
+	scalar = new ScalarKernel();
+	random = new Random(2011);
+    }
+
+    private double[] createArray(int length) {
+	double[] result = new double[length];
+	for (int i = 0; i < length; ++i)
+	    result[i] = random.nextGaussian();
+	return result;
+    }
+    /**
+     * Checks that module is loaded and vectorized kernel is chosen.
+     */
+    public void testChosen() {
+	assertTrue(Kernels.get() instanceof VectorKernel);
+    }
+
+    public void testSquaredDistance() {
+	for (int length = 0; length < 40; ++length) {
+	    double[] a = createArray(length + 3), b = createArray(length + 5);
+	    assertEquals(scalar.squaredDistance(a, 3, b, 5, length), vector.squaredDistance(a, 3, b, 5, length), EPSILON);
+	}
+    }
+
+    public void testAxpy() {
+	for (int length = 0; length < 40; ++length) {
+	    double[] x = createArray(length + 1), y = createArray(length + 2);
+	    double[] z = Arrays.copyOf(y, y.length);
+	    scalar.axpy(0.75, x, 1, y, 2, length);
+	    vector.axpy(0.75, x, 1, z, 2, length);
+	    for (int i = 0; i < y.length; ++i)
+		assertEquals(y[i], z[i], EPSILON);
+	}
+    }
+
+    public void testNormalize() {
+	for (int length = 1; length < 40; ++length) {
+	    double[] a = createArray(length + 2);
+	    for (int i = 0; i < a.length; ++i)
+		a[i] = Math.abs(a[i]) + 0.1;
+	    double[] b = Arrays.copyOf(a, a.length);
+	    assertEquals(scalar.normalize(a, 2, length), vector.normalize(b, 2, length), EPSILON);
+	    for (int i = 0; i < a.length; ++i)
+		assertEquals(a[i], b[i], EPSILON);
+	}
+    }
+}
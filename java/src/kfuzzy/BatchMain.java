@@ -0,0 +1,345 @@
+package kfuzzy;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import kfuzzy.algo.ClusterCentersAdapter;
+import kfuzzy.algo.ClusterCentersInterface;
+import kfuzzy.algo.ClusterizationEngineInterface;
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.algo.KMeansPlusPlus;
+import kfuzzy.algo.MostDistantFast;
+import kfuzzy.algo.PackedLabels;
+import kfuzzy.algo.ParallelEngine;
+import kfuzzy.algo.SerialEngine;
+import kfuzzy.io.BinaryReader;
+import kfuzzy.io.KFuzzyInput;
+import kfuzzy.io.KFuzzyOutput;
+import kfuzzy.io.MappedReaderInterface;
+import kfuzzy.io.MappedSimpleReader;
+import kfuzzy.io.SimpleWriter;
+import kfuzzy.io.TABReader;
+import kfuzzy.io.WriterInterface;
+import kfuzzy.math.Dataset;
+import kfuzzy.math.Precision;
+
+/**
+ * BatchMain is the headless entry point of the project: clusterizes
+ * inputs given on the command line and writes results by an
+ * implementation of the WriterInterface. Neither AWT nor Swing
+ * classes are loaded, so start-up is fast enough for shell loops.
+ *
+ * Usage: BatchMain [options] input...
+ *
+ * Input "-" is read from the standard input. Result of an input is
+ * written to the standard output, if output is "-" or if there is
+ * only one input and output isn't specified. Otherwise result is
+ * written to "input.out", in the output directory, if it's
+ * specified, or next to the input. Inputs are processed
+ * concurrently by a bounded pool of workers, results written to the
+ * standard output are printed in order of inputs.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0619
+ * @since 1.7
+ */
+public class BatchMain {
+    /**
+     * Name of the standard input and output
+     */
+    public final static String STANDARD_STREAM = "-";
+    /**
+     * Suffix of files with results
+     */
+    public final static String OUTPUT_SUFFIX = ".out";
+    /**
+     * Default value of blending, the same as in the GUI
+     */
+    public final static double DEFAULT_BLENDING = 1.5;
+    /**
+     * Description of the command line
+     */
+    public final static String USAGE =
+	"Usage: BatchMain [options] input...\n" +
+	"  -format simple|tab|binary     format of inputs (default: tab)\n" +
+	"  -precision float64|float32|int16\n" +
+	"                                precision of loaded datasets (default: float64)\n" +
+	"  -k N                          number of clusters (default: taken from input)\n" +
+	"  -blending B                   blending (default: " + DEFAULT_BLENDING + ")\n" +
+	"  -iterations N                 maximum number of iterations (default: " + KFuzzyAlgorithm.Options.DEFAULT_MAX_ITERATIONS + ")\n" +
+	"  -tolerance T                  convergence tolerance (default: " + KFuzzyAlgorithm.Options.DEFAULT_TOLERANCE + ")\n" +
+	"  -threads N                    number of threads per input (default: 1)\n" +
+	"  -jobs N                       number of concurrently processed inputs (default: number of processors)\n" +
+	"  -seed S                       choose initial centers by k-means++ with seed S (default: most distant objects)\n" +
+	"  -restarts R                   keep the best of R concurrent restarts seeded by k-means++ (default: 1)\n" +
+	"  -memberships Q                write up to Q memberships per object (default: none)\n" +
+	"  -output DIR|-                 directory of results, or the standard output\n" +
+	"Input \"-\" is the standard input.";
+    /**
+     * Format of inputs
+     */
+    private String format = "tab";
+    /**
+     * Precision of loaded datasets
+     */
+    private Precision precision = Precision.FLOAT64;
+    /**
+     * Number of clusters, or zero, if it's taken from input
+     */
+    private int numClusters = 0;
+    private double blending = DEFAULT_BLENDING;
+    private int maxIterations = KFuzzyAlgorithm.Options.DEFAULT_MAX_ITERATIONS;
+    private double tolerance = KFuzzyAlgorithm.Options.DEFAULT_TOLERANCE;
+    /**
+     * Number of threads of the engine of each input
+     */
+    private int numThreads = 1;
+    /**
+     * Number of concurrently processed inputs
+     */
+    private int numJobs = Runtime.getRuntime().availableProcessors();
+    /**
+     * Seed of the k-means++ seeding, or null, if the most distant objects are chosen
+     */
+    private Long seed = null;
+    /**
+     * Number of restarts of the multi-start mode, one disables the mode
+     */
+    private int numRestarts = 1;
+    /**
+     * Maximum number of written memberships per object, or zero, if memberships aren't written
+     */
+    private int maxMemberships = 0;
+    /**
+     * Directory of results, STANDARD_STREAM or null
+     */
+    private String output = null;
+    private final List<String> inputs = new ArrayList<String>();
+    /**
+     * Writer of results
+     */
+    private final WriterInterface writer = new SimpleWriter();
+    /**
+     * Constructor, parses command line.
+     *
+     * @param args command line arguments
+     * @throws IllegalArgumentException if command line is malformed
+     */
+    public BatchMain(String[] args) {
+	for (int i = 0; i < args.length; ++i) {
+	    String arg = args[i];
+	    if (!arg.startsWith("-") || arg.equals(STANDARD_STREAM)) {
+		inputs.add(arg);
+		continue;
+	    }
+	    if (i + 1 == args.length)
+		throw new IllegalArgumentException("missing value of " + arg);
+	    String value = args[++i];
+	    if (arg.equals("-format")) {
+		if (!value.equals("simple") && !value.equals("tab") && !value.equals("binary"))
+		    throw new IllegalArgumentException("unknown format: " + value);
+		format = value;
+	    } else if (arg.equals("-precision")) {
+		precision = Precision.valueOf(value.toUpperCase());
+	    } else if (arg.equals("-k")) {
+		numClusters = parsePositive(arg, value);
+	    } else if (arg.equals("-blending")) {
+		blending = Double.parseDouble(value);
+	    } else if (arg.equals("-iterations")) {
+		maxIterations = parsePositive(arg, value);
+	    } else if (arg.equals("-tolerance")) {
+		tolerance = Double.parseDouble(value);
+	    } else if (arg.equals("-threads")) {
+		numThreads = parsePositive(arg, value);
+	    } else if (arg.equals("-jobs")) {
+		numJobs = parsePositive(arg, value);
+	    } else if (arg.equals("-seed")) {
+		seed = Long.parseLong(value);
+	    } else if (arg.equals("-restarts")) {
+		numRestarts = parsePositive(arg, value);
+	    } else if (arg.equals("-memberships")) {
+		maxMemberships = parsePositive(arg, value);
+	    } else if (arg.equals("-output")) {
+		output = value;
+	    } else {
+		throw new IllegalArgumentException("unknown option: " + arg);
+	    }
+	}
+	if (inputs.isEmpty())
+	    throw new IllegalArgumentException("no inputs");
+	if (inputs.indexOf(STANDARD_STREAM) != inputs.lastIndexOf(STANDARD_STREAM))
+	    throw new IllegalArgumentException("standard input can be read only once");
+	if (format.equals("binary") && inputs.contains(STANDARD_STREAM))
+	    throw new IllegalArgumentException("binary inputs can be read only from files");
+    }
+
+    private static int parsePositive(String name, String value) {
+	int result = Integer.parseInt(value);
+	if (result <= 0)
+	    throw new IllegalArgumentException(name + " must be positive: " + value);
+	return result;
+    }
+    /**
+     * @return reader of inputs
+     */
+    private MappedReaderInterface createReader() {
+	if (format.equals("simple"))
+	    return new MappedSimpleReader(precision);
+	if (format.equals("tab"))
+	    return new TABReader(precision);
+	return new BinaryReader();
+    }
+    /**
+     * Reads and clusterizes an input.
+     *
+     * @param name name of the input
+     * @param in standard input
+     * @return result of clusterization
+     * @throws IOException in the case of problems with IO or malformed input
+     */
+    private KFuzzyOutput process(String name, InputStream in) throws IOException {
+	MappedReaderInterface reader = createReader();
+	KFuzzyInput input;
+	if (name.equals(STANDARD_STREAM))
+	    input = reader.read(new InputStreamReader(new BufferedInputStream(in)));
+	else
+	    input = reader.read(new File(name));
+	if (input == null)
+	    throw new IOException("malformed input");
+
+	Dataset dataset = input.getDataset();
+	if (format.equals("binary") && precision != Precision.FLOAT64)
+	    dataset = precision.convert(dataset);
+	int k = numClusters > 0 ? numClusters : input.getNumClusters();
+	if (k <= 0 || k > dataset.getNumObjects())
+	    throw new IOException(String.format("can't clusterize %d objects into %d clusters", dataset.getNumObjects(), k));
+
+	KFuzzyAlgorithm.SparseOptions sparse = null;
+	if (maxMemberships > 0)
+	    sparse = new KFuzzyAlgorithm.SparseOptions(Math.min(maxMemberships, k), KFuzzyAlgorithm.SparseOptions.DEFAULT_THRESHOLD);
+	KFuzzyAlgorithm.Options options =
+	    new KFuzzyAlgorithm.Options(blending, maxIterations, tolerance, KFuzzyAlgorithm.Options.DEFAULT_CRITERION, null, sparse);
+
+	KFuzzyAlgorithm.Result result = clusterize(dataset, k, options);
+	return new KFuzzyOutput(k, dataset.getNumObjects(), PackedLabels.pack(result.assignment, k), result.memberships, blending,
+				result.numIterations, result.getCenters(dataset.getNumDimensions()));
+    }
+    /**
+     * Clusterizes dataset by a single run or in the multi-start mode.
+     *
+     * @return result of clusterization
+     */
+    private KFuzzyAlgorithm.Result clusterize(Dataset dataset, int k, KFuzzyAlgorithm.Options options) {
+	if (numRestarts > 1) {
+	    KFuzzyAlgorithm.MultiStartOptions multiStart =
+		new KFuzzyAlgorithm.MultiStartOptions(numRestarts, numThreads, seed == null ? KFuzzyAlgorithm.MultiStartOptions.DEFAULT_SEED : seed,
+						      KFuzzyAlgorithm.MultiStartOptions.DEFAULT_ABANDON_AFTER,
+						      KFuzzyAlgorithm.MultiStartOptions.DEFAULT_ABANDON_MARGIN);
+	    return new KFuzzyAlgorithm().clusterizeMultiStart(dataset, k, options, multiStart);
+	}
+
+	// seeders create their worker pools per seeding and shut them down, so only the engine is released here
+	ClusterCentersInterface centers =
+	    seed == null ? new ClusterCentersAdapter(new MostDistantFast(numThreads)) : new KMeansPlusPlus(seed, numThreads);
+	ClusterizationEngineInterface engine = numThreads > 1 ? new ParallelEngine(numThreads) : new SerialEngine();
+	try {
+	    return new KFuzzyAlgorithm(centers, engine).clusterizeDetailed(dataset, k, options);
+	} finally {
+	    if (engine instanceof ParallelEngine)
+		((ParallelEngine) engine).shutdown();
+	}
+    }
+    /**
+     * Returns file, to which result of the input is written.
+     *
+     * @param name name of the input
+     * @return file of the result, or null, if result is written to the standard output
+     */
+    private File getOutputFile(String name) {
+	if (STANDARD_STREAM.equals(output))
+	    return null;
+	if (output != null)
+	    return new File(output, (name.equals(STANDARD_STREAM) ? "stdin" : new File(name).getName()) + OUTPUT_SUFFIX);
+	if (inputs.size() == 1 || name.equals(STANDARD_STREAM))
+	    return null;
+	return new File(name + OUTPUT_SUFFIX);
+    }
+    /**
+     * Writes result to the stream.
+     *
+     * @throws IOException in the case of problems with IO
+     */
+    private void write(KFuzzyOutput result, OutputStream stream) throws IOException {
+	OutputStreamWriter out = new OutputStreamWriter(stream);
+	if (!writer.write(out, result))
+	    throw new IOException("can't write result");
+	out.flush();
+    }
+    /**
+     * Processes all inputs.
+     *
+     * @param in standard input
+     * @param out standard output
+     * @param err standard error
+     * @return zero, if all inputs are processed successfully, one otherwise
+     */
+    public int run(final InputStream in, PrintStream out, PrintStream err) {
+	ExecutorService pool = Executors.newFixedThreadPool(Math.min(numJobs, inputs.size()));
+	try {
+	    List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+	    for (final String name : inputs) {
+		results.add(pool.submit(new Callable<byte[]>() {
+			public byte[] call() throws IOException {
+			    KFuzzyOutput result = process(name, in);
+			    File file = getOutputFile(name);
+			    if (file == null) {
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				write(result, buffer);
+				return buffer.toByteArray();
+			    }
+			    OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+			    try {
+				write(result, stream);
+			    } finally {
+				stream.close();
+			    }
+			    return null;
+			}
+		    }));
+	    }
+
+	    int status = 0;
+	    for (int i = 0; i < inputs.size(); ++i) {
+		try {
+		    byte[] result = results.get(i).get();
+		    if (result != null)
+			out.write(result, 0, result.length);
+		} catch (ExecutionException e) {
+		    Throwable cause = e.getCause();
+		    err.println(inputs.get(i) + ": " + (cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+		    status = 1;
+		} catch (InterruptedException e) {
+		    err.println(inputs.get(i) + ": interrupted");
+		    return 1;
+		}
+	    }
+	    out.flush();
+	    return status;
+	} finally {
+	    pool.shutdownNow();
+	}
+    }
+
+    public static void main(String[] args) {
+	BatchMain batch = null;
+	try {
+	    batch = new BatchMain(args);
+	} catch (IllegalArgumentException e) {
+	    System.err.println(e.getMessage());
+	    System.err.println(USAGE);
+	    System.exit(1);
+	}
+	System.exit(batch.run(System.in, System.out, System.err));
+    }
+}
@@ -0,0 +1,101 @@
+package kfuzzy;
+
+import java.io.*;
+
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for BatchMain class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0619
+ * @since 1.7
+ */
+public class BatchMainTest extends TestingUtils {
+    private final static String INPUT = "6 2 2\n0.0 0.0\n0.1 0.0\n0.0 0.1\n5.0 5.0\n5.1 5.0\n5.0 5.1\n";
+
+    private File directory, first, second;
+
+    private File createInput(String name) throws IOException {
+	File file = new File(directory, name);
+	Writer out = new FileWriter(file);
+	try {
+	    out.write(INPUT);
+	} finally {
+	    out.close();
+	}
+	return file;
+    }
+
+    public void setUp() throws IOException {
+	directory = File.createTempFile("kfuzzy", "");
+	directory.delete();
+	directory.mkdir();
+	first = createInput("first.txt");
+	second = createInput("second.txt");
+    }
+
+    public void tearDown() {
+	for (File file : directory.listFiles())
+	    file.delete();
+	directory.delete();
+    }
+
+    private String run(String input, int expectedStatus, String... args) {
+	ByteArrayOutputStream out = new ByteArrayOutputStream(), err = new ByteArrayOutputStream();
+	int status = new BatchMain(args).run(new ByteArrayInputStream(input.getBytes()), new PrintStream(out), new PrintStream(err));
+	assertEquals(err.toString(), expectedStatus, status);
+	return out.toString();
+    }
+
+    private static String read(File file) throws IOException {
+	StringBuilder sb = new StringBuilder();
+	Reader in = new FileReader(file);
+	try {
+	    char[] buffer = new char[1024];
+	    for (int size = in.read(buffer); size != -1; size = in.read(buffer))
+		sb.append(buffer, 0, size);
+	} finally {
+	    in.close();
+	}
+	return sb.toString();
+    }
+
+    public void testStandardStreams() {
+	String output = run(INPUT, 0, "-format", "simple", "-");
+	assertTrue(output, output.contains("Number of objects: 6"));
+	assertTrue(output, output.contains("0 - 2"));
+	assertTrue(output, output.contains("3 - 5"));
+    }
+
+    public void testFiles() throws IOException {
+	String output = run("", 0, "-format", "simple", "-jobs", "2", "-threads", "2", "-memberships", "2", "-restarts", "3",
+			    first.getPath(), second.getPath());
+	assertEquals("", output);
+	String result = read(new File(first.getPath() + BatchMain.OUTPUT_SUFFIX));
+	assertEquals(result, read(new File(second.getPath() + BatchMain.OUTPUT_SUFFIX)));
+	assertTrue(result, result.contains("Object 5:"));
+    }
+
+    public void testErrors() {
+	String output = run("", 1, "-format", "simple", "-output", "-", "-k", "3", first.getPath(),
+			    new File(directory, "missing").getPath(), second.getPath());
+	assertTrue(output, output.contains("Number of clusters: 3"));
+	assertEquals(output.indexOf("Number of clusters"), 0);
+	assertTrue(output.indexOf("Number of clusters", 1) > 0);
+    }
+
+    public void testCommandLine() {
+	String[][] malformed = new String[][] {
+	    {}, {"-k"}, {"-k", "0", "input"}, {"-format", "xml", "input"}, {"-", "-"}, {"-format", "binary", "-"}, {"-unknown", "1", "input"}
+	};
+	for (String[] args : malformed) {
+	    try {
+		new BatchMain(args);
+		fail();
+	    } catch (IllegalArgumentException e) {
+	    }
+	}
+    }
+}
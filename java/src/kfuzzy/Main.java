@@ -25,7 +25,15 @@ public class Main implements Runnable {
 	}
     }
 
+    /**
+     * Runs form, or the headless {@link BatchMain}, if command line
+     * arguments are given.
+     */
     public static void main(String[] args) {
+	if (args.length > 0) {
+	    BatchMain.main(args);
+	    return;
+	}
 	new Thread(new Main()).start();
     }
 
@@ -1,17 +1,33 @@
 package kfuzzy;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 
+import kfuzzy.algo.IterationListenerInterface;
 import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.algo.PackedLabels;
 import kfuzzy.io.KFuzzyOutput;
 import kfuzzy.math.Vector;
 
 
 public class Model {
-    private KFuzzyAlgorithm algorithm;
+    /**
+     * Algorithm is shared by synchronous and asynchronous clusterizations,
+     * so it's used only while its lock is held. The lock is taken after
+     * the lock of the model, asynchronous runs release it before they
+     * update the model.
+     */
+    private final KFuzzyAlgorithm algorithm;
     private Vector[] points;
     private int[] clusters;
     private KFuzzyOutput output;
+    private KFuzzyAlgorithm.Incremental incremental;
+    private ExecutorService executor;
 
 
     public Model() {
@@ -21,26 +37,222 @@ public class Model {
 	output = null;
     }
 
-    public void setPoints(Vector[] points) {
+    public synchronized void setPoints(Vector[] points) {
 	this.points = points;
 	clusters = new int[points.length];
 	Arrays.fill(clusters, -1);
+	incremental = null;
     }
 
-    public void clusterize(int numClusters, KFuzzyAlgorithm.Options options) {
-	clusters = algorithm.clusterize(points, numClusters, options);
-	output = new KFuzzyOutput(numClusters, points.length, clusters, options.blending, options.maxIterations);
+    public synchronized void clusterize(int numClusters, KFuzzyAlgorithm.Options options) {
+	KFuzzyAlgorithm.Result result;
+	synchronized (algorithm) {
+	    result = algorithm.clusterizeDetailed(points, numClusters, options);
+	}
+	setResult(numClusters, options, result);
     }
 
-    public Vector[] getPoints() {
+    /**
+     * Clusterizes points starting from final centers of the previous
+     * output instead of seeding, or from scratch, if centers of the
+     * previous output are unknown.
+     *
+     * @param previous output of a previous clusterization
+     * @param options KFuzzy algorithm options
+     */
+    public synchronized void clusterize(KFuzzyOutput previous, KFuzzyAlgorithm.Options options) {
+	Vector[] centers = previous.getCenters();
+	if (centers == null || centers.length == 0) {
+	    clusterize(previous.getNumClusters(), options);
+	    return;
+	}
+	KFuzzyAlgorithm.Result result;
+	synchronized (algorithm) {
+	    result = algorithm.clusterizeDetailed(points, centers, options);
+	}
+	setResult(centers.length, options, result);
+    }
+
+    private void setResult(int numClusters, KFuzzyAlgorithm.Options options, KFuzzyAlgorithm.Result result) {
+	clusters = result.assignment;
+	Vector[] centers = points.length == 0 ? null : result.getCenters(points[0].getSize());
+	output = new KFuzzyOutput(numClusters, points.length, PackedLabels.pack(clusters, numClusters), result.memberships, options.blending,
+				  result.numIterations, centers);
+	incremental = null;
+    }
+
+    /**
+     * Appends a batch of points and clusterizes it incrementally:
+     * cluster centers are refined by the batch, previous points keep
+     * their clusters. If number of clusters or options differ from
+     * the previous call, incremental state is recreated from the
+     * current points, which are appended as the first batch. Options
+     * are compared by value, so equal options, created for each
+     * call, don't reset the state.
+     *
+     * @param batch appended points
+     * @param numClusters number of clusters
+     * @param options KFuzzy algorithm options
+     * @param incrementalOptions options of the incremental mode
+     */
+    public synchronized void appendPoints(Vector[] batch, int numClusters, KFuzzyAlgorithm.Options options,
+			     KFuzzyAlgorithm.IncrementalOptions incrementalOptions) {
+	synchronized (algorithm) {
+	    appendPointsLocked(batch, numClusters, options, incrementalOptions);
+	}
+    }
+
+    private void appendPointsLocked(Vector[] batch, int numClusters, KFuzzyAlgorithm.Options options,
+				    KFuzzyAlgorithm.IncrementalOptions incrementalOptions) {
+	int numIterations = 0;
+	if (incremental == null || incremental.getNumClusters() != numClusters || !incremental.getOptions().equals(options) ||
+	    !incremental.getIncrementalOptions().equals(incrementalOptions)) {
+	    incremental = algorithm.createIncremental(numClusters, options, incrementalOptions);
+	    if (points.length != 0) {
+		KFuzzyAlgorithm.Result result = incremental.append(points);
+		clusters = result.assignment;
+		numIterations += result.numIterations;
+	    }
+	}
+
+	KFuzzyAlgorithm.Result result = incremental.append(batch);
+	numIterations += result.numIterations;
+
+	Vector[] newPoints = Arrays.copyOf(points, points.length + batch.length);
+	System.arraycopy(batch, 0, newPoints, points.length, batch.length);
+	int[] newClusters = Arrays.copyOf(clusters, newPoints.length);
+	System.arraycopy(result.assignment, 0, newClusters, points.length, batch.length);
+	points = newPoints;
+	clusters = newClusters;
+
+	output = new KFuzzyOutput(numClusters, points.length, PackedLabels.pack(clusters, numClusters), null, options.blending,
+				  numIterations, points.length == 0 ? null : result.getCenters(points[0].getSize()));
+    }
+
+    /**
+     * Clusterizes points on the background thread of the model. The
+     * listener is notified about each iteration and may stop the
+     * algorithm early, in which case the model is updated with the
+     * result for the current cluster centers. Cancellation of the
+     * future interrupts the algorithm after the current iteration and
+     * leaves the model unchanged. If points are replaced while the
+     * algorithm is running, the future fails with
+     * IllegalStateException. Runs are performed one after another,
+     * in order of calls, by the algorithm of the model, which observes
+     * iterations only during the run.
+     *
+     * @param numClusters number of clusters
+     * @param options KFuzzy algorithm options
+     * @param listener observer of the clusterization, or null
+     * @return future of the result, the model is updated before the future is done
+     */
+    public synchronized Future<KFuzzyAlgorithm.Result> clusterizeAsync(final int numClusters, final KFuzzyAlgorithm.Options options,
+									 final ProgressListenerInterface listener) {
+	final Vector[] points = this.points;
+	final IterationListenerInterface iterationListener = new IterationListenerInterface() {
+		public boolean iterationFinished(int iteration, double objective, double[] centers) {
+		    if (Thread.currentThread().isInterrupted())
+			return false;
+		    return listener == null || listener.iterationFinished(iteration, objective, centers);
+		}
+	    };
+	FutureTask<KFuzzyAlgorithm.Result> task = new FutureTask<KFuzzyAlgorithm.Result>(new Callable<KFuzzyAlgorithm.Result>() {
+		public KFuzzyAlgorithm.Result call() {
+		    synchronized (algorithm) {
+			algorithm.setIterationListener(iterationListener);
+			try {
+			    return algorithm.clusterizeDetailed(points, numClusters, options);
+			} finally {
+			    algorithm.setIterationListener(null);
+			}
+		    }
+		}
+	    }) {
+		// both flags are guarded by the model, so the result is either committed or cancelled
+		private boolean committed = false, cancelled = false;
+
+		@Override protected void set(KFuzzyAlgorithm.Result result) {
+		    synchronized (Model.this) {
+			if (cancelled)
+			    return;
+			if (Model.this.points != points) {
+			    cancelled = true;
+			} else {
+			    setResult(numClusters, options, result);
+			    committed = true;
+			}
+		    }
+		    if (committed)
+			super.set(result);
+		    else
+			setException(new IllegalStateException("points were replaced during clusterization"));
+		}
+
+		@Override public boolean cancel(boolean mayInterruptIfRunning) {
+		    synchronized (Model.this) {
+			if (committed)
+			    return false;
+			cancelled = true;
+		    }
+		    return super.cancel(mayInterruptIfRunning);
+		}
+
+		@Override protected void done() {
+		    if (listener != null)
+			listener.clusterizationFinished(this);
+		}
+	    };
+	if (executor == null)
+	    executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		    public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "kfuzzy-model");
+			thread.setDaemon(true);
+			return thread;
+		    }
+		});
+	executor.execute(task);
+	return task;
+    }
+
+    /**
+     * Assigns each point to the nearest cluster center, used to show
+     * intermediate clusters of an asynchronous clusterization.
+     *
+     * @param points set of points
+     * @param centers cluster centers, ith center is stored from i * number of dimensions position
+     * @return index of the nearest center for each point
+     */
+    public static int[] findNearestClusters(Vector[] points, double[] centers) {
+	int[] clusters = new int[points.length];
+	if (points.length == 0)
+	    return clusters;
+	final int numDimensions = points[0].getSize(), numClusters = centers.length / numDimensions;
+	for (int i = 0; i < points.length; ++i) {
+	    double best = Double.POSITIVE_INFINITY;
+	    for (int j = 0; j < numClusters; ++j) {
+		double distance = 0.0;
+		for (int l = 0; l < numDimensions && distance < best; ++l) {
+		    double t = points[i].get(l) - centers[j * numDimensions + l];
+		    distance += t * t;
+		}
+		if (distance < best) {
+		    best = distance;
+		    clusters[i] = j;
+		}
+	    }
+	}
+	return clusters;
+    }
+
+    public synchronized Vector[] getPoints() {
 	return points;
     }
 
-    public int[] getClusters() {
+    public synchronized int[] getClusters() {
 	return clusters;
     }
 
-    public KFuzzyOutput getOutput() {
+    public synchronized KFuzzyOutput getOutput() {
 	return output;
     }
 }
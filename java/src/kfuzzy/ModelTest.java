@@ -0,0 +1,119 @@
+package kfuzzy;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.io.KFuzzyOutput;
+import kfuzzy.math.Vector;
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for asynchronous clusterization of Model class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0620
+ * @since 1.7
+ */
+public class ModelTest extends TestingUtils {
+    private Model model;
+
+    public void setUp() {
+	model = new Model();
+	Vector[] points = new Vector[40];
+	for (int i = 0; i < points.length; ++i)
+	    points[i] = i % 2 == 0 ? new Vector(0.1 * i, 0.0) : new Vector(10.0 + 0.1 * i, 10.0);
+	model.setPoints(points);
+    }
+
+    private static class Listener implements ProgressListenerInterface {
+	public final AtomicInteger numIterations = new AtomicInteger();
+	public final CountDownLatch started = new CountDownLatch(1), finished = new CountDownLatch(1);
+	private final CountDownLatch release;
+
+	public Listener(CountDownLatch release) {
+	    this.release = release;
+	}
+
+	public boolean iterationFinished(int iteration, double objective, double[] centers) {
+	    numIterations.incrementAndGet();
+	    started.countDown();
+	    try {
+		release.await();
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+	    }
+	    return true;
+	}
+
+	public void clusterizationFinished(Future<KFuzzyAlgorithm.Result> future) {
+	    assertTrue(future.isDone());
+	    finished.countDown();
+	}
+    }
+
+    public void testClusterizeAsync() throws Exception {
+	Listener listener = new Listener(new CountDownLatch(0));
+	Future<KFuzzyAlgorithm.Result> future = model.clusterizeAsync(2, new KFuzzyAlgorithm.Options(2.0, 100), listener);
+	KFuzzyAlgorithm.Result result = future.get(10, TimeUnit.SECONDS);
+	assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+	assertEquals(result.objectiveHistory.length, listener.numIterations.get());
+	int[] clusters = model.getClusters();
+	for (int i = 0; i < clusters.length; ++i)
+	    assertEquals(clusters[i % 2], clusters[i]);
+	assertTrue(clusters[0] != clusters[1]);
+	assertEquals(2, model.getOutput().getNumClusters());
+    }
+
+    public void testCancel() throws Exception {
+	Listener listener = new Listener(new CountDownLatch(1));
+	Future<KFuzzyAlgorithm.Result> future = model.clusterizeAsync(2, new KFuzzyAlgorithm.Options(2.0, 100), listener);
+	assertTrue(listener.started.await(10, TimeUnit.SECONDS));
+	assertTrue(future.cancel(true));
+	assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+	try {
+	    future.get();
+	    fail();
+	} catch (CancellationException e) {
+	}
+	// the next run waits until the cancelled one stops
+	model.clusterizeAsync(1, new KFuzzyAlgorithm.Options(2.0, 1), null).get(10, TimeUnit.SECONDS);
+	assertEquals(1, listener.numIterations.get());
+	assertEquals(1, model.getOutput().getNumClusters());
+    }
+
+    private KFuzzyOutput appendTwice(boolean sameOptions) {
+	Model model = new Model();
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 100);
+	KFuzzyAlgorithm.IncrementalOptions incrementalOptions = new KFuzzyAlgorithm.IncrementalOptions();
+	model.appendPoints(this.model.getPoints(), 2, options, incrementalOptions);
+	if (!sameOptions) {
+	    options = new KFuzzyAlgorithm.Options(2.0, 100);
+	    incrementalOptions = new KFuzzyAlgorithm.IncrementalOptions();
+	}
+	model.appendPoints(new Vector[] { new Vector(0.5, 0.5), new Vector(10.5, 9.5) }, 2, options, incrementalOptions);
+	return model.getOutput();
+    }
+
+    /**
+     * Checks that equal, but distinct options don't rebuild
+     * incremental state, which would re-append all stored points.
+     */
+    public void testAppendWithEqualOptions() {
+	KFuzzyOutput same = appendTwice(true), equal = appendTwice(false);
+	assertEquals(42, equal.getNumObjects());
+	assertEquals(same.getNumIterations(), equal.getNumIterations());
+	for (int i = 0; i < 2; ++i)
+	    assertEquals(same.getCenters()[i], equal.getCenters()[i]);
+    }
+
+    public void testFindNearestClusters() {
+	int[] clusters = Model.findNearestClusters(model.getPoints(), new double[] { 10.0, 10.0, 0.0, 0.0 });
+	for (int i = 0; i < clusters.length; ++i)
+	    assertEquals(i % 2 == 0 ? 1 : 0, clusters[i]);
+    }
+}
@@ -0,0 +1,28 @@
+package kfuzzy;
+
+import java.util.concurrent.Future;
+
+import kfuzzy.algo.IterationListenerInterface;
+import kfuzzy.algo.KFuzzyAlgorithm;
+
+
+/**
+ * Interface to observers of asynchronous clusterization, see {@link
+ * Model#clusterizeAsync}. Iterations are reported from the background
+ * thread of the model, end of clusterization is reported from the
+ * background thread or from a thread, which cancels clusterization.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0620
+ * @since 1.7
+ */
+public interface ProgressListenerInterface extends IterationListenerInterface {
+    /**
+     * Called once, when clusterization is finished, cancelled or
+     * failed. Model is already updated, if clusterization is finished.
+     *
+     * @param future future of the clusterization, it's done, so its
+     * get method doesn't block
+     */
+    void clusterizationFinished(Future<KFuzzyAlgorithm.Result> future);
+}
@@ -0,0 +1,25 @@
+package kfuzzy.algo;
+
+import java.io.IOException;
+
+
+/**
+ * Interface to consumers of cluster assignments, that are produced
+ * chunk by chunk, for instance, by the out-of-core mode of the
+ * KFuzzy algorithm. Chunks are passed in order of objects.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0616
+ * @since 1.7
+ */
+public interface AssignmentWriterInterface {
+    /**
+     * Consumes assignment of consecutive objects.
+     *
+     * @param from index of the first object of the chunk
+     * @param assignment cluster indices, ith element corresponds to (from + i)th object, array is reused after the call
+     * @param size number of objects in the chunk
+     * @throws IOException in the case of problems with IO
+     */
+    void writeAssignment(int from, int[] assignment, int size) throws IOException;
+}
@@ -0,0 +1,237 @@
+package kfuzzy.algo;
+
+
+/**
+ * CentersTree is a k-d tree over cluster centers, which finds several
+ * nearest centers of a point without computing distances to all
+ * centers. Centers are recursively split by the median along the
+ * dimension of the largest spread, until ranges contain at most
+ * LEAF_SIZE centers. The tree is implicit: nodes are ranges of the
+ * permutation of centers, split of a range is stored at the position
+ * of its middle.
+ *
+ * Search visits the nearer half first and skips the farther half, if
+ * lower bound of squared distance to it is not less than squared
+ * distance to the current furthest of the found centers. Lower bound
+ * accumulates offsets of the point from split planes along different
+ * dimensions, so skipped centers are farther than all found ones.
+ *
+ * Tree keeps search buffers, so it's not thread-safe. Centers aren't
+ * copied, so the tree must be rebuilt after they're changed.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0620
+ * @since 1.7
+ */
+public class CentersTree {
+    /**
+     * Maximum number of centers in a leaf
+     */
+    public final static int LEAF_SIZE = 8;
+    private final int numClusters;
+    private final int numDimensions;
+    private final double[] centers;
+    /**
+     * Permutation of centers, each node is a range of it
+     */
+    private final int[] order;
+    /**
+     * Split dimension and value of a node, stored at the middle of its range
+     */
+    private final int[] splitDimensions;
+    private final double[] splitValues;
+    /**
+     * Buffers of the current search
+     */
+    private final double[] offsets;
+    private double[] point;
+    private int numNearest, numFound;
+    private int[] nearestClusters;
+    private double[] nearestDistances;
+    /**
+     * Number of computed distances to centers
+     */
+    private long numDistances = 0;
+    /**
+     * Constructor builds tree over cluster centers.
+     *
+     * @param numClusters number of clusters, must be positive
+     * @param numDimensions number of dimensions
+     * @param centers cluster centers, ith center is stored from i * numDimensions position
+     */
+    public CentersTree(int numClusters, int numDimensions, double[] centers) {
+	assert numClusters > 0 && centers.length >= numClusters * numDimensions : "centers don't match number of clusters";
+
+	this.numClusters = numClusters;
+	this.numDimensions = numDimensions;
+	this.centers = centers;
+	order = new int[numClusters];
+	for (int i = 0; i < numClusters; ++i)
+	    order[i] = i;
+	splitDimensions = new int[numClusters];
+	splitValues = new double[numClusters];
+	offsets = new double[numDimensions];
+	build(0, numClusters);
+    }
+
+    private double coordinate(int index, int dimension) {
+	return centers[order[index] * numDimensions + dimension];
+    }
+
+    private void swap(int i, int j) {
+	int t = order[i];
+	order[i] = order[j];
+	order[j] = t;
+    }
+    /**
+     * Rearranges range [from; to), so that its kth center is in its
+     * sorted position by the dimension, centers before it are not
+     * greater and centers after it are not less.
+     */
+    private void select(int from, int to, int k, int dimension) {
+	while (to - from > 1) {
+	    double pivot = coordinate((from + to) >>> 1, dimension);
+	    int i = from, j = to - 1;
+	    while (i <= j) {
+		while (coordinate(i, dimension) < pivot)
+		    ++i;
+		while (coordinate(j, dimension) > pivot)
+		    --j;
+		if (i <= j)
+		    swap(i++, j--);
+	    }
+	    if (k <= j)
+		to = j + 1;
+	    else if (k >= i)
+		from = i;
+	    else
+		return;
+	}
+    }
+
+    private void build(int from, int to) {
+	if (to - from <= LEAF_SIZE)
+	    return;
+	int dimension = 0;
+	double spread = -1.0;
+	for (int j = 0; j < numDimensions; ++j) {
+	    double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+	    for (int i = from; i < to; ++i) {
+		min = Math.min(min, coordinate(i, j));
+		max = Math.max(max, coordinate(i, j));
+	    }
+	    if (max - min > spread) {
+		spread = max - min;
+		dimension = j;
+	    }
+	}
+	final int middle = (from + to) >>> 1;
+	select(from, to, middle, dimension);
+	splitDimensions[middle] = dimension;
+	splitValues[middle] = coordinate(middle, dimension);
+	build(from, middle);
+	build(middle, to);
+    }
+    /**
+     * @return squared distance to the furthest of found centers, or
+     * positive infinity, if less than numNearest centers are found
+     */
+    private double getBound() {
+	return numFound < numNearest ? Double.POSITIVE_INFINITY : nearestDistances[0];
+    }
+    /**
+     * Adds center to the found ones, which are kept as a max-heap by distance.
+     */
+    private void add(int cluster, double squaredDistance) {
+	int i;
+	if (numFound < numNearest) {
+	    // sift up
+	    for (i = numFound++; i > 0 && nearestDistances[(i - 1) >> 1] < squaredDistance; i = (i - 1) >> 1) {
+		nearestDistances[i] = nearestDistances[(i - 1) >> 1];
+		nearestClusters[i] = nearestClusters[(i - 1) >> 1];
+	    }
+	} else {
+	    // replace the root and sift down
+	    i = 0;
+	    while (true) {
+		int child = 2 * i + 1;
+		if (child >= numFound)
+		    break;
+		if (child + 1 < numFound && nearestDistances[child + 1] > nearestDistances[child])
+		    ++child;
+		if (nearestDistances[child] <= squaredDistance)
+		    break;
+		nearestDistances[i] = nearestDistances[child];
+		nearestClusters[i] = nearestClusters[child];
+		i = child;
+	    }
+	}
+	nearestDistances[i] = squaredDistance;
+	nearestClusters[i] = cluster;
+    }
+
+    private void search(int from, int to, double lowerBound) {
+	if (to - from <= LEAF_SIZE) {
+	    for (int i = from; i < to; ++i) {
+		final int base = order[i] * numDimensions;
+		final double bound = getBound();
+		double distance = 0.0;
+		for (int j = 0; j < numDimensions && distance < bound; ++j) {
+		    double t = point[j] - centers[base + j];
+		    distance += t * t;
+		}
+		++numDistances;
+		if (distance < bound)
+		    add(order[i], distance);
+	    }
+	    return;
+	}
+	final int middle = (from + to) >>> 1, dimension = splitDimensions[middle];
+	final double offset = point[dimension] - splitValues[middle];
+	if (offset < 0.0)
+	    search(from, middle, lowerBound);
+	else
+	    search(middle, to, lowerBound);
+
+	final double previous = offsets[dimension];
+	final double farBound = lowerBound - previous * previous + offset * offset;
+	if (farBound < getBound()) {
+	    offsets[dimension] = offset;
+	    if (offset < 0.0)
+		search(middle, to, farBound);
+	    else
+		search(from, middle, farBound);
+	    offsets[dimension] = previous;
+	}
+    }
+    /**
+     * Finds nearest centers of the point.
+     *
+     * @param point array that contains point, first numDimensions elements are used
+     * @param numNearest number of nearest centers to find, must be positive
+     * @param clusters indices of found centers, must have at least numNearest elements
+     * @param squaredDistances squared distances to found centers, must have at least numNearest elements
+     * @return number of found centers, min(numNearest, numClusters),
+     * found centers are stored in no particular order
+     */
+    public int findNearest(double[] point, int numNearest, int[] clusters, double[] squaredDistances) {
+	assert numNearest > 0 : "numNearest: " + numNearest;
+
+	this.point = point;
+	this.numNearest = Math.min(numNearest, numClusters);
+	this.numFound = 0;
+	this.nearestClusters = clusters;
+	this.nearestDistances = squaredDistances;
+	search(0, numClusters, 0.0);
+	this.point = null;
+	this.nearestClusters = null;
+	this.nearestDistances = null;
+	return numFound;
+    }
+    /**
+     * @return number of centers, distances to which were computed by all searches
+     */
+    public long getNumDistances() {
+	return numDistances;
+    }
+}
@@ -0,0 +1,87 @@
+package kfuzzy.algo;
+
+import java.util.*;
+import junit.framework.TestCase;
+
+
+/**
+ * Class contains several tests for CentersTree class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0620
+ * @since 1.7
+ */
+public class CentersTreeTest extends TestCase {
+    private final static int NUM_DIMENSIONS = 3;
+
+    private double[] centers;
+
+    public void setUp() {
+	Random random = new Random(2011);
+	centers = new double[500 * NUM_DIMENSIONS];
+	for (int i = 0; i < centers.length; ++i)
+	    centers[i] = random.nextDouble();
+	// duplicates
+	System.arraycopy(centers, 0, centers, NUM_DIMENSIONS, NUM_DIMENSIONS);
+    }
+
+    private double[] findAll(int numClusters, double[] point) {
+	double[] distances = new double[numClusters];
+	for (int i = 0; i < numClusters; ++i) {
+	    for (int j = 0; j < NUM_DIMENSIONS; ++j) {
+		double t = point[j] - centers[i * NUM_DIMENSIONS + j];
+		distances[i] += t * t;
+	    }
+	}
+	Arrays.sort(distances);
+	return distances;
+    }
+
+    private void checkNearest(int numClusters, int numNearest) {
+	CentersTree tree = new CentersTree(numClusters, NUM_DIMENSIONS, centers);
+	Random random = new Random(numNearest);
+	int[] clusters = new int[numNearest];
+	double[] distances = new double[numNearest];
+	for (int query = 0; query < 100; ++query) {
+	    double[] point = new double[] { 1.2 * random.nextDouble() - 0.1, random.nextDouble(), random.nextDouble() };
+	    if (query == 0)
+		point = Arrays.copyOf(centers, NUM_DIMENSIONS);
+	    int size = tree.findNearest(point, numNearest, clusters, distances);
+	    assertEquals(Math.min(numNearest, numClusters), size);
+
+	    double[] expected = findAll(numClusters, point);
+	    double[] actual = Arrays.copyOf(distances, size);
+	    Arrays.sort(actual);
+	    for (int i = 0; i < size; ++i)
+		assertEquals(expected[i], actual[i], 1e-12);
+	    Set<Integer> found = new HashSet<Integer>();
+	    for (int i = 0; i < size; ++i) {
+		assertTrue(found.add(clusters[i]));
+		double d = 0.0;
+		for (int j = 0; j < NUM_DIMENSIONS; ++j) {
+		    double t = point[j] - centers[clusters[i] * NUM_DIMENSIONS + j];
+		    d += t * t;
+		}
+		assertEquals(d, distances[i], 1e-12);
+	    }
+	}
+    }
+
+    public void testNearest() {
+	checkNearest(500, 1);
+	checkNearest(500, 5);
+	checkNearest(500, 37);
+	checkNearest(5, 8);
+	checkNearest(1, 1);
+    }
+
+    public void testPruning() {
+	CentersTree tree = new CentersTree(500, NUM_DIMENSIONS, centers);
+	Random random = new Random(2011);
+	int[] clusters = new int[1];
+	double[] distances = new double[1];
+	for (int query = 0; query < 100; ++query)
+	    tree.findNearest(new double[] { random.nextDouble(), random.nextDouble(), random.nextDouble() }, 1, clusters, distances);
+	assertTrue(tree.getNumDistances() < 100 * 500 / 4);
+    }
+}
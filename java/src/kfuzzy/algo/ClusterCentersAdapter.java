@@ -18,10 +18,10 @@ public class ClusterCentersAdapter implements ClusterCentersInterface {
     private MostDistantInterface adaptee;
     /**
      * Class constructor, by default an instance of the
-     * MostDistantSlow will be used as algorithm.
+     * MostDistantFast will be used as algorithm.
      */
     public ClusterCentersAdapter() {
-	adaptee = new MostDistantSlow();
+	adaptee = new MostDistantFast();
     }
     /**
      * Class constructor specifying implementation of the MostDistantInterface
@@ -0,0 +1,64 @@
+package kfuzzy.algo;
+
+import kfuzzy.math.Dataset;
+
+
+/**
+ * Interface to engines, that perform steps of the KFuzzy
+ * algorithm. Centers are stored in a plain array, ith center is
+ * stored from i * numDimensions position. Probabilities are stored
+ * in a plain array, probability of ith object to lie in jth cluster
+ * is stored at i * numClusters + j position.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0516
+ * @since 1.6
+ */
+public interface ClusterizationEngineInterface {
+    /**
+     * For each object finds probabilities to lie in each cluster.
+     *
+     * @param dataset set of vectors
+     * @param numClusters number of clusters
+     * @param centers an array of clusters centers
+     * @param blending blending
+     * @param probabilities array of probabilities, must contain
+     * probabilities from the previous step (or zeros), will be
+     * replaced by new probabilities
+     * @param statistics objective function and maximum change of
+     * probabilities will be stored there
+     */
+    void findProbabilities(Dataset dataset, int numClusters, double[] centers, double blending, double[] probabilities,
+			   IterationStatistics statistics);
+    /**
+     * By set of vectors and their probabilities to lie in clusters recomputes cluster centers.
+     *
+     * @param dataset set of vectors
+     * @param numClusters number of clusters
+     * @param probabilities an array of probabilities
+     * @param blending blending
+     * @param centers array of cluster centers, will be replaced by new centers
+     * @param statistics maximum shift of cluster centers will be stored there
+     */
+    void recomputeCenters(Dataset dataset, int numClusters, double[] probabilities, double blending, double[] centers,
+			  IterationStatistics statistics);
+    /**
+     * Computes probabilities of the given objects to lie in each
+     * cluster on the fly and sums objects, weighted by their
+     * probabilities in power of blending, for all clusters.
+     * Probabilities are not stored, so memory doesn't depend on
+     * the number of objects.
+     *
+     * @param dataset set of vectors
+     * @param objects indices of objects, or null, if first numObjects objects of the dataset are used
+     * @param numObjects number of objects
+     * @param numClusters number of clusters
+     * @param centers an array of clusters centers
+     * @param blending blending
+     * @param numerators weighted sums of objects will be stored there, ith sum is stored from i * numDimensions position
+     * @param denominators sums of weights of objects will be stored there
+     * @param statistics objective function over given objects will be stored there
+     */
+    void accumulateCenters(Dataset dataset, int[] objects, int numObjects, int numClusters, double[] centers, double blending,
+			   double[] numerators, double[] denominators, IterationStatistics statistics);
+}
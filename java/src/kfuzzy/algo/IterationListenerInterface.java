@@ -0,0 +1,29 @@
+package kfuzzy.algo;
+
+
+/**
+ * Interface to observers of iterations of the KFuzzy algorithm. An
+ * observer is notified each time a value of the objective function
+ * is added to the history and may stop the algorithm, in which case
+ * the algorithm returns result for the current cluster centers.
+ * Observers may be called from a thread, which runs the algorithm,
+ * so the GUI must not be touched from them directly.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0619
+ * @since 1.7
+ */
+public interface IterationListenerInterface {
+    /**
+     * Called after a value of the objective function is added to the history.
+     *
+     * @param iteration index of the value in the history, zero corresponds to initial cluster centers
+     * @param objective value of the objective function
+     * @param centers cluster centers, for which the value is computed,
+     * ith center is stored from i * numDimensions position. The array
+     * is owned by the algorithm and must be neither modified nor
+     * retained after the call
+     * @return true, if algorithm should continue, false, if it should stop
+     */
+    boolean iterationFinished(int iteration, double objective, double[] centers);
+}
@@ -0,0 +1,43 @@
+package kfuzzy.algo;
+
+
+/**
+ * IterationStatistics collects values, computed during an iteration
+ * of the KFuzzy algorithm, that are used to detect convergence.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0516
+ * @since 1.6
+ */
+public class IterationStatistics {
+    /**
+     * Value of the objective function J_m
+     */
+    public double objective;
+    /**
+     * Maximum change of probability of an object to lie in a cluster
+     */
+    public double maxMembershipChange;
+    /**
+     * Maximum distance, on which cluster center moved
+     */
+    public double maxCenterShift;
+    /**
+     * Sets all values to zero.
+     */
+    public void reset() {
+	objective = 0.0;
+	maxMembershipChange = 0.0;
+	maxCenterShift = 0.0;
+    }
+    /**
+     * Merges statistics, collected over other part of objects, into the current statistics.
+     *
+     * @param other statistics collected over other part of objects
+     */
+    public void merge(IterationStatistics other) {
+	objective += other.objective;
+	maxMembershipChange = Math.max(maxMembershipChange, other.maxMembershipChange);
+	maxCenterShift = Math.max(maxCenterShift, other.maxCenterShift);
+    }
+}
@@ -1,7 +1,13 @@
 package kfuzzy.algo;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 
+import kfuzzy.math.ChunkedDatasetInterface;
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DatasetChunks;
+import kfuzzy.math.DenseDataset;
 import kfuzzy.math.Vector;
 import kfuzzy.utils.MathUtils;
 /**
@@ -12,173 +18,1434 @@ import kfuzzy.utils.MathUtils;
  * @since 1.6
  */
 public class KFuzzyAlgorithm {
+    /**
+     * Options of the multi-start mode. In this mode several restarts
+     * are performed concurrently over the same dataset, initial
+     * cluster centers of ith restart are chosen by k-means++ with
+     * seed + i, restart with the least value of the objective
+     * function is returned. Restarts are compared at equal numbers
+     * of iterations: for each iteration the least value of the
+     * objective function over all restarts is kept. A restart, that
+     * has performed at least abandonAfter iterations and whose
+     * objective is larger than the least value at the same iteration
+     * by more than abandonMargin times the least value, is
+     * abandoned. Objective function may increase between iterations,
+     * since memberships and centers are computed by different powers
+     * of distances, so a restart is never compared with later
+     * iterations of other restarts, and the result doesn't depend on
+     * whether restarts are run concurrently or one after another.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0619
+     * @since 1.7
+     */
+    public static class MultiStartOptions {
+	/**
+	 * Default number of restarts
+	 */
+	public final static int DEFAULT_NUM_RESTARTS = 8;
+	/**
+	 * Default seed of the first restart
+	 */
+	public final static long DEFAULT_SEED = 2011;
+	/**
+	 * Default number of iterations, before which restarts aren't abandoned
+	 */
+	public final static int DEFAULT_ABANDON_AFTER = 5;
+	/**
+	 * Default relative margin of abandonment
+	 */
+	public final static double DEFAULT_ABANDON_MARGIN = 0.1;
+	/**
+	 * Number of restarts
+	 */
+	public final int numRestarts;
+	/**
+	 * Total number of threads used by restarts
+	 */
+	public final int numThreads;
+	/**
+	 * Seed of the first restart
+	 */
+	public final long seed;
+	/**
+	 * Number of iterations, before which restarts aren't abandoned
+	 */
+	public final int abandonAfter;
+	/**
+	 * Relative margin of abandonment, positive infinity disables abandonment
+	 */
+	public final double abandonMargin;
+	/**
+	 * Constructor, sets all fields to their default values,
+	 * number of threads is equal to number of available processors.
+	 */
+	public MultiStartOptions() {
+	    this(DEFAULT_NUM_RESTARTS, Runtime.getRuntime().availableProcessors());
+	}
+	/**
+	 * Constructor specifying number of restarts and number of threads.
+	 *
+	 * @param numRestarts number of restarts, must be positive
+	 * @param numThreads total number of threads, must be positive
+	 */
+	public MultiStartOptions(int numRestarts, int numThreads) {
+	    this(numRestarts, numThreads, DEFAULT_SEED, DEFAULT_ABANDON_AFTER, DEFAULT_ABANDON_MARGIN);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param numRestarts number of restarts, must be positive
+	 * @param numThreads total number of threads, must be positive
+	 * @param seed seed of the first restart
+	 * @param abandonAfter number of iterations, before which restarts aren't abandoned
+	 * @param abandonMargin relative margin of abandonment, must be non-negative
+	 */
+	public MultiStartOptions(int numRestarts, int numThreads, long seed, int abandonAfter, double abandonMargin) {
+	    assert numRestarts > 0 : "numRestarts: " + numRestarts;
+	    assert numThreads > 0 : "numThreads: " + numThreads;
+	    assert abandonMargin >= 0.0 : "abandonMargin: " + abandonMargin;
+
+	    this.numRestarts = numRestarts;
+	    this.numThreads = numThreads;
+	    this.seed = seed;
+	    this.abandonAfter = abandonAfter;
+	    this.abandonMargin = abandonMargin;
+	}
+    }
+    /**
+     * Options of the sweep over numbers of clusters. Numbers of
+     * clusters from minClusters to maxClusters (inclusive) are
+     * clusterized concurrently. First numbers, one per worker, are
+     * evenly spread over the range and are seeded by k-means++,
+     * other numbers are warm-started from the finished partition
+     * with the nearest number of clusters: its centers are split or
+     * merged until number of centers is right. Recommended number of
+     * clusters minimizes the Xie-Beni index.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0619
+     * @since 1.7
+     */
+    public static class SweepOptions {
+	/**
+	 * Default seed of the k-means++ seeding and of splits of centers
+	 */
+	public final static long DEFAULT_SEED = 2011;
+	/**
+	 * Least number of clusters
+	 */
+	public final int minClusters;
+	/**
+	 * Largest number of clusters
+	 */
+	public final int maxClusters;
+	/**
+	 * Total number of threads used by the sweep
+	 */
+	public final int numThreads;
+	/**
+	 * Seed of the k-means++ seeding and of splits of centers
+	 */
+	public final long seed;
+	/**
+	 * Constructor specifying range of numbers of clusters, number
+	 * of threads is equal to number of available processors.
+	 *
+	 * @param minClusters least number of clusters, must be positive
+	 * @param maxClusters largest number of clusters, must not be less than minClusters
+	 */
+	public SweepOptions(int minClusters, int maxClusters) {
+	    this(minClusters, maxClusters, Runtime.getRuntime().availableProcessors(), DEFAULT_SEED);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param minClusters least number of clusters, must be positive
+	 * @param maxClusters largest number of clusters, must not be less than minClusters
+	 * @param numThreads total number of threads, must be positive
+	 * @param seed seed of the k-means++ seeding and of splits of centers
+	 */
+	public SweepOptions(int minClusters, int maxClusters, int numThreads, long seed) {
+	    assert minClusters > 0 && minClusters <= maxClusters : String.format("range: [%d; %d]", minClusters, maxClusters);
+	    assert numThreads > 0 : "numThreads: " + numThreads;
+
+	    this.minClusters = minClusters;
+	    this.maxClusters = maxClusters;
+	    this.numThreads = numThreads;
+	    this.seed = seed;
+	}
+    }
+    /**
+     * Options of the incremental mode. In this mode objects arrive by
+     * batches, cluster centers are weighted means of all appended
+     * objects, which are kept as running sums of numerators and
+     * denominators, so objects themselves aren't stored. Each batch
+     * is refined by at most numRefinements iterations, on which
+     * centers are recomputed from the running sums and sums of the
+     * batch. Before a batch is appended, sums of previous batches
+     * are multiplied by decay, and, if windowSize is positive, sums
+     * of the batch, that leaves the window of the last windowSize
+     * batches, are subtracted, so old objects age out without a full
+     * recomputation.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0619
+     * @since 1.7
+     */
+    public static class IncrementalOptions {
+	/**
+	 * Default maximum number of refinement iterations per batch
+	 */
+	public final static int DEFAULT_NUM_REFINEMENTS = 3;
+	/**
+	 * Default decay, old objects don't age
+	 */
+	public final static double DEFAULT_DECAY = 1.0;
+	/**
+	 * Default size of the window, all batches are kept
+	 */
+	public final static int DEFAULT_WINDOW_SIZE = 0;
+	/**
+	 * Maximum number of refinement iterations per batch
+	 */
+	public final int numRefinements;
+	/**
+	 * Factor, by which sums of previous batches are multiplied, when a batch is appended
+	 */
+	public final double decay;
+	/**
+	 * Number of the last batches, that contribute to centers, or zero, if all batches contribute
+	 */
+	public final int windowSize;
+	/**
+	 * Constructor, sets all fields to their default values.
+	 */
+	public IncrementalOptions() {
+	    this(DEFAULT_NUM_REFINEMENTS, DEFAULT_DECAY, DEFAULT_WINDOW_SIZE);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param numRefinements maximum number of refinement iterations per batch, must be positive
+	 * @param decay factor of sums of previous batches, must lie in (0; 1]
+	 * @param windowSize number of the last batches, that contribute to centers, or zero
+	 */
+	public IncrementalOptions(int numRefinements, double decay, int windowSize) {
+	    assert numRefinements > 0 : "numRefinements: " + numRefinements;
+	    assert decay > 0.0 && decay <= 1.0 : "decay: " + decay;
+	    assert windowSize >= 0 : "windowSize: " + windowSize;
+
+	    this.numRefinements = numRefinements;
+	    this.decay = decay;
+	    this.windowSize = windowSize;
+	}
+	/**
+	 * @return true, if other object is IncrementalOptions with equal options
+	 */
+	@Override public boolean equals(Object o) {
+	    if (this == o)
+		return true;
+	    if (!(o instanceof IncrementalOptions))
+		return false;
+	    IncrementalOptions other = (IncrementalOptions) o;
+	    return numRefinements == other.numRefinements && Double.compare(decay, other.decay) == 0 && windowSize == other.windowSize;
+	}
+	@Override public int hashCode() {
+	    return Objects.hash(numRefinements, decay, windowSize);
+	}
+    }
+    /**
+     * Options of the large-k mode. In this mode a k-d tree over
+     * cluster centers is rebuilt on each iteration, probabilities of
+     * an object are computed only over its numNearest nearest
+     * centers, probabilities of other centers are treated as zero.
+     * Cost of an iteration depends on number of clusters roughly
+     * logarithmically instead of linearly.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0620
+     * @since 1.7
+     */
+    public static class LargeKOptions {
+	/**
+	 * Default number of nearest centers per object
+	 */
+	public final static int DEFAULT_NUM_NEAREST = 8;
+	/**
+	 * Number of nearest centers, over which probabilities of an object are computed
+	 */
+	public final int numNearest;
+	/**
+	 * Constructor, sets all fields to their default values.
+	 */
+	public LargeKOptions() {
+	    this(DEFAULT_NUM_NEAREST);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param numNearest number of nearest centers per object, must be positive
+	 */
+	public LargeKOptions(int numNearest) {
+	    assert numNearest > 0 : "numNearest: " + numNearest;
+
+	    this.numNearest = numNearest;
+	}
+    }
+    /**
+     * Criteria used to detect convergence of the algorithm
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0512
+     * @since 1.6
+     */
+    public static enum ConvergenceCriterion {
+	/**
+	 * Maximum distance, on which cluster center moved during iteration
+	 */
+	CENTER_SHIFT,
+	/**
+	 * Maximum change of probability of an object to lie in a cluster
+	 */
+	MEMBERSHIP_CHANGE,
+	/**
+	 * Relative change of the objective function
+	 */
+	OBJECTIVE;
+    }
+    /**
+     * Options of the mini-batch mode. In this mode each iteration
+     * samples a batch of objects and moves each center towards the
+     * weighted mean of the batch with learning rate w / W, where w
+     * is a weight of the cluster in the batch and W is a total
+     * weight of the cluster in all processed batches, so learning
+     * rate decays as batches are processed. Probabilities of all
+     * objects are computed only by final full passes. History of
+     * the objective function contains estimates by batches,
+     * followed by values of the full passes.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0609
+     * @since 1.6
+     */
+    public static class MiniBatchOptions {
+	/**
+	 * Default number of objects in a batch
+	 */
+	public final static int DEFAULT_BATCH_SIZE = 1024;
+	/**
+	 * Default number of full-batch iterations performed after mini-batch iterations
+	 */
+	public final static int DEFAULT_NUM_FULL_PASSES = 1;
+	/**
+	 * Default seed of the random number generator
+	 */
+	public final static long DEFAULT_SEED = 2011;
+	/**
+	 * Number of objects in a batch, objects are sampled with replacement
+	 */
+	public final int batchSize;
+	/**
+	 * Number of full-batch iterations performed after mini-batch iterations
+	 */
+	public final int numFullPasses;
+	/**
+	 * Seed of the random number generator, used to sample batches
+	 */
+	public final long seed;
+	/**
+	 * Constructor, sets all fields to their default values.
+	 */
+	public MiniBatchOptions() {
+	    this(DEFAULT_BATCH_SIZE);
+	}
+	/**
+	 * Constructor specifying size of the batch.
+	 *
+	 * @param batchSize number of objects in a batch, must be positive
+	 */
+	public MiniBatchOptions(int batchSize) {
+	    this(batchSize, DEFAULT_NUM_FULL_PASSES, DEFAULT_SEED);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param batchSize number of objects in a batch, must be positive
+	 * @param numFullPasses number of final full-batch iterations, must be non-negative
+	 * @param seed seed of the random number generator
+	 */
+	public MiniBatchOptions(int batchSize, int numFullPasses, long seed) {
+	    assert batchSize > 0 : "batchSize: " + batchSize;
+	    assert numFullPasses >= 0 : "numFullPasses: " + numFullPasses;
+
+	    this.batchSize = batchSize;
+	    this.numFullPasses = numFullPasses;
+	    this.seed = seed;
+	}
+	/**
+	 * @return true, if other object is MiniBatchOptions with equal options
+	 */
+	@Override public boolean equals(Object o) {
+	    if (this == o)
+		return true;
+	    if (!(o instanceof MiniBatchOptions))
+		return false;
+	    MiniBatchOptions other = (MiniBatchOptions) o;
+	    return batchSize == other.batchSize && numFullPasses == other.numFullPasses && seed == other.seed;
+	}
+	@Override public int hashCode() {
+	    return Objects.hash(batchSize, numFullPasses, seed);
+	}
+    }
+    /**
+     * Options of the out-of-core mode. In this mode dataset is
+     * processed chunk by chunk on each iteration, so neither dataset
+     * nor probabilities are stored in memory: iterations accumulate
+     * numerators and denominators of cluster centers, and assignment
+     * is passed to a writer by chunks. Size of a chunk is chosen so
+     * that buffers of the chunk fit into the memory budget.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0616
+     * @since 1.7
+     */
+    public static class OutOfCoreOptions {
+	/**
+	 * Default memory budget, in bytes
+	 */
+	public final static long DEFAULT_MEMORY_BUDGET = 64L << 20;
+	/**
+	 * Number of bytes per component of a chunk, that are used by
+	 * file-backed datasets: raw bytes and decoded value
+	 */
+	public final static int BYTES_PER_COMPONENT = 16;
+	/**
+	 * Number of bytes per object of a chunk, that are used by the
+	 * assignment buffer
+	 */
+	public final static int BYTES_PER_OBJECT = 4;
+	/**
+	 * Memory budget for buffers of a chunk, in bytes. Memory used
+	 * by cluster centers and by seeding doesn't depend on number
+	 * of objects and isn't included.
+	 */
+	public final long memoryBudget;
+	/**
+	 * Constructor, sets all fields to their default values.
+	 */
+	public OutOfCoreOptions() {
+	    this(DEFAULT_MEMORY_BUDGET);
+	}
+	/**
+	 * Constructor specifying memory budget.
+	 *
+	 * @param memoryBudget memory budget for buffers of a chunk, in bytes, must be positive
+	 */
+	public OutOfCoreOptions(long memoryBudget) {
+	    assert memoryBudget > 0 : "memoryBudget: " + memoryBudget;
+
+	    this.memoryBudget = memoryBudget;
+	}
+	/**
+	 * Returns number of objects in a chunk, buffers of which fit
+	 * into the memory budget.
+	 *
+	 * @param numDimensions number of dimensions
+	 * @return size of a chunk, at least one
+	 */
+	public int getChunkSize(int numDimensions) {
+	    long size = memoryBudget / ((long) BYTES_PER_COMPONENT * numDimensions + BYTES_PER_OBJECT);
+	    return (int) Math.max(1, Math.min(Integer.MAX_VALUE / Math.max(1, numDimensions), size));
+	}
+    }
+    /**
+     * Options of the sparse output of memberships. For each object
+     * at most maxMemberships largest probabilities, which are not
+     * less than threshold, are stored.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0618
+     * @since 1.7
+     */
+    public static class SparseOptions {
+	/**
+	 * Default maximum number of memberships per object
+	 */
+	public final static int DEFAULT_MAX_MEMBERSHIPS = 4;
+	/**
+	 * Default minimum stored probability
+	 */
+	public final static double DEFAULT_THRESHOLD = 0.01;
+	/**
+	 * Maximum number of memberships per object
+	 */
+	public final int maxMemberships;
+	/**
+	 * Minimum stored probability
+	 */
+	public final double threshold;
+	/**
+	 * Constructor, sets all fields to their default values.
+	 */
+	public SparseOptions() {
+	    this(DEFAULT_MAX_MEMBERSHIPS, DEFAULT_THRESHOLD);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param maxMemberships maximum number of memberships per object, must be positive
+	 * @param threshold minimum stored probability
+	 */
+	public SparseOptions(int maxMemberships, double threshold) {
+	    assert maxMemberships > 0 : "maxMemberships: " + maxMemberships;
+
+	    this.maxMemberships = maxMemberships;
+	    this.threshold = threshold;
+	}
+	/**
+	 * @param expectedObjects expected number of objects
+	 * @return builder of memberships with these options
+	 */
+	public SparseMemberships.Builder createBuilder(int expectedObjects) {
+	    return new SparseMemberships.Builder(maxMemberships, threshold, expectedObjects);
+	}
+	/**
+	 * @return true, if other object is SparseOptions with equal options
+	 */
+	@Override public boolean equals(Object o) {
+	    if (this == o)
+		return true;
+	    if (!(o instanceof SparseOptions))
+		return false;
+	    SparseOptions other = (SparseOptions) o;
+	    return maxMemberships == other.maxMemberships && Double.compare(threshold, other.threshold) == 0;
+	}
+	@Override public int hashCode() {
+	    return Objects.hash(maxMemberships, threshold);
+	}
+    }
     /**
      * Options required by algorithm
      *
      * @author Yuri Gorshenin
-     * @version 2011.0424
+     * @version 2011.0512
      * @since 1.6
      */
     public static class Options {
 	/**
-	 * Default value of blending
+	 * Default value of blending
+	 */
+	public final static double DEFAULT_BLENDING = 0.0;
+	/**
+	 * Default number of iterations that will be performed
+	 */
+	public final static int DEFAULT_MAX_ITERATIONS = 10000;
+	/**
+	 * Default convergence tolerance
+	 */
+	public final static double DEFAULT_TOLERANCE = MathUtils.EPSILON;
+	/**
+	 * Default convergence criterion
+	 */
+	public final static ConvergenceCriterion DEFAULT_CRITERION = ConvergenceCriterion.CENTER_SHIFT;
+	/**
+	 * Value of blending
+	 */
+	public final double blending;
+	/**
+	 * Maximum number of iterations that will be performed
+	 */
+	public final int maxIterations;
+	/**
+	 * Algorithm stops as soon as value checked by criterion is
+	 * no more than tolerance
+	 */
+	public final double tolerance;
+	/**
+	 * Convergence criterion
+	 */
+	public final ConvergenceCriterion criterion;
+	/**
+	 * Options of the mini-batch mode, or null, if all objects are processed on each iteration
+	 */
+	public final MiniBatchOptions miniBatch;
+	/**
+	 * Options of the sparse output of memberships, or null, if memberships aren't returned
+	 */
+	public final SparseOptions sparse;
+	/**
+	 * True, if probabilities of objects aren't stored: on each
+	 * iteration probabilities of an object are computed and are
+	 * immediately added to sums of cluster centers, so memory
+	 * doesn't depend on number of objects. Since probabilities
+	 * aren't stored, MEMBERSHIP_CHANGE criterion is checked by
+	 * shift of cluster centers.
+	 */
+	public final boolean matrixFree;
+	/**
+	 * Constructor, sets all fields to their default values.
+	 */
+	public Options() {
+	    this(DEFAULT_BLENDING, DEFAULT_MAX_ITERATIONS);
+	}
+	/**
+	 * Constructor specifying blending and number of iterations.
+	 *
+	 * @param blending blending
+	 * @param maxIterations maximum number of iterations that will be performed
+	 */
+	public Options(double blending, int maxIterations) {
+	    this(blending, maxIterations, DEFAULT_TOLERANCE);
+	}
+	/**
+	 * Constructor specifying blending, number of iterations and
+	 * convergence tolerance.
+	 *
+	 * @param blending blending
+	 * @param maxIterations maximum number of iterations that will be performed
+	 * @param tolerance convergence tolerance, must be non-negative
+	 */
+	public Options(double blending, int maxIterations, double tolerance) {
+	    this(blending, maxIterations, tolerance, DEFAULT_CRITERION);
+	}
+	/**
+	 * Constructor specifying blending, number of iterations,
+	 * convergence tolerance and criterion.
+	 *
+	 * @param blending blending
+	 * @param maxIterations maximum number of iterations that will be performed
+	 * @param tolerance convergence tolerance, must be non-negative
+	 * @param criterion convergence criterion, must not be null
+	 */
+	public Options(double blending, int maxIterations, double tolerance, ConvergenceCriterion criterion) {
+	    this(blending, maxIterations, tolerance, criterion, null);
+	}
+	/**
+	 * Constructor specifying blending, number of iterations,
+	 * convergence tolerance, criterion and mini-batch options.
+	 *
+	 * @param blending blending
+	 * @param maxIterations maximum number of iterations that will be performed
+	 * @param tolerance convergence tolerance, must be non-negative
+	 * @param criterion convergence criterion, must not be null
+	 * @param miniBatch options of the mini-batch mode, or null
+	 */
+	public Options(double blending, int maxIterations, double tolerance, ConvergenceCriterion criterion, MiniBatchOptions miniBatch) {
+	    this(blending, maxIterations, tolerance, criterion, miniBatch, null);
+	}
+	/**
+	 * Constructor specifying all options, except the matrix-free mode.
+	 *
+	 * @param blending blending
+	 * @param maxIterations maximum number of iterations that will be performed
+	 * @param tolerance convergence tolerance, must be non-negative
+	 * @param criterion convergence criterion, must not be null
+	 * @param miniBatch options of the mini-batch mode, or null
+	 * @param sparse options of the sparse output of memberships, or null
+	 */
+	public Options(double blending, int maxIterations, double tolerance, ConvergenceCriterion criterion, MiniBatchOptions miniBatch,
+		       SparseOptions sparse) {
+	    this(blending, maxIterations, tolerance, criterion, miniBatch, sparse, false);
+	}
+	/**
+	 * Constructor specifying all options.
+	 *
+	 * @param blending blending
+	 * @param maxIterations maximum number of iterations that will be performed
+	 * @param tolerance convergence tolerance, must be non-negative
+	 * @param criterion convergence criterion, must not be null
+	 * @param miniBatch options of the mini-batch mode, or null
+	 * @param sparse options of the sparse output of memberships, or null
+	 * @param matrixFree true, if probabilities of objects aren't stored
+	 */
+	public Options(double blending, int maxIterations, double tolerance, ConvergenceCriterion criterion, MiniBatchOptions miniBatch,
+		       SparseOptions sparse, boolean matrixFree) {
+	    assert tolerance >= 0 : "tolerance: " + tolerance;
+	    assert criterion != null : "criterion must not be null";
+
+	    this.blending = blending;
+	    this.maxIterations = maxIterations;
+	    this.tolerance = tolerance;
+	    this.criterion = criterion;
+	    this.miniBatch = miniBatch;
+	    this.sparse = sparse;
+	    this.matrixFree = matrixFree;
+	}
+	/**
+	 * @return true, if other object is Options with equal options
+	 */
+	@Override public boolean equals(Object o) {
+	    if (this == o)
+		return true;
+	    if (!(o instanceof Options))
+		return false;
+	    Options other = (Options) o;
+	    return Double.compare(blending, other.blending) == 0 && maxIterations == other.maxIterations &&
+		Double.compare(tolerance, other.tolerance) == 0 && criterion == other.criterion &&
+		Objects.equals(miniBatch, other.miniBatch) && Objects.equals(sparse, other.sparse) && matrixFree == other.matrixFree;
+	}
+	@Override public int hashCode() {
+	    return Objects.hash(blending, maxIterations, tolerance, criterion, miniBatch, sparse, matrixFree);
+	}
+    }
+    /**
+     * Result of the clusterization
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0512
+     * @since 1.6
+     */
+    public static class Result {
+	/**
+	 * An array of cluster indices, where ith index corresponds to ith vector
+	 */
+	public final int[] assignment;
+	/**
+	 * Number of actually performed iterations
+	 */
+	public final int numIterations;
+	/**
+	 * True, if algorithm stopped because of convergence criterion
+	 */
+	public final boolean converged;
+	/**
+	 * Final value of the objective function
+	 */
+	public final double objective;
+	/**
+	 * Values of the objective function, first value corresponds
+	 * to initial cluster centers, ith value corresponds to the
+	 * ith iteration
+	 */
+	public final double[] objectiveHistory;
+	/**
+	 * Largest memberships of objects, or null, if sparse output wasn't requested
+	 */
+	public final SparseMemberships memberships;
+	/**
+	 * Final cluster centers, ith center is stored from i *
+	 * numDimensions position, or null, if dataset is empty
+	 */
+	public final double[] centers;
+	/**
+	 * Constructor specifying all fields, except memberships and centers.
+	 *
+	 * @param assignment an array of cluster indices
+	 * @param numIterations number of performed iterations
+	 * @param converged true, if algorithm has converged
+	 * @param objective final value of the objective function
+	 * @param objectiveHistory history of the objective function
+	 */
+	public Result(int[] assignment, int numIterations, boolean converged, double objective, double[] objectiveHistory) {
+	    this(assignment, numIterations, converged, objective, objectiveHistory, null);
+	}
+	/**
+	 * Constructor specifying all fields.
+	 *
+	 * @param assignment an array of cluster indices
+	 * @param numIterations number of performed iterations
+	 * @param converged true, if algorithm has converged
+	 * @param objective final value of the objective function
+	 * @param objectiveHistory history of the objective function
+	 * @param memberships largest memberships of objects, or null
+	 */
+	public Result(int[] assignment, int numIterations, boolean converged, double objective, double[] objectiveHistory,
+		      SparseMemberships memberships) {
+	    this(assignment, numIterations, converged, objective, objectiveHistory, memberships, null);
+	}
+	/**
+	 * Constructor specifying all fields.
+	 *
+	 * @param assignment an array of cluster indices
+	 * @param numIterations number of performed iterations
+	 * @param converged true, if algorithm has converged
+	 * @param objective final value of the objective function
+	 * @param objectiveHistory history of the objective function
+	 * @param memberships largest memberships of objects, or null
+	 * @param centers final cluster centers, or null
+	 */
+	public Result(int[] assignment, int numIterations, boolean converged, double objective, double[] objectiveHistory,
+		      SparseMemberships memberships, double[] centers) {
+	    this.assignment = assignment;
+	    this.numIterations = numIterations;
+	    this.converged = converged;
+	    this.objective = objective;
+	    this.objectiveHistory = objectiveHistory;
+	    this.memberships = memberships;
+	    this.centers = centers;
+	}
+	/**
+	 * Returns final cluster centers as vectors, which are views of the centers array.
+	 *
+	 * @param numDimensions number of dimensions, must be positive
+	 * @return final cluster centers, or null, if they are unknown
+	 */
+	public Vector[] getCenters(int numDimensions) {
+	    if (centers == null)
+		return null;
+	    return new DenseDataset(centers.length / numDimensions, numDimensions, centers).getRows();
+	}
+    }
+    /**
+     * Result of the sweep over numbers of clusters, ith elements of
+     * arrays correspond to (minClusters + i) clusters.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0619
+     * @since 1.7
+     */
+    public static class SweepResult {
+	/**
+	 * Numbers of clusters
+	 */
+	public final int[] numClusters;
+	/**
+	 * Results of clusterizations
+	 */
+	public final Result[] results;
+	/**
+	 * Validity indices of partitions
+	 */
+	public final ValidityIndices[] indices;
+	/**
+	 * Number of clusters of the partition, from which clusterization
+	 * was warm-started, or zero, if it was seeded by k-means++
+	 */
+	public final int[] warmStartedFrom;
+	/**
+	 * Wall-clock times of clusterizations, in nanoseconds
+	 */
+	public final long[] times;
+	/**
+	 * Recommended number of clusters, the one with the least Xie-Beni index
+	 */
+	public final int recommendedNumClusters;
+	/**
+	 * Constructor specifying all fields, except the recommended
+	 * number of clusters, which is computed.
+	 *
+	 * @param numClusters numbers of clusters
+	 * @param results results of clusterizations
+	 * @param indices validity indices of partitions
+	 * @param warmStartedFrom numbers of clusters of warm-start partitions
+	 * @param times wall-clock times of clusterizations, in nanoseconds
+	 */
+	public SweepResult(int[] numClusters, Result[] results, ValidityIndices[] indices, int[] warmStartedFrom, long[] times) {
+	    this.numClusters = numClusters;
+	    this.results = results;
+	    this.indices = indices;
+	    this.warmStartedFrom = warmStartedFrom;
+	    this.times = times;
+
+	    int best = 0;
+	    for (int i = 1; i < numClusters.length; ++i)
+		if (indices[i].xieBeni < indices[best].xieBeni)
+		    best = i;
+	    this.recommendedNumClusters = numClusters[best];
+	}
+	/**
+	 * Returns result of clusterization into the given number of clusters.
+	 *
+	 * @param k number of clusters, must lie in the range of the sweep
+	 * @return result of clusterization
+	 */
+	public Result getResult(int k) {
+	    return results[k - numClusters[0]];
+	}
+    }
+    /**
+     * Result of the large-k mode. Truncation errors aren't exact:
+     * truncation error of an object is an upper bound of its total
+     * probability over centers, that aren't among its nearest ones:
+     * each of them is not closer than the furthest of the nearest
+     * centers, so its unnormalized probability is not larger. Errors
+     * are computed by the final centers.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0620
+     * @since 1.7
+     */
+    public static class LargeKResult extends Result {
+	/**
+	 * Maximum over objects of upper bounds of truncation errors
+	 */
+	public final double maxTruncationError;
+	/**
+	 * Mean over objects of upper bounds of truncation errors
+	 */
+	public final double meanTruncationError;
+	/**
+	 * Constructor specifying all fields.
+	 *
+	 * @param assignment an array of cluster indices
+	 * @param numIterations number of performed iterations
+	 * @param converged true, if algorithm has converged
+	 * @param objective final value of the objective function
+	 * @param objectiveHistory history of the objective function
+	 * @param memberships largest memberships of objects, or null
+	 * @param centers final cluster centers, or null
+	 * @param maxTruncationError maximum over objects of upper bounds of truncation errors
+	 * @param meanTruncationError mean over objects of upper bounds of truncation errors
+	 */
+	public LargeKResult(int[] assignment, int numIterations, boolean converged, double objective, double[] objectiveHistory,
+			    SparseMemberships memberships, double[] centers, double maxTruncationError, double meanTruncationError) {
+	    super(assignment, numIterations, converged, objective, objectiveHistory, memberships, centers);
+	    this.maxTruncationError = maxTruncationError;
+	    this.meanTruncationError = meanTruncationError;
+	}
+    }
+    /**
+     * State of the incremental mode, see {@link
+     * IncrementalOptions}. Batches are processed by the engine and
+     * observer of iterations of the algorithm, which created the
+     * state, initial cluster centers are chosen among objects of the
+     * first batch. Convergence of refinement iterations is always
+     * checked by shift of cluster centers, mini-batch and matrix-free
+     * options are ignored. State isn't thread-safe.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0619
+     * @since 1.7
+     */
+    public class Incremental {
+	/**
+	 * Number of clusters
+	 */
+	private final int numClusters;
+	private final Options options;
+	private final IncrementalOptions incrementalOptions;
+	/**
+	 * Number of dimensions, known after the first batch
+	 */
+	private int numDimensions;
+	/**
+	 * Current cluster centers, or null, if no batches were appended
+	 */
+	private double[] centers;
+	/**
+	 * Running sums of numerators and denominators of all batches in the window
+	 */
+	private double[] numerators, denominators;
+	/**
+	 * Sums of the current batch and total sums
+	 */
+	private double[] batchNumerators, batchDenominators, totalNumerators, totalDenominators;
+	/**
+	 * Sums of batches in the window, numerators are followed by denominators
+	 */
+	private final ArrayDeque<double[]> window = new ArrayDeque<double[]>();
+	/**
+	 * Total number of appended objects
+	 */
+	private long numObjects = 0;
+	/**
+	 * Constructor specifying number of clusters and options.
+	 *
+	 * @param numClusters number of clusters, must be positive
+	 * @param options KFuzzy algorithm options
+	 * @param incrementalOptions options of the incremental mode
+	 */
+	public Incremental(int numClusters, Options options, IncrementalOptions incrementalOptions) {
+	    assert numClusters > 0 : "numClusters: " + numClusters;
+
+	    this.numClusters = numClusters;
+	    this.options = options;
+	    this.incrementalOptions = incrementalOptions;
+	}
+	/**
+	 * @return number of clusters
 	 */
-	public final static double DEFAULT_BLENDING = 0.0;
+	public int getNumClusters() {
+	    return numClusters;
+	}
 	/**
-	 * Default number of iterations that will be performed
+	 * @return KFuzzy algorithm options
 	 */
-	public final static int DEFAULT_MAX_ITERATIONS = 10000;
+	public Options getOptions() {
+	    return options;
+	}
 	/**
-	 * Value of blending
+	 * @return options of the incremental mode
 	 */
-	public final double blending;
+	public IncrementalOptions getIncrementalOptions() {
+	    return incrementalOptions;
+	}
 	/**
-	 * Number of iterations that will be performed
+	 * @return total number of appended objects
 	 */
-	public final int maxIterations;
+	public long getNumObjects() {
+	    return numObjects;
+	}
 	/**
-	 * Constructor, sets all fields to their default values.
+	 * Returns current cluster centers.
+	 *
+	 * @return copy of cluster centers, ith center is stored from i * numDimensions position, or null, if no batches were appended
 	 */
-	public Options() {
-	    this.blending = DEFAULT_BLENDING;
-	    this.maxIterations = DEFAULT_MAX_ITERATIONS;
+	public double[] getCenters() {
+	    return centers == null ? null : centers.clone();
 	}
 	/**
-	 * Constructor specifying blending and number of iterations.
+	 * Initializes cluster centers and buffers by the first batch.
+	 */
+	private void initialize(Dataset batch) {
+	    if (batch.getNumObjects() < numClusters)
+		throw new IllegalArgumentException(String.format("first batch contains %d objects, at least %d are required",
+								 batch.getNumObjects(), numClusters));
+	    numDimensions = batch.getNumDimensions();
+	    centers = new double[numClusters * numDimensions];
+	    findCenters(batch, numClusters, centers);
+	    numerators = new double[numClusters * numDimensions];
+	    denominators = new double[numClusters];
+	    batchNumerators = new double[numClusters * numDimensions];
+	    batchDenominators = new double[numClusters];
+	    totalNumerators = new double[numClusters * numDimensions];
+	    totalDenominators = new double[numClusters];
+	}
+	/**
+	 * Multiplies sums of previous batches by decay.
+	 */
+	private void age() {
+	    final double decay = incrementalOptions.decay;
+	    if (decay == 1.0)
+		return;
+	    for (int i = 0; i < numerators.length; ++i)
+		numerators[i] *= decay;
+	    for (int i = 0; i < numClusters; ++i)
+		denominators[i] *= decay;
+	    for (double[] sums : window)
+		for (int i = 0; i < sums.length; ++i)
+		    sums[i] *= decay;
+	}
+	/**
+	 * Adds sums of the current batch to the running sums and
+	 * removes sums of the batch, that leaves the window.
+	 */
+	private void commit() {
+	    for (int i = 0; i < numerators.length; ++i)
+		numerators[i] += batchNumerators[i];
+	    for (int i = 0; i < numClusters; ++i)
+		denominators[i] += batchDenominators[i];
+	    if (incrementalOptions.windowSize == 0)
+		return;
+
+	    double[] sums = Arrays.copyOf(batchNumerators, numerators.length + numClusters);
+	    System.arraycopy(batchDenominators, 0, sums, numerators.length, numClusters);
+	    window.addLast(sums);
+	    if (window.size() > incrementalOptions.windowSize) {
+		double[] oldest = window.removeFirst();
+		for (int i = 0; i < numerators.length; ++i)
+		    numerators[i] -= oldest[i];
+		// denominators are sums of non-negative weights, rounding errors mustn't make them negative
+		for (int i = 0; i < numClusters; ++i)
+		    denominators[i] = Math.max(0.0, denominators[i] - oldest[numerators.length + i]);
+	    }
+	}
+	/**
+	 * Appends a batch of objects: refines cluster centers by the
+	 * batch and finds assignment of its objects. Objects of
+	 * previous batches are not reassigned.
 	 *
-	 * @param blending blending
-	 * @param maxIterations number of iterations that will be performed
+	 * @param batch batch of objects, number of dimensions must be the same for all batches
+	 * @return result of the batch: assignment and memberships of
+	 * its objects, values of the objective function over the batch
+	 * on refinement iterations and for the final centers
+	 * @throws IllegalArgumentException if the first batch contains less than numClusters objects
 	 */
-	public Options(double blending, int maxIterations) {
-	    this.blending = blending;
-	    this.maxIterations = maxIterations;
+	public Result append(Dataset batch) {
+	    final int batchSize = batch.getNumObjects();
+	    if (batchSize == 0)
+		return new Result(new int[] {}, 0, true, 0.0, new double[] {});
+	    if (centers == null)
+		initialize(batch);
+	    assert batch.getNumDimensions() == numDimensions :
+	    String.format("batch has %d dimensions, expected %d", batch.getNumDimensions(), numDimensions);
+	    assert (long) batchSize * numClusters <= Integer.MAX_VALUE : "probabilities don't fit into array";
+
+	    age();
+	    IterationStatistics statistics = new IterationStatistics();
+	    ObjectiveTracker tracker = new ObjectiveTracker(iterationListener, centers);
+	    int iteration = 0;
+	    boolean converged = false;
+	    while (iteration < incrementalOptions.numRefinements && !converged && !tracker.isStopped()) {
+		engine.accumulateCenters(batch, null, batchSize, numClusters, centers, options.blending, batchNumerators, batchDenominators,
+					 statistics);
+		tracker.add(statistics.objective);
+		for (int i = 0; i < numerators.length; ++i)
+		    totalNumerators[i] = numerators[i] + batchNumerators[i];
+		for (int i = 0; i < numClusters; ++i)
+		    totalDenominators[i] = denominators[i] + batchDenominators[i];
+		SerialEngine.finishCenters(numClusters, numDimensions, totalNumerators, totalDenominators, centers, statistics);
+		++iteration;
+		converged = statistics.maxCenterShift <= options.tolerance;
+	    }
+	    commit();
+	    numObjects += batchSize;
+
+	    double[] probabilities = new double[batchSize * numClusters];
+	    engine.findProbabilities(batch, numClusters, centers, options.blending, probabilities, statistics);
+	    tracker.add(statistics.objective);
+	    int[] assignment = findAssignment(batchSize, numClusters, probabilities, null);
+	    SparseMemberships memberships = null;
+	    if (options.sparse != null) {
+		SparseMemberships.Builder builder = options.sparse.createBuilder(batchSize);
+		for (int i = 0; i < batchSize; ++i)
+		    builder.add(probabilities, i * numClusters, numClusters);
+		memberships = builder.build();
+	    }
+	    return new Result(assignment, iteration, converged, tracker.getLast(), tracker.toArray(), memberships, centers.clone());
+	}
+	/**
+	 * Appends a batch of vectors.
+	 *
+	 * @param batch batch of vectors, all vectors must have an equal size
+	 * @return result of the batch
+	 * @see #append(Dataset)
+	 */
+	public Result append(Vector[] batch) {
+	    if (batch.length == 0)
+		return new Result(new int[] {}, 0, true, 0.0, new double[] {});
+	    return append(new DenseDataset(batch));
 	}
     }
+    /**
+     * Maximum number of objects, among which initial cluster centers
+     * are chosen, for datasets that create a vector per row
+     *
+     * @see Dataset#getSeedingRows(int)
+     */
+    public final static int MAX_SEEDING_ROWS = 1 << 16;
+    /**
+     * Number of objects, assignment of which is buffered by the final
+     * pass of the matrix-free mode
+     */
+    private final static int ASSIGNMENT_CHUNK_SIZE = 1 << 12;
     /**
      * Reference to an implementation of the ClusterCentersInterface
      */
     private ClusterCentersInterface clusterCentersAlgorithm;
+    /**
+     * Reference to an implementation of the ClusterizationEngineInterface
+     */
+    private ClusterizationEngineInterface engine;
+    /**
+     * Observer of iterations, or null
+     */
+    private IterationListenerInterface iterationListener;
     /**
      * Finds possible centers of clusters by given set of vectors.
      *
-     * @param vectors set of vectors on which clusterization will be performed
+     * @param dataset set of vectors on which clusterization will be performed
      * @param numClusters number of cluster centers
-     * @return an array of possible cluster centers
+     * @param centers resulting array of possible cluster centers, ith
+     * center is stored from i * numDimensions position
      */
-    private Vector[] findCenters(Vector[] vectors, int numClusters) {
-	return clusterCentersAlgorithm.findClusterCenters(vectors, numClusters);
+    private void findCenters(Dataset dataset, int numClusters, double[] centers) {
+	Vector[] rows = dataset.getSeedingRows(Math.max(MAX_SEEDING_ROWS, numClusters));
+	Vector[] result = clusterCentersAlgorithm.findClusterCenters(rows, numClusters);
+	for (int i = 0; i < numClusters; ++i)
+	    result[i].copyTo(centers, i * dataset.getNumDimensions());
     }
     /**
-     * Finds probabilities of the given vector to lie in each cluster
+     * Finds possible centers of clusters by objects evenly spread
+     * over chunked dataset. Dataset is read by one pass.
      *
-     * @param Vector vector to which probabilities will be computed
-     * @param numClusters number of clusters
-     * @param centers an array of clusters centers
-     * @param Options KFuzzy algorithm options
-     * @param probabilities resulting array of probabilities
+     * @param dataset chunked set of vectors
+     * @param numClusters number of cluster centers
+     * @param chunkSize number of objects in a chunk
+     * @param centers resulting array of possible cluster centers
+     * @throws IOException in the case of problems with IO
      */
-    private void findProbabilities(Vector vector, int numClusters, Vector[] centers, Options options, double[] probabilities) {
-	double power = 1.0 / (options.blending - 1.0);
+    private void findCenters(ChunkedDatasetInterface dataset, int numClusters, int chunkSize, double[] centers) throws IOException {
+	final int numObjects = dataset.getNumObjects();
+	final int numRows = Math.min(numObjects, Math.max(MAX_SEEDING_ROWS, numClusters));
 
-	for (int i = 0; i < numClusters; ++i) {
-	    double distance = vector.sub(centers[i]).abs();
-	    if (MathUtils.EQ(distance, 0))
-		probabilities[i] = Double.MAX_VALUE;
-	    else
-		probabilities[i] = Math.pow(1.0 / distance, power);
-	}
-	// normalization of computed probabilities
-	double total = 0.0;
-	for (double p : probabilities)
-	    total += p;
+	Vector[] rows = new Vector[numRows];
+	int row = 0;
+	for (int from = 0; from < numObjects && row < numRows; from += chunkSize) {
+	    final int size = Math.min(chunkSize, numObjects - from);
+	    Dataset chunk = null;
+	    long object;
+	    while (row < numRows && (object = (long) numObjects * row / numRows) < from + size) {
+		if (chunk == null)
+		    chunk = dataset.getChunk(from, size);
+		double[] components = new double[dataset.getNumDimensions()];
+		chunk.copyRow((int) object - from, components, 0);
+		rows[row++] = new Vector(components);
+	    }
+	}
+	Vector[] result = clusterCentersAlgorithm.findClusterCenters(rows, numClusters);
 	for (int i = 0; i < numClusters; ++i)
-	    probabilities[i] /= total;
+	    result[i].copyTo(centers, i * dataset.getNumDimensions());
     }
     /**
-     * For each vector finds probabilities to lie in each cluster
+     * Finds assignment based on probabilities to lie in particular cluster.
      *
-     * @param numObjects number of vectors
-     * @param vectors an array of vectors
-     * @param numClusters number of clusters
-     * @param centers an array of clusters centers
-     * @param options KFuzzy algorithm options
-     * @param probabilities resulting array of probabilities, ith row must correspond to ith vector
+     * @param numObjects number of vectors that are clusterized
+     * @param numClusters number of clusters to which objects are clusterized
+     * @param probabilities probabilities of ith object to lie in jth
+     * cluster, stored at i * numClusters + j position
+     * @param validity builder of validity indices, to which probabilities are added, or null
+     * @return array of assignment, where ith element is a number of a cluster of ith vector
      */
-    private void findProbabilities(int numObjects, Vector[] vectors, int numClusters, Vector[] centers, Options options, double[][] probabilities) {
-	for (int i = 0; i < numObjects; ++i)
-	    findProbabilities(vectors[i], numClusters, centers, options, probabilities[i]);
+    private int[] findAssignment(int numObjects, int numClusters, double[] probabilities, ValidityIndices.Builder validity) {
+	int[] assignment = new int[numObjects];
+
+	for (int i = 0; i < numObjects; ++i) {
+	    final int row = i * numClusters;
+	    for (int j = 0; j < numClusters; ++j)
+		if (probabilities[row + j] > probabilities[row + assignment[i]])
+		    assignment[i] = j;
+	    if (validity != null)
+		validity.add(probabilities, row, numClusters);
+	}
+	return assignment;
     }
     /**
-     * By set of vectors and their probabilities to lie in a cluster recomputes cluster center.
+     * Checks convergence criterion.
      *
-     * @param numDimensions number of dimensions in the space (must be equal to number of dimensions in vectors)
-     * @param numObjects number of vectors
-     * @param vectors an array of vectors
-     * @param clusterNumber number of cluster for which center is recomputed (zero based)
-     * @param probabilities an two dimensional array of probabilities,
-     * ith row is correspond to ith vector and represents an array of
-     * probabilities to lie in particular cluster
      * @param options KFuzzy algorithm options
-     * @return center of cluster
+     * @param maxCenterShift maximum shift of cluster centers during the last iteration
+     * @param maxMembershipChange maximum change of probabilities during the last iteration
+     * @param tracker history of the objective function
+     * @return true, if algorithm has converged
+     */
+    private boolean hasConverged(Options options, double maxCenterShift, double maxMembershipChange, ObjectiveTracker tracker) {
+	switch (options.criterion) {
+	case CENTER_SHIFT:
+	    return maxCenterShift <= options.tolerance;
+	case MEMBERSHIP_CHANGE:
+	    return maxMembershipChange <= options.tolerance;
+	case OBJECTIVE:
+	    return tracker.hasConverged(options.tolerance);
+	}
+	return false;
+    }
+    /**
+     * Performs mini-batch iterations until convergence criterion is
+     * met or maximum number of iterations is reached. Probabilities
+     * aren't stored in this mode, so MEMBERSHIP_CHANGE criterion is
+     * checked by shift of cluster centers. Objective function of a
+     * batch is scaled to the whole dataset before it's added to the
+     * history.
+     *
+     * @param dataset set of vectors
+     * @param numClusters number of clusters
+     * @param options KFuzzy algorithm options, mini-batch options must not be null
+     * @param centers initial cluster centers, will be replaced by new centers
+     * @param statistics buffer for statistics of iterations
+     * @param tracker history of the objective function, a value is added on each iteration
+     * @return true, if convergence criterion is met
      */
-    private Vector recomputeCenter(int numDimensions, int numObjects, Vector[] vectors, int clusterNumber,
-				   double[][] probabilities, Options options) {
-	double norm = 0.0;
-	for (int i = 0; i < numObjects; ++i)
-	    norm += Math.pow(probabilities[i][clusterNumber], options.blending);
+    private boolean performMiniBatches(Dataset dataset, int numClusters, Options options, double[] centers, IterationStatistics statistics,
+				   ObjectiveTracker tracker) {
+	final int numObjects = dataset.getNumObjects(), numDimensions = dataset.getNumDimensions();
+	final int batchSize = options.miniBatch.batchSize;
 
-	Vector result = new Vector(numDimensions);
-	for (int i = 0; i < numObjects; ++i)
-	    result = result.add(vectors[i].mul(Math.pow(probabilities[i][clusterNumber], options.blending) / norm));
-	return result;
+	Random random = new Random(options.miniBatch.seed);
+	int[] batch = new int[batchSize];
+	double[] numerators = new double[numClusters * numDimensions];
+	double[] denominators = new double[numClusters];
+	// total weights of clusters in all processed batches
+	double[] totals = new double[numClusters];
+
+	int iteration = 0;
+	boolean converged = false;
+	while (iteration < options.maxIterations && !converged && !tracker.isStopped()) {
+	    for (int i = 0; i < batchSize; ++i)
+		batch[i] = random.nextInt(numObjects);
+	    engine.accumulateCenters(dataset, batch, batchSize, numClusters, centers, options.blending, numerators, denominators,
+				     statistics);
+	    tracker.add(statistics.objective * numObjects / batchSize);
+	    ++iteration;
+
+	    double shift = 0.0;
+	    for (int i = 0; i < numClusters; ++i) {
+		if (denominators[i] == 0.0)
+		    continue;
+		totals[i] += denominators[i];
+		final double rate = denominators[i] / totals[i];
+		final int base = i * numDimensions;
+		double squaredShift = 0.0;
+		for (int j = 0; j < numDimensions; ++j) {
+		    double t = rate * (numerators[base + j] / denominators[i] - centers[base + j]);
+		    squaredShift += t * t;
+		    centers[base + j] += t;
+		}
+		shift = Math.max(shift, squaredShift);
+	    }
+	    shift = Math.sqrt(shift);
+	    converged = hasConverged(options, shift, shift, tracker);
+	}
+	return converged;
     }
     /**
-     * By set of vectors and their probabilities to lie in clusters recompute cluster centers.
+     * Performs matrix-free iterations over chunked dataset. On each
+     * pass probabilities of objects are turned into numerators and
+     * denominators of cluster centers by the engine and are
+     * discarded, sums of all chunks are added up and new centers
+     * are computed. Objective function of the centers before the
+     * update is added to the history on each pass.
      *
-     * @param numDimensions number of dimensions in the space (must be equal to number of dimensions in vectors)
-     * @param numObjects number of vectors
-     * @param vectors an array of vectors
-     * @param probabilities an two dimensional array of probabilities,
-     * ith row is correspond to ith vector and represents an array of
-     * probabilities to lie in particular cluster
+     * @param dataset chunked set of vectors
+     * @param numClusters number of clusters
+     * @param chunkSize number of objects in a chunk
      * @param options KFuzzy algorithm options
+     * @param maxPasses maximum number of passes
+     * @param checkConvergence true, if passes stop as soon as convergence criterion is met
+     * @param centers initial cluster centers, will be replaced by new centers
+     * @param statistics buffer for statistics of iterations
+     * @param tracker history of the objective function
+     * @return true, if convergence criterion is met after the last pass
+     * @throws IOException in the case of problems with IO
+     */
+    private boolean performMatrixFreePasses(ChunkedDatasetInterface dataset, int numClusters, int chunkSize, Options options, int maxPasses,
+					    boolean checkConvergence, double[] centers, IterationStatistics statistics,
+					    ObjectiveTracker tracker) throws IOException {
+	final int numObjects = dataset.getNumObjects(), numDimensions = dataset.getNumDimensions();
+	// sums of a single chunk are sums of the whole dataset
+	final boolean singleChunk = numObjects <= chunkSize;
+
+	double[] numerators = new double[numClusters * numDimensions];
+	double[] denominators = new double[numClusters];
+	double[] chunkNumerators = singleChunk ? numerators : new double[numClusters * numDimensions];
+	double[] chunkDenominators = singleChunk ? denominators : new double[numClusters];
+
+	boolean converged = false;
+	for (int pass = 0; pass < maxPasses && !(checkConvergence && converged) && !tracker.isStopped(); ++pass) {
+	    if (!singleChunk) {
+		Arrays.fill(numerators, 0.0);
+		Arrays.fill(denominators, 0.0);
+	    }
+	    double objective = 0.0;
+	    for (int from = 0; from < numObjects; from += chunkSize) {
+		final int size = Math.min(chunkSize, numObjects - from);
+		engine.accumulateCenters(dataset.getChunk(from, size), null, size, numClusters, centers, options.blending,
+					 chunkNumerators, chunkDenominators, statistics);
+		objective += statistics.objective;
+		if (singleChunk)
+		    continue;
+		for (int i = 0; i < numerators.length; ++i)
+		    numerators[i] += chunkNumerators[i];
+		for (int i = 0; i < numClusters; ++i)
+		    denominators[i] += chunkDenominators[i];
+	    }
+	    // objective corresponds to centers before the update
+	    tracker.add(objective);
+	    SerialEngine.finishCenters(numClusters, numDimensions, numerators, denominators, centers, statistics);
+	    converged = hasConverged(options, statistics.maxCenterShift, statistics.maxCenterShift, tracker);
+	}
+	return converged;
+    }
+    /**
+     * Clusterizes dataset in the matrix-free mode, see {@link Options#matrixFree}.
+     *
+     * @param dataset set of vectors
      * @param numClusters number of clusters
-     * @param centers resulting array of clusters centers
+     * @param options KFuzzy algorithm options
+     * @param centers initial cluster centers, will be replaced by final centers
+     * @param validity builder of validity indices, or null
+     * @return result of clusterization
      */
-    private void recomputeCenters(int numDimensions, int numObjects, Vector[] vectors,
-				  double[][] probabilities, Options options, int numClusters, Vector[] centers) {
-	for (int i = 0; i < numClusters; ++i)
-	    centers[i] = recomputeCenter(numDimensions, numObjects, vectors, i, probabilities, options);
+    private Result clusterizeMatrixFree(Dataset dataset, int numClusters, Options options, double[] centers,
+					ValidityIndices.Builder validity) {
+	final int numObjects = dataset.getNumObjects();
+
+	IterationStatistics statistics = new IterationStatistics();
+	ObjectiveTracker tracker = new ObjectiveTracker(iterationListener, centers);
+	ChunkedDatasetInterface chunks = new DatasetChunks(dataset);
+	final int[] assignment = new int[numObjects];
+	SparseMemberships.Builder builder = options.sparse == null ? null : options.sparse.createBuilder(numObjects);
+	try {
+	    int iteration = 0, maxPasses = options.maxIterations;
+	    boolean converged = false;
+	    if (options.miniBatch != null) {
+		converged = performMiniBatches(dataset, numClusters, options, centers, statistics, tracker);
+		iteration = tracker.getNumValues();
+		// final full passes are performed regardless of convergence
+		maxPasses = tracker.isStopped() ? 0 : options.miniBatch.numFullPasses;
+	    }
+	    boolean passesConverged = performMatrixFreePasses(chunks, numClusters, numObjects, options, maxPasses, options.miniBatch == null,
+							      centers, statistics, tracker);
+	    if (options.miniBatch == null)
+		converged = passesConverged;
+	    iteration = tracker.getNumValues();
+
+	    AssignmentWriterInterface writer = new AssignmentWriterInterface() {
+		    public void writeAssignment(int from, int[] chunk, int size) {
+			System.arraycopy(chunk, 0, assignment, from, size);
+		    }
+		};
+	    tracker.add(writeAssignment(chunks, numClusters, ASSIGNMENT_CHUNK_SIZE, centers, options.blending, writer, builder, validity));
+	    return new Result(assignment, iteration, converged, tracker.getLast(), tracker.toArray(), builder == null ? null : builder.build(),
+			      centers);
+	} catch (IOException e) {
+	    // chunks of datasets in memory are never read from IO
+	    throw new IllegalStateException(e);
+	}
     }
     /**
-     * Finds assignment based on probabilities to lie in particular cluster.
+     * Performs the final pass of the out-of-core mode: finds
+     * assignment of all objects by the final cluster centers and
+     * passes it to the writer chunk by chunk.
      *
-     * @param numObjects number of vectors that are clusterized
-     * @param numClusters number of clusters to which objects are clusterized
-     * @param probabilities probabilities of ith object to lie in jth cluster
-     * @return array of assignment, where ith element is a number of a cluster of ith vector
+     * @param dataset chunked set of vectors
+     * @param numClusters number of clusters
+     * @param chunkSize number of objects in a chunk
+     * @param centers cluster centers
+     * @param blending blending
+     * @param writer consumer of assignment
+     * @param builder builder of sparse memberships, or null
+     * @param validity builder of validity indices, or null
+     * @return value of the objective function for the cluster centers
+     * @throws IOException in the case of problems with IO
      */
-    private int[] findAssignment(int numObjects, int numClusters, double[][] probabilities) {
-	int[] assignment = new int[numObjects];
+    private double writeAssignment(ChunkedDatasetInterface dataset, int numClusters, int chunkSize, double[] centers, double blending,
+				   AssignmentWriterInterface writer, SparseMemberships.Builder builder, ValidityIndices.Builder validity)
+	throws IOException {
+	final int numObjects = dataset.getNumObjects();
 
-	for (int i = 0; i < numObjects; ++i) {
-	    for (int j = 0; j < numClusters; ++j)
-		if (probabilities[i][j] > probabilities[i][assignment[i]])
-		    assignment[i] = j;
+	MembershipKernel kernel = new MembershipKernel(blending);
+	double[] squaredDistances = new double[numClusters], probabilities = new double[numClusters];
+	int[] assignment = new int[Math.min(chunkSize, numObjects)];
+	double objective = 0.0;
+	for (int from = 0; from < numObjects; from += chunkSize) {
+	    final int size = Math.min(chunkSize, numObjects - from);
+	    Dataset chunk = dataset.getChunk(from, size);
+	    for (int i = 0; i < size; ++i) {
+		objective += kernel.findProbabilities(chunk, i, numClusters, centers, squaredDistances, probabilities);
+		int cluster = 0;
+		for (int j = 1; j < numClusters; ++j)
+		    if (probabilities[j] > probabilities[cluster])
+			cluster = j;
+		assignment[i] = cluster;
+		if (builder != null)
+		    builder.add(probabilities, 0, numClusters);
+		if (validity != null)
+		    validity.add(probabilities, 0, numClusters);
+	    }
+	    writer.writeAssignment(from, assignment, size);
 	}
-	return assignment;
+	return objective;
     }
     /**
      * Constructor sets algorithm that finds cluster centers to the ClusterCentersAdapter implementation
      */
     public KFuzzyAlgorithm() {
-	clusterCentersAlgorithm = new ClusterCentersAdapter(new MostDistantSlow());
+	this(new ClusterCentersAdapter());
     }
     /**
      * Constructor specifying an implementation of the ClusterCentersInterface
      */
     public KFuzzyAlgorithm(ClusterCentersInterface clusterCentersAlgorithm) {
+	this(clusterCentersAlgorithm, new SerialEngine());
+    }
+    /**
+     * Constructor specifying implementations of the ClusterCentersInterface and the ClusterizationEngineInterface
+     */
+    public KFuzzyAlgorithm(ClusterCentersInterface clusterCentersAlgorithm, ClusterizationEngineInterface engine) {
 	setClusterCentersAlgorithm(clusterCentersAlgorithm);
+	setEngine(engine);
     }
     /**
      * Set algortihm that finds cluster centers to some implementation of the ClusterCentersInterface
@@ -188,6 +1455,36 @@ public class KFuzzyAlgorithm {
     public void setClusterCentersAlgorithm(ClusterCentersInterface clusterCentersAlgorithm) {
 	this.clusterCentersAlgorithm = clusterCentersAlgorithm;
     }
+    /**
+     * Set engine that performs steps of the algorithm to some implementation of the ClusterizationEngineInterface
+     *
+     * @param engine an realization of engine, must not be null
+     */
+    public void setEngine(ClusterizationEngineInterface engine) {
+	this.engine = engine;
+    }
+    /**
+     * Creates state of the incremental mode, which uses engine,
+     * algorithm of cluster centers and observer of iterations of
+     * this object.
+     *
+     * @param numClusters number of clusters, must be positive
+     * @param options KFuzzy algorithm options
+     * @param incrementalOptions options of the incremental mode
+     * @return state without appended batches
+     */
+    public Incremental createIncremental(int numClusters, Options options, IncrementalOptions incrementalOptions) {
+	return new Incremental(numClusters, options, incrementalOptions);
+    }
+    /**
+     * Set observer of iterations, it's notified each time a value of
+     * the objective function is added to the history.
+     *
+     * @param iterationListener observer of iterations, or null
+     */
+    public void setIterationListener(IterationListenerInterface iterationListener) {
+	this.iterationListener = iterationListener;
+    }
     /**
      * Clusterizes given set of vectors.
      *
@@ -199,26 +1496,655 @@ public class KFuzzyAlgorithm {
      * @return an array of cluster indices, where ith index corresponds to ith vector
      */
     public int[] clusterize(Vector[] vectors, int numClusters, Options options) {
-	final int numObjects = vectors.length;
+	return clusterizeDetailed(vectors, numClusters, options).assignment;
+    }
+    /**
+     * Clusterizes given set of vectors. Iterations are performed
+     * until convergence criterion is met or maximum number of
+     * iterations is reached.
+     *
+     * @param vectors set of vectors, that will be clusterized, must not be null and all vectors must have an equal size (ant not be null)
+     * @param numClusters number of clusters to which vectors will be
+     * clusterized. Must be between zero and length of vectors array -
+     * 1 (inclusive).
+     * @param options KFuzzy algorithm options
+     * @return result of clusterization
+     */
+    public Result clusterizeDetailed(Vector[] vectors, int numClusters, Options options) {
+	if (vectors.length == 0)
+	    return new Result(new int[] {}, 0, true, 0.0, new double[] {});
+	return clusterizeDetailed(new DenseDataset(vectors), numClusters, options);
+    }
+    /**
+     * Clusterizes given dataset. Iterations are performed until
+     * convergence criterion is met or maximum number of iterations
+     * is reached. Iterations don't allocate memory.
+     *
+     * @param dataset set of vectors, that will be clusterized, must not be null
+     * @param numClusters number of clusters to which vectors will be
+     * clusterized. Must be between zero and number of objects in
+     * dataset - 1 (inclusive).
+     * @param options KFuzzy algorithm options
+     * @return result of clusterization
+     */
+    public Result clusterizeDetailed(Dataset dataset, int numClusters, Options options) {
+	final int numObjects = dataset.getNumObjects();
 
 	if (numObjects == 0)
-	    return new int[] {};
+	    return new Result(new int[] {}, 0, true, 0.0, new double[] {});
 	numClusters = Math.min(numObjects, numClusters);
 	if (numClusters == 0)
-	    return new int[] {};
-	final int numDimensions = vectors[0].getSize();
+	    return new Result(new int[] {}, 0, true, 0.0, new double[] {});
+	final int numDimensions = dataset.getNumDimensions();
 
 	assert numObjects > 0 && numClusters > 0 && numClusters <= numObjects;
 
-	Vector[] centers = findCenters(vectors, numClusters);
-	double[][] probabilities = new double[numObjects][numClusters];
-	findProbabilities(numObjects, vectors, numClusters, centers, options, probabilities);
+	double[] centers = new double[numClusters * numDimensions];
+	findCenters(dataset, numClusters, centers);
+	return clusterizeFrom(dataset, numClusters, options, centers, null);
+    }
+    /**
+     * Clusterizes given set of vectors starting from the given
+     * cluster centers, seeding is skipped.
+     *
+     * @param vectors set of vectors, that will be clusterized, must not be null and all vectors must have an equal size
+     * @param initialCenters initial cluster centers, must not be empty
+     * @param options KFuzzy algorithm options
+     * @return result of clusterization into initialCenters.length clusters
+     * @see #clusterizeDetailed(Dataset, Vector[], Options)
+     */
+    public Result clusterizeDetailed(Vector[] vectors, Vector[] initialCenters, Options options) {
+	if (vectors.length == 0)
+	    return new Result(new int[] {}, 0, true, 0.0, new double[] {}, null, new DenseDataset(initialCenters).getData());
+	return clusterizeDetailed(new DenseDataset(vectors), initialCenters, options);
+    }
+    /**
+     * Clusterizes given dataset starting from the given cluster
+     * centers, for instance, from centers of a previous
+     * clusterization of a slightly changed dataset. Seeding is
+     * skipped, so good centers converge in a few iterations.
+     *
+     * @param dataset set of vectors, that will be clusterized, must not be null
+     * @param initialCenters initial cluster centers, must not be
+     * empty, size of each center must be equal to number of
+     * dimensions of the dataset
+     * @param options KFuzzy algorithm options
+     * @return result of clusterization into initialCenters.length clusters
+     */
+    public Result clusterizeDetailed(Dataset dataset, Vector[] initialCenters, Options options) {
+	final int numClusters = initialCenters.length, numDimensions = dataset.getNumDimensions();
+
+	assert numClusters > 0 : "no initial centers";
+
+	double[] centers = new double[numClusters * numDimensions];
+	for (int i = 0; i < numClusters; ++i) {
+	    assert initialCenters[i].getSize() == numDimensions :
+	    String.format("size of center %d is %d, expected %d", i, initialCenters[i].getSize(), numDimensions);
+	    initialCenters[i].copyTo(centers, i * numDimensions);
+	}
+	if (dataset.getNumObjects() == 0)
+	    return new Result(new int[] {}, 0, true, 0.0, new double[] {}, null, centers);
+	return clusterizeFrom(dataset, numClusters, options, centers, null);
+    }
+    /**
+     * Clusterizes given dataset starting from final cluster centers of a previous result.
+     *
+     * @param dataset set of vectors, that will be clusterized, must not be null
+     * @param previous previous result, centers of which have the same number of dimensions as the dataset
+     * @param options KFuzzy algorithm options
+     * @return result of clusterization into the same number of clusters
+     * @see #clusterizeDetailed(Dataset, Vector[], Options)
+     */
+    public Result clusterizeDetailed(Dataset dataset, Result previous, Options options) {
+	final int numDimensions = dataset.getNumDimensions();
+
+	assert previous.centers != null && numDimensions > 0 && previous.centers.length % numDimensions == 0 : "centers don't match dataset";
+
+	return clusterizeDetailed(dataset, previous.getCenters(numDimensions), options);
+    }
+    /**
+     * Clusterizes non-empty dataset starting from the given cluster centers.
+     *
+     * @param dataset set of vectors
+     * @param numClusters number of clusters, must be between one and number of objects
+     * @param options KFuzzy algorithm options
+     * @param centers initial cluster centers, will be replaced by final centers
+     * @param validity builder of validity indices, to which final probabilities are added, or null
+     * @return result of clusterization
+     */
+    private Result clusterizeFrom(Dataset dataset, int numClusters, Options options, double[] centers, ValidityIndices.Builder validity) {
+	final int numObjects = dataset.getNumObjects();
+
+	if (options.matrixFree)
+	    return clusterizeMatrixFree(dataset, numClusters, options, centers, validity);
+	assert (long) numObjects * numClusters <= Integer.MAX_VALUE : "probabilities don't fit into array";
+
+	IterationStatistics statistics = new IterationStatistics();
+	ObjectiveTracker tracker = new ObjectiveTracker(iterationListener, centers);
+
+	int iteration = 0, maxIterations = options.maxIterations;
+	boolean converged = false;
+	if (options.miniBatch != null) {
+	    converged = performMiniBatches(dataset, numClusters, options, centers, statistics, tracker);
+	    iteration = tracker.getNumValues();
+	    // final full passes are performed regardless of convergence
+	    maxIterations = tracker.isStopped() ? iteration : iteration + options.miniBatch.numFullPasses;
+	}
+
+	double[] probabilities = new double[numObjects * numClusters];
+	engine.findProbabilities(dataset, numClusters, centers, options.blending, probabilities, statistics);
+	tracker.add(statistics.objective);
+
+	while (iteration < maxIterations && (options.miniBatch != null || !converged) && !tracker.isStopped()) {
+	    engine.recomputeCenters(dataset, numClusters, probabilities, options.blending, centers, statistics);
+	    engine.findProbabilities(dataset, numClusters, centers, options.blending, probabilities, statistics);
+	    tracker.add(statistics.objective);
+	    ++iteration;
+	    if (options.miniBatch == null)
+		converged = hasConverged(options, statistics.maxCenterShift, statistics.maxMembershipChange, tracker);
+	}
+	int[] assignment = findAssignment(numObjects, numClusters, probabilities, validity);
+	SparseMemberships memberships = null;
+	if (options.sparse != null) {
+	    SparseMemberships.Builder builder = options.sparse.createBuilder(numObjects);
+	    for (int i = 0; i < numObjects; ++i)
+		builder.add(probabilities, i * numClusters, numClusters);
+	    memberships = builder.build();
+	}
+	return new Result(assignment, iteration, converged, tracker.getLast(), tracker.toArray(), memberships, centers);
+    }
+    /**
+     * Least values of the objective function, reached by restarts of
+     * the multi-start mode at each iteration.
+     */
+    private static class IterationBounds {
+	private double[] values = new double[0];
+	/**
+	 * Lowers bound of the iteration to the value, if the value is less.
+	 *
+	 * @param iteration index of the iteration
+	 * @param objective value of the objective function at the iteration
+	 * @return new bound of the iteration
+	 */
+	public synchronized double lower(int iteration, double objective) {
+	    if (iteration >= values.length) {
+		int length = values.length;
+		values = Arrays.copyOf(values, Math.max(2 * length, iteration + 1));
+		Arrays.fill(values, length, values.length, Double.POSITIVE_INFINITY);
+	    }
+	    if (objective < values[iteration])
+		values[iteration] = objective;
+	    return values[iteration];
+	}
+    }
+    /**
+     * Clusterizes dataset in the multi-start mode, see {@link
+     * MultiStartOptions}. Restarts only read the dataset, so it's
+     * shared by all of them. Restarts are run by min(numThreads,
+     * numRestarts) workers, each restart gets an engine with
+     * numThreads / workers threads, so that total number of busy
+     * threads doesn't exceed numThreads. Algorithm of cluster
+     * centers, engine and observer of iterations of this object
+     * aren't used by restarts. Values of the objective function in
+     * the mini-batch mode are estimates by batches, so abandonment
+     * margin should be wider in this mode.
+     *
+     * @param dataset set of vectors, that will be clusterized, must not be null
+     * @param numClusters number of clusters to which vectors will be
+     * clusterized. Must be between zero and number of objects in
+     * dataset - 1 (inclusive).
+     * @param options KFuzzy algorithm options of each restart
+     * @param multiStart options of the multi-start mode
+     * @return result of the restart with the least value of the objective function
+     */
+    public Result clusterizeMultiStart(final Dataset dataset, final int numClusters, final Options options,
+				       final MultiStartOptions multiStart) {
+	final int numWorkers = Math.min(multiStart.numThreads, multiStart.numRestarts);
+	final int threadsPerRestart = multiStart.numThreads / numWorkers;
+	// the least value of the objective function over all restarts at each iteration
+	final IterationBounds bounds = new IterationBounds();
+
+	List<Callable<Result>> restarts = new ArrayList<Callable<Result>>();
+	for (int i = 0; i < multiStart.numRestarts; ++i) {
+	    final long seed = multiStart.seed + i;
+	    restarts.add(new Callable<Result>() {
+		    public Result call() {
+			ClusterizationEngineInterface restartEngine =
+			    threadsPerRestart > 1 ? new ParallelEngine(threadsPerRestart) : new SerialEngine();
+			try {
+			    KFuzzyAlgorithm restart = new KFuzzyAlgorithm(new KMeansPlusPlus(seed, threadsPerRestart), restartEngine);
+			    restart.setIterationListener(new IterationListenerInterface() {
+				    public boolean iterationFinished(int iteration, double objective, double[] centers) {
+					double best = bounds.lower(iteration, objective);
+					return iteration < multiStart.abandonAfter || objective <= best + multiStart.abandonMargin * Math.abs(best);
+				    }
+				});
+			    return restart.clusterizeDetailed(dataset, numClusters, options);
+			} finally {
+			    if (restartEngine instanceof ParallelEngine)
+				((ParallelEngine) restartEngine).shutdown();
+			}
+		    }
+		});
+	}
+
+	Result best = null;
+	for (Result result : runAll(restarts, numWorkers)) {
+	    if (best == null || result.objective < best.objective)
+		best = result;
+	}
+	return best;
+    }
+    /**
+     * Finished partition of the sweep over numbers of clusters
+     */
+    private static class Partition {
+	/**
+	 * Number of clusters
+	 */
+	public final int numClusters;
+	/**
+	 * Final cluster centers
+	 */
+	public final double[] centers;
+	/**
+	 * Numbers of objects assigned to clusters
+	 */
+	public final double[] sizes;
+	/**
+	 * Root mean square distance from an object to its center, estimated by the objective function
+	 */
+	public final double scale;
+
+	public Partition(int numClusters, double[] centers, int[] assignment, double objective) {
+	    this.numClusters = numClusters;
+	    this.centers = centers;
+	    this.sizes = new double[numClusters];
+	    for (int cluster : assignment)
+		++sizes[cluster];
+	    this.scale = Math.sqrt(objective / assignment.length);
+	}
+    }
+    /**
+     * Runs tasks by a pool of workers and waits for all of them.
+     *
+     * @param tasks tasks
+     * @param numWorkers number of workers, must be positive
+     * @return results of tasks, in order of tasks
+     */
+    private static <T> List<T> runAll(List<Callable<T>> tasks, int numWorkers) {
+	ExecutorService pool = Executors.newFixedThreadPool(numWorkers);
+	try {
+	    List<T> results = new ArrayList<T>();
+	    for (Future<T> future : pool.invokeAll(tasks))
+		results.add(future.get());
+	    return results;
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new IllegalStateException(e);
+	} catch (ExecutionException e) {
+	    if (e.getCause() instanceof RuntimeException)
+		throw (RuntimeException) e.getCause();
+	    if (e.getCause() instanceof Error)
+		throw (Error) e.getCause();
+	    throw new IllegalStateException(e.getCause());
+	} finally {
+	    pool.shutdown();
+	}
+    }
+    /**
+     * Returns squared distance between two centers.
+     */
+    private static double squaredDistance(double[] centers, int first, int second, int numDimensions) {
+	double distance = 0.0;
+	for (int i = 0; i < numDimensions; ++i) {
+	    double t = centers[first * numDimensions + i] - centers[second * numDimensions + i];
+	    distance += t * t;
+	}
+	return distance;
+    }
+    /**
+     * Derives initial centers for the given number of clusters from
+     * a finished partition. While there are too many centers, the
+     * closest pair of centers is merged into its weighted mean.
+     * While there are too few centers, center of the largest cluster
+     * is split into two centers, displaced in opposite random
+     * directions on a quarter of the distance to the nearest other
+     * center.
+     *
+     * @param partition finished partition
+     * @param numClusters number of clusters
+     * @param numDimensions number of dimensions
+     * @param random random number generator
+     * @return initial cluster centers
+     */
+    private static double[] warmStartCenters(Partition partition, int numClusters, int numDimensions, Random random) {
+	final int capacity = Math.max(partition.numClusters, numClusters);
+	double[] centers = Arrays.copyOf(partition.centers, capacity * numDimensions);
+	double[] sizes = Arrays.copyOf(partition.sizes, capacity);
+
+	int count = partition.numClusters;
+	while (count > numClusters) {
+	    int first = 0, second = 1;
+	    double closest = Double.POSITIVE_INFINITY;
+	    for (int i = 0; i < count; ++i) {
+		for (int j = i + 1; j < count; ++j) {
+		    double distance = squaredDistance(centers, i, j, numDimensions);
+		    if (distance < closest) {
+			closest = distance;
+			first = i;
+			second = j;
+		    }
+		}
+	    }
+	    double total = sizes[first] + sizes[second];
+	    double weight = total == 0.0 ? 0.5 : sizes[second] / total;
+	    for (int i = 0; i < numDimensions; ++i)
+		centers[first * numDimensions + i] += weight * (centers[second * numDimensions + i] - centers[first * numDimensions + i]);
+	    sizes[first] = total;
+	    // the last center takes place of the merged one
+	    --count;
+	    System.arraycopy(centers, count * numDimensions, centers, second * numDimensions, numDimensions);
+	    sizes[second] = sizes[count];
+	}
+	double[] direction = new double[numDimensions];
+	while (count < numClusters) {
+	    int largest = 0;
+	    for (int i = 1; i < count; ++i)
+		if (sizes[i] > sizes[largest])
+		    largest = i;
+	    double radius = partition.scale;
+	    if (count > 1) {
+		double nearest = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; ++i)
+		    if (i != largest)
+			nearest = Math.min(nearest, squaredDistance(centers, largest, i, numDimensions));
+		radius = 0.25 * Math.sqrt(nearest);
+	    }
+	    double norm = 0.0;
+	    for (int i = 0; i < numDimensions; ++i) {
+		direction[i] = random.nextGaussian();
+		norm += direction[i] * direction[i];
+	    }
+	    final double step = norm == 0.0 ? 0.0 : radius / Math.sqrt(norm);
+	    for (int i = 0; i < numDimensions; ++i) {
+		centers[count * numDimensions + i] = centers[largest * numDimensions + i] + step * direction[i];
+		centers[largest * numDimensions + i] -= step * direction[i];
+	    }
+	    sizes[largest] /= 2.0;
+	    sizes[count] = sizes[largest];
+	    ++count;
+	}
+	return Arrays.copyOf(centers, numClusters * numDimensions);
+    }
+    /**
+     * Clusterizes dataset into each number of clusters of the range,
+     * see {@link SweepOptions}. Numbers are processed by
+     * min(numThreads, number of values) workers, each worker gets an
+     * engine with numThreads / workers threads. Partition, from
+     * which a number is warm-started, depends on order, in which
+     * workers finish, so with several workers results may differ
+     * between runs. Validity indices are collected while final
+     * assignments are computed, without extra passes over
+     * objects. Algorithm of cluster centers, engine and observer of
+     * iterations of this object aren't used by the sweep.
+     *
+     * @param dataset non-empty set of vectors, must not be null
+     * @param options KFuzzy algorithm options of each clusterization
+     * @param sweep options of the sweep, maxClusters must not exceed number of objects
+     * @return results of all clusterizations and recommended number of clusters
+     */
+    public SweepResult clusterizeSweep(final Dataset dataset, final Options options, final SweepOptions sweep) {
+	final int numDimensions = dataset.getNumDimensions();
+	final int numValues = sweep.maxClusters - sweep.minClusters + 1;
+	final int numWorkers = Math.min(sweep.numThreads, numValues);
+	final int threadsPerWorker = sweep.numThreads / numWorkers;
+
+	assert sweep.maxClusters <= dataset.getNumObjects() : "too many clusters: " + sweep.maxClusters;
+
+	final int[] numClusters = new int[numValues];
+	final Result[] results = new Result[numValues];
+	final ValidityIndices[] indices = new ValidityIndices[numValues];
+	final int[] warmStartedFrom = new int[numValues];
+	final long[] times = new long[numValues];
+	// finished partitions by numbers of clusters
+	final TreeMap<Integer, Partition> finished = new TreeMap<Integer, Partition>();
+
+	// anchors are evenly spread, other numbers follow in order of distance to the nearest anchor
+	final int[] distances = new int[numValues];
+	Arrays.fill(distances, Integer.MAX_VALUE);
+	for (int i = 0; i < numWorkers; ++i) {
+	    final int anchor = (int) ((2L * i + 1) * numValues / (2 * numWorkers));
+	    for (int j = 0; j < numValues; ++j)
+		distances[j] = Math.min(distances[j], Math.abs(j - anchor));
+	}
+	Integer[] order = new Integer[numValues];
+	for (int i = 0; i < numValues; ++i)
+	    order[i] = i;
+	Arrays.sort(order, new Comparator<Integer>() {
+		public int compare(Integer first, Integer second) {
+		    if (distances[first] != distances[second])
+			return distances[first] < distances[second] ? -1 : 1;
+		    return first.compareTo(second);
+		}
+	    });
+
+	List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+	for (final int index : order) {
+	    numClusters[index] = sweep.minClusters + index;
+	    tasks.add(new Callable<Void>() {
+		    public Void call() {
+			final long start = System.nanoTime();
+			final int k = numClusters[index];
+
+			Partition source;
+			synchronized (finished) {
+			    Map.Entry<Integer, Partition> lower = finished.floorEntry(k), upper = finished.ceilingEntry(k);
+			    if (lower == null || (upper != null && upper.getKey() - k <= k - lower.getKey()))
+				lower = upper;
+			    source = lower == null ? null : lower.getValue();
+			}
+
+			ClusterizationEngineInterface taskEngine =
+			    threadsPerWorker > 1 ? new ParallelEngine(threadsPerWorker) : new SerialEngine();
+			try {
+			    KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm(new KMeansPlusPlus(sweep.seed, threadsPerWorker), taskEngine);
+			    double[] centers;
+			    if (source == null) {
+				centers = new double[k * numDimensions];
+				algorithm.findCenters(dataset, k, centers);
+			    } else {
+				centers = warmStartCenters(source, k, numDimensions, new Random(sweep.seed + k));
+			    }
+			    ValidityIndices.Builder validity = new ValidityIndices.Builder();
+			    Result result = algorithm.clusterizeFrom(dataset, k, options, centers, validity);
+
+			    results[index] = result;
+			    indices[index] = validity.build(result.objective, k, numDimensions, centers);
+			    warmStartedFrom[index] = source == null ? 0 : source.numClusters;
+			    synchronized (finished) {
+				finished.put(k, new Partition(k, centers, result.assignment, result.objective));
+			    }
+			} finally {
+			    if (taskEngine instanceof ParallelEngine)
+				((ParallelEngine) taskEngine).shutdown();
+			}
+			times[index] = System.nanoTime() - start;
+			return null;
+		    }
+		});
+	}
+	runAll(tasks, numWorkers);
+	return new SweepResult(numClusters, results, indices, warmStartedFrom, times);
+    }
+    /**
+     * Performs a pass of the large-k mode: finds probabilities of
+     * each object over its nearest centers by the tree and either
+     * adds objects to numerators and denominators of these centers,
+     * or stores assignment, memberships and truncation errors.
+     *
+     * @param dataset set of vectors
+     * @param numClusters number of clusters
+     * @param centers cluster centers
+     * @param kernel membership kernel
+     * @param numNearest number of nearest centers per object
+     * @param numerators weighted sums of objects, or null, if sums aren't accumulated
+     * @param denominators sums of weights of objects, or null
+     * @param assignment resulting assignment, or null
+     * @param builder builder of sparse memberships, or null
+     * @param truncation maximum and sum of truncation errors are stored there, or null
+     * @return value of the objective function over the nearest centers
+     */
+    private static double performLargeKPass(Dataset dataset, int numClusters, double[] centers, MembershipKernel kernel, int numNearest,
+					    double[] numerators, double[] denominators, int[] assignment, SparseMemberships.Builder builder,
+					    double[] truncation) {
+	final int numObjects = dataset.getNumObjects(), numDimensions = dataset.getNumDimensions();
+
+	CentersTree tree = new CentersTree(numClusters, numDimensions, centers);
+	double[] point = new double[numDimensions];
+	int[] clusters = new int[numNearest];
+	double[] squaredDistances = new double[numNearest], probabilities = new double[numNearest];
+	double objective = 0.0;
+	for (int i = 0; i < numObjects; ++i) {
+	    dataset.copyRow(i, point, 0);
+	    final int size = tree.findNearest(point, numNearest, clusters, squaredDistances);
+	    int numCoincident = 0, nearest = 0, furthest = 0;
+	    for (int j = 0; j < size; ++j) {
+		if (squaredDistances[j] < MembershipKernel.ZERO_SQUARED_DISTANCE)
+		    ++numCoincident;
+		if (squaredDistances[j] < squaredDistances[nearest])
+		    nearest = j;
+		if (squaredDistances[j] > squaredDistances[furthest])
+		    furthest = j;
+	    }
+	    objective += kernel.normalize(size, squaredDistances, numCoincident, probabilities);
+
+	    if (numerators != null) {
+		for (int j = 0; j < size; ++j) {
+		    double weight = kernel.power(probabilities[j]);
+		    denominators[clusters[j]] += weight;
+		    dataset.addScaledRow(i, weight, numerators, clusters[j] * numDimensions);
+		}
+	    }
+	    if (assignment != null)
+		assignment[i] = clusters[nearest];
+	    if (builder != null)
+		builder.add(clusters, probabilities, size);
+	    if (truncation != null) {
+		final int numSkipped = numClusters - size;
+		double error = 0.0;
+		if (numSkipped > 0 && squaredDistances[furthest] < MembershipKernel.ZERO_SQUARED_DISTANCE) {
+		    // skipped centers may coincide with the object too
+		    error = (double) numSkipped / (numCoincident + numSkipped);
+		} else if (numSkipped > 0 && numCoincident == 0) {
+		    double total = 0.0;
+		    for (int j = 0; j < size; ++j)
+			total += kernel.weight(squaredDistances[j]);
+		    double skipped = numSkipped * kernel.weight(squaredDistances[furthest]);
+		    error = skipped / (total + skipped);
+		}
+		truncation[0] = Math.max(truncation[0], error);
+		truncation[1] += error;
+	    }
+	}
+	return objective;
+    }
+    /**
+     * Clusterizes dataset in the large-k mode, see {@link
+     * LargeKOptions}. Probabilities aren't stored, so MEMBERSHIP_CHANGE
+     * criterion is checked by shift of cluster centers, mini-batch
+     * and matrix-free options are ignored. Sparse memberships, if
+     * they are requested, are chosen among the nearest centers.
+     * Values of the objective function are computed over the nearest
+     * centers too, with probabilities normalized over them, so they
+     * only approximate the exact values and may be larger or smaller.
+     *
+     * @param dataset set of vectors, that will be clusterized, must not be null
+     * @param numClusters number of clusters to which vectors will be
+     * clusterized. Must be between zero and number of objects in
+     * dataset - 1 (inclusive).
+     * @param options KFuzzy algorithm options
+     * @param largeK options of the large-k mode
+     * @return result of clusterization with truncation errors
+     */
+    public LargeKResult clusterizeLargeK(Dataset dataset, int numClusters, Options options, LargeKOptions largeK) {
+	final int numObjects = dataset.getNumObjects();
+
+	numClusters = Math.min(numObjects, numClusters);
+	if (numClusters == 0)
+	    return new LargeKResult(new int[] {}, 0, true, 0.0, new double[] {}, null, null, 0.0, 0.0);
+	final int numDimensions = dataset.getNumDimensions(), numNearest = Math.min(largeK.numNearest, numClusters);
+
+	double[] centers = new double[numClusters * numDimensions];
+	findCenters(dataset, numClusters, centers);
+
+	MembershipKernel kernel = new MembershipKernel(options.blending);
+	IterationStatistics statistics = new IterationStatistics();
+	ObjectiveTracker tracker = new ObjectiveTracker(iterationListener, centers);
+	double[] numerators = new double[numClusters * numDimensions];
+	double[] denominators = new double[numClusters];
 
-	for (int iteration = 0; iteration < options.maxIterations; ++iteration) {
-	    recomputeCenters(numDimensions, numObjects, vectors, probabilities, options, numClusters, centers);
-	    findProbabilities(numObjects, vectors, numClusters, centers, options, probabilities);
+	int iteration = 0;
+	boolean converged = false;
+	while (iteration < options.maxIterations && !converged && !tracker.isStopped()) {
+	    Arrays.fill(numerators, 0.0);
+	    Arrays.fill(denominators, 0.0);
+	    // objective corresponds to centers before the update
+	    tracker.add(performLargeKPass(dataset, numClusters, centers, kernel, numNearest, numerators, denominators, null, null, null));
+	    SerialEngine.finishCenters(numClusters, numDimensions, numerators, denominators, centers, statistics);
+	    converged = hasConverged(options, statistics.maxCenterShift, statistics.maxCenterShift, tracker);
+	    ++iteration;
 	}
-	int[] result = findAssignment(numObjects, numClusters, probabilities);
-	return result;
+
+	int[] assignment = new int[numObjects];
+	SparseMemberships.Builder builder = options.sparse == null ? null : options.sparse.createBuilder(numObjects);
+	double[] truncation = new double[2];
+	tracker.add(performLargeKPass(dataset, numClusters, centers, kernel, numNearest, null, null, assignment, builder, truncation));
+	return new LargeKResult(assignment, iteration, converged, tracker.getLast(), tracker.toArray(), builder == null ? null : builder.build(),
+				centers, truncation[0], truncation[1] / numObjects);
+    }
+    /**
+     * Clusterizes dataset, that doesn't fit into memory, in the
+     * out-of-core mode. On each iteration dataset is read chunk by
+     * chunk, probabilities of objects of a chunk are turned into
+     * numerators and denominators of cluster centers and are
+     * discarded, so memory doesn't depend on number of objects.
+     * Since probabilities aren't stored, MEMBERSHIP_CHANGE criterion
+     * is checked by shift of cluster centers, mini-batch options are
+     * ignored. The final pass writes assignment chunk by chunk, only
+     * sparse memberships, if they are requested, are kept in memory.
+     *
+     * @param dataset chunked set of vectors, that will be clusterized, must not be null
+     * @param numClusters number of clusters to which vectors will be
+     * clusterized. Must be between zero and number of objects in
+     * dataset - 1 (inclusive).
+     * @param options KFuzzy algorithm options
+     * @param outOfCoreOptions options of the out-of-core mode
+     * @param writer consumer of assignment, must not be null
+     * @return result of clusterization, assignment isn't stored in it
+     * @throws IOException in the case of problems with IO
+     */
+    public Result clusterizeOutOfCore(ChunkedDatasetInterface dataset, int numClusters, Options options, OutOfCoreOptions outOfCoreOptions,
+				      AssignmentWriterInterface writer) throws IOException {
+	final int numObjects = dataset.getNumObjects();
+
+	numClusters = Math.min(numObjects, numClusters);
+	if (numClusters == 0)
+	    return new Result(null, 0, true, 0.0, new double[] {});
+	final int numDimensions = dataset.getNumDimensions();
+	final int chunkSize = outOfCoreOptions.getChunkSize(numDimensions);
+
+	double[] centers = new double[numClusters * numDimensions];
+	findCenters(dataset, numClusters, chunkSize, centers);
+
+	IterationStatistics statistics = new IterationStatistics();
+	ObjectiveTracker tracker = new ObjectiveTracker(iterationListener, centers);
+	boolean converged = performMatrixFreePasses(dataset, numClusters, chunkSize, options, options.maxIterations, true, centers, statistics,
+						    tracker);
+	int iteration = tracker.getNumValues();
+
+	SparseMemberships.Builder builder = options.sparse == null ? null : options.sparse.createBuilder(numObjects);
+	tracker.add(writeAssignment(dataset, numClusters, chunkSize, centers, options.blending, writer, builder, null));
+	return new Result(null, iteration, converged, tracker.getLast(), tracker.toArray(), builder == null ? null : builder.build(), centers);
     }
 }
@@ -0,0 +1,378 @@
+package kfuzzy.algo;
+
+import java.util.*;
+import junit.framework.TestCase;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Vector;
+
+
+/**
+ * Class contains several tests for KFuzzyAlgorithm class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0512
+ * @since 1.6
+ */
+public class KFuzzyAlgorithmTest extends TestCase {
+    private KFuzzyAlgorithm algorithm;
+
+    public void setUp() {
+	algorithm = new KFuzzyAlgorithm();
+    }
+    /**
+     * Generates two well separated groups of points, first half of
+     * the points lies near (0, 0), second half lies near (10, 10).
+     */
+    private Vector[] createTwoGroups(int size) {
+	Random random = new Random(2011);
+	Vector[] vectors = new Vector[size];
+	for (int i = 0; i < size; ++i) {
+	    double base = i < size / 2 ? 0.0 : 10.0;
+	    vectors[i] = new Vector(base + random.nextDouble(), base + random.nextDouble());
+	}
+	return vectors;
+    }
+
+    private void checkTwoGroups(int size, int[] assignment) {
+	assertEquals(size, assignment.length);
+	for (int i = 1; i < size / 2; ++i)
+	    assertEquals(assignment[0], assignment[i]);
+	for (int i = size / 2 + 1; i < size; ++i)
+	    assertEquals(assignment[size / 2], assignment[i]);
+	assertTrue(assignment[0] != assignment[size / 2]);
+    }
+
+    public void testEmpty() {
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(new Vector[] {}, 3, new KFuzzyAlgorithm.Options(2.0, 100));
+	assertEquals(0, result.assignment.length);
+	assertEquals(0, result.numIterations);
+    }
+
+    public void testCenterShift() {
+	final int size = 40, maxIterations = 10000;
+	Vector[] vectors = createTwoGroups(size);
+
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(vectors, 2, new KFuzzyAlgorithm.Options(2.0, maxIterations));
+	checkTwoGroups(size, result.assignment);
+	assertTrue(result.converged);
+	assertTrue(result.numIterations < maxIterations);
+	assertEquals(result.numIterations + 1, result.objectiveHistory.length);
+    }
+
+    public void testMembershipChange() {
+	final int size = 40, maxIterations = 10000;
+	Vector[] vectors = createTwoGroups(size);
+
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, maxIterations, 1e-6,
+								      KFuzzyAlgorithm.ConvergenceCriterion.MEMBERSHIP_CHANGE);
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(vectors, 2, options);
+	checkTwoGroups(size, result.assignment);
+	assertTrue(result.converged);
+	assertTrue(result.numIterations < maxIterations);
+    }
+
+    public void testObjective() {
+	final int size = 40, maxIterations = 10000;
+	Vector[] vectors = createTwoGroups(size);
+
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, maxIterations, 1e-9,
+								      KFuzzyAlgorithm.ConvergenceCriterion.OBJECTIVE);
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(vectors, 2, options);
+	checkTwoGroups(size, result.assignment);
+	assertTrue(result.converged);
+	assertTrue(result.numIterations < maxIterations);
+	// objective function of the fuzzy c-means never increases
+	for (int i = 1; i < result.objectiveHistory.length; ++i)
+	    assertTrue(result.objectiveHistory[i] <= result.objectiveHistory[i - 1] + 1e-9);
+	assertEquals(result.objectiveHistory[result.objectiveHistory.length - 1], result.objective);
+    }
+
+    public void testSeeders() {
+	final int size = 40;
+	Vector[] vectors = createTwoGroups(size);
+	ClusterCentersInterface[] seeders = new ClusterCentersInterface[] { new KMeansPlusPlus(2011, 1), new KMeansParallel(2011, 1) };
+	for (ClusterCentersInterface seeder : seeders) {
+	    algorithm.setClusterCentersAlgorithm(seeder);
+	    KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(vectors, 2, new KFuzzyAlgorithm.Options(2.0, 10000));
+	    checkTwoGroups(size, result.assignment);
+	    assertTrue(result.converged);
+	}
+    }
+
+    public void testMiniBatch() {
+	final int size = 400, maxIterations = 200;
+	Vector[] vectors = createTwoGroups(size);
+
+	KFuzzyAlgorithm.MiniBatchOptions miniBatch = new KFuzzyAlgorithm.MiniBatchOptions(32, 2, 2011);
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, maxIterations, 1e-3,
+								      KFuzzyAlgorithm.ConvergenceCriterion.CENTER_SHIFT, miniBatch);
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(vectors, 2, options);
+	checkTwoGroups(size, result.assignment);
+	assertTrue(result.numIterations <= maxIterations + 2);
+	// a value per batch, a value for initial probabilities of the full passes and a value per full pass
+	assertEquals(result.numIterations + 1, result.objectiveHistory.length);
+
+	KFuzzyAlgorithm.Result full = algorithm.clusterizeDetailed(vectors, 2, new KFuzzyAlgorithm.Options(2.0, 10000));
+	assertEquals(full.objective, result.objective, 0.05 * full.objective);
+    }
+
+    /**
+     * Checks that the matrix-free mode performs the same iterations as the usual one.
+     */
+    public void testMatrixFree() {
+	Vector[] vectors = createTwoGroups(300);
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-9);
+	KFuzzyAlgorithm.Options matrixFree = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-9, KFuzzyAlgorithm.ConvergenceCriterion.CENTER_SHIFT,
+									 null, null, true);
+	KFuzzyAlgorithm.Result expected = algorithm.clusterizeDetailed(vectors, 2, options);
+	KFuzzyAlgorithm.Result actual = algorithm.clusterizeDetailed(vectors, 2, matrixFree);
+	checkTwoGroups(300, actual.assignment);
+	assertTrue(Arrays.equals(expected.assignment, actual.assignment));
+	assertEquals(expected.numIterations, actual.numIterations);
+	assertEquals(expected.objectiveHistory.length, actual.objectiveHistory.length);
+	for (int i = 0; i < expected.objectiveHistory.length; ++i)
+	    assertEquals(expected.objectiveHistory[i], actual.objectiveHistory[i], 1e-9 * expected.objectiveHistory[i]);
+
+	KFuzzyAlgorithm.MiniBatchOptions miniBatch = new KFuzzyAlgorithm.MiniBatchOptions(32, 2, 2011);
+	actual = algorithm.clusterizeDetailed(vectors, 2, new KFuzzyAlgorithm.Options(2.0, 200, 1e-3, KFuzzyAlgorithm.ConvergenceCriterion.CENTER_SHIFT,
+										     miniBatch, null, true));
+	checkTwoGroups(300, actual.assignment);
+	assertEquals(actual.numIterations + 1, actual.objectiveHistory.length);
+    }
+
+    public void testIterationListener() {
+	final int maxValues = 3;
+	final List<Double> values = new ArrayList<Double>();
+	algorithm.setIterationListener(new IterationListenerInterface() {
+		public boolean iterationFinished(int iteration, double objective, double[] centers) {
+		    assertEquals(values.size(), iteration);
+		    assertEquals(4, centers.length);
+		    values.add(objective);
+		    return values.size() < maxValues;
+		}
+	    });
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(createTwoGroups(40), 2, new KFuzzyAlgorithm.Options(2.0, 1000, 0.0));
+	assertFalse(result.converged);
+	assertEquals(maxValues, result.objectiveHistory.length);
+	for (int i = 0; i < maxValues; ++i)
+	    assertEquals(values.get(i), result.objectiveHistory[i]);
+    }
+
+    /**
+     * Checks that the multi-start mode returns the best of restarts.
+     */
+    public void testMultiStart() {
+	final int size = 400, numClusters = 6, numRestarts = 6;
+	Random random = new Random(2011);
+	Vector[] vectors = new Vector[size];
+	for (int i = 0; i < size; ++i)
+	    vectors[i] = new Vector((i % 4) * 5.0 + random.nextGaussian(), (i % 3) * 5.0 + random.nextGaussian());
+	Dataset dataset = new DenseDataset(vectors);
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-6);
+
+	double best = Double.POSITIVE_INFINITY;
+	for (int i = 0; i < numRestarts; ++i) {
+	    algorithm.setClusterCentersAlgorithm(new KMeansPlusPlus(2011 + i, 1));
+	    best = Math.min(best, algorithm.clusterizeDetailed(dataset, numClusters, options).objective);
+	}
+
+	KFuzzyAlgorithm.MultiStartOptions exhaustive = new KFuzzyAlgorithm.MultiStartOptions(numRestarts, 3, 2011, 0, Double.POSITIVE_INFINITY);
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeMultiStart(dataset, numClusters, options, exhaustive);
+	assertEquals(best, result.objective, 1e-9 * best);
+	assertTrue(result.converged);
+	assertEquals(size, result.assignment.length);
+
+	KFuzzyAlgorithm.MultiStartOptions abandoning = new KFuzzyAlgorithm.MultiStartOptions(numRestarts, 4, 2011, 2, 0.01);
+	result = algorithm.clusterizeMultiStart(dataset, numClusters, options, abandoning);
+	assertTrue(result.objective <= 1.01 * best);
+
+	// restarts are run one after another and are compared at equal iterations
+	KFuzzyAlgorithm.MultiStartOptions sequential = new KFuzzyAlgorithm.MultiStartOptions(numRestarts, 1, 2011, 2, 0.01);
+	result = algorithm.clusterizeMultiStart(dataset, numClusters, options, sequential);
+	assertTrue(result.objective <= 1.01 * best);
+    }
+
+    /**
+     * Checks that the sweep recommends the true number of well separated groups.
+     */
+    public void testSweep() {
+	final int size = 400, numGroups = 4, minClusters = 2, maxClusters = 7;
+	Random random = new Random(2011);
+	Vector[] vectors = new Vector[size];
+	for (int i = 0; i < size; ++i)
+	    vectors[i] = new Vector((i % numGroups) * 10.0 + random.nextDouble(), (i % 2) * 5.0 + random.nextDouble());
+	Dataset dataset = new DenseDataset(vectors);
+
+	KFuzzyAlgorithm.SweepOptions sweep = new KFuzzyAlgorithm.SweepOptions(minClusters, maxClusters, 2, 2011);
+	KFuzzyAlgorithm.SweepResult result = algorithm.clusterizeSweep(dataset, new KFuzzyAlgorithm.Options(2.0, 1000, 1e-6), sweep);
+	assertEquals(numGroups, result.recommendedNumClusters);
+
+	int numWarmStarted = 0;
+	for (int i = 0; i < result.numClusters.length; ++i) {
+	    final int k = minClusters + i;
+	    assertEquals(k, result.numClusters[i]);
+	    assertSame(result.results[i], result.getResult(k));
+	    assertEquals(size, result.results[i].assignment.length);
+	    assertTrue(result.times[i] > 0);
+	    ValidityIndices indices = result.indices[i];
+	    assertTrue(indices.partitionCoefficient >= 1.0 / k - 1e-9 && indices.partitionCoefficient <= 1.0 + 1e-9);
+	    assertTrue(indices.partitionEntropy >= 0.0 && indices.partitionEntropy <= Math.log(k) + 1e-9);
+	    if (result.warmStartedFrom[i] != 0) {
+		assertTrue(result.warmStartedFrom[i] != k);
+		++numWarmStarted;
+	    }
+	}
+	assertTrue(numWarmStarted >= result.numClusters.length - 2);
+    }
+
+    /**
+     * Generates a batch of points, odd points lie near (shift, shift), even points lie near (shift + 10, shift + 10).
+     */
+    private Vector[] createBatch(Random random, int size, double shift) {
+	Vector[] batch = new Vector[size];
+	for (int i = 0; i < size; ++i) {
+	    double base = shift + (i % 2) * 10.0;
+	    batch[i] = new Vector(base + random.nextDouble(), base + random.nextDouble());
+	}
+	return batch;
+    }
+
+    private void checkCenters(double[] centers, double shift, double epsilon) {
+	double low = Math.min(centers[0], centers[2]), high = Math.max(centers[0], centers[2]);
+	assertEquals(shift + 0.5, low, epsilon);
+	assertEquals(shift + 10.5, high, epsilon);
+    }
+
+    public void testIncremental() {
+	Random random = new Random(2011);
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-9);
+	KFuzzyAlgorithm.Incremental incremental = algorithm.createIncremental(2, options, new KFuzzyAlgorithm.IncrementalOptions());
+	assertNull(incremental.getCenters());
+	for (int i = 0; i < 10; ++i) {
+	    KFuzzyAlgorithm.Result result = incremental.append(createBatch(random, 20, 0.0));
+	    assertEquals(20, result.assignment.length);
+	    assertTrue(result.numIterations <= KFuzzyAlgorithm.IncrementalOptions.DEFAULT_NUM_REFINEMENTS);
+	    assertEquals(result.numIterations + 1, result.objectiveHistory.length);
+	    for (int j = 2; j < 20; ++j)
+		assertEquals(result.assignment[j % 2], result.assignment[j]);
+	    assertTrue(result.assignment[0] != result.assignment[1]);
+	}
+	assertEquals(200, incremental.getNumObjects());
+	checkCenters(incremental.getCenters(), 0.0, 0.2);
+
+	try {
+	    algorithm.createIncremental(3, options, new KFuzzyAlgorithm.IncrementalOptions()).append(createBatch(random, 2, 0.0));
+	    fail();
+	} catch (IllegalArgumentException e) {
+	}
+    }
+
+    /**
+     * Checks that old objects age out of the window and by decay.
+     */
+    public void testIncrementalAging() {
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-9);
+	KFuzzyAlgorithm.IncrementalOptions[] aging = new KFuzzyAlgorithm.IncrementalOptions[] {
+	    new KFuzzyAlgorithm.IncrementalOptions(5, 1.0, 2), new KFuzzyAlgorithm.IncrementalOptions(5, 0.3, 0)
+	};
+	for (KFuzzyAlgorithm.IncrementalOptions incrementalOptions : aging) {
+	    Random random = new Random(2011);
+	    KFuzzyAlgorithm.Incremental incremental = algorithm.createIncremental(2, options, incrementalOptions);
+	    for (int i = 0; i < 5; ++i)
+		incremental.append(createBatch(random, 50, 0.0));
+	    for (int i = 0; i < 8; ++i)
+		incremental.append(createBatch(random, 50, 3.0));
+	    checkCenters(incremental.getCenters(), 3.0, 0.2);
+	}
+
+	Random random = new Random(2011);
+	KFuzzyAlgorithm.Incremental incremental = algorithm.createIncremental(2, options, new KFuzzyAlgorithm.IncrementalOptions());
+	for (int i = 0; i < 5; ++i)
+	    incremental.append(createBatch(random, 50, 0.0));
+	for (int i = 0; i < 5; ++i)
+	    incremental.append(createBatch(random, 50, 3.0));
+	checkCenters(incremental.getCenters(), 1.5, 0.75);
+    }
+
+    /**
+     * Checks that clusterization, started from final centers, converges immediately.
+     */
+    public void testWarmStart() {
+	final int size = 200;
+	Vector[] vectors = createTwoGroups(size);
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-9);
+	KFuzzyAlgorithm.Result cold = algorithm.clusterizeDetailed(vectors, 2, options);
+	assertEquals(2 * 2, cold.centers.length);
+
+	Vector[] centers = cold.getCenters(2);
+	assertEquals(2, centers.length);
+	KFuzzyAlgorithm.Result warm = algorithm.clusterizeDetailed(vectors, centers, options);
+	checkTwoGroups(size, warm.assignment);
+	assertTrue(warm.converged);
+	assertTrue(warm.numIterations <= 1);
+	assertEquals(cold.objective, warm.objective, 1e-9 * cold.objective);
+
+	// slightly changed dataset converges in a few iterations
+	Vector[] changed = new Vector[size];
+	for (int i = 0; i < size; ++i)
+	    changed[i] = new Vector(vectors[i].get(0) + 0.1, vectors[i].get(1) - 0.1);
+	KFuzzyAlgorithm.Result next = algorithm.clusterizeDetailed(new DenseDataset(changed), cold, options);
+	KFuzzyAlgorithm.Result scratch = algorithm.clusterizeDetailed(changed, 2, options);
+	checkTwoGroups(size, next.assignment);
+	assertTrue(next.converged);
+	assertTrue(next.numIterations <= scratch.numIterations);
+	assertEquals(scratch.objective, next.objective, 1e-6 * scratch.objective);
+
+	KFuzzyAlgorithm.Result empty = algorithm.clusterizeDetailed(new Vector[] {}, centers, options);
+	assertEquals(0, empty.assignment.length);
+	assertEquals(4, empty.centers.length);
+    }
+
+    public void testMaxIterations() {
+	Vector[] vectors = createTwoGroups(40);
+
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(vectors, 2, new KFuzzyAlgorithm.Options(2.0, 1, 0.0));
+	assertEquals(1, result.numIterations);
+	assertFalse(result.converged);
+    }
+
+    /**
+     * Checks that the large-k mode reproduces the ordinary mode, when
+     * all centers are nearest, and keeps well separated groups
+     * together, when only a few nearest centers are used.
+     */
+    public void testLargeK() {
+	final int numGroups = 50, size = 20 * numGroups;
+	Random random = new Random(2011);
+	DenseDataset dataset = new DenseDataset(size, 2);
+	for (int i = 0; i < size; ++i) {
+	    dataset.set(i, 0, (i % numGroups % 10) * 10.0 + 0.5 * random.nextGaussian());
+	    dataset.set(i, 1, (i % numGroups / 10) * 10.0 + 0.5 * random.nextGaussian());
+	}
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 200, 1e-8, KFuzzyAlgorithm.ConvergenceCriterion.CENTER_SHIFT,
+								      null, new KFuzzyAlgorithm.SparseOptions(2, 0.0));
+
+	KFuzzyAlgorithm.Result expected = algorithm.clusterizeDetailed(dataset, numGroups, options);
+	KFuzzyAlgorithm.LargeKResult exact = algorithm.clusterizeLargeK(dataset, numGroups, options, new KFuzzyAlgorithm.LargeKOptions(100));
+	assertTrue(Arrays.equals(expected.assignment, exact.assignment));
+	assertEquals(expected.numIterations, exact.numIterations);
+	assertEquals(expected.objective, exact.objective, 1e-6 * expected.objective);
+	for (int i = 0; i < expected.centers.length; ++i)
+	    assertEquals(expected.centers[i], exact.centers[i], 1e-6);
+	assertEquals(0.0, exact.maxTruncationError, 0.0);
+
+	KFuzzyAlgorithm.LargeKResult truncated = algorithm.clusterizeLargeK(dataset, numGroups, options, new KFuzzyAlgorithm.LargeKOptions(4));
+	assertTrue(truncated.converged);
+	assertEquals(truncated.numIterations + 1, truncated.objectiveHistory.length);
+	assertTrue(truncated.objective < expected.objective);
+	for (int i = 0; i < size; ++i)
+	    assertEquals(truncated.assignment[i % numGroups], truncated.assignment[i]);
+	assertTrue(truncated.meanTruncationError > 0.0 && truncated.meanTruncationError <= truncated.maxTruncationError);
+	assertTrue(truncated.maxTruncationError < 1.0);
+	assertEquals(size, truncated.memberships.getNumObjects());
+	for (int i = 0; i < size; ++i)
+	    assertEquals(truncated.assignment[i], truncated.memberships.getClusters()[truncated.memberships.getOffsets()[i]]);
+    }
+}
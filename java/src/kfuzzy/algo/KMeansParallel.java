@@ -0,0 +1,281 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import kfuzzy.math.Vector;
+import kfuzzy.utils.ChunkedLoop;
+
+
+/**
+ * KMeansParallel chooses cluster centers by scalable k-means
+ * (k-means||) seeding. Instead of m sequential passes of k-means++,
+ * it makes a few rounds, each of which samples every vector
+ * independently with probability l * D^2 / psi, where D is a
+ * distance to the nearest candidate, psi is a sum of squared
+ * distances and l is an oversampling factor. Then candidates are
+ * weighted by number of vectors, nearest to them, and m centers are
+ * chosen among candidates by weighted k-means++.
+ *
+ * Sampling is performed in parallel by chunks of fixed size, each
+ * chunk has its own random number generator seeded from the main
+ * one, so for the same seed the same centers are chosen regardless of
+ * the number of threads.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0607
+ * @since 1.7
+ */
+public class KMeansParallel implements ClusterCentersInterface {
+    /**
+     * Default oversampling factor, as a multiplier of the number of centers
+     */
+    public final static double DEFAULT_OVERSAMPLING = 2.0;
+    /**
+     * Default number of sampling rounds
+     */
+    public final static int DEFAULT_NUM_ROUNDS = 5;
+    /**
+     * Seed of the random number generator
+     */
+    private final long seed;
+    /**
+     * Number of worker threads, pool of them is created for each
+     * seeding and is shut down after it
+     */
+    private final int numThreads;
+    /**
+     * Oversampling factor, as a multiplier of the number of centers
+     */
+    private final double oversampling;
+    /**
+     * Number of sampling rounds
+     */
+    private final int numRounds;
+    /**
+     * State of the seeding, shared by chunks.
+     */
+    private static class State {
+	public final Vector[] vectors;
+	public final int numChunks;
+	/**
+	 * Squared distance from a vector to the nearest candidate
+	 */
+	public final double[] distance;
+	/**
+	 * Index of the nearest candidate
+	 */
+	public final int[] nearest;
+	/**
+	 * Sums of squared distances by chunks
+	 */
+	public final double[] sums;
+	/**
+	 * Indices of candidates
+	 */
+	public int[] candidates;
+	public int numCandidates;
+
+	public State(Vector[] vectors, int numChunks) {
+	    this.vectors = vectors;
+	    this.numChunks = numChunks;
+	    this.distance = new double[vectors.length];
+	    this.nearest = new int[vectors.length];
+	    this.sums = new double[numChunks];
+	    this.candidates = new int[16];
+	    this.numCandidates = 0;
+	    Arrays.fill(distance, Double.POSITIVE_INFINITY);
+	}
+
+	public int getChunkBegin(int chunk) {
+	    return ChunkedLoop.getChunkBegin(vectors.length, numChunks, chunk);
+	}
+
+	public void addCandidate(int index) {
+	    if (numCandidates == candidates.length)
+		candidates = Arrays.copyOf(candidates, 2 * numCandidates);
+	    candidates[numCandidates++] = index;
+	}
+    }
+    /**
+     * Relaxes distances to candidates [from; numCandidates) and
+     * computes sums of distances by chunks.
+     */
+    private static class Relaxation implements ChunkedLoop.Body {
+	private final State state;
+	private final int from;
+
+	public Relaxation(State state, int from) {
+	    this.state = state;
+	    this.from = from;
+	}
+
+	public void process(int chunk) {
+	    final Vector[] vectors = state.vectors;
+	    final double[] distance = state.distance;
+	    final int[] nearest = state.nearest, candidates = state.candidates;
+	    final int to = state.numCandidates;
+	    double sum = 0.0;
+	    for (int i = state.getChunkBegin(chunk), end = state.getChunkBegin(chunk + 1); i < end; ++i) {
+		for (int j = from; j < to; ++j) {
+		    double d = vectors[i].squaredDistance(vectors[candidates[j]]);
+		    if (d < distance[i]) {
+			distance[i] = d;
+			nearest[i] = j;
+		    }
+		}
+		sum += distance[i];
+	    }
+	    state.sums[chunk] = sum;
+	}
+
+	public void merge(int target, int source) {
+	}
+    }
+    /**
+     * Samples each vector independently with probability l * D^2 / psi.
+     */
+    private static class Sampling implements ChunkedLoop.Body {
+	private final State state;
+	private final double factor;
+	private final long seed;
+	/**
+	 * Sampled indices by chunks
+	 */
+	public final int[][] samples;
+	public final int[] numSamples;
+
+	public Sampling(State state, double factor, long seed) {
+	    this.state = state;
+	    this.factor = factor;
+	    this.seed = seed;
+	    this.samples = new int[state.numChunks][];
+	    this.numSamples = new int[state.numChunks];
+	}
+
+	public void process(int chunk) {
+	    final double[] distance = state.distance;
+	    Random random = new Random(seed + 0x9E3779B97F4A7C15L * chunk);
+	    int[] sample = new int[4];
+	    int size = 0;
+	    for (int i = state.getChunkBegin(chunk), end = state.getChunkBegin(chunk + 1); i < end; ++i) {
+		if (distance[i] > 0.0 && random.nextDouble() < factor * distance[i]) {
+		    if (size == sample.length)
+			sample = Arrays.copyOf(sample, 2 * size);
+		    sample[size++] = i;
+		}
+	    }
+	    samples[chunk] = sample;
+	    numSamples[chunk] = size;
+	}
+
+	public void merge(int target, int source) {
+	}
+    }
+    /**
+     * Constructor, number of worker threads is equal to number of available processors.
+     *
+     * @param seed seed of the random number generator
+     */
+    public KMeansParallel(long seed) {
+	this(seed, Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Constructor specifying number of worker threads.
+     *
+     * @param seed seed of the random number generator
+     * @param numThreads number of worker threads, must be positive
+     */
+    public KMeansParallel(long seed, int numThreads) {
+	this(seed, numThreads, DEFAULT_OVERSAMPLING, DEFAULT_NUM_ROUNDS);
+    }
+    /**
+     * Constructor specifying all parameters.
+     *
+     * @param seed seed of the random number generator
+     * @param numThreads number of worker threads, must be positive
+     * @param oversampling expected number of vectors sampled in a round, as a multiplier of the number of centers, must be positive
+     * @param numRounds number of sampling rounds, must be positive
+     */
+    public KMeansParallel(long seed, int numThreads, double oversampling, int numRounds) {
+	assert numThreads > 0 : "numThreads: " + numThreads;
+	assert oversampling > 0.0 : "oversampling: " + oversampling;
+	assert numRounds > 0 : "numRounds: " + numRounds;
+
+	this.seed = seed;
+	this.numThreads = numThreads;
+	this.oversampling = oversampling;
+	this.numRounds = numRounds;
+    }
+
+    public Vector[] findClusterCenters(Vector[] vectors, int m) {
+	final int n = vectors.length;
+
+	assert m >= 0 && m <= n : "vectors size: " + n + ", required number of vectors: " + m;
+
+	if (m == 0)
+	    return new Vector[] {};
+	ForkJoinPool pool = KMeansPlusPlus.createPool(numThreads, n);
+	try {
+	    return findClusterCenters(vectors, m, pool);
+	} finally {
+	    if (pool != null)
+		pool.shutdown();
+	}
+    }
+    /**
+     * Chooses m cluster centers among non-empty set of vectors.
+     *
+     * @param vectors set of vectors
+     * @param m number of centers, must be between one and number of vectors (inclusive)
+     * @param pool pool of worker threads, or null
+     * @return cluster centers
+     */
+    private Vector[] findClusterCenters(Vector[] vectors, int m, ForkJoinPool pool) {
+	final int n = vectors.length;
+
+	Vector[] result = new Vector[m];
+
+	Random random = new Random(seed);
+	State state = new State(vectors, ChunkedLoop.getNumChunks(n, KMeansPlusPlus.CHUNK_SIZE));
+	state.addCandidate(random.nextInt(n));
+	ChunkedLoop.run(pool, state.numChunks, new Relaxation(state, 0));
+
+	for (int round = 0; round < numRounds; ++round) {
+	    double psi = 0.0;
+	    for (int chunk = 0; chunk < state.numChunks; ++chunk)
+		psi += state.sums[chunk];
+	    if (psi <= 0.0)
+		break;
+
+	    Sampling sampling = new Sampling(state, oversampling * m / psi, random.nextLong());
+	    ChunkedLoop.run(pool, state.numChunks, sampling);
+
+	    int from = state.numCandidates;
+	    for (int chunk = 0; chunk < state.numChunks; ++chunk)
+		for (int i = 0; i < sampling.numSamples[chunk]; ++i)
+		    state.addCandidate(sampling.samples[chunk][i]);
+	    ChunkedLoop.run(pool, state.numChunks, new Relaxation(state, from));
+	}
+
+	int[] indices;
+	if (state.numCandidates <= m) {
+	    // too few candidates, falls back to k-means++ over all vectors
+	    indices = KMeansPlusPlus.choose(vectors, null, m, random, pool);
+	} else {
+	    Vector[] candidates = new Vector[state.numCandidates];
+	    double[] weights = new double[state.numCandidates];
+	    for (int i = 0; i < state.numCandidates; ++i)
+		candidates[i] = vectors[state.candidates[i]];
+	    for (int i = 0; i < n; ++i)
+		weights[state.nearest[i]] += 1.0;
+	    indices = KMeansPlusPlus.choose(candidates, weights, m, random, null);
+	    for (int i = 0; i < m; ++i)
+		indices[i] = state.candidates[indices[i]];
+	}
+	for (int i = 0; i < m; ++i)
+	    result[i] = vectors[indices[i]];
+	return result;
+    }
+}
@@ -0,0 +1,16 @@
+package kfuzzy.algo;
+
+
+/**
+ * Class contains tests for KMeansParallel class. All tests of the
+ * KMeansPlusPlus are inherited.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0607
+ * @since 1.7
+ */
+public class KMeansParallelTest extends KMeansPlusPlusTest {
+    protected ClusterCentersInterface createSeeder(long seed, int numThreads) {
+	return new KMeansParallel(seed, numThreads);
+    }
+}
@@ -0,0 +1,222 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import kfuzzy.math.Vector;
+import kfuzzy.utils.ChunkedLoop;
+
+
+/**
+ * KMeansPlusPlus chooses cluster centers by k-means++ seeding: first
+ * center is chosen uniformly at random, each next center is chosen
+ * among the vectors with probability proportional to squared
+ * distance from the vector to the nearest already chosen center. So
+ * centers are spread over the set, but, unlike the most distant
+ * vectors, rarely are outliers.
+ *
+ * Distances are relaxed in parallel by chunks of fixed size, so for
+ * the same seed the same centers are chosen regardless of the number
+ * of threads.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0607
+ * @since 1.7
+ */
+public class KMeansPlusPlus implements ClusterCentersInterface {
+    /**
+     * Number of vectors in a chunk, processed by one task
+     */
+    public final static int CHUNK_SIZE = 1 << 12;
+    /**
+     * Seed of the random number generator
+     */
+    private final long seed;
+    /**
+     * Number of worker threads, pool of them is created for each
+     * seeding and is shut down after it
+     */
+    private final int numThreads;
+    /**
+     * Relaxes squared distances to a center and computes weighted
+     * sums of distances by chunks.
+     */
+    private static class Relaxation implements ChunkedLoop.Body {
+	private final Vector[] vectors;
+	private final double[] weights;
+	private final double[] distance;
+	private final double[] sums;
+	private final int numChunks;
+	/**
+	 * Index of the center, or -1, if sums are computed without relaxation
+	 */
+	private int center;
+
+	public Relaxation(Vector[] vectors, double[] weights, double[] distance, double[] sums) {
+	    this.vectors = vectors;
+	    this.weights = weights;
+	    this.distance = distance;
+	    this.sums = sums;
+	    this.numChunks = sums.length;
+	    this.center = -1;
+	}
+
+	public void process(int chunk) {
+	    final int n = vectors.length;
+	    final int from = ChunkedLoop.getChunkBegin(n, numChunks, chunk), to = ChunkedLoop.getChunkBegin(n, numChunks, chunk + 1);
+	    double sum = 0.0;
+	    for (int i = from; i < to; ++i) {
+		if (center >= 0) {
+		    double d = vectors[i].squaredDistance(vectors[center]);
+		    if (d < distance[i])
+			distance[i] = d;
+		}
+		sum += weights == null ? distance[i] : weights[i] * distance[i];
+	    }
+	    sums[chunk] = sum;
+	}
+
+	public void merge(int target, int source) {
+	}
+    }
+    /**
+     * Constructor, number of worker threads is equal to number of available processors.
+     *
+     * @param seed seed of the random number generator
+     */
+    public KMeansPlusPlus(long seed) {
+	this(seed, Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Constructor specifying number of worker threads.
+     *
+     * @param seed seed of the random number generator
+     * @param numThreads number of worker threads, must be positive
+     */
+    public KMeansPlusPlus(long seed, int numThreads) {
+	assert numThreads > 0 : "numThreads: " + numThreads;
+
+	this.seed = seed;
+	this.numThreads = numThreads;
+    }
+    /**
+     * Creates pool of worker threads for a set of vectors.
+     *
+     * @param numThreads number of worker threads
+     * @param n number of vectors
+     * @return pool of worker threads, or null, if vectors fit into a single chunk
+     */
+    static ForkJoinPool createPool(int numThreads, int n) {
+	return numThreads > 1 && n > CHUNK_SIZE ? new ForkJoinPool(numThreads) : null;
+    }
+
+    public Vector[] findClusterCenters(Vector[] vectors, int m) {
+	int[] indices;
+	ForkJoinPool pool = createPool(numThreads, vectors.length);
+	try {
+	    indices = choose(vectors, null, m, new Random(seed), pool);
+	} finally {
+	    if (pool != null)
+		pool.shutdown();
+	}
+	Vector[] result = new Vector[m];
+	for (int i = 0; i < m; ++i)
+	    result[i] = vectors[indices[i]];
+	return result;
+    }
+    /**
+     * Chooses m distinct vectors by weighted k-means++ seeding:
+     * probability to choose a vector is proportional to product of
+     * its weight and squared distance to the nearest chosen vector.
+     *
+     * @param vectors set of vectors
+     * @param weights non-negative weights of vectors, or null, if all weights are equal to one
+     * @param m number of vectors to choose, must be between zero and number of vectors (inclusive)
+     * @param random random number generator
+     * @param pool pool of worker threads, or null
+     * @return indices of chosen vectors, in order of choice
+     */
+    static int[] choose(Vector[] vectors, double[] weights, int m, Random random, ForkJoinPool pool) {
+	final int n = vectors.length;
+
+	assert m >= 0 && m <= n : "vectors size: " + n + ", required number of vectors: " + m;
+
+	int[] result = new int[m];
+	if (m == 0)
+	    return result;
+
+	// before the first choice all distances are equal to one, so
+	// the first vector is chosen proportionally to weights
+	double[] distance = new double[n];
+	Arrays.fill(distance, 1.0);
+	boolean[] chosen = new boolean[n];
+	final int numChunks = ChunkedLoop.getNumChunks(n, CHUNK_SIZE);
+	double[] sums = new double[numChunks];
+	Relaxation relaxation = new Relaxation(vectors, weights, distance, sums);
+
+	for (int i = 0; i < m; ++i) {
+	    if (i == 1)
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+	    relaxation.center = i == 0 ? -1 : result[i - 1];
+	    ChunkedLoop.run(pool, numChunks, relaxation);
+	    result[i] = sample(n, weights, distance, sums, chosen, random);
+	    chosen[result[i]] = true;
+	    distance[result[i]] = 0.0;
+	}
+	return result;
+    }
+    /**
+     * Samples a vector with probability proportional to product of
+     * weight and distance. If all products are zero, samples uniformly
+     * among vectors, that are not chosen yet.
+     *
+     * @return index of the sampled vector
+     */
+    private static int sample(int n, double[] weights, double[] distance, double[] sums, boolean[] chosen, Random random) {
+	final int numChunks = sums.length;
+	double total = 0.0;
+	for (int chunk = 0; chunk < numChunks; ++chunk)
+	    total += sums[chunk];
+
+	if (total > 0.0 && !Double.isInfinite(total)) {
+	    // because of rounding errors target may exceed sum of all
+	    // chunks, so the last non-empty chunk is always scanned
+	    int lastChunk = numChunks - 1;
+	    while (sums[lastChunk] <= 0.0)
+		--lastChunk;
+	    double target = random.nextDouble() * total;
+	    for (int chunk = 0; chunk <= lastChunk; ++chunk) {
+		if (sums[chunk] <= 0.0)
+		    continue;
+		if (target >= sums[chunk] && chunk < lastChunk) {
+		    target -= sums[chunk];
+		    continue;
+		}
+		final int from = ChunkedLoop.getChunkBegin(n, numChunks, chunk), to = ChunkedLoop.getChunkBegin(n, numChunks, chunk + 1);
+		int last = -1;
+		for (int i = from; i < to; ++i) {
+		    if (chosen[i])
+			continue;
+		    double value = weights == null ? distance[i] : weights[i] * distance[i];
+		    if (value <= 0.0)
+			continue;
+		    if (target < value)
+			return i;
+		    target -= value;
+		    last = i;
+		}
+		if (last >= 0)
+		    return last;
+	    }
+	}
+
+	int start = random.nextInt(n);
+	for (int i = 0; i < n; ++i) {
+	    int index = (start + i) % n;
+	    if (!chosen[index])
+		return index;
+	}
+	throw new IllegalStateException("all vectors are already chosen");
+    }
+}
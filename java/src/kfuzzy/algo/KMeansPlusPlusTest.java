@@ -0,0 +1,80 @@
+package kfuzzy.algo;
+
+import java.util.*;
+import junit.framework.TestCase;
+
+import kfuzzy.math.Vector;
+
+
+/**
+ * Class contains several tests for KMeansPlusPlus class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0607
+ * @since 1.7
+ */
+public class KMeansPlusPlusTest extends TestCase {
+    protected ClusterCentersInterface createSeeder(long seed, int numThreads) {
+	return new KMeansPlusPlus(seed, numThreads);
+    }
+    /**
+     * Generates groups of points near corners of a large square.
+     */
+    private Vector[] createGroups(int numGroups, int groupSize) {
+	Random random = new Random(2011);
+	Vector[] vectors = new Vector[numGroups * groupSize];
+	for (int i = 0; i < vectors.length; ++i) {
+	    int group = i % numGroups;
+	    vectors[i] = new Vector(1000.0 * (group & 1) + random.nextDouble(), 1000.0 * (group >> 1) + random.nextDouble());
+	}
+	return vectors;
+    }
+
+    private int getGroup(Vector vector) {
+	return (vector.get(0) > 500.0 ? 1 : 0) + (vector.get(1) > 500.0 ? 2 : 0);
+    }
+
+    public void testZero() {
+	assertEquals(0, createSeeder(1, 1).findClusterCenters(new Vector[] {}, 0).length);
+	assertEquals(0, createSeeder(1, 1).findClusterCenters(createGroups(4, 10), 0).length);
+    }
+    /**
+     * Checks that each group gets exactly one center.
+     */
+    public void testGroups() {
+	Vector[] vectors = createGroups(4, 250);
+	for (long seed = 0; seed < 10; ++seed) {
+	    Vector[] centers = createSeeder(seed, 2).findClusterCenters(vectors, 4);
+	    assertEquals(4, centers.length);
+	    boolean[] covered = new boolean[4];
+	    for (Vector center : centers)
+		covered[getGroup(center)] = true;
+	    for (int i = 0; i < 4; ++i)
+		assertTrue(covered[i]);
+	}
+    }
+    /**
+     * Checks that equal vectors are chosen only once each.
+     */
+    public void testAllEqual() {
+	Vector[] vectors = new Vector[] { new Vector(2), new Vector(2), new Vector(2), new Vector(2) };
+	Vector[] centers = createSeeder(7, 1).findClusterCenters(vectors, 4);
+	Set<Vector> chosen = Collections.newSetFromMap(new IdentityHashMap<Vector, Boolean>());
+	chosen.addAll(Arrays.asList(centers));
+	assertEquals(4, chosen.size());
+    }
+    /**
+     * Checks that result depends only on seed, not on number of threads.
+     */
+    public void testDeterministic() {
+	Random random = new Random(2011);
+	Vector[] vectors = new Vector[3 * KMeansPlusPlus.CHUNK_SIZE + 17];
+	for (int i = 0; i < vectors.length; ++i)
+	    vectors[i] = new Vector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+
+	Vector[] serial = createSeeder(5, 1).findClusterCenters(vectors, 20);
+	Vector[] parallel = createSeeder(5, 4).findClusterCenters(vectors, 20);
+	for (int i = 0; i < serial.length; ++i)
+	    assertSame(serial[i], parallel[i]);
+    }
+}
@@ -0,0 +1,169 @@
+package kfuzzy.algo;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.math.KernelInterface;
+import kfuzzy.math.Kernels;
+import kfuzzy.utils.MathUtils;
+
+
+/**
+ * MembershipKernel computes probabilities of an object to lie in
+ * clusters by squared distances to cluster centers. Probability of
+ * ith object to lie in cth cluster is (1 / d_ic)^(1 / (m - 1))
+ * divided by the sum of the same values over all clusters, where m
+ * is blending. Kernel uses an equivalent form (d_ic^2)^e, where e =
+ * -1 / (2 * (m - 1)), so distances are never square-rooted. For
+ * common values of blending powers are replaced by multiplications
+ * and square roots:
+ *
+ * m = 1.5: weight is 1 / d^2, u^m is u * sqrt(u);
+ * m = 2: weight is 1 / sqrt(d^2), u^m is u * u;
+ * m = 3: weight is 1 / sqrt(sqrt(d^2)), u^m is u * u * u.
+ *
+ * Centers, which coincide with an object, share the whole probability of the object.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0523
+ * @since 1.6
+ */
+public class MembershipKernel {
+    /**
+     * Two points are considered equal, if squared distance between
+     * them is less than this value
+     */
+    public final static double ZERO_SQUARED_DISTANCE = MathUtils.EPSILON * MathUtils.EPSILON;
+
+    /**
+     * Implementation of numeric loops
+     */
+    private final static KernelInterface KERNEL = Kernels.get();
+
+    private final static int GENERAL = 0;
+    private final static int ONE_AND_HALF = 1;
+    private final static int TWO = 2;
+    private final static int THREE = 3;
+    /**
+     * Value of blending
+     */
+    private final double blending;
+    /**
+     * Power of squared distance, -1 / (2 * (m - 1))
+     */
+    private final double exponent;
+    /**
+     * One of GENERAL, ONE_AND_HALF, TWO, THREE
+     */
+    private final int shape;
+    /**
+     * Constructor specifying blending.
+     *
+     * @param blending blending
+     */
+    public MembershipKernel(double blending) {
+	this.blending = blending;
+	this.exponent = -1.0 / (2.0 * (blending - 1.0));
+	if (blending == 1.5)
+	    shape = ONE_AND_HALF;
+	else if (blending == 2.0)
+	    shape = TWO;
+	else if (blending == 3.0)
+	    shape = THREE;
+	else
+	    shape = GENERAL;
+    }
+    /**
+     * @return value of blending
+     */
+    public double getBlending() {
+	return blending;
+    }
+    /**
+     * Returns unnormalized probability of an object to lie in a
+     * cluster, center of which lies on the given non-zero squared distance.
+     *
+     * @param squaredDistance squared distance between object and center, must be positive
+     * @return unnormalized probability
+     */
+    public double weight(double squaredDistance) {
+	switch (shape) {
+	case ONE_AND_HALF:
+	    return 1.0 / squaredDistance;
+	case TWO:
+	    return 1.0 / Math.sqrt(squaredDistance);
+	case THREE:
+	    return 1.0 / Math.sqrt(Math.sqrt(squaredDistance));
+	default:
+	    return Math.pow(squaredDistance, exponent);
+	}
+    }
+    /**
+     * Returns probability in power of blending.
+     *
+     * @param probability probability
+     * @return probability in power of blending
+     */
+    public double power(double probability) {
+	switch (shape) {
+	case ONE_AND_HALF:
+	    return probability * Math.sqrt(probability);
+	case TWO:
+	    return probability * probability;
+	case THREE:
+	    return probability * probability * probability;
+	default:
+	    return Math.pow(probability, blending);
+	}
+    }
+    /**
+     * Computes probabilities of an object to lie in each cluster.
+     *
+     * @param dataset set of vectors
+     * @param object index of the object
+     * @param numClusters number of clusters
+     * @param centers array of cluster centers
+     * @param squaredDistances buffer for squared distances, must have at least numClusters elements
+     * @param probabilities resulting probabilities, must have at least numClusters elements
+     * @return contribution of the object to the objective function
+     */
+    public double findProbabilities(Dataset dataset, int object, int numClusters, double[] centers, double[] squaredDistances,
+				    double[] probabilities) {
+	final int numDimensions = dataset.getNumDimensions();
+
+	int numCoincident = 0;
+	for (int i = 0; i < numClusters; ++i) {
+	    double d = dataset.squaredDistance(object, centers, i * numDimensions);
+	    squaredDistances[i] = d;
+	    if (d < ZERO_SQUARED_DISTANCE)
+		++numCoincident;
+	}
+	return normalize(numClusters, squaredDistances, numCoincident, probabilities);
+    }
+    /**
+     * Computes probabilities of an object by squared distances to cluster centers.
+     *
+     * @param numClusters number of clusters
+     * @param squaredDistances squared distances from object to cluster centers
+     * @param numCoincident number of centers, which coincide with object
+     * @param probabilities resulting probabilities, must have at least numClusters elements
+     * @return contribution of the object to the objective function
+     */
+    public double normalize(int numClusters, double[] squaredDistances, int numCoincident, double[] probabilities) {
+	if (numCoincident != 0) {
+	    double p = 1.0 / numCoincident, objective = 0.0;
+	    for (int i = 0; i < numClusters; ++i) {
+		probabilities[i] = squaredDistances[i] < ZERO_SQUARED_DISTANCE ? p : 0.0;
+		objective += power(probabilities[i]) * squaredDistances[i];
+	    }
+	    return objective;
+	}
+
+	for (int i = 0; i < numClusters; ++i)
+	    probabilities[i] = weight(squaredDistances[i]);
+	KERNEL.normalize(probabilities, 0, numClusters);
+
+	double objective = 0.0;
+	for (int i = 0; i < numClusters; ++i)
+	    objective += power(probabilities[i]) * squaredDistances[i];
+	return objective;
+    }
+}
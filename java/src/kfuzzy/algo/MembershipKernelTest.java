@@ -0,0 +1,84 @@
+package kfuzzy.algo;
+
+import java.util.*;
+import junit.framework.TestCase;
+
+import kfuzzy.math.DenseDataset;
+
+
+/**
+ * Class contains tests, that compare MembershipKernel with reference implementation.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0523
+ * @since 1.6
+ */
+public class MembershipKernelTest extends TestCase {
+    private final static double EPSILON = 1e-9;
+
+    private DenseDataset createDataset(int numObjects, int numDimensions) {
+	Random random = new Random(2011);
+	double[] data = new double[numObjects * numDimensions];
+	for (int i = 0; i < data.length; ++i)
+	    data[i] = 10.0 * random.nextDouble();
+	return new DenseDataset(numObjects, numDimensions, data);
+    }
+    /**
+     * Checks that SerialEngine performs the same steps as ReferenceEngine.
+     */
+    private void checkBlending(double blending) {
+	final int numObjects = 200, numDimensions = 3, numClusters = 5;
+	DenseDataset dataset = createDataset(numObjects, numDimensions);
+
+	double[] referenceCenters = Arrays.copyOf(dataset.getData(), numClusters * numDimensions);
+	double[] centers = Arrays.copyOf(referenceCenters, referenceCenters.length);
+	double[] referenceProbabilities = new double[numObjects * numClusters];
+	double[] probabilities = new double[numObjects * numClusters];
+	IterationStatistics referenceStatistics = new IterationStatistics(), statistics = new IterationStatistics();
+
+	ClusterizationEngineInterface reference = new ReferenceEngine(), engine = new SerialEngine();
+	for (int iteration = 0; iteration < 3; ++iteration) {
+	    reference.findProbabilities(dataset, numClusters, referenceCenters, blending, referenceProbabilities, referenceStatistics);
+	    engine.findProbabilities(dataset, numClusters, centers, blending, probabilities, statistics);
+	    for (int i = 0; i < probabilities.length; ++i)
+		assertEquals(referenceProbabilities[i], probabilities[i], EPSILON);
+	    assertEquals(referenceStatistics.objective, statistics.objective, EPSILON * referenceStatistics.objective);
+
+	    reference.recomputeCenters(dataset, numClusters, referenceProbabilities, blending, referenceCenters, referenceStatistics);
+	    engine.recomputeCenters(dataset, numClusters, probabilities, blending, centers, statistics);
+	    for (int i = 0; i < centers.length; ++i)
+		assertEquals(referenceCenters[i], centers[i], EPSILON);
+	}
+    }
+
+    public void testOneAndHalf() {
+	checkBlending(1.5);
+    }
+
+    public void testTwo() {
+	checkBlending(2.0);
+    }
+
+    public void testThree() {
+	checkBlending(3.0);
+    }
+
+    public void testGeneral() {
+	checkBlending(0.0);
+	checkBlending(1.2);
+	checkBlending(2.5);
+    }
+
+    public void testCoincident() {
+	MembershipKernel kernel = new MembershipKernel(2.0);
+	DenseDataset dataset = new DenseDataset(1, 2, new double[] { 1.0, 1.0 });
+	double[] centers = new double[] { 1.0, 1.0, 5.0, 5.0, 1.0, 1.0 };
+	double[] squaredDistances = new double[3], probabilities = new double[3];
+
+	double objective = kernel.findProbabilities(dataset, 0, 3, centers, squaredDistances, probabilities);
+	assertEquals(0.5, probabilities[0], EPSILON);
+	assertEquals(0.0, probabilities[1], EPSILON);
+	assertEquals(0.5, probabilities[2], EPSILON);
+	assertEquals(0.0, objective, EPSILON);
+    }
+}
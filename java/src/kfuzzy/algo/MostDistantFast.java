@@ -0,0 +1,252 @@
+package kfuzzy.algo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import kfuzzy.math.Vector;
+
+
+/**
+ * MostDistantFast is an algorithm to find most distant vectors in
+ * the given set in O(n * m * d) time.
+ *
+ * First two vectors approximate diameter of the set: starting from
+ * the first vector, algorithm several times jumps to the vector,
+ * most distant from the current one, and takes the most distant
+ * pair it has seen. Distance between these vectors is at least a
+ * half of the diameter, since for any vector p and the diameter (a,
+ * b): D = |a - b| {@literal <=} |a - p| + |p - b| {@literal <=} 2 * max |p - q|.
+ *
+ * Other vectors are chosen greedily: each next vector is the most
+ * distant from the already chosen ones. Distances from all vectors
+ * to the chosen set are relaxed incrementally after each choice,
+ * relaxation and search of the maximum are performed in parallel.
+ * Pool of worker threads lives only during a single search, so
+ * instances don't hold threads and may be shared between threads.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0603
+ * @since 1.7
+ */
+public class MostDistantFast implements MostDistantInterface {
+    /**
+     * Default number of jumps to the most distant vector, used to approximate diameter
+     */
+    public final static int DEFAULT_NUM_SWEEPS = 4;
+    /**
+     * Sets of vectors, smaller than this value, are processed in the current thread
+     */
+    public final static int PARALLEL_THRESHOLD = 1 << 13;
+    /**
+     * Number of chunks per worker thread
+     */
+    public final static int CHUNKS_PER_THREAD = 4;
+    /**
+     * Number of worker threads
+     */
+    private final int numThreads;
+    /**
+     * Number of jumps used to approximate diameter
+     */
+    private final int numSweeps;
+    /**
+     * Relaxes distances in chunks [from; to) and finds the most
+     * distant vector among them. Index of the most distant vector
+     * is stored in best[from].
+     */
+    @SuppressWarnings("serial")
+    private class RelaxTask extends RecursiveAction {
+	private final Vector[] vectors;
+	private final double[] distance;
+	private final Vector vector;
+	private final boolean reset;
+	private final int numChunks;
+	private final int[] best;
+	private final int from, to;
+
+	public RelaxTask(Vector[] vectors, double[] distance, Vector vector, boolean reset, int numChunks, int[] best, int from, int to) {
+	    this.vectors = vectors;
+	    this.distance = distance;
+	    this.vector = vector;
+	    this.reset = reset;
+	    this.numChunks = numChunks;
+	    this.best = best;
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		final int n = vectors.length;
+		best[from] = relax((int) ((long) n * from / numChunks), (int) ((long) n * to / numChunks), vectors, distance, vector, reset);
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new RelaxTask(vectors, distance, vector, reset, numChunks, best, from, middle),
+		      new RelaxTask(vectors, distance, vector, reset, numChunks, best, middle, to));
+	    best[from] = better(distance, best[from], best[middle]);
+	}
+    }
+    /**
+     * Constructor, number of worker threads is equal to number of available processors.
+     */
+    public MostDistantFast() {
+	this(Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Constructor specifying number of worker threads.
+     *
+     * @param numThreads number of worker threads, must be positive
+     */
+    public MostDistantFast(int numThreads) {
+	this(numThreads, DEFAULT_NUM_SWEEPS);
+    }
+    /**
+     * Constructor specifying number of worker threads and number of jumps used to approximate diameter.
+     *
+     * @param numThreads number of worker threads, must be positive
+     * @param numSweeps number of jumps, must be positive
+     */
+    public MostDistantFast(int numThreads, int numSweeps) {
+	assert numThreads > 0 : "numThreads: " + numThreads;
+	assert numSweeps > 0 : "numSweeps: " + numSweeps;
+
+	this.numThreads = numThreads;
+	this.numSweeps = numSweeps;
+    }
+
+    public int[] findMostDistant(Vector[] vectors, int m) {
+	final int n = vectors.length;
+
+	assert m >= 0 && m <= n : "vectors size: " + n + ", required number of vectors: " + m;
+
+	if (m == 0)
+	    return new int[] {};
+	if (m == 1)
+	    return new int[] { 0 };
+	if (m == n) {
+	    int[] result = new int[n];
+	    for (int i = 0; i < n; ++i)
+		result[i] = i;
+	    return result;
+	}
+	// pool is created only for large sets and only for the time of the search
+	ForkJoinPool pool = numThreads > 1 && n >= PARALLEL_THRESHOLD ? new ForkJoinPool(numThreads) : null;
+	try {
+	    return internalFindMostDistant(pool, n, vectors, m);
+	} finally {
+	    if (pool != null)
+		pool.shutdown();
+	}
+    }
+    /**
+     * Chooses the most distant of two vectors, in the case of tie
+     * chooses vector with the smallest index.
+     *
+     * @param distance array of distances
+     * @param u index of the first vector, or -1
+     * @param v index of the second vector, or -1
+     * @return index of the most distant vector, or -1, if both indices are -1
+     */
+    private static int better(double[] distance, int u, int v) {
+	if (u < 0)
+	    return v;
+	if (v < 0)
+	    return u;
+	if (distance[v] > distance[u] || (distance[v] == distance[u] && v < u))
+	    return v;
+	return u;
+    }
+    /**
+     * Relaxes squared distances of vectors from [from; to) interval
+     * to a given vector and finds the most distant vector. Vectors
+     * with negative distance are already chosen and are skipped.
+     *
+     * @param from index of the left bound of interval, inclusive
+     * @param to index of the right bound of interval, exclusive
+     * @param vectors set of vectors
+     * @param distance array of squared distances from vectors to the set of chosen vectors
+     * @param vector vector, to which all distances will be relaxed
+     * @param reset if true, distances are replaced by distances to the given vector
+     * @return index of the most distant vector, or -1, if there are no such vectors
+     */
+    private static int relax(int from, int to, Vector[] vectors, double[] distance, Vector vector, boolean reset) {
+	int result = -1;
+	double best = Double.NEGATIVE_INFINITY;
+	for (int i = from; i < to; ++i) {
+	    if (distance[i] < 0.0)
+		continue;
+	    double d = vectors[i].squaredDistance(vector);
+	    if (reset || d < distance[i])
+		distance[i] = d;
+	    if (distance[i] > best) {
+		best = distance[i];
+		result = i;
+	    }
+	}
+	return result;
+    }
+    /**
+     * Relaxes squared distances of all vectors to a given vector and
+     * finds the most distant vector, in parallel for large sets.
+     *
+     * @param pool pool of worker threads, or null
+     * @return index of the most distant vector, or -1, if there are no such vectors
+     */
+    private int relax(ForkJoinPool pool, Vector[] vectors, double[] distance, Vector vector, boolean reset) {
+	final int n = vectors.length;
+	if (pool == null || n < PARALLEL_THRESHOLD)
+	    return relax(0, n, vectors, distance, vector, reset);
+
+	final int numChunks = numThreads * CHUNKS_PER_THREAD;
+	int[] best = new int[numChunks];
+	pool.invoke(new RelaxTask(vectors, distance, vector, reset, numChunks, best, 0, numChunks));
+	return best[0];
+    }
+    /**
+     * Returns an array of indices of the most distant vectors from the given set.
+     *
+     * @param pool pool of worker threads, or null
+     * @param n size of the given set of vectors
+     * @param vectors set of vectors
+     * @param m number of most distant vectors, that must be finded, must be between 2 and n - 1
+     * @return array of indexes of most distant m vectors
+     */
+    private int[] internalFindMostDistant(ForkJoinPool pool, int n, Vector[] vectors, int m) {
+	// squared distance from an ith vector to the chosen set, negative for chosen vectors
+	double[] distance = new double[n];
+	int[] result = new int[m];
+
+	// approximation of diameter
+	int u = 0, v = 0, current = 0;
+	double diameter = Double.NEGATIVE_INFINITY;
+	for (int sweep = 0; sweep < numSweeps; ++sweep) {
+	    int next = relax(pool, vectors, distance, vectors[current], true);
+	    if (distance[next] > diameter) {
+		diameter = distance[next];
+		u = current;
+		v = next;
+	    }
+	    if (next == current)
+		break;
+	    current = next;
+	}
+	if (u == v)
+	    v = u == 0 ? 1 : 0;
+	result[0] = u;
+	result[1] = v;
+
+	relax(pool, vectors, distance, vectors[u], true);
+	distance[u] = -1.0;
+	distance[v] = -1.0;
+	int next = relax(pool, vectors, distance, vectors[v], false);
+
+	for (int i = 2; i < m; ++i) {
+	    result[i] = next;
+	    distance[next] = -1.0;
+	    if (i + 1 < m)
+		next = relax(pool, vectors, distance, vectors[next], false);
+	}
+	return result;
+    }
+}
@@ -0,0 +1,80 @@
+package kfuzzy.algo;
+
+import java.util.*;
+
+import kfuzzy.math.Vector;
+
+
+/**
+ * Class contains tests for MostDistantFast class. All tests of the
+ * MostDistantSlow are inherited.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0603
+ * @since 1.7
+ */
+public class MostDistantFastTest extends MostDistantSlowTest {
+    public void setUp() {
+	strategy = new MostDistantFast(2);
+    }
+
+    private Vector[] createVectors(int size) {
+	Random random = new Random(2011);
+	Vector[] vectors = new Vector[size];
+	for (int i = 0; i < size; ++i)
+	    vectors[i] = new Vector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+	return vectors;
+    }
+    /**
+     * Checks that first two vectors approximate diameter with bounded error.
+     */
+    public void testDiameter() {
+	Vector[] vectors = createVectors(500);
+	double diameter = 0.0;
+	for (int i = 0; i < vectors.length; ++i)
+	    for (int j = i + 1; j < vectors.length; ++j)
+		diameter = Math.max(diameter, vectors[i].sub(vectors[j]).abs());
+
+	int[] result = strategy.findMostDistant(vectors, 2);
+	assertTrue(vectors[result[0]].sub(vectors[result[1]]).abs() >= diameter / 2);
+    }
+    /**
+     * Checks that each chosen vector is the most distant from previously chosen.
+     */
+    public void testGreedy() {
+	final int m = 10;
+	Vector[] vectors = createVectors(300);
+	int[] result = strategy.findMostDistant(vectors, m);
+
+	Set<Integer> chosen = new HashSet<Integer>();
+	chosen.add(result[0]);
+	chosen.add(result[1]);
+	for (int i = 2; i < m; ++i) {
+	    assertFalse(chosen.contains(result[i]));
+
+	    double best = Double.NEGATIVE_INFINITY;
+	    for (int j = 0; j < vectors.length; ++j) {
+		if (chosen.contains(j))
+		    continue;
+		double distance = Double.POSITIVE_INFINITY;
+		for (int k : chosen)
+		    distance = Math.min(distance, vectors[j].squaredDistance(vectors[k]));
+		best = Math.max(best, distance);
+	    }
+	    double distance = Double.POSITIVE_INFINITY;
+	    for (int k : chosen)
+		distance = Math.min(distance, vectors[result[i]].squaredDistance(vectors[k]));
+	    assertEquals(best, distance, 1e-12);
+	    chosen.add(result[i]);
+	}
+    }
+    /**
+     * Checks that parallel and serial runs choose the same vectors.
+     */
+    public void testParallel() {
+	Vector[] vectors = createVectors(3 * MostDistantFast.PARALLEL_THRESHOLD);
+	int[] serial = new MostDistantFast(1).findMostDistant(vectors, 20);
+	int[] parallel = new MostDistantFast(4).findMostDistant(vectors, 20);
+	assertTrue(Arrays.equals(serial, parallel));
+    }
+}
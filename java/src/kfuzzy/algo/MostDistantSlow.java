@@ -38,18 +38,20 @@ public class MostDistantSlow implements MostDistantInterface {
 	return internalFindMostDistant(n, vectors, m);
     }
     /**
-     * Relaxes distance for vectors from [from; to) interval to a given vector.
+     * Relaxes distance for vectors from [from; to) interval to a given
+     * vector. Squared distances are used, they are ordered in the same
+     * way as distances.
      *
      * @param from index of the left bound of interval, inclusive
      * @param to index of the right bound of interval, exclusive
-     * @param distance array of distances
+     * @param distance array of squared distances
      * @param indexes maps index in the {@link #distance} to an index in the {@link #vectors} set
      * @param vectors set of vectors
      * @param vector vector, to which all distances will be relaxed
      */
     private void relax(int from, int to, double[] distance, int[] indexes, Vector[] vectors, Vector vector) {
 	for (int i = from; i < to; ++i) {
-	    double d = vectors[indexes[i]].sub(vector).abs();
+	    double d = vectors[indexes[i]].squaredDistance(vector);
 	    distance[i] = Math.min(distance[i], d);
 	}
     }
@@ -83,7 +85,7 @@ public class MostDistantSlow implements MostDistantInterface {
     private int[] internalFindMostDistant(int n, Vector[] vectors, int m) {
 	Pair<Integer, Integer> twoMostDistant = findTwoMostDistantVectors(n, vectors);
 	int u = twoMostDistant.first, v = twoMostDistant.second;
-	// min distance from an ith object to a vector in resulting set
+	// min squared distance from an ith object to a vector in resulting set
 	double[] distance = new double[n];
 	// index of a corresponding object
 	int[] indexes = new int[n];
@@ -127,7 +129,7 @@ public class MostDistantSlow implements MostDistantInterface {
 	double best = Double.NEGATIVE_INFINITY;
 	for (int i = 0; i < n; ++i)
 	    for (int j = i + 1; j < n; ++j) {
-		double tmp = vectors[j].sub(vectors[i]).abs();
+		double tmp = vectors[j].squaredDistance(vectors[i]);
 		if (tmp > best) {
 		    best = tmp;
 		    u = i;
@@ -7,7 +7,7 @@ import kfuzzy.math.Vector;
 
 
 public class MostDistantSlowTest extends TestCase {
-    private MostDistantInterface strategy;
+    protected MostDistantInterface strategy;
 
     public void setUp() {
 	strategy = new MostDistantSlow();
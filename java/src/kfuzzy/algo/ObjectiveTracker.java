@@ -0,0 +1,120 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+
+
+/**
+ * ObjectiveTracker keeps history of values of the KFuzzy objective
+ * function J_m = sum over objects and clusters of u^m * d^2 and
+ * decides, whether algorithm has converged in terms of the objective.
+ * Each added value is passed to the listener, if it's specified,
+ * once listener asks to stop, tracker stays stopped.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0619
+ * @since 1.6
+ */
+public class ObjectiveTracker {
+    /**
+     * Initial capacity of the history
+     */
+    private final static int INITIAL_CAPACITY = 16;
+    /**
+     * Values of the objective function, in order of addition
+     */
+    private double[] values;
+    /**
+     * Number of values in the history
+     */
+    private int size;
+    /**
+     * Observer of added values, or null
+     */
+    private final IterationListenerInterface listener;
+    /**
+     * Cluster centers passed to the listener
+     */
+    private final double[] centers;
+    /**
+     * True, if listener asked to stop
+     */
+    private boolean stopped;
+    /**
+     * Constructor creates an empty tracker.
+     */
+    public ObjectiveTracker() {
+	this(null, null);
+    }
+    /**
+     * Constructor creates an empty tracker with the listener.
+     *
+     * @param listener observer of added values, or null
+     * @param centers cluster centers, which are updated in place by the algorithm and passed to the listener
+     */
+    public ObjectiveTracker(IterationListenerInterface listener, double[] centers) {
+	values = new double[INITIAL_CAPACITY];
+	size = 0;
+	this.listener = listener;
+	this.centers = centers;
+	stopped = false;
+    }
+    /**
+     * Appends value of the objective function to the history.
+     *
+     * @param objective value of the objective function
+     */
+    public void add(double objective) {
+	if (size == values.length)
+	    values = Arrays.copyOf(values, 2 * size);
+	values[size++] = objective;
+	if (listener != null && !listener.iterationFinished(size - 1, objective, centers))
+	    stopped = true;
+    }
+    /**
+     * @return true, if listener asked to stop
+     */
+    public boolean isStopped() {
+	return stopped;
+    }
+    /**
+     * @return number of values in the history
+     */
+    public int getNumValues() {
+	return size;
+    }
+    /**
+     * @return last added value, or NaN, if history is empty
+     */
+    public double getLast() {
+	return size == 0 ? Double.NaN : values[size - 1];
+    }
+    /**
+     * Returns relative change between two last values of the objective function.
+     *
+     * @return relative change, or positive infinity, if there are less than two values
+     */
+    public double getRelativeChange() {
+	if (size < 2)
+	    return Double.POSITIVE_INFINITY;
+	double previous = values[size - 2], current = values[size - 1];
+	double scale = Math.max(Math.abs(previous), Math.abs(current));
+	if (scale == 0.0)
+	    return 0.0;
+	return Math.abs(previous - current) / scale;
+    }
+    /**
+     * Checks that relative change of the objective function is no more than tolerance.
+     *
+     * @param tolerance tolerance, must be non-negative
+     * @return true, if last relative change is no more than tolerance
+     */
+    public boolean hasConverged(double tolerance) {
+	return getRelativeChange() <= tolerance;
+    }
+    /**
+     * @return copy of the history
+     */
+    public double[] toArray() {
+	return Arrays.copyOf(values, size);
+    }
+}
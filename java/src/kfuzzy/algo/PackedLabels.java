@@ -0,0 +1,114 @@
+package kfuzzy.algo;
+
+
+/**
+ * PackedLabels stores cluster indices of objects in the smallest
+ * array, that fits number of clusters: unsigned bytes for up to 256
+ * clusters, unsigned shorts for up to 65536 clusters and ints
+ * otherwise.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0618
+ * @since 1.7
+ */
+public class PackedLabels {
+    /**
+     * Maximum number of clusters, labels of which are stored as bytes
+     */
+    public final static int MAX_BYTE_CLUSTERS = 1 << 8;
+    /**
+     * Maximum number of clusters, labels of which are stored as shorts
+     */
+    public final static int MAX_SHORT_CLUSTERS = 1 << 16;
+    /**
+     * Number of objects
+     */
+    private final int numObjects;
+    /**
+     * Labels, if number of clusters is at most MAX_BYTE_CLUSTERS, otherwise null
+     */
+    private final byte[] bytes;
+    /**
+     * Labels, if number of clusters is greater than MAX_BYTE_CLUSTERS and at most MAX_SHORT_CLUSTERS, otherwise null
+     */
+    private final short[] shorts;
+    /**
+     * Labels, if number of clusters is greater than MAX_SHORT_CLUSTERS, otherwise null
+     */
+    private final int[] ints;
+    /**
+     * Constructor specifying number of objects and clusters, all labels are zeros.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numClusters number of clusters, must be non-negative
+     */
+    public PackedLabels(int numObjects, int numClusters) {
+	assert numObjects >= 0 && numClusters >= 0 : String.format("numObjects: %d, numClusters: %d", numObjects, numClusters);
+
+	this.numObjects = numObjects;
+	bytes = numClusters <= MAX_BYTE_CLUSTERS ? new byte[numObjects] : null;
+	shorts = numClusters > MAX_BYTE_CLUSTERS && numClusters <= MAX_SHORT_CLUSTERS ? new short[numObjects] : null;
+	ints = numClusters > MAX_SHORT_CLUSTERS ? new int[numObjects] : null;
+    }
+    /**
+     * Packs assignment.
+     *
+     * @param assignment cluster indices, must be between zero and numClusters - 1
+     * @param numClusters number of clusters
+     * @return packed labels
+     */
+    public static PackedLabels pack(int[] assignment, int numClusters) {
+	PackedLabels labels = new PackedLabels(assignment.length, numClusters);
+	for (int i = 0; i < assignment.length; ++i)
+	    labels.set(i, assignment[i]);
+	return labels;
+    }
+    /**
+     * @return number of objects
+     */
+    public int getNumObjects() {
+	return numObjects;
+    }
+    /**
+     * @return number of bytes per label
+     */
+    public int getBytesPerLabel() {
+	return bytes != null ? 1 : shorts != null ? 2 : 4;
+    }
+    /**
+     * Returns label of the object.
+     *
+     * @param object index of the object
+     * @return cluster index
+     */
+    public int get(int object) {
+	if (bytes != null)
+	    return bytes[object] & 0xFF;
+	if (shorts != null)
+	    return shorts[object] & 0xFFFF;
+	return ints[object];
+    }
+    /**
+     * Sets label of the object.
+     *
+     * @param object index of the object
+     * @param cluster cluster index, must fit number of clusters
+     */
+    public void set(int object, int cluster) {
+	if (bytes != null)
+	    bytes[object] = (byte) cluster;
+	else if (shorts != null)
+	    shorts[object] = (short) cluster;
+	else
+	    ints[object] = cluster;
+    }
+    /**
+     * @return labels of all objects as an array of cluster indices
+     */
+    public int[] toArray() {
+	int[] assignment = new int[numObjects];
+	for (int i = 0; i < numObjects; ++i)
+	    assignment[i] = get(i);
+	return assignment;
+    }
+}
@@ -0,0 +1,275 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import kfuzzy.math.Dataset;
+
+
+/**
+ * ParallelEngine performs steps of the KFuzzy algorithm on a pool of
+ * worker threads. Objects are split into ranges (chunks), several
+ * chunks per thread. Probabilities of objects from different chunks
+ * are computed independently. Each chunk accumulates its own partial
+ * numerators and denominators of cluster centers, partial sums are
+ * combined pairwise along the fork/join tree, so no locks are used.
+ *
+ * Engine keeps buffers between calls, so it's not thread-safe: one
+ * engine must not be used by several algorithms simultaneously.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0520
+ * @since 1.7
+ */
+public class ParallelEngine implements ClusterizationEngineInterface {
+    /**
+     * Number of chunks per worker thread, some excess of chunks
+     * smooths out imbalance between threads
+     */
+    public final static int CHUNKS_PER_THREAD = 4;
+    /**
+     * Pool of worker threads
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Number of worker threads
+     */
+    private final int numThreads;
+    /**
+     * Number of chunks used by the current step
+     */
+    private int numChunks;
+    /**
+     * Per chunk buffers for squared distances from an object to cluster centers
+     */
+    private double[][] distances = new double[0][];
+    /**
+     * Per chunk buffers for probabilities of an object
+     */
+    private double[][] weights = new double[0][];
+    /**
+     * Per chunk partial weighted sums of objects
+     */
+    private double[][] numerators = new double[0][];
+    /**
+     * Per chunk partial sums of weights
+     */
+    private double[][] denominators = new double[0][];
+    /**
+     * Per chunk statistics
+     */
+    private IterationStatistics[] statistics = new IterationStatistics[0];
+    /**
+     * Arguments of the current step
+     */
+    private Dataset dataset;
+    private int numClusters;
+    private double[] centers;
+    private MembershipKernel kernel;
+    private double[] probabilities;
+    private int[] objects;
+    private int numObjects;
+    /**
+     * Computes probabilities of objects from chunks [from; to) and
+     * merges statistics of these chunks into statistics of the first chunk.
+     */
+    @SuppressWarnings("serial")
+    private class ProbabilitiesTask extends RecursiveAction {
+	private final int from, to;
+
+	public ProbabilitiesTask(int from, int to) {
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		statistics[from].reset();
+		SerialEngine.findProbabilities(dataset, getChunkBegin(from), getChunkBegin(from + 1), numClusters, centers, kernel,
+					       probabilities, distances[from], weights[from], statistics[from]);
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new ProbabilitiesTask(from, middle), new ProbabilitiesTask(middle, to));
+	    statistics[from].merge(statistics[middle]);
+	}
+    }
+    /**
+     * Accumulates partial sums over objects from chunks [from; to)
+     * and adds partial sums of these chunks into partial sums of
+     * the first chunk.
+     */
+    @SuppressWarnings("serial")
+    private class CentersTask extends RecursiveAction {
+	private final int from, to;
+
+	public CentersTask(int from, int to) {
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		Arrays.fill(numerators[from], 0.0);
+		Arrays.fill(denominators[from], 0.0);
+		SerialEngine.accumulateCenters(dataset, getChunkBegin(from), getChunkBegin(from + 1), numClusters, probabilities, kernel,
+					       numerators[from], denominators[from]);
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new CentersTask(from, middle), new CentersTask(middle, to));
+	    add(numerators[middle], numerators[from]);
+	    add(denominators[middle], denominators[from]);
+	}
+    }
+    /**
+     * Computes probabilities of objects from chunks [from; to) on
+     * the fly, accumulates partial sums over these objects and adds
+     * partial sums and statistics of these chunks into partial sums
+     * and statistics of the first chunk.
+     */
+    @SuppressWarnings("serial")
+    private class BatchTask extends RecursiveAction {
+	private final int from, to;
+
+	public BatchTask(int from, int to) {
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		Arrays.fill(numerators[from], 0.0);
+		Arrays.fill(denominators[from], 0.0);
+		statistics[from].reset();
+		SerialEngine.accumulateCenters(dataset, objects, getChunkBegin(from), getChunkBegin(from + 1), numClusters, centers, kernel,
+					       distances[from], weights[from], numerators[from], denominators[from], statistics[from]);
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new BatchTask(from, middle), new BatchTask(middle, to));
+	    add(numerators[middle], numerators[from]);
+	    add(denominators[middle], denominators[from]);
+	    statistics[from].merge(statistics[middle]);
+	}
+    }
+    /**
+     * Constructor, number of worker threads is equal to number of available processors.
+     */
+    public ParallelEngine() {
+	this(Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * Constructor specifying number of worker threads.
+     *
+     * @param numThreads number of worker threads, must be positive
+     */
+    public ParallelEngine(int numThreads) {
+	assert numThreads > 0 : "numThreads: " + numThreads;
+
+	this.numThreads = numThreads;
+	this.pool = new ForkJoinPool(numThreads);
+    }
+    /**
+     * @return number of worker threads
+     */
+    public int getNumThreads() {
+	return numThreads;
+    }
+    /**
+     * Stops worker threads. Engine can't be used after shutdown.
+     */
+    public void shutdown() {
+	pool.shutdown();
+    }
+    /**
+     * Adds source array to target array.
+     */
+    private static void add(double[] source, double[] target) {
+	for (int i = 0; i < source.length; ++i)
+	    target[i] += source[i];
+    }
+    /**
+     * Returns index of the first object of the chunk.
+     *
+     * @param chunk index of the chunk, between zero and number of chunks (inclusive)
+     * @return index of the first object, number of objects for the fake last chunk
+     */
+    private int getChunkBegin(int chunk) {
+	return (int) ((long) numObjects * chunk / numChunks);
+    }
+    /**
+     * Prepares buffers and arguments of the step.
+     *
+     * @param objects indices of objects, or null, if first numObjects objects are processed
+     * @param numObjects number of processed objects
+     */
+    private void prepare(Dataset dataset, int[] objects, int numObjects, int numClusters, double[] centers, double blending,
+			 double[] probabilities) {
+	this.dataset = dataset;
+	this.objects = objects;
+	this.numObjects = numObjects;
+	this.numClusters = numClusters;
+	this.centers = centers;
+	this.kernel = SerialEngine.getKernel(kernel, blending);
+	this.probabilities = probabilities;
+
+	final int numDimensions = dataset.getNumDimensions();
+	numChunks = Math.max(1, Math.min(numObjects, numThreads * CHUNKS_PER_THREAD));
+	if (statistics.length != numChunks || denominators[0].length != numClusters || numerators[0].length != numClusters * numDimensions) {
+	    distances = new double[numChunks][numClusters];
+	    weights = new double[numChunks][numClusters];
+	    numerators = new double[numChunks][numClusters * numDimensions];
+	    denominators = new double[numChunks][numClusters];
+	    statistics = new IterationStatistics[numChunks];
+	    for (int i = 0; i < numChunks; ++i)
+		statistics[i] = new IterationStatistics();
+	}
+    }
+    /**
+     * Releases references to arguments of the step.
+     */
+    private void release() {
+	dataset = null;
+	centers = null;
+	probabilities = null;
+	objects = null;
+    }
+
+    public void findProbabilities(Dataset dataset, int numClusters, double[] centers, double blending, double[] probabilities,
+				  IterationStatistics statistics) {
+	prepare(dataset, null, dataset.getNumObjects(), numClusters, centers, blending, probabilities);
+	try {
+	    pool.invoke(new ProbabilitiesTask(0, numChunks));
+	} finally {
+	    release();
+	}
+	statistics.objective = this.statistics[0].objective;
+	statistics.maxMembershipChange = this.statistics[0].maxMembershipChange;
+    }
+
+    public void recomputeCenters(Dataset dataset, int numClusters, double[] probabilities, double blending, double[] centers,
+				 IterationStatistics statistics) {
+	prepare(dataset, null, dataset.getNumObjects(), numClusters, centers, blending, probabilities);
+	try {
+	    pool.invoke(new CentersTask(0, numChunks));
+	} finally {
+	    release();
+	}
+	SerialEngine.finishCenters(numClusters, dataset.getNumDimensions(), numerators[0], denominators[0], centers, statistics);
+    }
+
+    public void accumulateCenters(Dataset dataset, int[] objects, int numObjects, int numClusters, double[] centers, double blending,
+				  double[] numerators, double[] denominators, IterationStatistics statistics) {
+	prepare(dataset, objects, numObjects, numClusters, centers, blending, null);
+	try {
+	    pool.invoke(new BatchTask(0, numChunks));
+	} finally {
+	    release();
+	}
+	System.arraycopy(this.numerators[0], 0, numerators, 0, numClusters * dataset.getNumDimensions());
+	System.arraycopy(this.denominators[0], 0, denominators, 0, numClusters);
+	statistics.objective = this.statistics[0].objective;
+    }
+}
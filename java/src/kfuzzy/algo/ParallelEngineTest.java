@@ -0,0 +1,122 @@
+package kfuzzy.algo;
+
+import java.util.*;
+import junit.framework.TestCase;
+
+import kfuzzy.math.DenseDataset;
+
+
+/**
+ * Class contains several tests for ParallelEngine class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0520
+ * @since 1.7
+ */
+public class ParallelEngineTest extends TestCase {
+    private final static double EPSILON = 1e-9;
+
+    private DenseDataset createDataset(int numObjects, int numDimensions) {
+	Random random = new Random(2011);
+	double[] data = new double[numObjects * numDimensions];
+	for (int i = 0; i < data.length; ++i)
+	    data[i] = random.nextGaussian();
+	return new DenseDataset(numObjects, numDimensions, data);
+    }
+    /**
+     * Checks that parallel engine performs the same steps as serial engine.
+     */
+    private void checkSteps(int numObjects, int numDimensions, int numClusters, int numThreads) {
+	final double blending = 1.7;
+	DenseDataset dataset = createDataset(numObjects, numDimensions);
+	double[] serialCenters = Arrays.copyOf(dataset.getData(), numClusters * numDimensions);
+	double[] parallelCenters = Arrays.copyOf(serialCenters, serialCenters.length);
+	double[] serialProbabilities = new double[numObjects * numClusters];
+	double[] parallelProbabilities = new double[numObjects * numClusters];
+	IterationStatistics serialStatistics = new IterationStatistics(), parallelStatistics = new IterationStatistics();
+
+	ClusterizationEngineInterface serial = new SerialEngine();
+	ParallelEngine parallel = new ParallelEngine(numThreads);
+	try {
+	    for (int iteration = 0; iteration < 3; ++iteration) {
+		serial.findProbabilities(dataset, numClusters, serialCenters, blending, serialProbabilities, serialStatistics);
+		parallel.findProbabilities(dataset, numClusters, parallelCenters, blending, parallelProbabilities, parallelStatistics);
+		for (int i = 0; i < serialProbabilities.length; ++i)
+		    assertEquals(serialProbabilities[i], parallelProbabilities[i], EPSILON);
+		assertEquals(serialStatistics.objective, parallelStatistics.objective, EPSILON * serialStatistics.objective);
+		assertEquals(serialStatistics.maxMembershipChange, parallelStatistics.maxMembershipChange, EPSILON);
+
+		serial.recomputeCenters(dataset, numClusters, serialProbabilities, blending, serialCenters, serialStatistics);
+		parallel.recomputeCenters(dataset, numClusters, parallelProbabilities, blending, parallelCenters, parallelStatistics);
+		for (int i = 0; i < serialCenters.length; ++i)
+		    assertEquals(serialCenters[i], parallelCenters[i], EPSILON);
+		assertEquals(serialStatistics.maxCenterShift, parallelStatistics.maxCenterShift, EPSILON);
+	    }
+	} finally {
+	    parallel.shutdown();
+	}
+    }
+    /**
+     * Checks that all engines accumulate the same centers for a batch.
+     */
+    private void checkBatch(int numObjects, int numDimensions, int numClusters, int numThreads) {
+	final double blending = 1.7;
+	DenseDataset dataset = createDataset(numObjects, numDimensions);
+	double[] centers = Arrays.copyOf(dataset.getData(), numClusters * numDimensions);
+	int[] batch = new int[numObjects / 2];
+	for (int i = 0; i < batch.length; ++i)
+	    batch[i] = (7 * i) % numObjects;
+
+	ParallelEngine parallel = new ParallelEngine(numThreads);
+	try {
+	    ClusterizationEngineInterface[] engines = new ClusterizationEngineInterface[] { new ReferenceEngine(), new SerialEngine(), parallel };
+	    double[][] numerators = new double[engines.length][numClusters * numDimensions];
+	    double[][] denominators = new double[engines.length][numClusters];
+	    IterationStatistics[] statistics = new IterationStatistics[engines.length];
+	    for (int i = 0; i < engines.length; ++i) {
+		statistics[i] = new IterationStatistics();
+		engines[i].accumulateCenters(dataset, batch, batch.length, numClusters, centers, blending, numerators[i], denominators[i],
+					     statistics[i]);
+	    }
+	    for (int i = 1; i < engines.length; ++i) {
+		for (int j = 0; j < numerators[0].length; ++j)
+		    assertEquals(numerators[0][j], numerators[i][j], EPSILON * batch.length);
+		for (int j = 0; j < numClusters; ++j)
+		    assertEquals(denominators[0][j], denominators[i][j], EPSILON * batch.length);
+		assertEquals(statistics[0].objective, statistics[i].objective, EPSILON * statistics[0].objective);
+	    }
+	} finally {
+	    parallel.shutdown();
+	}
+    }
+
+    public void testBatch() {
+	checkBatch(1000, 5, 7, 4);
+	checkBatch(3, 2, 2, 8);
+    }
+
+    public void testSingleThread() {
+	checkSteps(100, 3, 4, 1);
+    }
+
+    public void testManyThreads() {
+	checkSteps(1000, 5, 7, 4);
+    }
+
+    public void testFewObjects() {
+	checkSteps(3, 2, 2, 8);
+    }
+
+    public void testClusterize() {
+	ParallelEngine engine = new ParallelEngine(3);
+	try {
+	    KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm(new ClusterCentersAdapter(), engine);
+	    int[] assignment = algorithm.clusterize(createDataset(200, 2).getRows(), 3, new KFuzzyAlgorithm.Options(2.0, 100));
+	    assertEquals(200, assignment.length);
+	    for (int cluster : assignment)
+		assertTrue(cluster >= 0 && cluster < 3);
+	} finally {
+	    engine.shutdown();
+	}
+    }
+}
@@ -0,0 +1,136 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.utils.MathUtils;
+
+
+/**
+ * ReferenceEngine performs steps of the KFuzzy algorithm exactly by
+ * definition: probabilities are computed as (1 / d)^(1 / (m - 1))
+ * normalized over clusters, weights of objects are computed as u^m
+ * by Math.pow. It's slow and is used as a reference for faster
+ * engines.
+ *
+ * Engine keeps buffers between calls, so it's not thread-safe.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0523
+ * @since 1.6
+ */
+public class ReferenceEngine implements ClusterizationEngineInterface {
+    /**
+     * Buffer for distances from an object to cluster centers
+     */
+    private double[] distances = new double[0];
+    /**
+     * Buffer for probabilities of an object
+     */
+    private double[] weights = new double[0];
+    /**
+     * Weighted sums of objects, ith sum is stored from i * numDimensions position
+     */
+    private double[] numerators = new double[0];
+    /**
+     * Sums of weights of objects
+     */
+    private double[] denominators = new double[0];
+
+    /**
+     * Allocates buffers for the given number of clusters.
+     */
+    private void prepare(int numClusters) {
+	if (distances.length < numClusters) {
+	    distances = new double[numClusters];
+	    weights = new double[numClusters];
+	}
+    }
+    /**
+     * Finds probabilities of an object to lie in each cluster, stores them in weights buffer.
+     *
+     * @return contribution of the object to the objective function
+     */
+    private double findProbabilities(Dataset dataset, int object, int numClusters, double[] centers, double blending) {
+	final int numDimensions = dataset.getNumDimensions();
+	final double power = 1.0 / (blending - 1.0);
+
+	double total = 0.0;
+	for (int i = 0; i < numClusters; ++i) {
+	    double distance = Math.sqrt(dataset.squaredDistance(object, centers, i * numDimensions));
+	    distances[i] = distance;
+	    if (MathUtils.EQ(distance, 0))
+		weights[i] = Double.MAX_VALUE;
+	    else
+		weights[i] = Math.pow(1.0 / distance, power);
+	    total += weights[i];
+	}
+	// normalization of computed probabilities
+	double objective = 0.0;
+	for (int i = 0; i < numClusters; ++i) {
+	    weights[i] /= total;
+	    objective += Math.pow(weights[i], blending) * distances[i] * distances[i];
+	}
+	return objective;
+    }
+
+    public void findProbabilities(Dataset dataset, int numClusters, double[] centers, double blending, double[] probabilities,
+				  IterationStatistics statistics) {
+	final int numObjects = dataset.getNumObjects();
+
+	prepare(numClusters);
+	double objective = 0.0, maxChange = 0.0;
+	for (int object = 0; object < numObjects; ++object) {
+	    final int row = object * numClusters;
+	    objective += findProbabilities(dataset, object, numClusters, centers, blending);
+	    for (int i = 0; i < numClusters; ++i) {
+		maxChange = Math.max(maxChange, Math.abs(weights[i] - probabilities[row + i]));
+		probabilities[row + i] = weights[i];
+	    }
+	}
+	statistics.objective = objective;
+	statistics.maxMembershipChange = maxChange;
+    }
+
+    public void recomputeCenters(Dataset dataset, int numClusters, double[] probabilities, double blending, double[] centers,
+				 IterationStatistics statistics) {
+	final int numObjects = dataset.getNumObjects(), numDimensions = dataset.getNumDimensions();
+	if (numerators.length != numClusters * numDimensions || denominators.length != numClusters) {
+	    numerators = new double[numClusters * numDimensions];
+	    denominators = new double[numClusters];
+	}
+	Arrays.fill(numerators, 0.0);
+	Arrays.fill(denominators, 0.0);
+
+	for (int object = 0; object < numObjects; ++object) {
+	    final int row = object * numClusters;
+	    for (int i = 0; i < numClusters; ++i) {
+		double weight = Math.pow(probabilities[row + i], blending);
+		denominators[i] += weight;
+		dataset.addScaledRow(object, weight, numerators, i * numDimensions);
+	    }
+	}
+	SerialEngine.finishCenters(numClusters, numDimensions, numerators, denominators, centers, statistics);
+    }
+
+    public void accumulateCenters(Dataset dataset, int[] objects, int numObjects, int numClusters, double[] centers, double blending,
+				  double[] numerators, double[] denominators, IterationStatistics statistics) {
+	final int numDimensions = dataset.getNumDimensions();
+
+	prepare(numClusters);
+	Arrays.fill(numerators, 0, numClusters * numDimensions, 0.0);
+	Arrays.fill(denominators, 0, numClusters, 0.0);
+
+	double objective = 0.0;
+	for (int i = 0; i < numObjects; ++i) {
+	    final int object = objects == null ? i : objects[i];
+	    objective += findProbabilities(dataset, object, numClusters, centers, blending);
+	    for (int j = 0; j < numClusters; ++j) {
+		double weight = Math.pow(weights[j], blending);
+		denominators[j] += weight;
+		dataset.addScaledRow(object, weight, numerators, j * numDimensions);
+	    }
+	}
+	statistics.objective = objective;
+    }
+}
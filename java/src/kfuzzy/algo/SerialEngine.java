@@ -0,0 +1,217 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+
+import kfuzzy.math.Dataset;
+
+
+/**
+ * SerialEngine performs steps of the KFuzzy algorithm in the current
+ * thread. Cluster centers are recomputed in a single pass over
+ * objects: weight u^m of each object is computed once and added to
+ * numerators and denominators of all clusters simultaneously.
+ * Probabilities are computed by {@link MembershipKernel}.
+ *
+ * Engine keeps buffers between calls, so it's not thread-safe.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0516
+ * @since 1.6
+ */
+public class SerialEngine implements ClusterizationEngineInterface {
+    /**
+     * Buffer for squared distances from an object to cluster centers
+     */
+    private double[] distances = new double[0];
+    /**
+     * Buffer for probabilities of an object
+     */
+    private double[] weights = new double[0];
+    /**
+     * Weighted sums of objects, ith sum is stored from i * numDimensions position
+     */
+    private double[] numerators = new double[0];
+    /**
+     * Sums of weights of objects
+     */
+    private double[] denominators = new double[0];
+    /**
+     * Membership kernel for the last used blending
+     */
+    private MembershipKernel kernel = null;
+    /**
+     * Returns membership kernel for the given blending.
+     *
+     * @param kernel previously used kernel, may be null
+     * @param blending blending
+     * @return kernel, if it has the same blending, otherwise new kernel
+     */
+    static MembershipKernel getKernel(MembershipKernel kernel, double blending) {
+	if (kernel != null && Double.compare(kernel.getBlending(), blending) == 0)
+	    return kernel;
+	return new MembershipKernel(blending);
+    }
+    /**
+     * Finds probabilities of objects from [from; to) interval to lie in each cluster.
+     *
+     * @param dataset set of vectors
+     * @param from index of the left bound of interval, inclusive
+     * @param to index of the right bound of interval, exclusive
+     * @param numClusters number of clusters
+     * @param centers an array of clusters centers
+     * @param kernel membership kernel
+     * @param probabilities array of probabilities
+     * @param squaredDistances buffer for squared distances, must have at least numClusters elements
+     * @param buffer buffer for probabilities of an object, must have at least numClusters elements
+     * @param statistics contributions of objects to the objective
+     * function are added to statistics, maximum change of
+     * probabilities is updated
+     */
+    static void findProbabilities(Dataset dataset, int from, int to, int numClusters, double[] centers, MembershipKernel kernel,
+				  double[] probabilities, double[] squaredDistances, double[] buffer, IterationStatistics statistics) {
+	double objective = 0.0, maxChange = statistics.maxMembershipChange;
+	for (int object = from; object < to; ++object) {
+	    final int row = object * numClusters;
+	    objective += kernel.findProbabilities(dataset, object, numClusters, centers, squaredDistances, buffer);
+	    for (int i = 0; i < numClusters; ++i) {
+		maxChange = Math.max(maxChange, Math.abs(buffer[i] - probabilities[row + i]));
+		probabilities[row + i] = buffer[i];
+	    }
+	}
+	statistics.objective += objective;
+	statistics.maxMembershipChange = maxChange;
+    }
+    /**
+     * Adds objects from [from; to) interval, weighted by their
+     * probabilities in power of blending, to numerators and
+     * denominators of all clusters. Makes a single pass over objects.
+     *
+     * @param dataset set of vectors
+     * @param from index of the left bound of interval, inclusive
+     * @param to index of the right bound of interval, exclusive
+     * @param numClusters number of clusters
+     * @param probabilities array of probabilities
+     * @param kernel membership kernel
+     * @param numerators weighted sums of objects, ith sum is stored from i * numDimensions position
+     * @param denominators sums of weights of objects
+     */
+    static void accumulateCenters(Dataset dataset, int from, int to, int numClusters, double[] probabilities, MembershipKernel kernel,
+				  double[] numerators, double[] denominators) {
+	final int numDimensions = dataset.getNumDimensions();
+
+	for (int object = from; object < to; ++object) {
+	    final int row = object * numClusters;
+	    for (int i = 0; i < numClusters; ++i) {
+		double weight = kernel.power(probabilities[row + i]);
+		denominators[i] += weight;
+		dataset.addScaledRow(object, weight, numerators, i * numDimensions);
+	    }
+	}
+    }
+    /**
+     * Computes probabilities of objects from [from; to) interval of
+     * the objects array on the fly and adds objects, weighted by
+     * their probabilities in power of blending, to numerators and
+     * denominators of all clusters.
+     *
+     * @param dataset set of vectors
+     * @param objects indices of objects, or null, if ith object of the dataset is used as ith object
+     * @param from index of the left bound of interval, inclusive
+     * @param to index of the right bound of interval, exclusive
+     * @param numClusters number of clusters
+     * @param centers an array of clusters centers
+     * @param kernel membership kernel
+     * @param squaredDistances buffer for squared distances, must have at least numClusters elements
+     * @param buffer buffer for probabilities of an object, must have at least numClusters elements
+     * @param numerators weighted sums of objects, ith sum is stored from i * numDimensions position
+     * @param denominators sums of weights of objects
+     * @param statistics contributions of objects to the objective function are added to statistics
+     */
+    static void accumulateCenters(Dataset dataset, int[] objects, int from, int to, int numClusters, double[] centers,
+				  MembershipKernel kernel, double[] squaredDistances, double[] buffer, double[] numerators,
+				  double[] denominators, IterationStatistics statistics) {
+	final int numDimensions = dataset.getNumDimensions();
+
+	double objective = 0.0;
+	for (int i = from; i < to; ++i) {
+	    final int object = objects == null ? i : objects[i];
+	    objective += kernel.findProbabilities(dataset, object, numClusters, centers, squaredDistances, buffer);
+	    for (int j = 0; j < numClusters; ++j) {
+		double weight = kernel.power(buffer[j]);
+		denominators[j] += weight;
+		dataset.addScaledRow(object, weight, numerators, j * numDimensions);
+	    }
+	}
+	statistics.objective += objective;
+    }
+    /**
+     * Computes cluster centers from numerators and denominators.
+     * Center of a cluster with zero denominator is not changed.
+     *
+     * @param numClusters number of clusters
+     * @param numDimensions number of dimensions
+     * @param numerators weighted sums of objects
+     * @param denominators sums of weights of objects
+     * @param centers array of cluster centers, will be replaced by new centers
+     * @param statistics maximum shift of cluster centers will be stored there
+     */
+    static void finishCenters(int numClusters, int numDimensions, double[] numerators, double[] denominators, double[] centers,
+			      IterationStatistics statistics) {
+	double shift = 0.0;
+	for (int i = 0; i < numClusters; ++i) {
+	    if (denominators[i] == 0.0)
+		continue;
+	    final int base = i * numDimensions;
+	    double squaredShift = 0.0;
+	    for (int j = 0; j < numDimensions; ++j) {
+		double center = numerators[base + j] / denominators[i];
+		double t = center - centers[base + j];
+		squaredShift += t * t;
+		centers[base + j] = center;
+	    }
+	    shift = Math.max(shift, squaredShift);
+	}
+	statistics.maxCenterShift = Math.sqrt(shift);
+    }
+
+    public void findProbabilities(Dataset dataset, int numClusters, double[] centers, double blending, double[] probabilities,
+				  IterationStatistics statistics) {
+	if (distances.length < numClusters) {
+	    distances = new double[numClusters];
+	    weights = new double[numClusters];
+	}
+	statistics.objective = 0.0;
+	statistics.maxMembershipChange = 0.0;
+	kernel = getKernel(kernel, blending);
+	findProbabilities(dataset, 0, dataset.getNumObjects(), numClusters, centers, kernel, probabilities, distances, weights,
+			  statistics);
+    }
+
+    public void recomputeCenters(Dataset dataset, int numClusters, double[] probabilities, double blending, double[] centers,
+				 IterationStatistics statistics) {
+	final int numDimensions = dataset.getNumDimensions();
+	if (numerators.length != numClusters * numDimensions || denominators.length != numClusters) {
+	    numerators = new double[numClusters * numDimensions];
+	    denominators = new double[numClusters];
+	}
+	Arrays.fill(numerators, 0.0);
+	Arrays.fill(denominators, 0.0);
+	kernel = getKernel(kernel, blending);
+	accumulateCenters(dataset, 0, dataset.getNumObjects(), numClusters, probabilities, kernel, numerators, denominators);
+	finishCenters(numClusters, numDimensions, numerators, denominators, centers, statistics);
+    }
+
+    public void accumulateCenters(Dataset dataset, int[] objects, int numObjects, int numClusters, double[] centers, double blending,
+				  double[] numerators, double[] denominators, IterationStatistics statistics) {
+	if (distances.length < numClusters) {
+	    distances = new double[numClusters];
+	    weights = new double[numClusters];
+	}
+	Arrays.fill(numerators, 0, numClusters * dataset.getNumDimensions(), 0.0);
+	Arrays.fill(denominators, 0, numClusters, 0.0);
+	statistics.objective = 0.0;
+	kernel = getKernel(kernel, blending);
+	accumulateCenters(dataset, objects, 0, numObjects, numClusters, centers, kernel, distances, weights, numerators, denominators,
+			  statistics);
+    }
+}
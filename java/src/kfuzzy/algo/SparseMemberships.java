@@ -0,0 +1,209 @@
+package kfuzzy.algo;
+
+import java.util.Arrays;
+
+
+/**
+ * SparseMemberships stores, for each object, at most q largest
+ * probabilities to lie in clusters, which are not less than a
+ * threshold, so memory is proportional to n * q instead of n * k.
+ * Memberships are stored in parallel arrays: memberships of ith
+ * object occupy positions from offsets[i] to offsets[i + 1]
+ * (exclusive) of clusters and values arrays, in order of decreasing
+ * probability. Probabilities are stored as floats.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0618
+ * @since 1.7
+ */
+public class SparseMemberships {
+    /**
+     * Number of objects
+     */
+    private final int numObjects;
+    /**
+     * Start positions of memberships of objects, numObjects + 1 elements
+     */
+    private final int[] offsets;
+    /**
+     * Cluster indices
+     */
+    private final int[] clusters;
+    /**
+     * Probabilities
+     */
+    private final float[] values;
+    /**
+     * Constructor, wraps arrays. Arrays are not copied.
+     *
+     * @param numObjects number of objects
+     * @param offsets start positions of memberships of objects, must have numObjects + 1 elements
+     * @param clusters cluster indices, must have at least offsets[numObjects] elements
+     * @param values probabilities, must have at least offsets[numObjects] elements
+     */
+    public SparseMemberships(int numObjects, int[] offsets, int[] clusters, float[] values) {
+	assert offsets.length == numObjects + 1 : String.format("numObjects: %d, offsets: %d", numObjects, offsets.length);
+	assert clusters.length >= offsets[numObjects] && values.length >= offsets[numObjects] : "arrays are too short";
+
+	this.numObjects = numObjects;
+	this.offsets = offsets;
+	this.clusters = clusters;
+	this.values = values;
+    }
+    /**
+     * @return number of objects
+     */
+    public int getNumObjects() {
+	return numObjects;
+    }
+    /**
+     * @return total number of stored memberships
+     */
+    public int getNumMemberships() {
+	return offsets[numObjects];
+    }
+    /**
+     * @return start positions of memberships of objects, backing array
+     */
+    public int[] getOffsets() {
+	return offsets;
+    }
+    /**
+     * @return cluster indices, backing array
+     */
+    public int[] getClusters() {
+	return clusters;
+    }
+    /**
+     * @return probabilities, backing array
+     */
+    public float[] getValues() {
+	return values;
+    }
+    /**
+     * Returns probability of the object to lie in the cluster.
+     *
+     * @param object index of the object
+     * @param cluster index of the cluster
+     * @return probability, or zero, if it isn't stored
+     */
+    public double get(int object, int cluster) {
+	for (int i = offsets[object]; i < offsets[object + 1]; ++i)
+	    if (clusters[i] == cluster)
+		return values[i];
+	return 0.0;
+    }
+    /**
+     * Builder collects memberships object by object.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0618
+     * @since 1.7
+     */
+    public static class Builder {
+	/**
+	 * Maximum number of memberships per object
+	 */
+	private final int maxMemberships;
+	/**
+	 * Minimum stored probability
+	 */
+	private final double threshold;
+	/**
+	 * Number of added objects
+	 */
+	private int numObjects = 0;
+	private int[] offsets, clusters;
+	private float[] values;
+	/**
+	 * Constructor specifying options and expected number of objects.
+	 *
+	 * @param maxMemberships maximum number of memberships per object, must be positive
+	 * @param threshold minimum stored probability
+	 * @param expectedObjects expected number of objects
+	 */
+	public Builder(int maxMemberships, double threshold, int expectedObjects) {
+	    assert maxMemberships > 0 : "maxMemberships: " + maxMemberships;
+
+	    this.maxMemberships = maxMemberships;
+	    this.threshold = threshold;
+	    offsets = new int[Math.max(expectedObjects, 1) + 1];
+	    clusters = new int[Math.max(expectedObjects, 1)];
+	    values = new float[clusters.length];
+	}
+	/**
+	 * Reserves space for memberships of the next object.
+	 *
+	 * @return position of the first membership of the object
+	 */
+	private int reserve() {
+	    if (numObjects + 1 == offsets.length)
+		offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+	    final int begin = offsets[numObjects];
+	    if (clusters.length - begin < maxMemberships) {
+		int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(2L * clusters.length, (long) begin + maxMemberships));
+		clusters = Arrays.copyOf(clusters, capacity);
+		values = Arrays.copyOf(values, capacity);
+	    }
+	    return begin;
+	}
+	/**
+	 * Inserts membership into the sorted list of the largest memberships of the current object.
+	 *
+	 * @param begin position of the first membership of the object
+	 * @param end position after the last membership of the object
+	 * @param cluster index of the cluster
+	 * @param p probability of the object to lie in the cluster
+	 * @return new position after the last membership of the object
+	 */
+	private int insert(int begin, int end, int cluster, double p) {
+	    if (p < threshold || (end - begin == maxMemberships && p <= values[end - 1]))
+		return end;
+	    int i = end - begin == maxMemberships ? end - 1 : end++;
+	    for (; i > begin && values[i - 1] < p; --i) {
+		values[i] = values[i - 1];
+		clusters[i] = clusters[i - 1];
+	    }
+	    values[i] = (float) p;
+	    clusters[i] = cluster;
+	    return end;
+	}
+	/**
+	 * Adds memberships of the next object.
+	 *
+	 * @param probabilities array, that contains probabilities of the object
+	 * @param from position of the probability of the first cluster
+	 * @param numClusters number of clusters
+	 */
+	public void add(double[] probabilities, int from, int numClusters) {
+	    final int begin = reserve();
+	    int end = begin;
+	    for (int j = 0; j < numClusters; ++j)
+		end = insert(begin, end, j, probabilities[from + j]);
+	    offsets[++numObjects] = end;
+	}
+	/**
+	 * Adds memberships of the next object, that are known only
+	 * for some clusters, probabilities of other clusters are zero.
+	 *
+	 * @param clusterIndices indices of clusters
+	 * @param probabilities probabilities of the object to lie in the corresponding clusters
+	 * @param size number of clusters
+	 */
+	public void add(int[] clusterIndices, double[] probabilities, int size) {
+	    final int begin = reserve();
+	    int end = begin;
+	    for (int j = 0; j < size; ++j)
+		end = insert(begin, end, clusterIndices[j], probabilities[j]);
+	    offsets[++numObjects] = end;
+	}
+	/**
+	 * @return memberships of all added objects
+	 */
+	public SparseMemberships build() {
+	    final int size = offsets[numObjects];
+	    return new SparseMemberships(numObjects, Arrays.copyOf(offsets, numObjects + 1), Arrays.copyOf(clusters, size),
+					 Arrays.copyOf(values, size));
+	}
+    }
+}
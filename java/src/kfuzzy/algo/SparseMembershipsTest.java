@@ -0,0 +1,118 @@
+package kfuzzy.algo;
+
+import java.io.IOException;
+import java.util.*;
+import junit.framework.TestCase;
+
+import kfuzzy.math.DatasetChunks;
+import kfuzzy.math.DenseDataset;
+
+
+/**
+ * Class contains several tests for SparseMemberships and PackedLabels classes.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0618
+ * @since 1.7
+ */
+public class SparseMembershipsTest extends TestCase {
+    private final static double EPSILON = 1e-6;
+
+    public void testBuilder() {
+	SparseMemberships.Builder builder = new SparseMemberships.Builder(2, 0.1, 1);
+	builder.add(new double[] { 0.05, 0.3, 0.15, 0.5 }, 0, 4);
+	builder.add(new double[] { 1.0, 0.0, 0.0, 0.05, 0.95, 0.0 }, 3, 3);
+	builder.add(new double[] { 0.2, 0.2, 0.6 }, 0, 3);
+	SparseMemberships memberships = builder.build();
+
+	assertEquals(3, memberships.getNumObjects());
+	assertEquals(5, memberships.getNumMemberships());
+	assertTrue(Arrays.equals(new int[] { 0, 2, 3, 5 }, memberships.getOffsets()));
+	assertTrue(Arrays.equals(new int[] { 3, 1, 1, 2, 0 }, memberships.getClusters()));
+	assertEquals(0.5, memberships.get(0, 3), EPSILON);
+	assertEquals(0.0, memberships.get(0, 2), 0.0);
+	assertEquals(0.95, memberships.get(1, 1), EPSILON);
+	assertEquals(0.0, memberships.get(1, 0), 0.0);
+	assertEquals(0.2, memberships.get(2, 0), EPSILON);
+    }
+
+    public void testBuilderByClusters() {
+	SparseMemberships.Builder builder = new SparseMemberships.Builder(2, 0.1, 1);
+	builder.add(new int[] { 7, 3, 5 }, new double[] { 0.3, 0.05, 0.65 }, 3);
+	builder.add(new int[] { 2 }, new double[] { 1.0 }, 1);
+	SparseMemberships memberships = builder.build();
+
+	assertTrue(Arrays.equals(new int[] { 0, 2, 3 }, memberships.getOffsets()));
+	assertTrue(Arrays.equals(new int[] { 5, 7, 2 }, memberships.getClusters()));
+	assertEquals(0.65, memberships.get(0, 5), EPSILON);
+	assertEquals(0.0, memberships.get(0, 3), 0.0);
+	assertEquals(1.0, memberships.get(1, 2), EPSILON);
+    }
+
+    private void checkLabels(int numClusters, int bytesPerLabel) {
+	int[] assignment = new int[1000];
+	for (int i = 0; i < assignment.length; ++i)
+	    assignment[i] = (int) ((long) i * 7919 % numClusters);
+	assignment[0] = numClusters - 1;
+	PackedLabels labels = PackedLabels.pack(assignment, numClusters);
+	assertEquals(bytesPerLabel, labels.getBytesPerLabel());
+	assertEquals(assignment.length, labels.getNumObjects());
+	assertTrue(Arrays.equals(assignment, labels.toArray()));
+    }
+
+    public void testLabels() {
+	checkLabels(2, 1);
+	checkLabels(PackedLabels.MAX_BYTE_CLUSTERS, 1);
+	checkLabels(PackedLabels.MAX_BYTE_CLUSTERS + 1, 2);
+	checkLabels(PackedLabels.MAX_SHORT_CLUSTERS, 2);
+	checkLabels(PackedLabels.MAX_SHORT_CLUSTERS + 1, 4);
+    }
+
+    private void checkResult(KFuzzyAlgorithm.Result result, int maxMemberships, double threshold) {
+	SparseMemberships memberships = result.memberships;
+	int[] offsets = memberships.getOffsets(), clusters = memberships.getClusters();
+	float[] values = memberships.getValues();
+	for (int i = 0; i < memberships.getNumObjects(); ++i) {
+	    assertTrue(offsets[i + 1] - offsets[i] <= maxMemberships);
+	    assertTrue(offsets[i + 1] > offsets[i]);
+	    assertEquals(result.assignment[i], clusters[offsets[i]]);
+	    double sum = 0.0;
+	    for (int j = offsets[i]; j < offsets[i + 1]; ++j) {
+		assertTrue(values[j] >= threshold);
+		if (j > offsets[i])
+		    assertTrue(values[j] <= values[j - 1]);
+		sum += values[j];
+	    }
+	    assertTrue(sum <= 1.0 + EPSILON);
+	}
+    }
+
+    public void testClusterize() throws IOException {
+	Random random = new Random(2011);
+	DenseDataset dataset = new DenseDataset(500, 2);
+	for (int i = 0; i < 500; ++i)
+	    for (int j = 0; j < 2; ++j)
+		dataset.set(i, j, (i % 5) * 3.0 + random.nextGaussian());
+
+	KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm();
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 500, 1e-10, KFuzzyAlgorithm.ConvergenceCriterion.CENTER_SHIFT,
+								      null, new KFuzzyAlgorithm.SparseOptions(3, 0.05));
+	KFuzzyAlgorithm.Result result = algorithm.clusterizeDetailed(dataset, 5, options);
+	assertEquals(500, result.memberships.getNumObjects());
+	checkResult(result, 3, 0.05);
+
+	final int[] assignment = new int[500];
+	AssignmentWriterInterface writer = new AssignmentWriterInterface() {
+		public void writeAssignment(int from, int[] chunk, int size) {
+		    System.arraycopy(chunk, 0, assignment, from, size);
+		}
+	    };
+	KFuzzyAlgorithm.Result outOfCore = algorithm.clusterizeOutOfCore(new DatasetChunks(dataset), 5, options,
+									 new KFuzzyAlgorithm.OutOfCoreOptions(1000), writer);
+	assertTrue(Arrays.equals(result.assignment, assignment));
+	assertTrue(Arrays.equals(result.memberships.getOffsets(), outOfCore.memberships.getOffsets()));
+	assertTrue(Arrays.equals(result.memberships.getClusters(), outOfCore.memberships.getClusters()));
+	for (int i = 0; i < result.memberships.getNumMemberships(); ++i)
+	    assertEquals(result.memberships.getValues()[i], outOfCore.memberships.getValues()[i], EPSILON);
+    }
+}
@@ -0,0 +1,113 @@
+package kfuzzy.algo;
+
+
+/**
+ * ValidityIndices contains indices of validity of a fuzzy partition,
+ * which are used to compare partitions of the same dataset into
+ * different numbers of clusters:
+ *
+ * partition coefficient PC = sum of u^2 / n, lies in [1 / k; 1], larger is better;
+ * partition entropy PE = -sum of u * ln(u) / n, lies in [0; ln(k)], smaller is better;
+ * Xie-Beni index XB = J_m / (n * min squared distance between centers), smaller is better.
+ *
+ * Sums over probabilities are collected by {@link Builder} while
+ * assignment is computed, value of the objective function J_m is
+ * known from the final pass, so indices don't require extra passes
+ * over objects.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0619
+ * @since 1.7
+ */
+public class ValidityIndices {
+    /**
+     * Partition coefficient
+     */
+    public final double partitionCoefficient;
+    /**
+     * Partition entropy
+     */
+    public final double partitionEntropy;
+    /**
+     * Xie-Beni index, positive infinity for a single cluster
+     */
+    public final double xieBeni;
+    /**
+     * Constructor specifying all indices.
+     *
+     * @param partitionCoefficient partition coefficient
+     * @param partitionEntropy partition entropy
+     * @param xieBeni Xie-Beni index
+     */
+    public ValidityIndices(double partitionCoefficient, double partitionEntropy, double xieBeni) {
+	this.partitionCoefficient = partitionCoefficient;
+	this.partitionEntropy = partitionEntropy;
+	this.xieBeni = xieBeni;
+    }
+    /**
+     * Builder collects sums over probabilities of objects.
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0619
+     * @since 1.7
+     */
+    public static class Builder {
+	/**
+	 * Number of added objects
+	 */
+	private int numObjects = 0;
+	/**
+	 * Sum of squared probabilities
+	 */
+	private double sumSquares = 0.0;
+	/**
+	 * Sum of u * ln(u) over probabilities
+	 */
+	private double sumEntropy = 0.0;
+	/**
+	 * Adds probabilities of an object.
+	 *
+	 * @param probabilities array of probabilities
+	 * @param from position of the first probability of the object
+	 * @param numClusters number of clusters
+	 */
+	public void add(double[] probabilities, int from, int numClusters) {
+	    double squares = 0.0, entropy = 0.0;
+	    for (int i = from; i < from + numClusters; ++i) {
+		final double p = probabilities[i];
+		squares += p * p;
+		if (p > 0.0)
+		    entropy += p * Math.log(p);
+	    }
+	    sumSquares += squares;
+	    sumEntropy += entropy;
+	    ++numObjects;
+	}
+	/**
+	 * Computes indices of the partition.
+	 *
+	 * @param objective value of the objective function for the centers
+	 * @param numClusters number of clusters
+	 * @param numDimensions number of dimensions
+	 * @param centers cluster centers, ith center is stored from i * numDimensions position
+	 * @return validity indices, or null, if no objects were added
+	 */
+	public ValidityIndices build(double objective, int numClusters, int numDimensions, double[] centers) {
+	    if (numObjects == 0)
+		return null;
+	    double separation = Double.POSITIVE_INFINITY;
+	    for (int i = 0; i < numClusters; ++i) {
+		for (int j = i + 1; j < numClusters; ++j) {
+		    double distance = 0.0;
+		    for (int l = 0; l < numDimensions; ++l) {
+			double t = centers[i * numDimensions + l] - centers[j * numDimensions + l];
+			distance += t * t;
+		    }
+		    separation = Math.min(separation, distance);
+		}
+	    }
+	    double xieBeni = numClusters < 2 ? Double.POSITIVE_INFINITY : objective / (numObjects * separation);
+	    return new ValidityIndices(sumSquares / numObjects, -sumEntropy / numObjects, xieBeni);
+	}
+    }
+}
@@ -0,0 +1,44 @@
+package kfuzzy.algo;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Class contains several tests for ValidityIndices class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0619
+ * @since 1.7
+ */
+public class ValidityIndicesTest extends TestCase {
+    private final static double EPSILON = 1e-12;
+
+    public void testCrisp() {
+	ValidityIndices.Builder builder = new ValidityIndices.Builder();
+	builder.add(new double[] { 1.0, 0.0, 0.0, 1.0 }, 0, 2);
+	builder.add(new double[] { 1.0, 0.0, 0.0, 1.0 }, 2, 2);
+	ValidityIndices indices = builder.build(2.0, 2, 1, new double[] { 0.0, 2.0 });
+	assertEquals(1.0, indices.partitionCoefficient, EPSILON);
+	assertEquals(0.0, indices.partitionEntropy, EPSILON);
+	assertEquals(2.0 / (2 * 4.0), indices.xieBeni, EPSILON);
+    }
+
+    public void testUniform() {
+	final int numClusters = 4;
+	ValidityIndices.Builder builder = new ValidityIndices.Builder();
+	double[] probabilities = new double[] { 0.25, 0.25, 0.25, 0.25 };
+	for (int i = 0; i < 3; ++i)
+	    builder.add(probabilities, 0, numClusters);
+	ValidityIndices indices = builder.build(1.0, numClusters, 2, new double[] { 0, 0, 0, 1, 1, 0, 1, 1 });
+	assertEquals(1.0 / numClusters, indices.partitionCoefficient, EPSILON);
+	assertEquals(Math.log(numClusters), indices.partitionEntropy, EPSILON);
+	assertEquals(1.0 / 3.0, indices.xieBeni, EPSILON);
+    }
+
+    public void testDegenerate() {
+	ValidityIndices.Builder builder = new ValidityIndices.Builder();
+	assertNull(builder.build(0.0, 1, 1, new double[] { 0.0 }));
+	builder.add(new double[] { 1.0 }, 0, 1);
+	assertEquals(Double.POSITIVE_INFINITY, builder.build(5.0, 1, 1, new double[] { 0.0 }).xieBeni);
+    }
+}
@@ -2,15 +2,58 @@ package kfuzzy.gui;
 
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import javax.swing.*;
 
 import kfuzzy.math.Vector;
 
 
+/**
+ * ClustersPaintComponent shows projection of clustered points onto
+ * two selected axes. Points are rasterized into an offscreen image by
+ * direct writes into its pixels, image is rebuilt only when points,
+ * clusters, axes or size of the component change, so ordinary
+ * repaints just copy it. Bounds of points are computed once per
+ * dimension, when points are set.
+ *
+ * Rasterization runs on the common fork/join pool: first pixel
+ * positions of points are computed for ranges of points, then image
+ * rows are split into bands and points are bucketed by bands they
+ * touch by a counting sort. Each band is written by a single task,
+ * which visits only points of its bucket, so no locks are used. Up to the density threshold each point is
+ * drawn as an outlined disc, later points overlap earlier ones. Above
+ * the threshold each point covers one pixel, pixel color is the
+ * average color of its points and opacity grows with logarithm of
+ * their number.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0620
+ * @since 1.6
+ */
 public class ClustersPaintComponent extends JComponent {
     public final static int POINT_RADIUS = 6;
     public final static int X_OFFSET = 15;
     public final static int Y_OFFSET = 15;
+    /**
+     * Default number of points, above which density mode is used
+     */
+    public final static int DEFAULT_DENSITY_THRESHOLD = 100000;
+    /**
+     * Minimal number of points processed by a single task
+     */
+    public final static int POINTS_PER_TASK = 16384;
+    /**
+     * Minimal opacity of a non-empty pixel in density mode
+     */
+    public final static int MIN_DENSITY_ALPHA = 64;
+    /**
+     * Number of bands of image rows per worker thread
+     */
+    public final static int BANDS_PER_THREAD = 4;
 
     private Vector[] points = new Vector[] {};
     private int[] clusters = new int[] {};
@@ -20,28 +63,258 @@ public class ClustersPaintComponent extends JComponent {
 
     private int firstIndex = 0, secondIndex = 0;
 
+    private int densityThreshold = DEFAULT_DENSITY_THRESHOLD;
+    /**
+     * Minimal and maximal coordinates of points for each dimension
+     */
+    private double[] minCoords = new double[] {}, maxCoords = new double[] {};
+    /**
+     * Rasterized points, or null, if they must be rasterized again
+     */
+    private BufferedImage image = null;
+    /**
+     * Offsets of pixels of a point from its center, and whether pixel belongs to the outline
+     */
+    private final static int[] STAMP_X, STAMP_Y;
+    private final static boolean[] STAMP_OUTLINE;
+
+    static {
+	final int r = POINT_RADIUS / 2;
+	int size = 0;
+	int[] xs = new int[(2 * r + 1) * (2 * r + 1)], ys = new int[xs.length];
+	boolean[] outline = new boolean[xs.length];
+	for (int y = -r; y <= r; ++y) {
+	    for (int x = -r; x <= r; ++x) {
+		if (x * x + y * y > r * r)
+		    continue;
+		xs[size] = x;
+		ys[size] = y;
+		outline[size] = (x + 1) * (x + 1) + y * y > r * r || (x - 1) * (x - 1) + y * y > r * r ||
+		    x * x + (y + 1) * (y + 1) > r * r || x * x + (y - 1) * (y - 1) > r * r;
+		++size;
+	    }
+	}
+	STAMP_X = Arrays.copyOf(xs, size);
+	STAMP_Y = Arrays.copyOf(ys, size);
+	STAMP_OUTLINE = Arrays.copyOf(outline, size);
+    }
+    /**
+     * Arguments of the current rasterization
+     */
+    private int[] pixels;
+    private int[] positions;
+    private int imageWidth, imageHeight, numBands;
+    /**
+     * Points of ith band are stored in bandPoints from bandOffsets[i] to bandOffsets[i + 1], in order of points
+     */
+    private int[] bandOffsets, bandPoints;
+    private int[] counts, reds, greens, blues;
+    /**
+     * Computes pixel positions of points [from; to), -1 for points
+     * outside of the drawing area, i.e. with infinite or undefined
+     * coordinates.
+     */
+    @SuppressWarnings("serial")
+    private class PositionsTask extends RecursiveAction {
+	private final int from, to;
+	private final double minX, scaleX, minY, scaleY;
+
+	public PositionsTask(int from, int to, double minX, double scaleX, double minY, double scaleY) {
+	    this.from = from;
+	    this.to = to;
+	    this.minX = minX;
+	    this.scaleX = scaleX;
+	    this.minY = minY;
+	    this.scaleY = scaleY;
+	}
+
+	@Override protected void compute() {
+	    if (to - from <= POINTS_PER_TASK) {
+		final int r = POINT_RADIUS / 2, width = imageWidth - 2 * r - 1, height = imageHeight - 2 * r - 1;
+		for (int i = from; i < to; ++i) {
+		    double x = (points[i].get(firstIndex) - minX) * scaleX, y = (points[i].get(secondIndex) - minY) * scaleY;
+		    if (!(x >= 0.0 && x <= width && y >= 0.0 && y <= height))
+			positions[i] = -1;
+		    else
+			positions[i] = (r + (int) Math.round(y)) * imageWidth + r + (int) Math.round(x);
+		}
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new PositionsTask(from, middle, minX, scaleX, minY, scaleY), new PositionsTask(middle, to, minX, scaleX, minY, scaleY));
+	}
+    }
+    /**
+     * Draws points into rows of bands [from; to).
+     */
+    @SuppressWarnings("serial")
+    private class PointsTask extends RecursiveAction {
+	private final int from, to;
+
+	public PointsTask(int from, int to) {
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		final int r = POINT_RADIUS / 2;
+		final int rowBegin = getBandBegin(from), rowEnd = getBandBegin(from + 1);
+		final int outline = Color.BLACK.getRGB();
+		for (int k = bandOffsets[from]; k < bandOffsets[from + 1]; ++k) {
+		    final int i = bandPoints[k];
+		    final int x = positions[i] % imageWidth, y = positions[i] / imageWidth;
+		    final int color = getClusterColor(getCluster(i)).getRGB();
+		    for (int j = 0; j < STAMP_X.length; ++j) {
+			int row = y + STAMP_Y[j];
+			if (row >= rowBegin && row < rowEnd)
+			    pixels[row * imageWidth + x + STAMP_X[j]] = STAMP_OUTLINE[j] ? outline : color;
+		    }
+		}
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new PointsTask(from, middle), new PointsTask(middle, to));
+	}
+    }
+    /**
+     * Accumulates numbers and colors of points per pixel in rows of
+     * bands [from; to) and finds maximal number of points per pixel.
+     */
+    @SuppressWarnings("serial")
+    private class DensityTask extends RecursiveAction {
+	private final int from, to;
+	private int maxCount = 0;
+
+	public DensityTask(int from, int to) {
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		for (int k = bandOffsets[from]; k < bandOffsets[from + 1]; ++k) {
+		    final int i = bandPoints[k], p = positions[i];
+		    final Color color = getClusterColor(getCluster(i));
+		    maxCount = Math.max(maxCount, ++counts[p]);
+		    reds[p] += color.getRed();
+		    greens[p] += color.getGreen();
+		    blues[p] += color.getBlue();
+		}
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    DensityTask left = new DensityTask(from, middle), right = new DensityTask(middle, to);
+	    invokeAll(left, right);
+	    maxCount = Math.max(left.maxCount, right.maxCount);
+	}
+    }
+    /**
+     * Converts accumulated numbers and colors of points into pixels
+     * in rows of bands [from; to).
+     */
+    @SuppressWarnings("serial")
+    private class ShadeTask extends RecursiveAction {
+	private final int from, to;
+	private final double scale;
+
+	public ShadeTask(int from, int to, double scale) {
+	    this.from = from;
+	    this.to = to;
+	    this.scale = scale;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		final int pixelEnd = getBandBegin(from + 1) * imageWidth;
+		for (int p = getBandBegin(from) * imageWidth; p < pixelEnd; ++p) {
+		    final int count = counts[p];
+		    if (count == 0)
+			continue;
+		    int alpha = MIN_DENSITY_ALPHA + (int) ((255 - MIN_DENSITY_ALPHA) * Math.log(count + 1) * scale);
+		    pixels[p] = Math.min(alpha, 255) << 24 | reds[p] / count << 16 | greens[p] / count << 8 | blues[p] / count;
+		}
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new ShadeTask(from, middle, scale), new ShadeTask(middle, to, scale));
+	}
+    }
+
+    private int getBandBegin(int band) {
+	return (int) ((long) imageHeight * band / numBands);
+    }
+
+    /**
+     * @return index of the band, that contains row
+     */
+    private int getBand(int row) {
+	return (int) ((((long) row + 1) * numBands - 1) / imageHeight);
+    }
+
+    /**
+     * Buckets points by bands, that contain rows from y - radius to
+     * y + radius, where y is the row of the point. Buckets keep order
+     * of points, so later points still overlap earlier ones.
+     *
+     * @param radius number of rows above and below point, that it covers
+     */
+    private void bucketByBands(int radius) {
+	bandOffsets = new int[numBands + 1];
+	for (int i = 0; i < positions.length; ++i) {
+	    if (positions[i] < 0)
+		continue;
+	    final int y = positions[i] / imageWidth;
+	    for (int band = getBand(Math.max(y - radius, 0)); band <= getBand(Math.min(y + radius, imageHeight - 1)); ++band)
+		++bandOffsets[band + 1];
+	}
+	for (int band = 0; band < numBands; ++band)
+	    bandOffsets[band + 1] += bandOffsets[band];
+	bandPoints = new int[bandOffsets[numBands]];
+	int[] next = Arrays.copyOf(bandOffsets, numBands);
+	for (int i = 0; i < positions.length; ++i) {
+	    if (positions[i] < 0)
+		continue;
+	    final int y = positions[i] / imageWidth;
+	    for (int band = getBand(Math.max(y - radius, 0)); band <= getBand(Math.min(y + radius, imageHeight - 1)); ++band)
+		bandPoints[next[band]++] = i;
+	}
+    }
+
+    private int getCluster(int point) {
+	return point < clusters.length ? clusters[point] : -1;
+    }
+
     public void setFirstIndex(int index) {
-	if (index >= 0 && index < getNumDimensions())
+	if (index >= 0 && index < getNumDimensions() && index != firstIndex) {
 	    this.firstIndex = index;
+	    image = null;
+	}
     }
 
     public void setSecondIndex(int index) {
-	if (index >= 0 && index < getNumDimensions())
+	if (index >= 0 && index < getNumDimensions() && index != secondIndex) {
 	    this.secondIndex = index;
+	    image = null;
+	}
     }
 
-    private double getMinCoord(int index) {
-	double result = Double.POSITIVE_INFINITY;
-	for (Vector p : points)
-	    result = Math.min(result, p.get(index));
-	return result;
+    /**
+     * Sets number of points, above which density mode is used
+     * instead of drawing each point.
+     *
+     * @param densityThreshold number of points, must be non-negative
+     */
+    public void setDensityThreshold(int densityThreshold) {
+	assert densityThreshold >= 0 : "density threshold must be non-negative";
+	if (densityThreshold != this.densityThreshold) {
+	    this.densityThreshold = densityThreshold;
+	    image = null;
+	}
     }
 
-    private double getMaxCoord(int index) {
-	double result = Double.NEGATIVE_INFINITY;
-	for (Vector p : points)
-	    result = Math.max(result, p.get(index));
-	return result;
+    public int getDensityThreshold() {
+	return densityThreshold;
     }
 
     private Color getClusterColor(int cluster) {
@@ -58,35 +331,85 @@ public class ClustersPaintComponent extends JComponent {
 	    return points[0].getSize();
     }
 
+    /**
+     * Sets points and their clusters. Bounds of points are recomputed
+     * only if points differ from the current ones, so intermediate
+     * clusters of the same points are cheap to show.
+     *
+     * @param points set of points
+     * @param clusters clusters of points, negative values correspond to unassigned points
+     */
     public void setClusters(Vector[] points, int[] clusters) {
-	this.points = points;
+	if (points != this.points) {
+	    this.points = points;
+	    final int numDimensions = getNumDimensions();
+	    minCoords = new double[numDimensions];
+	    maxCoords = new double[numDimensions];
+	    Arrays.fill(minCoords, Double.POSITIVE_INFINITY);
+	    Arrays.fill(maxCoords, Double.NEGATIVE_INFINITY);
+	    for (Vector p : points) {
+		for (int i = 0; i < numDimensions; ++i) {
+		    minCoords[i] = Math.min(minCoords[i], p.get(i));
+		    maxCoords[i] = Math.max(maxCoords[i], p.get(i));
+		}
+	    }
+	}
 	this.clusters = clusters;
+	image = null;
     }
 
-    private void paintPoints(Graphics2D g2, int xoffset, int yoffset, int width, int height) {
-	if (getNumDimensions() == 0)
-	    return;
+    /**
+     * Returns rasterized points, image is rebuilt, if it's invalid or
+     * its size differs. Image is larger than the drawing area by
+     * POINT_RADIUS / 2 from each side, so points on the border are
+     * drawn completely.
+     *
+     * @param width width of the drawing area
+     * @param height height of the drawing area
+     * @return image with rasterized points
+     */
+    BufferedImage getImage(int width, int height) {
+	final int r = POINT_RADIUS / 2;
+	width = Math.max(width, 0);
+	height = Math.max(height, 0);
+	if (image != null && image.getWidth() == width + 2 * r + 1 && image.getHeight() == height + 2 * r + 1)
+	    return image;
 
-	double minX = getMinCoord(firstIndex), maxX = getMaxCoord(firstIndex);
-	double minY = getMinCoord(secondIndex), maxY = getMaxCoord(secondIndex);
-
-	double logicalWidth = maxX - minX, logicalHeight = maxY - minY;
-	double scaleX = width / logicalWidth, scaleY = height / logicalHeight;
-
-
-	for (int i = 0; i < points.length; ++i) {
-	    double x = (points[i].get(firstIndex) - minX) * scaleX;
-	    double y = (points[i].get(secondIndex) - minY) * scaleY;
-	    double r = POINT_RADIUS;
+	image = new BufferedImage(width + 2 * r + 1, height + 2 * r + 1, BufferedImage.TYPE_INT_ARGB);
+	if (getNumDimensions() == 0)
+	    return image;
+	ForkJoinPool pool = ForkJoinPool.commonPool();
 
-	    Ellipse2D shape = new Ellipse2D.Double(xoffset + x - r / 2, yoffset + y - r / 2, r, r);
+	pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	positions = new int[points.length];
+	imageWidth = image.getWidth();
+	imageHeight = image.getHeight();
+	numBands = Math.max(1, Math.min(imageHeight, BANDS_PER_THREAD * pool.getParallelism()));
 
-	    g2.setPaint(getClusterColor(clusters[i]));
-	    g2.fill(shape);
-	    g2.setPaint(Color.BLACK);
-	    g2.draw(shape);
+	double minX = minCoords[firstIndex], maxX = maxCoords[firstIndex];
+	double minY = minCoords[secondIndex], maxY = maxCoords[secondIndex];
+	// points with equal coordinates are drawn in the middle of the drawing area
+	double originX = maxX > minX ? minX : minX - width / 2, scaleX = maxX > minX ? width / (maxX - minX) : 1.0;
+	double originY = maxY > minY ? minY : minY - height / 2, scaleY = maxY > minY ? height / (maxY - minY) : 1.0;
+	pool.invoke(new PositionsTask(0, points.length, originX, scaleX, originY, scaleY));
+	if (points.length <= densityThreshold) {
+	    bucketByBands(r);
+	    pool.invoke(new PointsTask(0, numBands));
+	} else {
+	    counts = new int[pixels.length];
+	    reds = new int[pixels.length];
+	    greens = new int[pixels.length];
+	    blues = new int[pixels.length];
+	    bucketByBands(0);
+	    DensityTask density = new DensityTask(0, numBands);
+	    pool.invoke(density);
+	    pool.invoke(new ShadeTask(0, numBands, 1.0 / Math.log(density.maxCount + 1)));
+	    counts = reds = greens = blues = null;
 	}
-
+	pixels = null;
+	positions = null;
+	bandOffsets = bandPoints = null;
+	return image;
     }
 
     @Override public void paintComponent(Graphics g) {
@@ -97,6 +420,7 @@ public class ClustersPaintComponent extends JComponent {
 	g2.setPaint(Color.BLACK);
 	g2.draw(border);
 
-	paintPoints(g2, X_OFFSET, Y_OFFSET, width - 2 * X_OFFSET, height - 2 * Y_OFFSET);
+	final int r = POINT_RADIUS / 2;
+	g2.drawImage(getImage(width - 2 * X_OFFSET, height - 2 * Y_OFFSET), X_OFFSET - r, Y_OFFSET - r, null);
     }
 }
@@ -0,0 +1,61 @@
+package kfuzzy.gui;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import kfuzzy.math.Vector;
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for rasterization of ClustersPaintComponent class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0620
+ * @since 1.7
+ */
+public class ClustersPaintComponentTest extends TestingUtils {
+    private final static int R = ClustersPaintComponent.POINT_RADIUS / 2;
+
+    private ClustersPaintComponent component;
+
+    public void setUp() {
+	component = new ClustersPaintComponent();
+	Vector[] points = new Vector[] { new Vector(0.0, 0.0), new Vector(10.0, 5.0), new Vector(5.0, 10.0) };
+	component.setClusters(points, new int[] { 0, 1, -1 });
+	component.setSecondIndex(1);
+    }
+
+    public void testPoints() {
+	BufferedImage image = component.getImage(100, 50);
+	assertEquals(100 + 2 * R + 1, image.getWidth());
+	assertEquals(Color.BLUE.getRGB(), image.getRGB(R, R));
+	assertEquals(Color.RED.getRGB(), image.getRGB(R + 100, R + 25));
+	assertEquals(Color.BLACK.getRGB(), image.getRGB(R + 50, R + 50));
+	assertEquals(Color.BLACK.getRGB(), image.getRGB(R + R, R));
+	assertEquals(0, image.getRGB(R + 50, R));
+	assertSame(image, component.getImage(100, 50));
+
+	component.setFirstIndex(1);
+	image = component.getImage(100, 50);
+	assertEquals(Color.RED.getRGB(), image.getRGB(R + 50, R + 25));
+    }
+
+    public void testDensity() {
+	component.setDensityThreshold(0);
+	Vector[] points = new Vector[] { new Vector(0.0, 0.0), new Vector(0.0, 0.0), new Vector(2.0, 2.0) };
+	component.setClusters(points, new int[] { 0, 1, 1 });
+	BufferedImage image = component.getImage(2, 2);
+	int dense = image.getRGB(R, R), sparse = image.getRGB(R + 2, R + 2);
+	assertEquals(255, dense >>> 24);
+	assertEquals(Color.RED.getRGB() & 0xffffff, sparse & 0xffffff);
+	assertTrue((sparse >>> 24) < 255 && (sparse >>> 24) >= ClustersPaintComponent.MIN_DENSITY_ALPHA);
+	assertEquals(0, image.getRGB(R + 1, R + 1));
+    }
+
+    public void testEqualCoordinates() {
+	component.setClusters(new Vector[] { new Vector(1.0, 1.0), new Vector(1.0, 1.0) }, new int[] { 2, 2 });
+	BufferedImage image = component.getImage(20, 20);
+	assertEquals(Color.GREEN.getRGB(), image.getRGB(R + 10, R + 10));
+    }
+}
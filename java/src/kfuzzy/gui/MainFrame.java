@@ -8,10 +8,13 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.text.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.swing.*;
 import javax.swing.filechooser.*;
 
 import kfuzzy.Model;
+import kfuzzy.ProgressListenerInterface;
 import kfuzzy.algo.KFuzzyAlgorithm;
 import kfuzzy.gui.ClustersPaintComponent;
 import kfuzzy.io.KFuzzyInput;
@@ -24,7 +27,7 @@ import kfuzzy.math.Vector;
 
 class State {
     public enum StateValues {
-	Unknown, Unopened, Opened, Clusterized;
+	Unknown, Unopened, Opened, Clusterizing, Clusterized;
     }
 
     public interface StateChangedListener {
@@ -164,6 +167,76 @@ public class MainFrame extends JFrame {
 	}
     }
 
+    /**
+     * Observer of the background clusterization, shows its progress
+     * and intermediate clusters. Updates are throttled, so fast
+     * iterations don't flood the event queue.
+     */
+    private class ClusterizationProgress implements ProgressListenerInterface {
+	private final Vector[] points;
+	private final State.StateValues previousState;
+	private long lastProgress = 0, lastRepaint = 0;
+
+	public ClusterizationProgress(Vector[] points, State.StateValues previousState) {
+	    this.points = points;
+	    this.previousState = previousState;
+	}
+
+	public boolean iterationFinished(final int iteration, final double objective, double[] centers) {
+	    long now = System.currentTimeMillis();
+	    if (now - lastProgress < PROGRESS_INTERVAL)
+		return true;
+	    lastProgress = now;
+
+	    final int[] clusters;
+	    if (now - lastRepaint >= REPAINT_INTERVAL) {
+		lastRepaint = now;
+		clusters = Model.findNearestClusters(points, centers);
+	    } else {
+		clusters = null;
+	    }
+	    EventQueue.invokeLater(new Runnable() {
+		    public void run() {
+			if (state.getState() != State.StateValues.Clusterizing)
+			    return;
+			progressBar.setValue(iteration);
+			progressBar.setString(String.format("Iteration %d, objective %.6g", iteration, objective));
+			if (clusters != null) {
+			    paintComponent.setClusters(points, clusters);
+			    paintComponent.repaint();
+			}
+		    }
+		});
+	    return true;
+	}
+
+	public void clusterizationFinished(final Future<KFuzzyAlgorithm.Result> future) {
+	    EventQueue.invokeLater(new Runnable() {
+		    public void run() {
+			State.StateValues newState = previousState;
+			if (!future.isCancelled()) {
+			    try {
+				future.get();
+				newState = State.StateValues.Clusterized;
+			    } catch (ExecutionException e) {
+				JOptionPane.showMessageDialog(MainFrame.this, "Can't clusterize data", "error", JOptionPane.ERROR_MESSAGE);
+				e.getCause().printStackTrace();
+			    } catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			    }
+			}
+			clusterization = null;
+			progressBar.setValue(0);
+			progressBar.setString("");
+			state.setState(newState);
+
+			paintComponent.setClusters(model.getPoints(), model.getClusters());
+			paintComponent.repaint();
+		    }
+		});
+	}
+    }
+
     private class ClusterizeAction extends AbstractAction {
 	public ClusterizeAction() {
 	    putValue(NAME, "Clusterize");
@@ -176,17 +249,31 @@ public class MainFrame extends JFrame {
 		double blending = ((Number) blendingField.getValue()).doubleValue();
 		int maxIterations = ((Number) numIterationsField.getValue()).intValue();
 
-		model.clusterize(numClusters, new KFuzzyAlgorithm.Options(blending, maxIterations));
-		state.setState(State.StateValues.Clusterized);
+		KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(blending, maxIterations);
+		ProgressListenerInterface listener = new ClusterizationProgress(model.getPoints(), state.getState());
 
-		paintComponent.setClusters(model.getPoints(), model.getClusters());
-		paintComponent.repaint();
+		progressBar.setMaximum(maxIterations);
+		progressBar.setValue(0);
+		progressBar.setString("Seeding");
+		state.setState(State.StateValues.Clusterizing);
+		clusterization = model.clusterizeAsync(numClusters, options, listener);
 	    } catch (Exception e) {
 		JOptionPane.showMessageDialog(MainFrame.this, "Can't clusterize data", "error", JOptionPane.ERROR_MESSAGE);
 	    }
 	}
     }
 
+    private class CancelAction extends AbstractAction {
+	public CancelAction() {
+	    putValue(NAME, "Cancel");
+	}
+
+	@Override public void actionPerformed(ActionEvent e) {
+	    if (clusterization != null)
+		clusterization.cancel(true);
+	}
+    }
+
     private class QuitAction extends AbstractAction {
 	public QuitAction() {
 	    putValue(NAME, "Quit");
@@ -305,7 +392,11 @@ public class MainFrame extends JFrame {
 	clusterize.setMnemonic('C');
 	clusterize.setAccelerator(KeyStroke.getKeyStroke('C', KeyEvent.CTRL_MASK));
 
+	JMenuItem cancel = new JMenuItem(cancelAction);
+	cancel.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0));
+
 	algo.add(clusterize);
+	algo.add(cancel);
 
 	return algo;
     }
@@ -314,6 +405,7 @@ public class MainFrame extends JFrame {
 	JToolBar toolBar = new JToolBar("Command bar");
 	toolBar.add(new JButton(openAction));
 	toolBar.add(new JButton(clusterizeAction));
+	toolBar.add(new JButton(cancelAction));
 	toolBar.addSeparator();
 
 	toolBar.add(new JLabel("Num clusters: "));
@@ -379,18 +471,25 @@ public class MainFrame extends JFrame {
 	add(createToolBar(), BorderLayout.NORTH);
 	add(paintComponent, BorderLayout.CENTER);
 
+	progressBar.setStringPainted(true);
+	progressBar.setString("");
+	add(progressBar, BorderLayout.SOUTH);
+
 	this.state.addListener(new State.StateChangedListener() {
 		public void stateChanged(State.StateValues oldState, State.StateValues newState) {
 		    boolean enabled = newState == State.StateValues.Opened || newState == State.StateValues.Clusterized;
+		    boolean clusterizing = newState == State.StateValues.Clusterizing;
 
+		    openAction.setEnabled(!clusterizing);
 		    clusterizeAction.setEnabled(enabled);
+		    cancelAction.setEnabled(clusterizing);
 
 		    numClustersField.setEnabled(enabled);
 		    blendingField.setEnabled(enabled);
 		    numIterationsField.setEnabled(enabled);
 
-		    firstIndex.setEnabled(enabled);
-		    secondIndex.setEnabled(enabled);
+		    firstIndex.setEnabled(enabled || clusterizing);
+		    secondIndex.setEnabled(enabled || clusterizing);
 		}
 	    });
 	this.state.addListener(new State.StateChangedListener() {
@@ -412,6 +511,15 @@ public class MainFrame extends JFrame {
     public final static double DEFAULT_BLENDING = 1.5;
     public final static int DEFAULT_MAX_ITERATIONS = 100;
 
+    /**
+     * Minimal interval between updates of the progress bar, in milliseconds
+     */
+    public final static long PROGRESS_INTERVAL = 50;
+    /**
+     * Minimal interval between repaints of intermediate clusters, in milliseconds
+     */
+    public final static long REPAINT_INTERVAL = 500;
+
 
     private ClustersPaintComponent paintComponent = new ClustersPaintComponent();
 
@@ -420,6 +528,10 @@ public class MainFrame extends JFrame {
     private AbstractAction saveAsAction;
     private AbstractAction quitAction = new QuitAction();
     private AbstractAction clusterizeAction = new ClusterizeAction();
+    private AbstractAction cancelAction = new CancelAction();
+
+    private JProgressBar progressBar = new JProgressBar();
+    private Future<KFuzzyAlgorithm.Result> clusterization = null;
 
     private JComboBox firstIndex = new JComboBox();
     private JComboBox secondIndex = new JComboBox();
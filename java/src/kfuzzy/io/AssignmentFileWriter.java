@@ -0,0 +1,79 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import kfuzzy.algo.AssignmentWriterInterface;
+
+
+/**
+ * AssignmentFileWriter writes assignment to a file as it's produced,
+ * so assignment of a dataset, that doesn't fit into memory, is never
+ * stored in memory. Cluster index of ith object is stored as
+ * little-endian 32-bit integer at 4 * i position.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0616
+ * @since 1.7
+ */
+public class AssignmentFileWriter implements AssignmentWriterInterface, Closeable {
+    /**
+     * Channel of the file
+     */
+    private final FileChannel channel;
+    /**
+     * Buffer for encoded cluster indices
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(0);
+    /**
+     * Creates file or truncates existing file.
+     *
+     * @param file file, to which assignment is written
+     * @throws IOException in the case of problems with IO
+     */
+    public AssignmentFileWriter(File file) throws IOException {
+	channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				   StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    /**
+     * Reads assignment written by this class.
+     *
+     * @param file file with assignment
+     * @return an array of cluster indices
+     * @throws IOException in the case of problems with IO
+     */
+    public static int[] read(File file) throws IOException {
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    if (channel.size() % 4 != 0 || channel.size() / 4 > Integer.MAX_VALUE)
+		throw new IOException("malformed assignment file, size: " + channel.size());
+	    ByteBuffer bytes = ByteBuffer.allocate((int) channel.size()).order(BinaryHeader.BYTE_ORDER);
+	    while (bytes.hasRemaining())
+		if (channel.read(bytes) < 0)
+		    throw new EOFException("unexpected end of file");
+	    bytes.flip();
+	    int[] assignment = new int[bytes.remaining() / 4];
+	    bytes.asIntBuffer().get(assignment);
+	    return assignment;
+	} finally {
+	    channel.close();
+	}
+    }
+
+    public void writeAssignment(int from, int[] assignment, int size) throws IOException {
+	if (buffer.capacity() < 4 * size)
+	    buffer = ByteBuffer.allocate(4 * size).order(BinaryHeader.BYTE_ORDER);
+	buffer.clear();
+	buffer.asIntBuffer().put(assignment, 0, size);
+	buffer.limit(4 * size);
+	long position = 4L * from;
+	while (buffer.hasRemaining())
+	    position += channel.write(buffer, position);
+    }
+
+    public void close() throws IOException {
+	channel.close();
+    }
+}
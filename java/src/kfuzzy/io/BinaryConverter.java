@@ -0,0 +1,72 @@
+package kfuzzy.io;
+
+import java.io.*;
+
+import kfuzzy.math.Precision;
+
+
+/**
+ * BinaryConverter converts text inputs of the KFuzzy algorithm into
+ * the binary format.
+ *
+ * Usage: BinaryConverter simple|tab input output [float64|float32|int16]
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class BinaryConverter {
+    /**
+     * Reads text input in the given format.
+     *
+     * @param format name of the format, "simple" or "tab"
+     * @param file input file
+     * @return input of the KFuzzy algorithm
+     * @throws IOException in the case of problems with IO or unknown format
+     */
+    public static KFuzzyInput readText(String format, File file) throws IOException {
+	return readText(format, file, Precision.FLOAT64);
+    }
+    /**
+     * Reads text input in the given format into a dataset of the given precision.
+     *
+     * @param format name of the format, "simple" or "tab"
+     * @param file input file
+     * @param precision precision of the dataset
+     * @return input of the KFuzzy algorithm
+     * @throws IOException in the case of problems with IO or unknown format
+     */
+    public static KFuzzyInput readText(String format, File file, Precision precision) throws IOException {
+	if ("simple".equals(format))
+	    return new MappedSimpleReader(precision).read(file);
+	if (!"tab".equals(format))
+	    throw new IOException("unknown format: " + format);
+
+	KFuzzyInput input = new TABReader(precision).read(file);
+	if (input == null)
+	    throw new IOException("malformed input: " + file);
+	return input;
+    }
+
+    public static void main(String[] args) {
+	if (args.length != 3 && args.length != 4) {
+	    System.err.println("Usage: BinaryConverter simple|tab input output [float64|float32|int16]");
+	    System.exit(1);
+	}
+	Precision precision = Precision.FLOAT64;
+	try {
+	    if (args.length == 4)
+		precision = Precision.valueOf(args[3].toUpperCase());
+	} catch (IllegalArgumentException e) {
+	    System.err.println("unknown precision: " + args[3]);
+	    System.exit(1);
+	}
+	try {
+	    KFuzzyInput input = readText(args[0], new File(args[1]), precision);
+	    new BinaryWriter(precision).write(new File(args[2]), input);
+	} catch (IOException e) {
+	    System.err.println(e.getMessage());
+	    System.exit(1);
+	}
+    }
+}
@@ -0,0 +1,123 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import kfuzzy.math.ChunkedDatasetInterface;
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DenseDataset;
+
+
+/**
+ * BinaryFileChunks reads a dataset in the binary format described by
+ * {@link BinaryHeader} chunk by chunk into a reusable buffer, so
+ * memory used doesn't depend on size of the dataset. Buffers take
+ * {@link kfuzzy.algo.KFuzzyAlgorithm.OutOfCoreOptions#BYTES_PER_COMPONENT}
+ * bytes per component of a chunk: raw bytes of the file and decoded
+ * values. Components of reduced precisions are decoded to doubles.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class BinaryFileChunks implements ChunkedDatasetInterface, Closeable {
+    /**
+     * Channel of the file
+     */
+    private final FileChannel channel;
+    /**
+     * Header of the file
+     */
+    private final BinaryHeader header;
+    /**
+     * Buffer for raw bytes of a chunk
+     */
+    private ByteBuffer bytes = ByteBuffer.allocate(0);
+    /**
+     * Last returned chunk, reused while size of chunks doesn't change
+     */
+    private DenseDataset chunk = null;
+    /**
+     * Per-dimension offsets and scales of INT16 components, or null
+     */
+    private final double[][] table;
+    /**
+     * Opens the file and reads its header.
+     *
+     * @param file file in the binary format
+     * @throws IOException in the case of problems with IO or malformed header
+     */
+    public BinaryFileChunks(File file) throws IOException {
+	channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    header = BinaryReader.readHeader(channel);
+	    if (channel.size() < header.payloadOffset + header.getPayloadSize())
+		throw new IOException("payload of the binary dataset is truncated");
+	    table = header.elementType == BinaryHeader.ElementType.INT16 ? BinaryReader.readTable(channel, header) : null;
+	} catch (IOException e) {
+	    channel.close();
+	    throw e;
+	}
+    }
+    /**
+     * @return header of the file
+     */
+    public BinaryHeader getHeader() {
+	return header;
+    }
+
+    public int getNumObjects() {
+	return header.numObjects;
+    }
+
+    public int getNumDimensions() {
+	return header.numDimensions;
+    }
+
+    public Dataset getChunk(int from, int size) throws IOException {
+	assert size > 0 && from >= 0 && (long) from + size <= header.numObjects : String.format("from: %d, size: %d", from, size);
+
+	final int numDimensions = header.numDimensions, numComponents = size * numDimensions;
+	final int elementSize = header.elementType.size;
+	if (chunk == null || chunk.getNumObjects() != size)
+	    chunk = new DenseDataset(size, numDimensions);
+	if (bytes.capacity() < elementSize * numComponents)
+	    bytes = ByteBuffer.allocate(elementSize * numComponents).order(BinaryHeader.BYTE_ORDER);
+	bytes.clear();
+	bytes.limit(elementSize * numComponents);
+	long position = header.payloadOffset + (long) elementSize * from * numDimensions;
+	while (bytes.hasRemaining()) {
+	    int read = channel.read(bytes, position);
+	    if (read < 0)
+		throw new EOFException("unexpected end of file");
+	    position += read;
+	}
+	bytes.flip();
+	double[] data = chunk.getData();
+	switch (header.elementType) {
+	case FLOAT32:
+	    FloatBuffer floats = bytes.asFloatBuffer();
+	    for (int i = 0; i < numComponents; ++i)
+		data[i] = floats.get(i);
+	    break;
+	case INT16:
+	    ShortBuffer shorts = bytes.asShortBuffer();
+	    for (int i = 0; i < numComponents; ++i) {
+		final int j = i % numDimensions;
+		data[i] = table[0][j] + table[1][j] * shorts.get(i);
+	    }
+	    break;
+	default:
+	    bytes.asDoubleBuffer().get(data);
+	}
+	return chunk;
+    }
+
+    public void close() throws IOException {
+	channel.close();
+    }
+}
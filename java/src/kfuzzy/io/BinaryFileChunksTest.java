@@ -0,0 +1,109 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.util.*;
+
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.math.ChunkedDatasetInterface;
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DatasetChunks;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Precision;
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for BinaryFileChunks class and the
+ * out-of-core mode of the KFuzzy algorithm.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0616
+ * @since 1.7
+ */
+public class BinaryFileChunksTest extends TestingUtils {
+    private final static double EPSILON = 1e-9;
+
+    private File file, assignmentFile;
+
+    public void setUp() throws IOException {
+	file = File.createTempFile("kfuzzy", ".bin");
+	assignmentFile = File.createTempFile("kfuzzy", ".assignment");
+    }
+
+    public void tearDown() {
+	file.delete();
+	assignmentFile.delete();
+    }
+
+    private DenseDataset createDataset(int numObjects, int numDimensions) {
+	Random random = new Random(2011);
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, (i % 3) * 10.0 + random.nextGaussian());
+	return dataset;
+    }
+
+    private void checkChunks(Dataset expected, ChunkedDatasetInterface chunks, int chunkSize) throws IOException {
+	assertEquals(expected.getNumObjects(), chunks.getNumObjects());
+	assertEquals(expected.getNumDimensions(), chunks.getNumDimensions());
+	for (int from = 0; from < expected.getNumObjects(); from += chunkSize) {
+	    final int size = Math.min(chunkSize, expected.getNumObjects() - from);
+	    Dataset chunk = chunks.getChunk(from, size);
+	    assertEquals(size, chunk.getNumObjects());
+	    for (int i = 0; i < size; ++i)
+		for (int j = 0; j < expected.getNumDimensions(); ++j)
+		    assertEquals(expected.get(from + i, j), chunk.get(i, j), 0.0);
+	}
+    }
+
+    public void testChunks() throws IOException {
+	DenseDataset dataset = createDataset(100, 3);
+	new BinaryWriter().write(file, new KFuzzyInput(dataset, 3));
+	BinaryFileChunks chunks = new BinaryFileChunks(file);
+	try {
+	    assertEquals(3, chunks.getHeader().numClusters);
+	    checkChunks(dataset, chunks, 7);
+	    checkChunks(dataset, chunks, 100);
+	} finally {
+	    chunks.close();
+	}
+	checkChunks(dataset, new DatasetChunks(dataset), 9);
+    }
+
+    private void checkOutOfCore(ChunkedDatasetInterface chunks, KFuzzyAlgorithm.Result expected, KFuzzyAlgorithm.OutOfCoreOptions outOfCoreOptions,
+				KFuzzyAlgorithm.Options options) throws IOException {
+	AssignmentFileWriter writer = new AssignmentFileWriter(assignmentFile);
+	KFuzzyAlgorithm.Result result;
+	try {
+	    result = new KFuzzyAlgorithm().clusterizeOutOfCore(chunks, 3, options, outOfCoreOptions, writer);
+	} finally {
+	    writer.close();
+	}
+	assertNull(result.assignment);
+	assertTrue(result.converged);
+	assertEquals(result.numIterations + 1, result.objectiveHistory.length);
+	assertEquals(expected.objective, result.objective, EPSILON * expected.objective);
+	assertTrue(Arrays.equals(expected.assignment, AssignmentFileWriter.read(assignmentFile)));
+    }
+
+    public void testClusterize() throws IOException {
+	DenseDataset dataset = createDataset(1000, 4);
+	new BinaryWriter().write(file, new KFuzzyInput(dataset, 3));
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 1000, 1e-10);
+	KFuzzyAlgorithm.Result expected = new KFuzzyAlgorithm().clusterizeDetailed(dataset, 3, options);
+
+	// 37 objects per chunk
+	KFuzzyAlgorithm.OutOfCoreOptions outOfCoreOptions = new KFuzzyAlgorithm.OutOfCoreOptions(37 * (16 * 4 + 4));
+	assertEquals(37, outOfCoreOptions.getChunkSize(4));
+
+	BinaryFileChunks chunks = new BinaryFileChunks(file);
+	try {
+	    checkOutOfCore(chunks, expected, outOfCoreOptions, options);
+	} finally {
+	    chunks.close();
+	}
+	checkOutOfCore(new DatasetChunks(dataset), expected, outOfCoreOptions, options);
+	checkOutOfCore(new DatasetChunks(dataset), expected, new KFuzzyAlgorithm.OutOfCoreOptions(), options);
+    }
+}
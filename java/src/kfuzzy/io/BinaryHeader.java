@@ -0,0 +1,238 @@
+package kfuzzy.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import kfuzzy.math.Precision;
+
+
+/**
+ * BinaryHeader is a header of the binary dataset format. All values
+ * are little-endian, header takes SIZE bytes:
+ *
+ * <pre>
+ *  0  int   magic, "KFZB"
+ *  4  int   version of the format
+ *  8  int   element type
+ * 12  int   number of dimensions
+ * 16  long  number of objects
+ * 24  int   number of clusters
+ * 28  int   offset of the payload from the beginning of the file
+ * 32  long  CRC32 checksum of the payload
+ * 40        reserved, zeros
+ * </pre>
+ *
+ * Payload contains components of all objects, row by row, and
+ * starts at the offset aligned to PAYLOAD_ALIGNMENT bytes. For INT16
+ * components header is followed by per-dimension offsets and then
+ * per-dimension scales, both are arrays of doubles, see {@link
+ * kfuzzy.math.QuantizedDataset}. Checksum covers all bytes after the
+ * header.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class BinaryHeader {
+    /**
+     * Magic number, "KFZB" in ASCII
+     */
+    public final static int MAGIC = 0x425A464B;
+    /**
+     * Current version of the format
+     */
+    public final static int VERSION = 1;
+    /**
+     * Size of the header in bytes
+     */
+    public final static int SIZE = 64;
+    /**
+     * Alignment of the payload in bytes
+     */
+    public final static int PAYLOAD_ALIGNMENT = 64;
+    /**
+     * Byte order of the header and the payload
+     */
+    public final static ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    /**
+     * Types of components
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0614
+     * @since 1.7
+     */
+    public static enum ElementType {
+	/**
+	 * IEEE 754 double precision numbers
+	 */
+	FLOAT64(1, Precision.FLOAT64),
+	/**
+	 * IEEE 754 single precision numbers
+	 */
+	FLOAT32(2, Precision.FLOAT32),
+	/**
+	 * 16-bit integers with per-dimension offsets and scales
+	 */
+	INT16(3, Precision.INT16);
+
+	/**
+	 * Code of the type in the header
+	 */
+	public final int code;
+	/**
+	 * Size of a component in bytes
+	 */
+	public final int size;
+	/**
+	 * Precision of datasets, into which components are loaded
+	 */
+	public final Precision precision;
+
+	private ElementType(int code, Precision precision) {
+	    this.code = code;
+	    this.size = precision.size;
+	    this.precision = precision;
+	}
+	/**
+	 * Finds type by its code.
+	 *
+	 * @param code code of the type
+	 * @return type, or null, if there is no such type
+	 */
+	public static ElementType valueOf(int code) {
+	    for (ElementType type : values())
+		if (type.code == code)
+		    return type;
+	    return null;
+	}
+	/**
+	 * Finds type by precision of a dataset.
+	 *
+	 * @param precision precision, must not be null
+	 * @return type
+	 */
+	public static ElementType valueOf(Precision precision) {
+	    for (ElementType type : values())
+		if (type.precision == precision)
+		    return type;
+	    throw new IllegalArgumentException("unsupported precision: " + precision);
+	}
+    }
+    /**
+     * Type of components
+     */
+    public final ElementType elementType;
+    /**
+     * Number of objects
+     */
+    public final int numObjects;
+    /**
+     * Number of dimensions
+     */
+    public final int numDimensions;
+    /**
+     * Number of clusters
+     */
+    public final int numClusters;
+    /**
+     * Offset of the payload from the beginning of the file
+     */
+    public final int payloadOffset;
+    /**
+     * CRC32 checksum of the payload
+     */
+    public final long checksum;
+    /**
+     * Constructor specifying all fields, payload starts right after
+     * the header and the table of offsets and scales, if any.
+     *
+     * @param elementType type of components, must not be null
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     * @param numClusters number of clusters
+     * @param checksum CRC32 checksum of the payload
+     */
+    public BinaryHeader(ElementType elementType, int numObjects, int numDimensions, int numClusters, long checksum) {
+	this(elementType, numObjects, numDimensions, numClusters, align(SIZE + getTableSize(elementType, numDimensions)), checksum);
+    }
+
+    private BinaryHeader(ElementType elementType, int numObjects, int numDimensions, int numClusters, int payloadOffset, long checksum) {
+	assert elementType != null : "elementType must not be null";
+	assert numObjects >= 0 && numDimensions >= 0 : String.format("numObjects: %d, numDimensions: %d", numObjects, numDimensions);
+
+	this.elementType = elementType;
+	this.numObjects = numObjects;
+	this.numDimensions = numDimensions;
+	this.numClusters = numClusters;
+	this.payloadOffset = payloadOffset;
+	this.checksum = checksum;
+    }
+    private static int align(int offset) {
+	return (offset + PAYLOAD_ALIGNMENT - 1) / PAYLOAD_ALIGNMENT * PAYLOAD_ALIGNMENT;
+    }
+
+    private static int getTableSize(ElementType elementType, int numDimensions) {
+	return elementType == ElementType.INT16 ? 2 * 8 * numDimensions : 0;
+    }
+    /**
+     * @return size of the table of per-dimension offsets and scales in bytes
+     */
+    public int getTableSize() {
+	return getTableSize(elementType, numDimensions);
+    }
+    /**
+     * @return size of the payload in bytes
+     */
+    public long getPayloadSize() {
+	return (long) numObjects * numDimensions * elementType.size;
+    }
+    /**
+     * Reads header from the buffer, starting from its current position.
+     *
+     * @param buffer buffer, that contains at least SIZE bytes
+     * @return header
+     * @throws IOException if header is malformed
+     */
+    public static BinaryHeader read(ByteBuffer buffer) throws IOException {
+	if (buffer.remaining() < SIZE)
+	    throw new IOException("binary header is truncated");
+	buffer = buffer.slice().order(BYTE_ORDER);
+	if (buffer.getInt(0) != MAGIC)
+	    throw new IOException("not a binary dataset: wrong magic number");
+	if (buffer.getInt(4) != VERSION)
+	    throw new IOException("unsupported version of binary dataset: " + buffer.getInt(4));
+	ElementType elementType = ElementType.valueOf(buffer.getInt(8));
+	if (elementType == null)
+	    throw new IOException("unsupported element type: " + buffer.getInt(8));
+	int numDimensions = buffer.getInt(12);
+	long numObjects = buffer.getLong(16);
+	int numClusters = buffer.getInt(24), payloadOffset = buffer.getInt(28);
+	if (numDimensions < 0 || numObjects < 0 || numObjects > Integer.MAX_VALUE
+	    || numDimensions > (Integer.MAX_VALUE - SIZE - PAYLOAD_ALIGNMENT) / 16)
+	    throw new IOException(String.format("malformed header: %d objects, %d dimensions", numObjects, numDimensions));
+	if (payloadOffset < SIZE + getTableSize(elementType, numDimensions) || payloadOffset % PAYLOAD_ALIGNMENT != 0)
+	    throw new IOException("malformed header: payload offset " + payloadOffset);
+	return new BinaryHeader(elementType, (int) numObjects, numDimensions, numClusters, payloadOffset, buffer.getLong(32));
+    }
+    /**
+     * Writes header to the buffer, starting from its current
+     * position, position is advanced by SIZE bytes.
+     *
+     * @param buffer buffer, that has at least SIZE bytes remaining
+     */
+    public void write(ByteBuffer buffer) {
+	ByteBuffer header = buffer.slice().order(BYTE_ORDER);
+	header.putInt(MAGIC);
+	header.putInt(VERSION);
+	header.putInt(elementType.code);
+	header.putInt(numDimensions);
+	header.putLong(numObjects);
+	header.putInt(numClusters);
+	header.putInt(payloadOffset);
+	header.putLong(checksum);
+	while (header.position() < SIZE)
+	    header.put((byte) 0);
+	buffer.position(buffer.position() + SIZE);
+    }
+}
@@ -0,0 +1,168 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.math.FloatDataset;
+import kfuzzy.math.MappedDataset;
+import kfuzzy.math.QuantizedDataset;
+
+
+/**
+ * BinaryReader reads datasets in the binary format described by
+ * {@link BinaryHeader}. Payload is memory-mapped and wrapped into a
+ * {@link MappedDataset}, so nothing is copied and reading takes the
+ * same time regardless of size of the dataset. Payloads of reduced
+ * precisions are loaded directly into datasets of these precisions.
+ * Checksum of the
+ * payload is verified only on request, since verification reads
+ * the whole file.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class BinaryReader implements MappedReaderInterface {
+    /**
+     * True, if checksum of the payload is verified
+     */
+    private final boolean verifyChecksum;
+    /**
+     * Constructor, checksum is not verified.
+     */
+    public BinaryReader() {
+	this(false);
+    }
+    /**
+     * Constructor specifying whether checksum is verified.
+     *
+     * @param verifyChecksum true, if checksum of the payload must be verified
+     */
+    public BinaryReader(boolean verifyChecksum) {
+	this.verifyChecksum = verifyChecksum;
+    }
+    /**
+     * Reads header of the binary dataset.
+     *
+     * @param channel channel of the file
+     * @return header
+     * @throws IOException in the case of problems with IO or malformed header
+     */
+    public static BinaryHeader readHeader(FileChannel channel) throws IOException {
+	ByteBuffer buffer = ByteBuffer.allocate(BinaryHeader.SIZE);
+	while (buffer.hasRemaining())
+	    if (channel.read(buffer, buffer.position()) < 0)
+		throw new IOException("binary header is truncated");
+	buffer.flip();
+	return BinaryHeader.read(buffer);
+    }
+
+    /**
+     * Reads per-dimension offsets and scales of INT16 components.
+     *
+     * @param channel channel of the file
+     * @param header header of the file, element type must be INT16
+     * @return an array of two arrays: offsets and scales
+     * @throws IOException in the case of problems with IO
+     */
+    public static double[][] readTable(FileChannel channel, BinaryHeader header) throws IOException {
+	ByteBuffer buffer = ByteBuffer.allocate(header.getTableSize()).order(BinaryHeader.BYTE_ORDER);
+	while (buffer.hasRemaining())
+	    if (channel.read(buffer, BinaryHeader.SIZE + buffer.position()) < 0)
+		throw new EOFException("table of the binary dataset is truncated");
+	buffer.flip();
+	double[][] table = new double[2][header.numDimensions];
+	buffer.asDoubleBuffer().get(table[0]).get(table[1]);
+	return table;
+    }
+    /**
+     * Reads dataset. FLOAT64 payload is mapped, payloads of reduced
+     * precisions are copied into arrays of {@link FloatDataset} and
+     * {@link QuantizedDataset}, which are half and quarter of size of
+     * the double dataset.
+     *
+     * @param file file in the binary format
+     * @return input of the KFuzzy algorithm
+     * @throws IOException in the case of problems with IO or malformed file
+     */
+    public KFuzzyInput read(File file) throws IOException {
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    BinaryHeader header = readHeader(channel);
+	    if (channel.size() < header.payloadOffset + header.getPayloadSize())
+		throw new IOException("payload of the binary dataset is truncated");
+
+	    final int numObjects = header.numObjects, numDimensions = header.numDimensions;
+	    final BinaryHeader.ElementType elementType = header.elementType;
+	    final long rowSize = (long) numDimensions * elementType.size;
+	    // a mapped buffer can't be larger than 2Gb
+	    final int rowsPerSegment = (int) Math.max(1, Integer.MAX_VALUE / Math.max(1, rowSize));
+
+	    CRC32 crc = verifyChecksum ? new CRC32() : null;
+	    if (crc != null && header.payloadOffset > BinaryHeader.SIZE)
+		crc.update(channel.map(FileChannel.MapMode.READ_ONLY, BinaryHeader.SIZE, header.payloadOffset - BinaryHeader.SIZE));
+
+	    Dataset dataset;
+	    DoubleBuffer[] segments = null;
+	    float[] floats = null;
+	    short[] shorts = null;
+	    try {
+		switch (elementType) {
+		case FLOAT32:
+		    FloatDataset floatDataset = new FloatDataset(numObjects, numDimensions);
+		    floats = floatDataset.getData();
+		    dataset = floatDataset;
+		    break;
+		case INT16:
+		    double[][] table = readTable(channel, header);
+		    shorts = new short[Math.multiplyExact(numObjects, numDimensions)];
+		    dataset = new QuantizedDataset(numObjects, numDimensions, shorts, table[0], table[1]);
+		    break;
+		default:
+		    segments = new DoubleBuffer[(numObjects + rowsPerSegment - 1) / rowsPerSegment];
+		    dataset = new MappedDataset(numObjects, numDimensions, segments, rowsPerSegment);
+		}
+	    } catch (IllegalArgumentException | ArithmeticException e) {
+		throw new IOException(String.format("dataset %d x %d is too large", numObjects, numDimensions), e);
+	    }
+
+	    for (int i = 0; (long) i * rowsPerSegment < numObjects; ++i) {
+		int numRows = Math.min(rowsPerSegment, numObjects - i * rowsPerSegment);
+		long offset = header.payloadOffset + (long) i * rowsPerSegment * rowSize;
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, numRows * rowSize);
+		buffer.order(BinaryHeader.BYTE_ORDER);
+		if (crc != null)
+		    crc.update(buffer.duplicate());
+		switch (elementType) {
+		case FLOAT32:
+		    buffer.asFloatBuffer().get(floats, i * rowsPerSegment * numDimensions, numRows * numDimensions);
+		    break;
+		case INT16:
+		    buffer.asShortBuffer().get(shorts, i * rowsPerSegment * numDimensions, numRows * numDimensions);
+		    break;
+		default:
+		    segments[i] = buffer.asDoubleBuffer();
+		}
+	    }
+	    if (crc != null && crc.getValue() != header.checksum)
+		throw new IOException(String.format("checksum mismatch: %08x expected, %08x found", header.checksum, crc.getValue()));
+	    return new KFuzzyInput(dataset, header.numClusters);
+	} finally {
+	    channel.close();
+	}
+    }
+    /**
+     * Binary format can't be read from a character stream.
+     *
+     * @throws IOException always
+     */
+    public KFuzzyInput read(InputStreamReader inputStream) throws IOException {
+	throw new IOException("binary datasets can be read only from files");
+    }
+}
@@ -0,0 +1,168 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import kfuzzy.algo.KFuzzyAlgorithm;
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.MappedDataset;
+import kfuzzy.math.Precision;
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for BinaryReader and BinaryWriter classes.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0614
+ * @since 1.7
+ */
+public class BinaryReaderTest extends TestingUtils {
+    private File file;
+
+    public void setUp() throws IOException {
+	file = File.createTempFile("kfuzzy", ".bin");
+    }
+
+    public void tearDown() {
+	file.delete();
+    }
+
+    private DenseDataset createDataset(int numObjects, int numDimensions) {
+	Random random = new Random(2011);
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, (i % 3) * 10.0 + random.nextGaussian());
+	return dataset;
+    }
+
+    private void corrupt(long offset) throws IOException {
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+	try {
+	    ByteBuffer buffer = ByteBuffer.allocate(1);
+	    channel.read(buffer, offset);
+	    buffer.put(0, (byte) (buffer.get(0) ^ 1));
+	    buffer.rewind();
+	    channel.write(buffer, offset);
+	} finally {
+	    channel.close();
+	}
+    }
+
+    public void testRoundTrip() throws IOException {
+	DenseDataset expected = createDataset(300, 5);
+	new BinaryWriter().write(file, new KFuzzyInput(expected, 3));
+	assertEquals(BinaryHeader.SIZE + 300 * 5 * 8, file.length());
+
+	KFuzzyInput input = new BinaryReader(true).read(file);
+	assertEquals(300, input.getNumObjects());
+	assertEquals(5, input.getNumDimensions());
+	assertEquals(3, input.getNumClusters());
+	Dataset actual = input.getDataset();
+	assertTrue(actual instanceof MappedDataset);
+	for (int i = 0; i < 300; ++i)
+	    for (int j = 0; j < 5; ++j)
+		assertEquals(expected.get(i, j), actual.get(i, j), 0.0);
+	double[] row = new double[5];
+	expected.copyRow(17, row, 0);
+	checkVector(row, input.getVectors()[17]);
+    }
+
+    private void checkReducedPrecision(Precision precision, double tolerance) throws IOException {
+	DenseDataset expected = createDataset(300, 5);
+	new BinaryWriter(precision).write(file, new KFuzzyInput(expected, 3));
+
+	KFuzzyInput input = new BinaryReader(true).read(file);
+	assertEquals(3, input.getNumClusters());
+	Dataset actual = input.getDataset();
+	assertEquals(precision, actual.getPrecision());
+	for (int i = 0; i < 300; ++i)
+	    for (int j = 0; j < 5; ++j)
+		assertEquals(expected.get(i, j), actual.get(i, j), tolerance);
+
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    BinaryHeader header = BinaryReader.readHeader(channel);
+	    assertEquals(header.payloadOffset + 300 * 5 * precision.size, file.length());
+	} finally {
+	    channel.close();
+	}
+
+	// checksum covers the table of scales as well as the payload
+	corrupt(BinaryHeader.SIZE + 3);
+	new BinaryReader().read(file);
+	try {
+	    new BinaryReader(true).read(file);
+	    fail("checksum mismatch must be detected");
+	} catch (IOException e) {
+	}
+    }
+
+    public void testReducedPrecision() throws IOException {
+	checkReducedPrecision(Precision.FLOAT32, 1e-5);
+	checkReducedPrecision(Precision.INT16, 1e-3);
+    }
+
+    public void testEmpty() throws IOException {
+	new BinaryWriter().write(file, new KFuzzyInput(new DenseDataset(0, 4), 2));
+	KFuzzyInput input = new BinaryReader(true).read(file);
+	assertEquals(0, input.getNumObjects());
+	assertEquals(4, input.getNumDimensions());
+	assertEquals(2, input.getNumClusters());
+    }
+
+    public void testChecksum() throws IOException {
+	new BinaryWriter().write(file, new KFuzzyInput(createDataset(100, 2), 3));
+	corrupt(BinaryHeader.SIZE + 123);
+
+	// checksum isn't verified by default
+	new BinaryReader().read(file);
+	try {
+	    new BinaryReader(true).read(file);
+	    fail("checksum mismatch must be detected");
+	} catch (IOException e) {
+	}
+    }
+
+    public void testMalformed() throws IOException {
+	new BinaryWriter().write(file, new KFuzzyInput(createDataset(100, 2), 3));
+	corrupt(0);
+	try {
+	    new BinaryReader().read(file);
+	    fail("wrong magic must be detected");
+	} catch (IOException e) {
+	}
+
+	new BinaryWriter().write(file, new KFuzzyInput(createDataset(100, 2), 3));
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+	try {
+	    channel.truncate(BinaryHeader.SIZE + 100);
+	} finally {
+	    channel.close();
+	}
+	try {
+	    new BinaryReader().read(file);
+	    fail("truncated payload must be detected");
+	} catch (IOException e) {
+	}
+    }
+    /**
+     * Checks that clusterization of the mapped dataset is the same as of the dense one.
+     */
+    public void testClusterize() throws IOException {
+	DenseDataset dataset = createDataset(600, 3);
+	new BinaryWriter().write(file, new KFuzzyInput(dataset, 3));
+	Dataset mapped = new BinaryReader().read(file).getDataset();
+
+	KFuzzyAlgorithm algorithm = new KFuzzyAlgorithm();
+	KFuzzyAlgorithm.Options options = new KFuzzyAlgorithm.Options(2.0, 100);
+	int[] expected = algorithm.clusterizeDetailed(dataset, 3, options).assignment;
+	int[] actual = algorithm.clusterizeDetailed(mapped, 3, options).assignment;
+	assertTrue(Arrays.equals(expected, actual));
+    }
+}
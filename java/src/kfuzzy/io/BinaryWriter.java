@@ -0,0 +1,141 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.math.Precision;
+import kfuzzy.math.QuantizedDataset;
+
+
+/**
+ * BinaryWriter writes input of the KFuzzy algorithm in the binary
+ * format described by {@link BinaryHeader} with the given precision
+ * of components. Payload is written by blocks, checksum is computed
+ * on the fly and is stored into the header after the payload.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class BinaryWriter {
+    /**
+     * Size of the block, by which payload is written
+     */
+    public final static int BLOCK_SIZE = 1 << 20;
+    /**
+     * Precision, with which components are written
+     */
+    private final Precision precision;
+    /**
+     * Constructor, components are written as doubles.
+     */
+    public BinaryWriter() {
+	this(Precision.FLOAT64);
+    }
+    /**
+     * Constructor specifying precision of components.
+     *
+     * @param precision precision of components, must not be null
+     */
+    public BinaryWriter(Precision precision) {
+	this.precision = precision;
+    }
+    /**
+     * Writes input into the file.
+     *
+     * @param file file, will be truncated
+     * @param input input of the KFuzzy algorithm
+     * @throws IOException in the case of problems with IO
+     */
+    public void write(File file, KFuzzyInput input) throws IOException {
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+					       StandardOpenOption.TRUNCATE_EXISTING);
+	try {
+	    write(channel, input.getDataset(), input.getNumClusters());
+	} finally {
+	    channel.close();
+	}
+    }
+    /**
+     * Writes dataset into the channel, starting from its beginning.
+     *
+     * @param channel channel of the file, must be writable
+     * @param dataset dataset
+     * @param numClusters number of clusters
+     * @throws IOException in the case of problems with IO
+     */
+    public void write(FileChannel channel, Dataset dataset, int numClusters) throws IOException {
+	final int numObjects = dataset.getNumObjects(), numDimensions = dataset.getNumDimensions();
+	final BinaryHeader.ElementType elementType = BinaryHeader.ElementType.valueOf(precision);
+	final int rowSize = elementType.size * numDimensions;
+
+	// scales of INT16 components depend on the whole dataset
+	QuantizedDataset quantized = null;
+	if (precision == Precision.INT16)
+	    dataset = quantized = (QuantizedDataset) precision.convert(dataset);
+	BinaryHeader header = new BinaryHeader(elementType, numObjects, numDimensions, numClusters, 0);
+
+	CRC32 crc = new CRC32();
+	ByteBuffer block = ByteBuffer.allocateDirect(Math.max(BLOCK_SIZE, Math.max(rowSize, header.payloadOffset))).order(BinaryHeader.BYTE_ORDER);
+	long position = BinaryHeader.SIZE;
+	if (quantized != null) {
+	    for (double offset : quantized.getOffsets())
+		block.putDouble(offset);
+	    for (double scale : quantized.getScales())
+		block.putDouble(scale);
+	}
+	while (block.position() < header.payloadOffset - BinaryHeader.SIZE)
+	    block.put((byte) 0);
+
+	double[] row = new double[numDimensions];
+	for (int i = 0, index = 0; i < numObjects; ++i) {
+	    if (block.remaining() < rowSize)
+		position += flush(channel, block, position, crc);
+	    switch (elementType) {
+	    case FLOAT32:
+		dataset.copyRow(i, row, 0);
+		for (int j = 0; j < numDimensions; ++j)
+		    block.putFloat((float) row[j]);
+		break;
+	    case INT16:
+		short[] data = quantized.getData();
+		for (int j = 0; j < numDimensions; ++j)
+		    block.putShort(data[index + j]);
+		break;
+	    default:
+		dataset.copyRow(i, row, 0);
+		for (int j = 0; j < numDimensions; ++j)
+		    block.putDouble(row[j]);
+	    }
+	    index += numDimensions;
+	}
+	flush(channel, block, position, crc);
+
+	ByteBuffer buffer = ByteBuffer.allocate(BinaryHeader.SIZE);
+	new BinaryHeader(elementType, numObjects, numDimensions, numClusters, crc.getValue()).write(buffer);
+	buffer.flip();
+	writeFully(channel, buffer, 0);
+    }
+    /**
+     * Writes block into the channel and clears it.
+     *
+     * @return number of written bytes
+     */
+    private static int flush(FileChannel channel, ByteBuffer block, long position, CRC32 crc) throws IOException {
+	block.flip();
+	crc.update(block.duplicate());
+	int size = block.remaining();
+	writeFully(channel, block, position);
+	block.clear();
+	return size;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+	while (buffer.hasRemaining())
+	    position += channel.write(buffer, position);
+    }
+}
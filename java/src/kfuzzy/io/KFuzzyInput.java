@@ -1,5 +1,7 @@
 package kfuzzy.io;
 
+import kfuzzy.math.Dataset;
+import kfuzzy.math.DenseDataset;
 import kfuzzy.math.Vector;
 
 
@@ -24,9 +26,13 @@ public class KFuzzyInput {
      */
     private final int numDimensions;
     /**
-     * List of vectors
+     * List of vectors, created from dataset on demand
      */
-    private final Vector[] vectors;
+    private Vector[] vectors;
+    /**
+     * Dataset, created from vectors on demand
+     */
+    private Dataset dataset;
     /**
      * Constructor specifying number of clusters and list of vectors.
      *
@@ -49,6 +55,18 @@ public class KFuzzyInput {
 
 	this.numClusters = numClusters;
     }
+    /**
+     * Constructor specifying dataset and number of clusters.
+     *
+     * @param dataset set of vectors, must not be null
+     * @param numClusters number of clusters
+     */
+    public KFuzzyInput(Dataset dataset, int numClusters) {
+	this.numObjects = dataset.getNumObjects();
+	this.numDimensions = dataset.getNumDimensions();
+	this.dataset = dataset;
+	this.numClusters = numClusters;
+    }
     /**
      * @return number of vectors
      */
@@ -68,9 +86,19 @@ public class KFuzzyInput {
 	return numDimensions;
     }
     /**
-     * @return list of vectors
+     * @return list of vectors, views of the dataset, if input was created from dataset
      */
     public Vector[] getVectors() {
+	if (vectors == null)
+	    vectors = dataset.getRows();
 	return vectors;
     }
+    /**
+     * @return dataset, a copy of vectors, if input was created from vectors
+     */
+    public Dataset getDataset() {
+	if (dataset == null)
+	    dataset = new DenseDataset(vectors);
+	return dataset;
+    }
 }
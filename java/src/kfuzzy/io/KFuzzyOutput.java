@@ -1,19 +1,37 @@
 package kfuzzy.io;
 
+import kfuzzy.algo.PackedLabels;
+import kfuzzy.algo.SparseMemberships;
+import kfuzzy.math.Vector;
+
 
 public class KFuzzyOutput {
     private final int numClusters;
     private final int numObjects;
     private final double blending;
     private final int numIterations;
-    private final int[] matching;
+    private final PackedLabels labels;
+    private final SparseMemberships memberships;
+    private final Vector[] centers;
 
     public KFuzzyOutput(int numClusters, int numObjects, int[] matching, double blending, int numIterations) {
+	this(numClusters, numObjects, PackedLabels.pack(matching, numClusters), null, blending, numIterations);
+    }
+
+    public KFuzzyOutput(int numClusters, int numObjects, PackedLabels labels, SparseMemberships memberships, double blending,
+			int numIterations) {
+	this(numClusters, numObjects, labels, memberships, blending, numIterations, null);
+    }
+
+    public KFuzzyOutput(int numClusters, int numObjects, PackedLabels labels, SparseMemberships memberships, double blending,
+			int numIterations, Vector[] centers) {
 	this.numClusters = numClusters;
 	this.numObjects = numObjects;
-	this.matching = matching;
+	this.labels = labels;
+	this.memberships = memberships;
 	this.blending = blending;
 	this.numIterations = numIterations;
+	this.centers = centers;
     }
 
     public int getNumClusters() {
@@ -25,7 +43,17 @@ public class KFuzzyOutput {
     }
 
     public int[] getMatching() {
-	return matching;
+	return labels.toArray();
+    }
+
+    public PackedLabels getLabels() {
+	return labels;
+    }
+    /**
+     * @return largest memberships of objects, or null, if they weren't computed
+     */
+    public SparseMemberships getMemberships() {
+	return memberships;
     }
 
     public double getBlending() {
@@ -35,4 +63,13 @@ public class KFuzzyOutput {
     public int getNumIterations() {
 	return numIterations;
     }
+    /**
+     * Returns final cluster centers, which may be passed to the
+     * KFuzzy algorithm as initial centers of the next clusterization.
+     *
+     * @return final cluster centers, or null, if they are unknown
+     */
+    public Vector[] getCenters() {
+	return centers;
+    }
 }
@@ -0,0 +1,23 @@
+package kfuzzy.io;
+
+import java.io.*;
+
+
+/**
+ * An interface to readers, that read KFuzzy algorithm input
+ * directly from files, for instance, by memory mapping.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0612
+ * @since 1.7
+ */
+public interface MappedReaderInterface extends ReaderInterface {
+    /**
+     * Reads from file all data necessary to KFuzzy algorithm.
+     *
+     * @param file a file
+     * @return input to KFuzzy algorithm
+     * @throws IOException in the case of problems with IO or malformed input
+     */
+    KFuzzyInput read(File file) throws IOException;
+}
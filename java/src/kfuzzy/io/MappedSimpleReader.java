@@ -0,0 +1,83 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.FloatDataset;
+import kfuzzy.math.Precision;
+
+
+/**
+ * MappedSimpleReader reads the same format as {@link SimpleReader},
+ * but memory-maps the file and parses numbers directly from the
+ * mapped memory into a preallocated {@link DenseDataset}, size of
+ * which is taken from the header. No objects are created per number
+ * or per vector. FLOAT32 datasets are parsed directly into single
+ * precision, INT16 datasets are quantized after parsing, since
+ * scales depend on ranges of all components.
+ *
+ * Streams can't be mapped, so they are read by SimpleReader.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class MappedSimpleReader implements MappedReaderInterface {
+    /**
+     * Precision of loaded datasets
+     */
+    private final Precision precision;
+    /**
+     * Constructor, datasets are loaded with double precision.
+     */
+    public MappedSimpleReader() {
+	this(Precision.FLOAT64);
+    }
+    /**
+     * Constructor specifying precision of loaded datasets.
+     *
+     * @param precision precision of loaded datasets, must not be null
+     */
+    public MappedSimpleReader(Precision precision) {
+	this.precision = precision;
+    }
+
+    public KFuzzyInput read(File file) throws IOException {
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    MappedTokenizer tokenizer = new MappedTokenizer(channel);
+
+	    int numObjects = tokenizer.nextInt(), numDimensions = tokenizer.nextInt(), numClusters = tokenizer.nextInt();
+	    if (numObjects < 0 || numDimensions < 0)
+		throw new IOException(String.format("malformed header: %d objects, %d dimensions", numObjects, numDimensions));
+
+	    try {
+		if (precision == Precision.FLOAT32) {
+		    FloatDataset dataset = new FloatDataset(numObjects, numDimensions);
+		    float[] data = dataset.getData();
+		    for (int i = 0; i < data.length; ++i)
+			data[i] = (float) tokenizer.nextDouble();
+		    return new KFuzzyInput(dataset, numClusters);
+		}
+		DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+		double[] data = dataset.getData();
+		for (int i = 0; i < data.length; ++i)
+		    data[i] = tokenizer.nextDouble();
+		return new KFuzzyInput(precision.convert(dataset), numClusters);
+	    } catch (IllegalArgumentException e) {
+		throw new IOException(e.getMessage(), e);
+	    }
+	} finally {
+	    channel.close();
+	}
+    }
+
+    public KFuzzyInput read(InputStreamReader inputStream) throws IOException {
+	KFuzzyInput input = new SimpleReader().read(inputStream);
+	if (precision == Precision.FLOAT64)
+	    return input;
+	return new KFuzzyInput(precision.convert(input.getDataset()), input.getNumClusters());
+    }
+}
@@ -0,0 +1,121 @@
+package kfuzzy.io;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.math.Precision;
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for MappedSimpleReader and MappedTokenizer classes.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0612
+ * @since 1.7
+ */
+public class MappedSimpleReaderTest extends TestingUtils {
+    private File file;
+
+    public void setUp() throws IOException {
+	file = File.createTempFile("kfuzzy", ".txt");
+    }
+
+    public void tearDown() {
+	file.delete();
+    }
+
+    private void write(String content) throws IOException {
+	Writer writer = new OutputStreamWriter(new FileOutputStream(file));
+	try {
+	    writer.write(content);
+	} finally {
+	    writer.close();
+	}
+    }
+
+    private String createInput(int numObjects, int numDimensions) {
+	Random random = new Random(2011);
+	StringBuilder builder = new StringBuilder();
+	builder.append(numObjects).append(' ').append(numDimensions).append(" 3\n");
+	for (int i = 0; i < numObjects; ++i) {
+	    for (int j = 0; j < numDimensions; ++j)
+		builder.append(random.nextGaussian() * 100.0).append(j + 1 == numDimensions ? "\r\n" : "\t ");
+	}
+	return builder.toString();
+    }
+
+    public void testSameAsSimpleReader() throws IOException {
+	String content = createInput(500, 4);
+	write(content);
+
+	KFuzzyInput expected = new SimpleReader().read(new InputStreamReader(new ByteArrayInputStream(content.getBytes())));
+	KFuzzyInput actual = new MappedSimpleReader().read(file);
+	assertEquals(expected.getNumObjects(), actual.getNumObjects());
+	assertEquals(expected.getNumDimensions(), actual.getNumDimensions());
+	assertEquals(expected.getNumClusters(), actual.getNumClusters());
+
+	Dataset dataset = actual.getDataset();
+	for (int i = 0; i < expected.getNumObjects(); ++i)
+	    for (int j = 0; j < expected.getNumDimensions(); ++j)
+		assertEquals(expected.getVectors()[i].get(j), dataset.get(i, j), 0.0);
+    }
+
+    public void testPrecision() throws IOException {
+	write(createInput(300, 3));
+	Dataset expected = new MappedSimpleReader().read(file).getDataset();
+	for (Precision precision : Precision.values()) {
+	    Dataset actual = new MappedSimpleReader(precision).read(file).getDataset();
+	    assertEquals(precision, actual.getPrecision());
+	    for (int i = 0; i < 300; ++i)
+		for (int j = 0; j < 3; ++j)
+		    assertEquals(expected.get(i, j), actual.get(i, j), 0.01);
+	}
+    }
+
+    public void testEmpty() throws IOException {
+	write("0 10 4");
+	KFuzzyInput input = new MappedSimpleReader().read(file);
+	assertEquals(0, input.getNumObjects());
+	assertEquals(10, input.getNumDimensions());
+	assertEquals(4, input.getNumClusters());
+	assertEquals(0, input.getVectors().length);
+    }
+
+    public void testMalformed() throws IOException {
+	String[] contents = new String[] { "", "2 2 1\n1.0 2.0\n3.0", "1 2 1\n1.0 x", "1.5 2 1\n1.0 2.0" };
+	for (String content : contents) {
+	    write(content);
+	    try {
+		new MappedSimpleReader().read(file);
+		fail(content);
+	    } catch (IOException e) {
+	    }
+	}
+    }
+    /**
+     * Checks that tokens crossing borders of small windows are parsed correctly.
+     */
+    public void testWindows() throws IOException {
+	String content = createInput(200, 3);
+	write(content);
+
+	StringTokenizer expected = new StringTokenizer(content);
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    MappedTokenizer tokenizer = new MappedTokenizer(channel, 64);
+	    for (int i = 0; i < 3; ++i)
+		assertEquals(Integer.parseInt(expected.nextToken()), tokenizer.nextInt());
+	    while (expected.hasMoreTokens()) {
+		assertTrue(tokenizer.hasNext());
+		assertEquals(Double.parseDouble(expected.nextToken()), tokenizer.nextDouble(), 0.0);
+	    }
+	    assertFalse(tokenizer.hasNext());
+	} finally {
+	    channel.close();
+	}
+    }
+}
@@ -0,0 +1,187 @@
+package kfuzzy.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * MappedTokenizer splits a file into whitespace separated tokens and
+ * parses them as numbers. File is memory-mapped by windows, so files
+ * larger than 2Gb are supported, and numbers are parsed directly from
+ * the mapped memory by {@link NumberParser}.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0612
+ * @since 1.7
+ */
+public class MappedTokenizer implements NumberSourceInterface {
+    /**
+     * Default size of the mapped window in bytes
+     */
+    public final static int DEFAULT_WINDOW_SIZE = 1 << 28;
+    /**
+     * Maximum length of a token in bytes
+     */
+    public final static int MAX_TOKEN_LENGTH = 1 << 10;
+    /**
+     * Channel of the file
+     */
+    private final FileChannel channel;
+    /**
+     * Size of the file in bytes
+     */
+    private final long size;
+    /**
+     * Size of the mapped window
+     */
+    private final int windowSize;
+    /**
+     * Maximum length of a token, no more than a half of the window
+     */
+    private final int maxTokenLength;
+    /**
+     * Current window
+     */
+    private MappedByteBuffer buffer;
+    /**
+     * Offset of the window in the file
+     */
+    private long base;
+    /**
+     * Current position and size of the window
+     */
+    private int position, limit;
+    /**
+     * Constructor, maps the first window of the file. Channel is not
+     * closed by the tokenizer.
+     *
+     * @param channel channel of the file, must be readable
+     * @throws IOException in the case of problems with IO
+     */
+    public MappedTokenizer(FileChannel channel) throws IOException {
+	this(channel, DEFAULT_WINDOW_SIZE);
+    }
+    /**
+     * Constructor specifying size of the window.
+     *
+     * @param channel channel of the file, must be readable
+     * @param windowSize size of the window in bytes, must be at least 2
+     * @throws IOException in the case of problems with IO
+     */
+    MappedTokenizer(FileChannel channel, int windowSize) throws IOException {
+	assert windowSize >= 2 : "windowSize: " + windowSize;
+
+	this.channel = channel;
+	this.size = channel.size();
+	this.windowSize = windowSize;
+	this.maxTokenLength = Math.min(MAX_TOKEN_LENGTH, windowSize / 2);
+	map(0);
+    }
+    /**
+     * Maps window starting from the given offset.
+     */
+    private void map(long offset) throws IOException {
+	base = offset;
+	limit = (int) Math.min(windowSize, size - offset);
+	position = 0;
+	buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+    }
+    /**
+     * Skips whitespace.
+     *
+     * @return true, if there is a token
+     */
+    private boolean skipWhitespace() throws IOException {
+	while (true) {
+	    while (position < limit) {
+		if ((buffer.get(position) & 0xFF) > ' ')
+		    return true;
+		++position;
+	    }
+	    if (base + limit >= size)
+		return false;
+	    map(base + limit);
+	}
+    }
+    /**
+     * Finds end of the token, that starts at the current position.
+     * Remaps window if the token may cross its end.
+     *
+     * @return index of the end of the token in the window, exclusive
+     */
+    private int findTokenEnd() throws IOException {
+	if (limit - position < maxTokenLength && base + limit < size)
+	    map(base + position);
+	int end = position;
+	while (end < limit && (buffer.get(end) & 0xFF) > ' ')
+	    ++end;
+	if (end - position > maxTokenLength || (end == limit && base + limit < size))
+	    throw new IOException(String.format("token at offset %d is longer than %d bytes", base + position, maxTokenLength));
+	return end;
+    }
+    /**
+     * Checks whether there are more tokens.
+     *
+     * @return true, if there is a token
+     * @throws IOException in the case of problems with IO
+     */
+    public boolean hasNext() throws IOException {
+	return skipWhitespace();
+    }
+    /**
+     * @return offset of the current position in the file
+     */
+    public long getOffset() {
+	return base + position;
+    }
+    /**
+     * Parses the next token as a long.
+     *
+     * @return value of the token
+     * @throws IOException if there are no more tokens or token is not a long
+     */
+    public long nextLong() throws IOException {
+	if (!skipWhitespace())
+	    throw new EOFException("unexpected end of file");
+	int end = findTokenEnd();
+	try {
+	    long result = NumberParser.parseLong(buffer, position, end);
+	    position = end;
+	    return result;
+	} catch (NumberFormatException e) {
+	    throw new IOException("malformed integer at offset " + getOffset(), e);
+	}
+    }
+    /**
+     * Parses the next token as an int.
+     *
+     * @return value of the token
+     * @throws IOException if there are no more tokens or token is not an int
+     */
+    public int nextInt() throws IOException {
+	long offset = getOffset(), result = nextLong();
+	if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE)
+	    throw new IOException("integer at offset " + offset + " is out of range");
+	return (int) result;
+    }
+    /**
+     * Parses the next token as a double.
+     *
+     * @return value of the token
+     * @throws IOException if there are no more tokens or token is not a double
+     */
+    public double nextDouble() throws IOException {
+	if (!skipWhitespace())
+	    throw new EOFException("unexpected end of file");
+	int end = findTokenEnd();
+	try {
+	    double result = NumberParser.parseDouble(buffer, position, end);
+	    position = end;
+	    return result;
+	} catch (NumberFormatException e) {
+	    throw new IOException("malformed number at offset " + getOffset(), e);
+	}
+    }
+}
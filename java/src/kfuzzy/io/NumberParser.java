@@ -0,0 +1,229 @@
+package kfuzzy.io;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * NumberParser parses ASCII numbers directly from a byte buffer
+ * without allocations.
+ *
+ * Decimal numbers with at most 19 significant digits and decimal
+ * exponent between -22 and 22 are parsed exactly: if the digits fit
+ * into 53 bits, number is computed by one multiplication or
+ * division of two exact doubles (Clinger's fast path), otherwise
+ * digits are multiplied or divided by a power of five in integer
+ * arithmetic and the result is rounded to the nearest double. All
+ * other numbers (more digits, large exponents, NaN, Infinity) are
+ * passed to {@link Double#parseDouble(String)}.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0612
+ * @since 1.7
+ */
+public class NumberParser {
+    /**
+     * Maximum number of significant decimal digits, that fit into an unsigned long
+     */
+    private final static int MAX_DIGITS = 19;
+    /**
+     * Maximum absolute value of the decimal exponent, for which 10^e is an exact double
+     */
+    private final static int MAX_EXACT_EXPONENT = 22;
+    /**
+     * Exact powers of ten
+     */
+    private final static double[] POWERS_OF_TEN = new double[MAX_EXACT_EXPONENT + 1];
+    /**
+     * Exact powers of five, all are less than 2^52
+     */
+    private final static long[] POWERS_OF_FIVE = new long[MAX_EXACT_EXPONENT + 1];
+
+    static {
+	POWERS_OF_TEN[0] = 1.0;
+	POWERS_OF_FIVE[0] = 1;
+	for (int i = 1; i <= MAX_EXACT_EXPONENT; ++i) {
+	    POWERS_OF_TEN[i] = 10.0 * POWERS_OF_TEN[i - 1];
+	    POWERS_OF_FIVE[i] = 5 * POWERS_OF_FIVE[i - 1];
+	}
+    }
+
+    private NumberParser() {
+    }
+
+    private static boolean isDigit(byte b) {
+	return b >= '0' && b <= '9';
+    }
+    /**
+     * Parses a decimal integer.
+     *
+     * @param buffer buffer that contains number
+     * @param from index of the first byte of number, inclusive
+     * @param to index of the last byte of number, exclusive
+     * @return value of the number
+     * @throws NumberFormatException if bytes don't represent a long
+     */
+    public static long parseLong(ByteBuffer buffer, int from, int to) {
+	int i = from;
+	boolean negative = false;
+	if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+	    negative = buffer.get(i++) == '-';
+	if (i == to)
+	    throw new NumberFormatException(toString(buffer, from, to));
+	// accumulates negative value, so Long.MIN_VALUE is parsed too
+	long result = 0;
+	for (; i < to; ++i) {
+	    byte b = buffer.get(i);
+	    if (!isDigit(b) || result < Long.MIN_VALUE / 10)
+		throw new NumberFormatException(toString(buffer, from, to));
+	    long next = result * 10 - (b - '0');
+	    if (next > result)
+		throw new NumberFormatException(toString(buffer, from, to));
+	    result = next;
+	}
+	if (!negative && result == Long.MIN_VALUE)
+	    throw new NumberFormatException(toString(buffer, from, to));
+	return negative ? result : -result;
+    }
+    /**
+     * Parses a decimal floating point number.
+     *
+     * @param buffer buffer that contains number
+     * @param from index of the first byte of number, inclusive
+     * @param to index of the last byte of number, exclusive
+     * @return value of the number, the nearest double
+     * @throws NumberFormatException if bytes don't represent a double
+     */
+    public static double parseDouble(ByteBuffer buffer, int from, int to) {
+	int i = from;
+	boolean negative = false;
+	if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+	    negative = buffer.get(i++) == '-';
+
+	// number is equal to mantissa * 10^exponent, mantissa is unsigned
+	long mantissa = 0;
+	int numDigits = 0, exponent = 0;
+	boolean anyDigits = false, truncated = false;
+	for (; i < to && isDigit(buffer.get(i)); ++i) {
+	    anyDigits = true;
+	    if (numDigits < MAX_DIGITS) {
+		mantissa = 10 * mantissa + (buffer.get(i) - '0');
+		if (mantissa != 0)
+		    ++numDigits;
+	    } else {
+		if (buffer.get(i) != '0')
+		    truncated = true;
+		++exponent;
+	    }
+	}
+	if (i < to && buffer.get(i) == '.') {
+	    for (++i; i < to && isDigit(buffer.get(i)); ++i) {
+		anyDigits = true;
+		if (numDigits < MAX_DIGITS) {
+		    mantissa = 10 * mantissa + (buffer.get(i) - '0');
+		    if (mantissa != 0)
+			++numDigits;
+		    --exponent;
+		} else if (buffer.get(i) != '0') {
+		    truncated = true;
+		}
+	    }
+	}
+	if (anyDigits && i < to && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+	    ++i;
+	    boolean negativeExponent = false;
+	    if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+		negativeExponent = buffer.get(i++) == '-';
+	    if (i == to || !isDigit(buffer.get(i)))
+		return fallback(buffer, from, to);
+	    int value = 0;
+	    for (; i < to && isDigit(buffer.get(i)); ++i)
+		if (value < 100000)
+		    value = 10 * value + (buffer.get(i) - '0');
+	    exponent += negativeExponent ? -value : value;
+	}
+	if (!anyDigits || i != to || truncated)
+	    return fallback(buffer, from, to);
+
+	if (mantissa == 0)
+	    return negative ? -0.0 : 0.0;
+	if (exponent < -MAX_EXACT_EXPONENT || exponent > MAX_EXACT_EXPONENT)
+	    return fallback(buffer, from, to);
+
+	double result;
+	if (mantissa > 0 && mantissa <= (1L << 53)) {
+	    // both operands are exact, so the result is correctly rounded
+	    if (exponent >= 0)
+		result = mantissa * POWERS_OF_TEN[exponent];
+	    else
+		result = mantissa / POWERS_OF_TEN[-exponent];
+	} else if (exponent >= 0) {
+	    // mantissa * 5^e * 2^e, product of mantissa and 5^e takes at most 116 bits
+	    long five = POWERS_OF_FIVE[exponent];
+	    long low = mantissa * five;
+	    long high = Math.multiplyHigh(mantissa, five) + ((mantissa >> 63) & five);
+	    result = round(high, low, exponent);
+	} else {
+	    // mantissa / 5^e * 2^-e, quotient is extended by bits of
+	    // the remainder, until it has at least 55 bits
+	    long five = POWERS_OF_FIVE[-exponent];
+	    long quotient = Long.divideUnsigned(mantissa, five), remainder = Long.remainderUnsigned(mantissa, five);
+	    int shift = exponent;
+	    while (Long.numberOfLeadingZeros(quotient) > 9) {
+		remainder <<= 1;
+		quotient <<= 1;
+		if (remainder >= five) {
+		    remainder -= five;
+		    quotient |= 1;
+		}
+		--shift;
+	    }
+	    result = round(quotient, remainder != 0, shift);
+	}
+	return negative ? -result : result;
+    }
+    /**
+     * Rounds 128-bit unsigned integer to the nearest double and multiplies it by 2^shift.
+     */
+    private static double round(long high, long low, int shift) {
+	if (high == 0)
+	    return round(low, false, shift);
+	int zeros = Long.numberOfLeadingZeros(high);
+	long top = zeros == 0 ? high : (high << zeros) | (low >>> (64 - zeros));
+	boolean sticky = (low << zeros) != 0;
+	return round(top, sticky, shift + 64 - zeros);
+    }
+    /**
+     * Rounds unsigned value to the nearest double, ties to even, and
+     * multiplies it by 2^shift.
+     *
+     * @param value unsigned value
+     * @param sticky true, if exact number is slightly greater than value
+     * @param shift binary exponent
+     * @return the nearest double
+     */
+    private static double round(long value, boolean sticky, int shift) {
+	int numBits = 64 - Long.numberOfLeadingZeros(value);
+	if (numBits <= 53) {
+	    assert !sticky : "inexact value must have more than 53 bits";
+	    return Math.scalb((double) value, shift);
+	}
+	int extra = numBits - 53;
+	long result = value >>> extra, rest = value & ((1L << extra) - 1), half = 1L << (extra - 1);
+	if (rest > half || (rest == half && (sticky || (result & 1) != 0)))
+	    ++result;
+	return Math.scalb((double) result, shift + extra);
+    }
+    /**
+     * Parses number by {@link Double#parseDouble(String)}.
+     */
+    private static double fallback(ByteBuffer buffer, int from, int to) {
+	return Double.parseDouble(toString(buffer, from, to));
+    }
+
+    private static String toString(ByteBuffer buffer, int from, int to) {
+	char[] chars = new char[to - from];
+	for (int i = from; i < to; ++i)
+	    chars[i - from] = (char) (buffer.get(i) & 0xFF);
+	return new String(chars);
+    }
+}
@@ -0,0 +1,90 @@
+package kfuzzy.io;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.util.*;
+import junit.framework.TestCase;
+
+
+/**
+ * Class contains several tests for NumberParser class. Results are
+ * compared with Double.parseDouble bit by bit.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0612
+ * @since 1.7
+ */
+public class NumberParserTest extends TestCase {
+    private static ByteBuffer wrap(String s) {
+	return ByteBuffer.wrap(s.getBytes());
+    }
+
+    private void checkDouble(String s) {
+	double expected = Double.parseDouble(s);
+	double actual = NumberParser.parseDouble(wrap(s), 0, s.length());
+	assertEquals(s, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+    }
+
+    public void testSimple() {
+	String[] numbers = new String[] { "0", "-0", "+0.0", "1", "-1", "1.5", ".5", "5.", "3.14159", "1e10", "1E-10", "-2.5e+3",
+					  "0.000001", "123456789012345678", "9999999999999999999", "18446744073709551615",
+					  "0.1", "0.2", "0.3", "1.7976931348623157E308", "4.9E-324", "2.2250738585072014E-308",
+					  "1e400", "1e-400", "NaN", "-Infinity", "00012.5000", "1.00000000000000000000000000",
+					  "12345678901234567890123", "0.30000000000000004", "9007199254740993", "9007199254740993e-5",
+					  "123456789012345678e22", "123456789012345678e-22" };
+	for (String number : numbers)
+	    checkDouble(number);
+    }
+
+    public void testRandom() {
+	Random random = new Random(2011);
+	for (int i = 0; i < 50000; ++i) {
+	    double value = Double.longBitsToDouble(random.nextLong());
+	    if (Double.isNaN(value))
+		continue;
+	    checkDouble(Double.toString(value));
+	    checkDouble(Double.toString(random.nextDouble() * Math.pow(10.0, random.nextInt(40) - 20)));
+	    checkDouble(String.format("%." + random.nextInt(20) + "f", 1000.0 * random.nextGaussian()));
+	    checkDouble(String.format("%." + random.nextInt(19) + "e", random.nextGaussian()));
+	}
+    }
+    /**
+     * Checks numbers close to halfway between two doubles.
+     */
+    public void testHalfway() {
+	Random random = new Random(2011);
+	for (int i = 0; i < 100000; ++i) {
+	    double value = random.nextDouble() * Math.pow(10.0, random.nextInt(20) - 10);
+	    BigDecimal halfway = new BigDecimal(value).add(new BigDecimal(Math.nextUp(value))).divide(BigDecimal.valueOf(2));
+	    String s = halfway.round(new MathContext(19)).toString();
+	    checkDouble(s);
+	}
+    }
+
+    public void testMalformed() {
+	String[] numbers = new String[] { "", "-", "e5", "1e", "1.2.3", "abc", "1-2" };
+	for (String number : numbers) {
+	    try {
+		NumberParser.parseDouble(wrap(number), 0, number.length());
+		fail(number);
+	    } catch (NumberFormatException e) {
+	    }
+	}
+    }
+
+    public void testLong() {
+	String[] numbers = new String[] { "0", "-5", "+17", "9223372036854775807", "-9223372036854775808" };
+	for (String number : numbers)
+	    assertEquals(Long.parseLong(number), NumberParser.parseLong(wrap(number), 0, number.length()));
+
+	numbers = new String[] { "", "-", "1.0", "9223372036854775808", "-9223372036854775809", "99999999999999999999" };
+	for (String number : numbers) {
+	    try {
+		NumberParser.parseLong(wrap(number), 0, number.length());
+		fail(number);
+	    } catch (NumberFormatException e) {
+	    }
+	}
+    }
+}
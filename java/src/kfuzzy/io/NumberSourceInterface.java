@@ -0,0 +1,25 @@
+package kfuzzy.io;
+
+import java.io.IOException;
+
+
+/**
+ * Interface to sources of whitespace separated numbers, such as
+ * tokenized streams or memory-mapped files.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0615
+ * @since 1.7
+ */
+interface NumberSourceInterface {
+    /**
+     * @return next number as int
+     * @throws IOException in the case of problems with IO or malformed number
+     */
+    int nextInt() throws IOException;
+    /**
+     * @return next number as double
+     * @throws IOException in the case of problems with IO or malformed number
+     */
+    double nextDouble() throws IOException;
+}
@@ -3,6 +3,9 @@ package kfuzzy.io;
 import java.io.*;
 import java.util.*;
 
+import kfuzzy.algo.SparseMemberships;
+import kfuzzy.math.Vector;
+
 /**
  * An implementation of WriterInterface.
  */
@@ -66,6 +69,30 @@ public class SimpleWriter implements WriterInterface {
 	    for (int i = 0; i < output.getNumClusters(); ++i)
 		out.printf("Cluster %d: %s\n", i, matching[i]);
 
+	    Vector[] centers = output.getCenters();
+	    if (centers != null) {
+		out.println();
+		for (int i = 0; i < centers.length; ++i) {
+		    out.printf("Center %d:", i);
+		    for (int j = 0; j < centers[i].getSize(); ++j)
+			out.printf(" %f", centers[i].get(j));
+		    out.println();
+		}
+	    }
+
+	    SparseMemberships memberships = output.getMemberships();
+	    if (memberships != null) {
+		out.println();
+		int[] offsets = memberships.getOffsets(), clusters = memberships.getClusters();
+		float[] values = memberships.getValues();
+		for (int i = 0; i < memberships.getNumObjects(); ++i) {
+		    out.printf("Object %d:", i);
+		    for (int j = offsets[i]; j < offsets[i + 1]; ++j)
+			out.printf(" %d (%f)", clusters[j], values[j]);
+		    out.println();
+		}
+	    }
+
 	    return true;
 	} catch (Exception e) {
 	    e.printStackTrace();
@@ -1,34 +1,105 @@
 package kfuzzy.io;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
-import kfuzzy.math.Vector;
+import kfuzzy.math.DenseDataset;
+import kfuzzy.math.Precision;
 import kfuzzy.utils.MathUtils;
 
 
-public class TABReader extends BasicReader implements ReaderInterface {
+/**
+ * An implementation of ReaderInterface for the TAB format: number of
+ * dimensions, number of clusters, a zero, sizes of clusters (the
+ * last one is the number of objects), value of unknown components,
+ * followed by an enumeration of vectors. Unknown components are
+ * replaced by means of known components of the same dimension.
+ *
+ * Numbers are parsed in a single pass straight into a flat {@link
+ * DenseDataset}. Positions of unknown components are marked in a
+ * bitmap and are patched after parsing, so peak memory is about one
+ * copy of the data. Files are memory-mapped, streams are tokenized.
+ * Datasets of reduced precisions are converted from the parsed
+ * dataset, since unknown components depend on all objects.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.6
+ */
+public class TABReader extends BasicReader implements MappedReaderInterface {
+    /**
+     * Precision of loaded datasets
+     */
+    private final Precision precision;
+    /**
+     * Constructor, datasets are loaded with double precision.
+     */
+    public TABReader() {
+	this(Precision.FLOAT64);
+    }
+    /**
+     * Constructor specifying precision of loaded datasets.
+     *
+     * @param precision precision of loaded datasets, must not be null
+     */
+    public TABReader(Precision precision) {
+	this.precision = precision;
+    }
+
     public KFuzzyInput read(InputStreamReader inputStream) throws IOException {
-	try {
-	    initialize(inputStream);
+	initialize(inputStream);
+	return read(new NumberSourceInterface() {
+		public int nextInt() throws IOException {
+		    return TABReader.this.nextInt();
+		}
+
+		public double nextDouble() throws IOException {
+		    return TABReader.this.nextDouble();
+		}
+	    });
+    }
 
-	    int numDimensions = nextInt(), numClusters = nextInt(), fakeZero = nextInt();
+    public KFuzzyInput read(File file) throws IOException {
+	FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	try {
+	    return read(new MappedTokenizer(channel));
+	} finally {
+	    channel.close();
+	}
+    }
+    /**
+     * Reads input from the source of numbers.
+     *
+     * @param source source of numbers
+     * @return input to KFuzzy algorithm, or null, if input is malformed
+     * @throws IOException in the case of problems with IO
+     */
+    private KFuzzyInput read(NumberSourceInterface source) throws IOException {
+	try {
+	    int numDimensions = source.nextInt(), numClusters = source.nextInt(), fakeZero = source.nextInt();
 
 	    int numObjects = 0;
 	    for (int i = 0; i < numClusters; ++i)
-		numObjects = nextInt();
+		numObjects = source.nextInt();
 
-	    double unknownValue = nextDouble();
+	    double unknownValue = source.nextDouble();
 
-	    double[][] values = new double[numObjects][numDimensions];
+	    DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	    double[] data = dataset.getData();
+	    BitSet unknown = new BitSet();
 	    int[] totalKnown = new int[numDimensions];
 	    double[] sumComponents = new double[numDimensions];
 
-	    for (int i = 0; i < numObjects; ++i) {
-		for (int j = 0; j < numDimensions; ++j) {
-		    values[i][j] = nextDouble();
-		    if (!MathUtils.EQ(values[i][j], unknownValue)) {
-			sumComponents[j] += values[i][j];
+	    for (int i = 0, index = 0; i < numObjects; ++i) {
+		for (int j = 0; j < numDimensions; ++j, ++index) {
+		    double value = source.nextDouble();
+		    if (MathUtils.EQ(value, unknownValue)) {
+			unknown.set(index);
+		    } else {
+			data[index] = value;
+			sumComponents[j] += value;
 			++totalKnown[j];
 		    }
 		}
@@ -40,16 +111,10 @@ public class TABReader extends BasicReader implements ReaderInterface {
 		}
 	    }
 
-	    Vector[] vectors = new Vector[numObjects];
-
-	    for (int i = 0; i < numObjects; ++i) {
-		for (int j = 0; j < numDimensions; ++j)
-		    if (MathUtils.EQ(values[i][j], unknownValue))
-			values[i][j] = sumComponents[j];
-		vectors[i] = new Vector(values[i]);
-	    }
+	    for (int index = unknown.nextSetBit(0); index >= 0; index = unknown.nextSetBit(index + 1))
+		data[index] = sumComponents[index % numDimensions];
 
-	    return new KFuzzyInput(numObjects, numDimensions, vectors, numClusters);
+	    return new KFuzzyInput(precision.convert(dataset), numClusters);
 	} catch (IOException e) {
 	    throw e;
 	} catch (Exception e) {
@@ -0,0 +1,64 @@
+package kfuzzy.io;
+
+import java.io.*;
+
+import kfuzzy.math.Dataset;
+import kfuzzy.utils.MathUtils;
+import kfuzzy.utils.TestingUtils;
+
+
+/**
+ * Class contains several tests for TABReader class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0615
+ * @since 1.7
+ */
+public class TABReaderTest extends TestingUtils {
+    /**
+     * Three objects with two dimensions, two clusters, unknown value is -1
+     */
+    private final static String INPUT =
+	"2\t2\t0\n" +
+	"1\t3\n" +
+	"-1\n" +
+	"1.0\t-1\n" +
+	"3.0\t4.0\n" +
+	"-1\t8.0\n";
+
+    private void checkInput(KFuzzyInput input) {
+	assertNotNull(input);
+	assertEquals(3, input.getNumObjects());
+	assertEquals(2, input.getNumDimensions());
+	assertEquals(2, input.getNumClusters());
+
+	Dataset dataset = input.getDataset();
+	double[][] expected = new double[][] { { 1.0, 6.0 }, { 3.0, 4.0 }, { 2.0, 8.0 } };
+	for (int i = 0; i < 3; ++i)
+	    for (int j = 0; j < 2; ++j)
+		assertEquals(expected[i][j], dataset.get(i, j), MathUtils.EPSILON);
+    }
+
+    public void testStream() throws IOException {
+	checkInput(new TABReader().read(new InputStreamReader(new ByteArrayInputStream(INPUT.getBytes()))));
+    }
+
+    public void testFile() throws IOException {
+	File file = File.createTempFile("kfuzzy", ".tab");
+	try {
+	    Writer writer = new OutputStreamWriter(new FileOutputStream(file));
+	    try {
+		writer.write(INPUT);
+	    } finally {
+		writer.close();
+	    }
+	    checkInput(new TABReader().read(file));
+	} finally {
+	    file.delete();
+	}
+    }
+
+    public void testMalformed() throws IOException {
+	assertNull(new TABReader().read(new InputStreamReader(new ByteArrayInputStream("2 2 0\n1 3\n-1\n1.0 2.0\n".getBytes()))));
+    }
+}
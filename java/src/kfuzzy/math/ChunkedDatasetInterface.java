@@ -0,0 +1,34 @@
+package kfuzzy.math;
+
+import java.io.IOException;
+
+
+/**
+ * Interface to datasets, that are processed by chunks of
+ * consecutive objects, for instance, datasets stored in files and
+ * larger than the heap.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0616
+ * @since 1.7
+ */
+public interface ChunkedDatasetInterface {
+    /**
+     * @return number of objects
+     */
+    int getNumObjects();
+    /**
+     * @return number of dimensions
+     */
+    int getNumDimensions();
+    /**
+     * Returns a chunk of consecutive objects. Returned dataset may be
+     * reused by the next call, so it's valid only until the next call.
+     *
+     * @param from index of the first object of the chunk
+     * @param size number of objects in the chunk, must be positive
+     * @return dataset, ith object of which is (from + i)th object
+     * @throws IOException in the case of problems with IO
+     */
+    Dataset getChunk(int from, int size) throws IOException;
+}
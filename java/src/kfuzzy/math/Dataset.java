@@ -0,0 +1,131 @@
+package kfuzzy.math;
+
+
+/**
+ * Dataset represents a set of vectors with an equal number of
+ * dimensions. Unlike an array of {@link Vector}, dataset doesn't
+ * require an object per vector, so algorithms can process it
+ * without allocations. Objects are accessed by index, points, with
+ * which objects are compared, are stored as parts of plain arrays.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0514
+ * @since 1.6
+ */
+public abstract class Dataset {
+    /**
+     * Number of objects in the dataset
+     */
+    protected final int numObjects;
+    /**
+     * Number of dimensions of each object
+     */
+    protected final int numDimensions;
+    /**
+     * Class constructor specifying size of the dataset.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     */
+    protected Dataset(int numObjects, int numDimensions) {
+	assert numObjects >= 0 : "numObjects: " + numObjects;
+	assert numDimensions >= 0 : "numDimensions: " + numDimensions;
+
+	this.numObjects = numObjects;
+	this.numDimensions = numDimensions;
+    }
+    /**
+     * @return number of objects
+     */
+    public int getNumObjects() {
+	return numObjects;
+    }
+    /**
+     * @return number of dimensions
+     */
+    public int getNumDimensions() {
+	return numDimensions;
+    }
+    /**
+     * Returns precision, with which components are stored.
+     *
+     * @return storage precision, FLOAT64 by default
+     */
+    public Precision getPrecision() {
+	return Precision.FLOAT64;
+    }
+    /**
+     * Returns component of the object.
+     *
+     * @param object index of the object
+     * @param dimension index of the component
+     * @return value of the component
+     */
+    public abstract double get(int object, int dimension);
+    /**
+     * Returns an object as vector. Depending on implementation,
+     * vector is a view of the dataset or a copy of the object.
+     *
+     * @param object index of the object
+     * @return object as vector
+     */
+    public abstract Vector getRow(int object);
+    /**
+     * Returns all objects as vectors.
+     *
+     * @return an array of vectors, ith vector corresponds to ith object
+     * @see #getRow(int)
+     */
+    public Vector[] getRows() {
+	Vector[] rows = new Vector[numObjects];
+	for (int i = 0; i < numObjects; ++i)
+	    rows[i] = getRow(i);
+	return rows;
+    }
+    /**
+     * Returns objects, among which initial cluster centers are
+     * chosen. If dataset contains more than maxSize objects, maxSize
+     * objects evenly spread over the dataset are returned, so that
+     * seeding doesn't create a vector per object.
+     *
+     * @param maxSize maximum number of returned objects, must be positive
+     * @return an array of objects
+     */
+    public Vector[] getSeedingRows(int maxSize) {
+	assert maxSize > 0 : "maxSize: " + maxSize;
+
+	if (numObjects <= maxSize)
+	    return getRows();
+	Vector[] rows = new Vector[maxSize];
+	for (int i = 0; i < maxSize; ++i)
+	    rows[i] = getRow((int) ((long) numObjects * i / maxSize));
+	return rows;
+    }
+    /**
+     * Copies components of the object into array.
+     *
+     * @param object index of the object
+     * @param target array, to which components are copied
+     * @param offset index in the target array, from which components are copied
+     */
+    public abstract void copyRow(int object, double[] target, int offset);
+    /**
+     * Returns squared euclidean distance between object and point.
+     *
+     * @param object index of the object
+     * @param point array that contains point
+     * @param offset index of the first component of the point in the array
+     * @return squared distance
+     */
+    public abstract double squaredDistance(int object, double[] point, int offset);
+    /**
+     * Adds object multiplied by weight to the point, i.e. performs
+     * point += weight * object.
+     *
+     * @param object index of the object
+     * @param weight weight of the object
+     * @param point array that contains point
+     * @param offset index of the first component of the point in the array
+     */
+    public abstract void addScaledRow(int object, double weight, double[] point, int offset);
+}
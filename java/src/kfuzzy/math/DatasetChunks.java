@@ -0,0 +1,40 @@
+package kfuzzy.math;
+
+
+/**
+ * DatasetChunks splits a dataset, that is already in memory or is
+ * memory-mapped, into chunks. Chunks are views, nothing is copied,
+ * the chunk of all objects is the dataset itself.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0616
+ * @since 1.7
+ */
+public class DatasetChunks implements ChunkedDatasetInterface {
+    /**
+     * Underlying dataset
+     */
+    private final Dataset dataset;
+    /**
+     * Constructor specifying dataset.
+     *
+     * @param dataset dataset, must not be null
+     */
+    public DatasetChunks(Dataset dataset) {
+	this.dataset = dataset;
+    }
+
+    public int getNumObjects() {
+	return dataset.getNumObjects();
+    }
+
+    public int getNumDimensions() {
+	return dataset.getNumDimensions();
+    }
+
+    public Dataset getChunk(int from, int size) {
+	if (from == 0 && size == dataset.getNumObjects())
+	    return dataset;
+	return new SubDataset(dataset, from, size);
+    }
+}
@@ -0,0 +1,127 @@
+package kfuzzy.math;
+
+
+/**
+ * DenseDataset stores all objects in one row-major array, i.e. jth
+ * component of ith object is stored at i * numDimensions + j
+ * position.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0514
+ * @since 1.6
+ */
+public class DenseDataset extends Dataset {
+    /**
+     * Implementation of numeric loops
+     */
+    private final static KernelInterface KERNEL = Kernels.get();
+    /**
+     * Components of all objects, row by row
+     */
+    private final double[] data;
+    /**
+     * Class constructor specifying size of the dataset. All
+     * components will be equal to {@link Vector#ZERO}.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     */
+    public DenseDataset(int numObjects, int numDimensions) {
+	this(numObjects, numDimensions, new double[checkedSize(numObjects, numDimensions)]);
+    }
+    /**
+     * Class constructor, wraps an array. Array is not copied.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     * @param data row-major components, must have exactly numObjects * numDimensions elements
+     */
+    public DenseDataset(int numObjects, int numDimensions, double[] data) {
+	super(numObjects, numDimensions);
+
+	assert data != null : "data must not be null";
+	assert (long) numObjects * numDimensions == data.length :
+	String.format("numObjects: %d, numDimensions: %d, data length: %d", numObjects, numDimensions, data.length);
+
+	this.data = data;
+    }
+    /**
+     * Class constructor, copies vectors into dataset.
+     *
+     * @param vectors an array of vectors, must not be null, all
+     * vectors must have an equal size and not be null
+     */
+    public DenseDataset(Vector[] vectors) {
+	this(vectors.length, vectors.length == 0 ? 0 : vectors[0].getSize());
+
+	for (int i = 0; i < numObjects; ++i) {
+	    assert vectors[i].getSize() == numDimensions :
+	    String.format("size of vector[%d] is %d, expected %d", i, vectors[i].getSize(), numDimensions);
+	    vectors[i].copyTo(data, i * numDimensions);
+	}
+    }
+    /**
+     * Checks that dataset fits into a single array.
+     *
+     * @return number of elements in the array
+     */
+    static int checkedSize(int numObjects, int numDimensions) {
+	long size = (long) numObjects * numDimensions;
+	if (size > Integer.MAX_VALUE)
+	    throw new IllegalArgumentException(String.format("dataset %d x %d is too large", numObjects, numDimensions));
+	return (int) size;
+    }
+    /**
+     * Returns backing array of the dataset.
+     *
+     * @return row-major components of all objects
+     */
+    public double[] getData() {
+	return data;
+    }
+    /**
+     * Sets component of the object.
+     *
+     * @param object index of the object
+     * @param dimension index of the component
+     * @param value new value of the component
+     */
+    public void set(int object, int dimension, double value) {
+	data[object * numDimensions + dimension] = value;
+    }
+
+    public double get(int object, int dimension) {
+	return data[object * numDimensions + dimension];
+    }
+    /**
+     * Returns a view of the object, components are not copied.
+     *
+     * @param object index of the object
+     * @return view of the object
+     */
+    public Vector getRow(int object) {
+	return new Vector(data, object * numDimensions, numDimensions);
+    }
+
+    /**
+     * Returns all objects, since rows of the dense dataset are views and are cheap.
+     *
+     * @param maxSize ignored
+     * @return all objects
+     */
+    @Override public Vector[] getSeedingRows(int maxSize) {
+	return getRows();
+    }
+
+    public void copyRow(int object, double[] target, int offset) {
+	System.arraycopy(data, object * numDimensions, target, offset, numDimensions);
+    }
+
+    public double squaredDistance(int object, double[] point, int offset) {
+	return KERNEL.squaredDistance(data, object * numDimensions, point, offset, numDimensions);
+    }
+
+    public void addScaledRow(int object, double weight, double[] point, int offset) {
+	KERNEL.axpy(weight, data, object * numDimensions, point, offset, numDimensions);
+    }
+}
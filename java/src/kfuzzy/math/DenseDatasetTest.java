@@ -0,0 +1,58 @@
+package kfuzzy.math;
+
+import kfuzzy.utils.MathUtils;
+import kfuzzy.utils.TestingUtils;
+
+/**
+ * Class contains several tests for DenseDataset class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0514
+ * @since 1.6
+ */
+public class DenseDatasetTest extends TestingUtils {
+    /**
+     * Tests construction of datasets from vectors.
+     */
+    public void testConstructor() {
+	DenseDataset dataset = new DenseDataset(new Vector[] { new Vector(1.0, 2.0), new Vector(3.0, 4.0), new Vector(5.0, 6.0) });
+	assertEquals(3, dataset.getNumObjects());
+	assertEquals(2, dataset.getNumDimensions());
+	assertEquals(6, dataset.getData().length);
+	assertEquals(4.0, dataset.get(1, 1), MathUtils.EPSILON);
+
+	dataset = new DenseDataset(new Vector[] {});
+	assertEquals(0, dataset.getNumObjects());
+	assertEquals(0, dataset.getRows().length);
+    }
+    /**
+     * Tests that rows are views of the dataset.
+     */
+    public void testRows() {
+	DenseDataset dataset = new DenseDataset(2, 3, new double[] { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0 });
+	Vector[] rows = dataset.getRows();
+	checkVector(new double[] { 1.0, 2.0, 3.0 }, rows[0]);
+	checkVector(new double[] { 4.0, 5.0, 6.0 }, rows[1]);
+	assertEquals(Math.sqrt(27.0), rows[1].sub(rows[0]).abs(), MathUtils.EPSILON);
+	assertEquals(Math.sqrt(77.0), rows[1].abs(), MathUtils.EPSILON);
+
+	dataset.set(1, 0, -4.0);
+	checkVector(new double[] { -4.0, 5.0, 6.0 }, rows[1]);
+    }
+    /**
+     * Tests distances and accumulation.
+     */
+    public void testKernels() {
+	DenseDataset dataset = new DenseDataset(2, 2, new double[] { 3.0, 4.0, -1.0, 1.0 });
+	double[] points = new double[] { 7.0, 0.0, 0.0 };
+
+	assertEquals(25.0, dataset.squaredDistance(0, points, 1), MathUtils.EPSILON);
+	assertEquals(2.0, dataset.squaredDistance(1, points, 1), MathUtils.EPSILON);
+
+	dataset.addScaledRow(0, 2.0, points, 1);
+	dataset.addScaledRow(1, 0.5, points, 1);
+	assertEquals(7.0, points[0], MathUtils.EPSILON);
+	assertEquals(5.5, points[1], MathUtils.EPSILON);
+	assertEquals(8.5, points[2], MathUtils.EPSILON);
+    }
+}
@@ -0,0 +1,109 @@
+package kfuzzy.math;
+
+
+/**
+ * FloatDataset stores all objects in one row-major array of single
+ * precision numbers, so it takes half of memory of {@link
+ * DenseDataset}. Components are widened to double, distances and
+ * sums are accumulated in double precision.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class FloatDataset extends Dataset {
+    /**
+     * Components of all objects, row by row
+     */
+    private final float[] data;
+    /**
+     * Class constructor specifying size of the dataset. All
+     * components will be equal to zero.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     */
+    public FloatDataset(int numObjects, int numDimensions) {
+	this(numObjects, numDimensions, new float[DenseDataset.checkedSize(numObjects, numDimensions)]);
+    }
+    /**
+     * Class constructor, wraps an array. Array is not copied.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     * @param data row-major components, must have exactly numObjects * numDimensions elements
+     */
+    public FloatDataset(int numObjects, int numDimensions, float[] data) {
+	super(numObjects, numDimensions);
+
+	assert data != null : "data must not be null";
+	assert (long) numObjects * numDimensions == data.length :
+	String.format("numObjects: %d, numDimensions: %d, data length: %d", numObjects, numDimensions, data.length);
+
+	this.data = data;
+    }
+    /**
+     * Class constructor, rounds components of the dataset to single precision.
+     *
+     * @param dataset dataset, must not be null
+     */
+    public FloatDataset(Dataset dataset) {
+	this(dataset.getNumObjects(), dataset.getNumDimensions());
+
+	double[] row = new double[numDimensions];
+	for (int i = 0, index = 0; i < numObjects; ++i) {
+	    dataset.copyRow(i, row, 0);
+	    for (int j = 0; j < numDimensions; ++j, ++index)
+		data[index] = (float) row[j];
+	}
+    }
+    /**
+     * Returns backing array of the dataset.
+     *
+     * @return row-major components of all objects
+     */
+    public float[] getData() {
+	return data;
+    }
+
+    @Override public Precision getPrecision() {
+	return Precision.FLOAT32;
+    }
+
+    public double get(int object, int dimension) {
+	return data[object * numDimensions + dimension];
+    }
+    /**
+     * Returns a copy of the object.
+     *
+     * @param object index of the object
+     * @return copy of the object
+     */
+    public Vector getRow(int object) {
+	double[] components = new double[numDimensions];
+	copyRow(object, components, 0);
+	return new Vector(components, 0, numDimensions);
+    }
+
+    public void copyRow(int object, double[] target, int offset) {
+	final int index = object * numDimensions;
+	for (int i = 0; i < numDimensions; ++i)
+	    target[offset + i] = data[index + i];
+    }
+
+    public double squaredDistance(int object, double[] point, int offset) {
+	final int index = object * numDimensions;
+	double result = 0.0;
+	for (int i = 0; i < numDimensions; ++i) {
+	    double t = data[index + i] - point[offset + i];
+	    result += t * t;
+	}
+	return result;
+    }
+
+    public void addScaledRow(int object, double weight, double[] point, int offset) {
+	final int index = object * numDimensions;
+	for (int i = 0; i < numDimensions; ++i)
+	    point[offset + i] += weight * data[index + i];
+    }
+}
@@ -0,0 +1,45 @@
+package kfuzzy.math;
+
+
+/**
+ * Interface to implementations of the innermost numeric loops:
+ * distances between points, accumulation of points and
+ * normalization of probabilities. Points are parts of plain arrays.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0527
+ * @since 1.6
+ */
+public interface KernelInterface {
+    /**
+     * Returns squared euclidean distance between two points.
+     *
+     * @param a array that contains first point
+     * @param aOffset index of the first component of the first point
+     * @param b array that contains second point
+     * @param bOffset index of the first component of the second point
+     * @param length number of components
+     * @return squared distance
+     */
+    double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length);
+    /**
+     * Adds point x multiplied by alpha to point y, i.e. performs y += alpha * x.
+     *
+     * @param alpha multiplier
+     * @param x array that contains x
+     * @param xOffset index of the first component of x
+     * @param y array that contains y
+     * @param yOffset index of the first component of y
+     * @param length number of components
+     */
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+    /**
+     * Divides values by their sum.
+     *
+     * @param values array of values
+     * @param offset index of the first value
+     * @param length number of values
+     * @return sum of values before normalization
+     */
+    double normalize(double[] values, int offset, int length);
+}
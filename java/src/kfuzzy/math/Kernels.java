@@ -0,0 +1,61 @@
+package kfuzzy.math;
+
+
+/**
+ * Kernels chooses an implementation of the KernelInterface. If class
+ * kfuzzy.simd.VectorKernel, built on the jdk.incubator.vector
+ * module, is available on the classpath and the module is loaded
+ * (--add-modules jdk.incubator.vector), it's used, otherwise
+ * ScalarKernel is used. Choice may be forced by the kfuzzy.kernel
+ * system property, which may be equal to "scalar" or "vector".
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0527
+ * @since 1.6
+ */
+public class Kernels {
+    /**
+     * Name of the system property, that forces choice of kernel
+     */
+    public final static String PROPERTY = "kfuzzy.kernel";
+    /**
+     * Name of the class of vectorized kernel
+     */
+    public final static String VECTOR_KERNEL = "kfuzzy.simd.VectorKernel";
+    /**
+     * Chosen kernel
+     */
+    private final static KernelInterface KERNEL = load();
+
+    private Kernels() {
+    }
+    /**
+     * Loads vectorized kernel, if it's possible.
+     *
+     * @return vectorized kernel, or scalar kernel, if vectorized kernel is not available
+     */
+    private static KernelInterface load() {
+	String choice = System.getProperty(PROPERTY, "");
+	if ("scalar".equals(choice))
+	    return new ScalarKernel();
+	try {
+	    KernelInterface kernel = (KernelInterface) Class.forName(VECTOR_KERNEL).getConstructor().newInstance();
+	    // forces linkage of the jdk.incubator.vector classes
+	    kernel.squaredDistance(new double[] { 0.0 }, 0, new double[] { 0.0 }, 0, 1);
+	    return kernel;
+	} catch (Exception e) {
+	    if ("vector".equals(choice))
+		throw new IllegalStateException("can't load " + VECTOR_KERNEL, e);
+	} catch (LinkageError e) {
+	    if ("vector".equals(choice))
+		throw new IllegalStateException("can't load " + VECTOR_KERNEL, e);
+	}
+	return new ScalarKernel();
+    }
+    /**
+     * @return chosen implementation of the KernelInterface
+     */
+    public static KernelInterface get() {
+	return KERNEL;
+    }
+}
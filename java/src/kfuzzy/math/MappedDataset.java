@@ -0,0 +1,105 @@
+package kfuzzy.math;
+
+import java.nio.DoubleBuffer;
+
+
+/**
+ * MappedDataset reads objects from double buffers, usually mapped
+ * from a file, without copying them into the heap. A single buffer
+ * can't hold more than 2^31 - 1 elements, so objects are split into
+ * segments, each segment is a buffer that contains rowsPerSegment
+ * whole objects (the last segment may contain less objects).
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0614
+ * @since 1.7
+ */
+public class MappedDataset extends Dataset {
+    /**
+     * Segments of the dataset, row-major
+     */
+    private final DoubleBuffer[] segments;
+    /**
+     * Number of objects in each segment, except, possibly, the last one
+     */
+    private final int rowsPerSegment;
+    /**
+     * Class constructor specifying segments.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     * @param segments row-major segments, ith segment contains
+     * objects from i * rowsPerSegment, all segments except the last
+     * one contain exactly rowsPerSegment objects
+     * @param rowsPerSegment number of objects per segment, must be positive
+     */
+    public MappedDataset(int numObjects, int numDimensions, DoubleBuffer[] segments, int rowsPerSegment) {
+	super(numObjects, numDimensions);
+
+	assert rowsPerSegment > 0 : "rowsPerSegment: " + rowsPerSegment;
+	assert (long) rowsPerSegment * numDimensions <= Integer.MAX_VALUE : "segment is too large";
+	assert segments.length == (numObjects + rowsPerSegment - 1) / rowsPerSegment :
+	String.format("%d segments, expected %d", segments.length, (numObjects + rowsPerSegment - 1) / rowsPerSegment);
+
+	this.segments = segments;
+	this.rowsPerSegment = rowsPerSegment;
+    }
+    /**
+     * Class constructor, wraps a single buffer.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     * @param buffer row-major components, must have exactly numObjects * numDimensions elements
+     */
+    public MappedDataset(int numObjects, int numDimensions, DoubleBuffer buffer) {
+	this(numObjects, numDimensions, numObjects == 0 ? new DoubleBuffer[] {} : new DoubleBuffer[] { buffer }, Math.max(1, numObjects));
+    }
+
+    private DoubleBuffer getSegment(int object) {
+	return segments[object / rowsPerSegment];
+    }
+
+    private int getIndex(int object) {
+	return (object % rowsPerSegment) * numDimensions;
+    }
+
+    public double get(int object, int dimension) {
+	return getSegment(object).get(getIndex(object) + dimension);
+    }
+    /**
+     * Returns a copy of the object.
+     *
+     * @param object index of the object
+     * @return copy of the object
+     */
+    public Vector getRow(int object) {
+	double[] components = new double[numDimensions];
+	copyRow(object, components, 0);
+	return new Vector(components, 0, numDimensions);
+    }
+
+    public void copyRow(int object, double[] target, int offset) {
+	DoubleBuffer segment = getSegment(object);
+	final int index = getIndex(object);
+	for (int i = 0; i < numDimensions; ++i)
+	    target[offset + i] = segment.get(index + i);
+    }
+
+    public double squaredDistance(int object, double[] point, int offset) {
+	DoubleBuffer segment = getSegment(object);
+	final int index = getIndex(object);
+	double result = 0.0;
+	for (int i = 0; i < numDimensions; ++i) {
+	    double t = segment.get(index + i) - point[offset + i];
+	    result += t * t;
+	}
+	return result;
+    }
+
+    public void addScaledRow(int object, double weight, double[] point, int offset) {
+	DoubleBuffer segment = getSegment(object);
+	final int index = getIndex(object);
+	for (int i = 0; i < numDimensions; ++i)
+	    point[offset + i] += weight * segment.get(index + i);
+    }
+}
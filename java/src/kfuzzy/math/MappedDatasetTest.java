@@ -0,0 +1,55 @@
+package kfuzzy.math;
+
+import java.nio.DoubleBuffer;
+
+import kfuzzy.utils.MathUtils;
+import kfuzzy.utils.TestingUtils;
+
+/**
+ * Class contains several tests for MappedDataset class.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0614
+ * @since 1.7
+ */
+public class MappedDatasetTest extends TestingUtils {
+    /**
+     * Tests access to objects split into several segments.
+     */
+    public void testSegments() {
+	double[] data = new double[] { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0 };
+	DoubleBuffer[] segments = new DoubleBuffer[] { DoubleBuffer.wrap(data, 0, 4).slice(), DoubleBuffer.wrap(data, 4, 4).slice(),
+						       DoubleBuffer.wrap(data, 8, 2).slice() };
+	MappedDataset dataset = new MappedDataset(5, 2, segments, 2);
+	DenseDataset expected = new DenseDataset(5, 2, data);
+
+	double[] point = new double[] { 0.5, -1.0 }, a = new double[2], b = new double[2];
+	for (int i = 0; i < 5; ++i) {
+	    for (int j = 0; j < 2; ++j)
+		assertEquals(expected.get(i, j), dataset.get(i, j), 0.0);
+	    checkVector(new double[] { data[2 * i], data[2 * i + 1] }, dataset.getRow(i));
+	    assertEquals(expected.squaredDistance(i, point, 0), dataset.squaredDistance(i, point, 0), MathUtils.EPSILON);
+	    expected.addScaledRow(i, 0.5, a, 0);
+	    dataset.addScaledRow(i, 0.5, b, 0);
+	}
+	assertEquals(a[0], b[0], MathUtils.EPSILON);
+	assertEquals(a[1], b[1], MathUtils.EPSILON);
+    }
+    /**
+     * Tests that seeding rows are evenly spread over the dataset.
+     */
+    public void testSeedingRows() {
+	double[] data = new double[10];
+	for (int i = 0; i < data.length; ++i)
+	    data[i] = i;
+	MappedDataset dataset = new MappedDataset(10, 1, DoubleBuffer.wrap(data));
+	assertEquals(10, dataset.getSeedingRows(20).length);
+
+	Vector[] rows = dataset.getSeedingRows(4);
+	assertEquals(4, rows.length);
+	checkVector(new double[] { 0.0 }, rows[0]);
+	checkVector(new double[] { 2.0 }, rows[1]);
+	checkVector(new double[] { 5.0 }, rows[2]);
+	checkVector(new double[] { 7.0 }, rows[3]);
+    }
+}
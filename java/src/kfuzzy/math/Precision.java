@@ -0,0 +1,61 @@
+package kfuzzy.math;
+
+
+/**
+ * Precisions, with which components of datasets are stored. Reduced
+ * precisions save memory and memory bandwidth, components are
+ * decoded on the fly and all computations are performed in double
+ * precision.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public enum Precision {
+    /**
+     * IEEE 754 double precision numbers, 8 bytes per component
+     */
+    FLOAT64(8),
+    /**
+     * IEEE 754 single precision numbers, 4 bytes per component
+     *
+     * @see FloatDataset
+     */
+    FLOAT32(4),
+    /**
+     * 16-bit integers with per-dimension offset and scale, 2 bytes per component
+     *
+     * @see QuantizedDataset
+     */
+    INT16(2);
+
+    /**
+     * Size of a component in bytes
+     */
+    public final int size;
+
+    private Precision(int size) {
+	this.size = size;
+    }
+    /**
+     * Converts dataset to this precision.
+     *
+     * @param dataset dataset, must not be null
+     * @return dataset, if it's already stored with this precision, otherwise a copy of the dataset
+     */
+    public Dataset convert(Dataset dataset) {
+	if (dataset.getPrecision() == this)
+	    return dataset;
+	switch (this) {
+	case FLOAT32:
+	    return new FloatDataset(dataset);
+	case INT16:
+	    return QuantizedDataset.quantize(dataset);
+	default:
+	    DenseDataset result = new DenseDataset(dataset.getNumObjects(), dataset.getNumDimensions());
+	    for (int i = 0; i < dataset.getNumObjects(); ++i)
+		dataset.copyRow(i, result.getData(), i * dataset.getNumDimensions());
+	    return result;
+	}
+    }
+}
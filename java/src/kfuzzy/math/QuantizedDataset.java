@@ -0,0 +1,171 @@
+package kfuzzy.math;
+
+import java.util.Arrays;
+
+
+/**
+ * QuantizedDataset stores components as 16-bit integers, so it
+ * takes a quarter of memory of {@link DenseDataset}. jth component
+ * of an object is decoded as offsets[j] + scales[j] * q, where q is
+ * the stored integer. Components are decoded on the fly, distances
+ * and sums are accumulated in double precision.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class QuantizedDataset extends Dataset {
+    /**
+     * Number of distinct values of a quantized component
+     */
+    public final static int NUM_LEVELS = 1 << 16;
+    /**
+     * Quantized components of all objects, row by row
+     */
+    private final short[] data;
+    /**
+     * Per-dimension offsets, i.e. values of zero
+     */
+    private final double[] offsets;
+    /**
+     * Per-dimension scales, i.e. distances between adjacent values
+     */
+    private final double[] scales;
+    /**
+     * Class constructor, wraps arrays. Arrays are not copied.
+     *
+     * @param numObjects number of objects, must be non-negative
+     * @param numDimensions number of dimensions, must be non-negative
+     * @param data row-major quantized components, must have exactly numObjects * numDimensions elements
+     * @param offsets per-dimension offsets, must have numDimensions elements
+     * @param scales per-dimension scales, must have numDimensions elements
+     */
+    public QuantizedDataset(int numObjects, int numDimensions, short[] data, double[] offsets, double[] scales) {
+	super(numObjects, numDimensions);
+
+	assert data != null && offsets != null && scales != null : "arrays must not be null";
+	assert (long) numObjects * numDimensions == data.length :
+	String.format("numObjects: %d, numDimensions: %d, data length: %d", numObjects, numDimensions, data.length);
+	assert offsets.length == numDimensions && scales.length == numDimensions :
+	String.format("numDimensions: %d, offsets: %d, scales: %d", numDimensions, offsets.length, scales.length);
+
+	this.data = data;
+	this.offsets = offsets;
+	this.scales = scales;
+    }
+    /**
+     * Quantizes dataset. Range of each dimension is split into
+     * NUM_LEVELS - 1 equal intervals, so absolute error of a
+     * component is at most half of the scale of its dimension.
+     *
+     * @param dataset dataset, all components must be finite
+     * @return quantized dataset
+     */
+    public static QuantizedDataset quantize(Dataset dataset) {
+	final int numObjects = dataset.getNumObjects(), numDimensions = dataset.getNumDimensions();
+
+	double[] min = new double[numDimensions], max = new double[numDimensions], row = new double[numDimensions];
+	Arrays.fill(min, Double.POSITIVE_INFINITY);
+	Arrays.fill(max, Double.NEGATIVE_INFINITY);
+	for (int i = 0; i < numObjects; ++i) {
+	    dataset.copyRow(i, row, 0);
+	    for (int j = 0; j < numDimensions; ++j) {
+		min[j] = Math.min(min[j], row[j]);
+		max[j] = Math.max(max[j], row[j]);
+	    }
+	}
+
+	double[] offsets = new double[numDimensions], scales = new double[numDimensions];
+	for (int j = 0; j < numDimensions; ++j) {
+	    if (numObjects == 0 || max[j] == min[j]) {
+		offsets[j] = numObjects == 0 ? 0.0 : min[j];
+		continue;
+	    }
+	    scales[j] = (max[j] - min[j]) / (NUM_LEVELS - 1);
+	    offsets[j] = min[j] + scales[j] * (NUM_LEVELS / 2);
+	}
+
+	short[] data = new short[DenseDataset.checkedSize(numObjects, numDimensions)];
+	for (int i = 0, index = 0; i < numObjects; ++i) {
+	    dataset.copyRow(i, row, 0);
+	    for (int j = 0; j < numDimensions; ++j, ++index)
+		data[index] = encode(row[j], offsets[j], scales[j]);
+	}
+	return new QuantizedDataset(numObjects, numDimensions, data, offsets, scales);
+    }
+    /**
+     * Quantizes value.
+     *
+     * @param value value
+     * @param offset offset of the dimension
+     * @param scale scale of the dimension
+     * @return the nearest representable integer
+     */
+    public static short encode(double value, double offset, double scale) {
+	if (scale == 0.0)
+	    return 0;
+	long q = Math.round((value - offset) / scale);
+	return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, q));
+    }
+    /**
+     * Returns backing array of the dataset.
+     *
+     * @return row-major quantized components of all objects
+     */
+    public short[] getData() {
+	return data;
+    }
+    /**
+     * @return per-dimension offsets, backing array
+     */
+    public double[] getOffsets() {
+	return offsets;
+    }
+    /**
+     * @return per-dimension scales, backing array
+     */
+    public double[] getScales() {
+	return scales;
+    }
+
+    @Override public Precision getPrecision() {
+	return Precision.INT16;
+    }
+
+    public double get(int object, int dimension) {
+	return offsets[dimension] + scales[dimension] * data[object * numDimensions + dimension];
+    }
+    /**
+     * Returns a decoded copy of the object.
+     *
+     * @param object index of the object
+     * @return copy of the object
+     */
+    public Vector getRow(int object) {
+	double[] components = new double[numDimensions];
+	copyRow(object, components, 0);
+	return new Vector(components, 0, numDimensions);
+    }
+
+    public void copyRow(int object, double[] target, int offset) {
+	final int index = object * numDimensions;
+	for (int i = 0; i < numDimensions; ++i)
+	    target[offset + i] = offsets[i] + scales[i] * data[index + i];
+    }
+
+    public double squaredDistance(int object, double[] point, int offset) {
+	final int index = object * numDimensions;
+	double result = 0.0;
+	for (int i = 0; i < numDimensions; ++i) {
+	    double t = offsets[i] + scales[i] * data[index + i] - point[offset + i];
+	    result += t * t;
+	}
+	return result;
+    }
+
+    public void addScaledRow(int object, double weight, double[] point, int offset) {
+	final int index = object * numDimensions;
+	for (int i = 0; i < numDimensions; ++i)
+	    point[offset + i] += weight * (offsets[i] + scales[i] * data[index + i]);
+    }
+}
@@ -0,0 +1,98 @@
+package kfuzzy.math;
+
+import java.util.Random;
+
+import kfuzzy.utils.MathUtils;
+import kfuzzy.utils.TestingUtils;
+
+/**
+ * Class contains several tests for FloatDataset, QuantizedDataset
+ * classes and for conversions between precisions.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0617
+ * @since 1.7
+ */
+public class QuantizedDatasetTest extends TestingUtils {
+    private DenseDataset createDataset(int numObjects, int numDimensions) {
+	Random random = new Random(2011);
+	DenseDataset dataset = new DenseDataset(numObjects, numDimensions);
+	for (int i = 0; i < numObjects; ++i)
+	    for (int j = 0; j < numDimensions; ++j)
+		dataset.set(i, j, 100.0 * j + (j + 1) * random.nextGaussian());
+	return dataset;
+    }
+    /**
+     * Checks that dataset approximates expected one and that its
+     * kernels are consistent with its components.
+     */
+    private void checkDataset(Dataset expected, Dataset actual, double[] tolerances) {
+	final int numObjects = expected.getNumObjects(), numDimensions = expected.getNumDimensions();
+	assertEquals(numObjects, actual.getNumObjects());
+	assertEquals(numDimensions, actual.getNumDimensions());
+
+	double[] point = new double[numDimensions], row = new double[numDimensions];
+	double[] expectedSum = new double[numDimensions], actualSum = new double[numDimensions];
+	for (int j = 0; j < numDimensions; ++j)
+	    point[j] = 50.0 * j;
+	for (int i = 0; i < numObjects; ++i) {
+	    actual.copyRow(i, row, 0);
+	    double squaredDistance = 0.0;
+	    for (int j = 0; j < numDimensions; ++j) {
+		assertEquals(expected.get(i, j), actual.get(i, j), tolerances[j]);
+		assertEquals(actual.get(i, j), row[j], 0.0);
+		squaredDistance += (row[j] - point[j]) * (row[j] - point[j]);
+	    }
+	    checkVector(row, actual.getRow(i));
+	    assertEquals(squaredDistance, actual.squaredDistance(i, point, 0), MathUtils.EPSILON * squaredDistance);
+	    expected.addScaledRow(i, 0.25, expectedSum, 0);
+	    actual.addScaledRow(i, 0.25, actualSum, 0);
+	}
+	for (int j = 0; j < numDimensions; ++j)
+	    assertEquals(expectedSum[j], actualSum[j], 0.25 * numObjects * tolerances[j]);
+    }
+
+    public void testFloat() {
+	DenseDataset expected = createDataset(200, 3);
+	Dataset actual = Precision.FLOAT32.convert(expected);
+	assertTrue(actual instanceof FloatDataset);
+	assertEquals(Precision.FLOAT32, actual.getPrecision());
+	checkDataset(expected, actual, new double[] { 1e-5, 1e-4, 1e-4 });
+	assertSame(actual, Precision.FLOAT32.convert(actual));
+    }
+
+    public void testQuantized() {
+	DenseDataset expected = createDataset(200, 3);
+	QuantizedDataset actual = (QuantizedDataset) Precision.INT16.convert(expected);
+	assertEquals(Precision.INT16, actual.getPrecision());
+
+	double[] tolerances = new double[3];
+	for (int j = 0; j < 3; ++j) {
+	    assertTrue(actual.getScales()[j] > 0.0);
+	    tolerances[j] = 0.5 * actual.getScales()[j] + MathUtils.EPSILON;
+	}
+	checkDataset(expected, actual, tolerances);
+	// both ends of the range are representable
+	short min = Short.MAX_VALUE, max = Short.MIN_VALUE;
+	for (short q : actual.getData()) {
+	    min = (short) Math.min(min, q);
+	    max = (short) Math.max(max, q);
+	}
+	assertEquals(Short.MIN_VALUE, min);
+	assertEquals(Short.MAX_VALUE, max);
+
+	Dataset restored = Precision.FLOAT64.convert(actual);
+	assertEquals(Precision.FLOAT64, restored.getPrecision());
+	checkDataset(actual, restored, new double[] { 0.0, 0.0, 0.0 });
+    }
+
+    public void testConstantDimension() {
+	DenseDataset expected = new DenseDataset(3, 2, new double[] { 1.0, 7.0, 2.0, 7.0, 3.0, 7.0 });
+	QuantizedDataset actual = QuantizedDataset.quantize(expected);
+	assertEquals(0.0, actual.getScales()[1], 0.0);
+	checkDataset(expected, actual, new double[] { 0.5 * actual.getScales()[0] + MathUtils.EPSILON, 0.0 });
+
+	actual = QuantizedDataset.quantize(new DenseDataset(0, 2));
+	assertEquals(0, actual.getNumObjects());
+    }
+}
@@ -0,0 +1,35 @@
+package kfuzzy.math;
+
+
+/**
+ * ScalarKernel is a plain implementation of the KernelInterface.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0527
+ * @since 1.6
+ */
+public class ScalarKernel implements KernelInterface {
+    public double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+	double result = 0.0;
+	for (int i = 0; i < length; ++i) {
+	    double t = a[aOffset + i] - b[bOffset + i];
+	    result += t * t;
+	}
+	return result;
+    }
+
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+	for (int i = 0; i < length; ++i)
+	    y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    public double normalize(double[] values, int offset, int length) {
+	double total = 0.0;
+	for (int i = 0; i < length; ++i)
+	    total += values[offset + i];
+	double scale = 1.0 / total;
+	for (int i = 0; i < length; ++i)
+	    values[offset + i] *= scale;
+	return total;
+    }
+}
@@ -0,0 +1,60 @@
+package kfuzzy.math;
+
+
+/**
+ * SubDataset is a view of consecutive objects of another dataset.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0616
+ * @since 1.7
+ */
+public class SubDataset extends Dataset {
+    /**
+     * Underlying dataset
+     */
+    private final Dataset dataset;
+    /**
+     * Index of the first object of the view in the underlying dataset
+     */
+    private final int offset;
+    /**
+     * Class constructor specifying range of objects.
+     *
+     * @param dataset underlying dataset, must not be null
+     * @param offset index of the first object
+     * @param numObjects number of objects, offset + numObjects must not exceed size of the dataset
+     */
+    public SubDataset(Dataset dataset, int offset, int numObjects) {
+	super(numObjects, dataset.getNumDimensions());
+
+	assert offset >= 0 && (long) offset + numObjects <= dataset.getNumObjects() :
+	String.format("offset: %d, numObjects: %d, size of dataset: %d", offset, numObjects, dataset.getNumObjects());
+
+	this.dataset = dataset;
+	this.offset = offset;
+    }
+
+    @Override public Precision getPrecision() {
+	return dataset.getPrecision();
+    }
+
+    public double get(int object, int dimension) {
+	return dataset.get(offset + object, dimension);
+    }
+
+    public Vector getRow(int object) {
+	return dataset.getRow(offset + object);
+    }
+
+    public void copyRow(int object, double[] target, int targetOffset) {
+	dataset.copyRow(offset + object, target, targetOffset);
+    }
+
+    public double squaredDistance(int object, double[] point, int pointOffset) {
+	return dataset.squaredDistance(offset + object, point, pointOffset);
+    }
+
+    public void addScaledRow(int object, double weight, double[] point, int pointOffset) {
+	dataset.addScaledRow(offset + object, weight, point, pointOffset);
+    }
+}
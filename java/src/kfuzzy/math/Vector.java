@@ -7,7 +7,9 @@ import kfuzzy.utils.MathUtils;
 
 /**
  * Class Vector represents multidimensional vector in the Eucldian space.
- * Vector is an immutible object.
+ * Vector is an immutible object. Vector may be a view of a row of a
+ * {@link DenseDataset}, in that case it shares components with
+ * dataset and is immutable as long as dataset is not modified.
  *
  * @author Yuri Gorshenin
  * @version 2011.0418
@@ -18,6 +20,10 @@ public class Vector {
      * A constant that represents a zero floating-point value.
      */
     public final static double ZERO = 0.0;
+    /**
+     * Implementation of numeric loops
+     */
+    private final static KernelInterface KERNEL = Kernels.get();
     /**
      * Number of dimensions of the current vector.
      */
@@ -26,6 +32,10 @@ public class Vector {
      * Array of components of the current vector.
      */
     private double[] components;
+    /**
+     * Index of the first component of the current vector in the {@link #components} array.
+     */
+    private int offset;
     /**
      * Class constructor specifying number of dimensions. All components of the vector will equal to {@link #ZERO}.
      * @param size number of dimensions. Must be greater or equal to zero.
@@ -35,6 +45,7 @@ public class Vector {
 
 	this.size = size;
 	this.components = new double[size];
+	this.offset = 0;
 	Arrays.fill(this.components, ZERO);
     }
     /**
@@ -46,6 +57,23 @@ public class Vector {
 
 	this.size = components.length;
 	this.components = Arrays.copyOf(components, components.length);
+	this.offset = 0;
+    }
+    /**
+     * Class constructor, creates a view of the part of the
+     * array. Components are not copied.
+     * @param components array of components. Must not be null.
+     * @param offset index of the first component of the vector in the array
+     * @param size number of dimensions
+     */
+    Vector(double[] components, int offset, int size) {
+	assert components != null : "components must not be null";
+	assert offset >= 0 && size >= 0 && offset + size <= components.length :
+	String.format("offset: %d, size: %d, length: %d", offset, size, components.length);
+
+	this.size = size;
+	this.components = components;
+	this.offset = offset;
     }
     /**
      * Returns required component of the vector.
@@ -55,7 +83,7 @@ public class Vector {
     public double get(int index) {
 	assert index >= 0 && index < getSize() : "current size: " + getSize() + ", index = " + index;
 
-	return components[index];
+	return components[offset + index];
     }
     /**
      * Returns number of components of the vector.
@@ -110,19 +138,37 @@ public class Vector {
      */
     public double abs() {
 	double largest = 0.0, result = 0;
-	for (double d : components)
-	    largest = Math.max(largest, Math.abs(d));
+	for (int i = offset; i < offset + size; ++i)
+	    largest = Math.max(largest, Math.abs(components[i]));
 
 	if (!MathUtils.EQ(ZERO, largest)) {
 	    double t;
-	    for (double d : components) {
-		t = d / largest;
+	    for (int i = offset; i < offset + size; ++i) {
+		t = components[i] / largest;
 		result += t * t;
 	    }
 	    result = largest * Math.sqrt(result);
 	}
 	return result;
     }
+    /**
+     * Returns squared euclidean distance between current vector and other vector.
+     * @param other other vector. Number of components in other vector must be equal to number of components in the current vector.
+     * @return squared distance between two vectors
+     */
+    public double squaredDistance(Vector other) {
+	assert getSize() == other.getSize() : "current size: " + getSize() + ", other size: " + other.getSize();
+
+	return KERNEL.squaredDistance(components, offset, other.components, other.offset, size);
+    }
+    /**
+     * Copies components of the vector into array.
+     * @param target array, to which components are copied
+     * @param targetOffset index in the target array, from which components are copied
+     */
+    public void copyTo(double[] target, int targetOffset) {
+	System.arraycopy(components, offset, target, targetOffset, size);
+    }
     /**
      * Checks two vectors for equality
      * @param o other vector
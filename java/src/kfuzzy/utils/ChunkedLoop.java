@@ -0,0 +1,105 @@
+package kfuzzy.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * ChunkedLoop runs a loop over chunks of a range in parallel. Results
+ * of chunks are merged pairwise along a binary tree: after chunks
+ * [from; middle) and [middle; to) are processed, result of the chunk
+ * middle is merged into result of the chunk from. Shape of the tree
+ * depends only on the number of chunks, so results don't depend on
+ * the number of threads.
+ *
+ * @author Yuri Gorshenin
+ * @version 2011.0607
+ * @since 1.7
+ */
+public class ChunkedLoop {
+    /**
+     * Body of the loop
+     *
+     * @author Yuri Gorshenin
+     * @version 2011.0607
+     * @since 1.7
+     */
+    public interface Body {
+	/**
+	 * Processes a chunk.
+	 *
+	 * @param chunk index of the chunk
+	 */
+	void process(int chunk);
+	/**
+	 * Merges result of the source chunk into result of the target chunk.
+	 *
+	 * @param target index of the target chunk
+	 * @param source index of the source chunk
+	 */
+	void merge(int target, int source);
+    }
+
+    @SuppressWarnings("serial")
+    private static class Task extends RecursiveAction {
+	private final Body body;
+	private final int from, to;
+
+	public Task(Body body, int from, int to) {
+	    this.body = body;
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override protected void compute() {
+	    if (to - from == 1) {
+		body.process(from);
+		return;
+	    }
+	    int middle = (from + to) >>> 1;
+	    invokeAll(new Task(body, from, middle), new Task(body, middle, to));
+	    body.merge(from, middle);
+	}
+    }
+
+    private ChunkedLoop() {
+    }
+    /**
+     * Returns index of the first element of the chunk, when range
+     * [0; size) is split into numChunks nearly equal chunks.
+     *
+     * @param size size of the range
+     * @param numChunks number of chunks
+     * @param chunk index of the chunk, between zero and numChunks (inclusive)
+     * @return index of the first element of the chunk, size for chunk numChunks
+     */
+    public static int getChunkBegin(int size, int numChunks, int chunk) {
+	return (int) ((long) size * chunk / numChunks);
+    }
+    /**
+     * Returns number of chunks of approximately given size.
+     *
+     * @param size size of the range
+     * @param chunkSize desired size of chunk, must be positive
+     * @return number of chunks, at least one
+     */
+    public static int getNumChunks(int size, int chunkSize) {
+	return Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+    /**
+     * Processes all chunks and merges their results into the result of the zero chunk.
+     *
+     * @param pool pool of worker threads, if null, loop is executed in the current thread
+     * @param numChunks number of chunks, must be positive
+     * @param body body of the loop
+     */
+    public static void run(ForkJoinPool pool, int numChunks, Body body) {
+	assert numChunks > 0 : "numChunks: " + numChunks;
+
+	Task task = new Task(body, 0, numChunks);
+	if (pool == null)
+	    task.invoke();
+	else
+	    pool.invoke(task);
+    }
+}